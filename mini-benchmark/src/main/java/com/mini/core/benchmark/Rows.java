@@ -0,0 +1,54 @@
+package com.mini.core.benchmark;
+
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetMetaDataImpl;
+import javax.sql.rowset.RowSetProvider;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+
+/**
+ * 基准测试使用的内存结果集，使用 JDK 自带的 CachedRowSet，不依赖数据库驱动
+ * @author xchao
+ */
+public final class Rows {
+	public static final String[] USER_LABELS = {"user_id", "user_name", "user_full_name", "user_email", "user_age",
+			"user_region_id", "user_create_time"};
+	private static final int[] USER_TYPES = {Types.BIGINT, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR,
+			Types.INTEGER, Types.BIGINT, Types.TIMESTAMP};
+	
+	private Rows() {}
+	
+	/**
+	 * 创建用户信息结果集
+	 * @param rows 行数
+	 * @return 结果集，游标在第一行之前
+	 */
+	public static CachedRowSet users(int rows) throws SQLException {
+		RowSetMetaDataImpl metaData = new RowSetMetaDataImpl();
+		metaData.setColumnCount(USER_LABELS.length);
+		for (int i = 0; i < USER_LABELS.length; i++) {
+			metaData.setColumnLabel(i + 1, USER_LABELS[i]);
+			metaData.setColumnName(i + 1, USER_LABELS[i]);
+			metaData.setColumnType(i + 1, USER_TYPES[i]);
+			metaData.setNullable(i + 1, RowSetMetaDataImpl.columnNullable);
+		}
+		CachedRowSet rs = RowSetProvider.newFactory().createCachedRowSet();
+		rs.setMetaData(metaData);
+		Timestamp now = new Timestamp(System.currentTimeMillis());
+		for (int row = 1; row <= rows; row++) {
+			rs.moveToInsertRow();
+			rs.updateLong(1, row);
+			rs.updateString(2, "name" + row);
+			rs.updateString(3, "full name " + row);
+			rs.updateString(4, "user" + row + "@mini.com");
+			rs.updateInt(5, row % 100);
+			rs.updateLong(6, row % 1000);
+			rs.updateTimestamp(7, now);
+			rs.insertRow();
+			rs.moveToCurrentRow();
+		}
+		rs.beforeFirst();
+		return rs;
+	}
+}
@@ -0,0 +1,64 @@
+package com.mini.core.benchmark;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.lang.reflect.Proxy;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * 基准测试使用的 Servlet 对象，不依赖 Servlet 容器
+ * @author xchao
+ */
+public final class Servlets {
+	private Servlets() {}
+	
+	/**
+	 * 创建丢弃所有输出的响应对象，只实现输出流和字符流，其它方法返回默认值
+	 * @return 响应对象
+	 */
+	public static HttpServletResponse response() {
+		ServletOutputStream output = new DiscardOutputStream();
+		return (HttpServletResponse) Proxy.newProxyInstance(Servlets.class.getClassLoader(),
+				new Class<?>[]{HttpServletResponse.class}, (proxy, method, args) -> {
+					switch (method.getName()) {
+						case "getOutputStream":
+							return output;
+						case "getWriter":
+							return new PrintWriter(new OutputStreamWriter(output, UTF_8));
+						case "isCommitted":
+							return false;
+						case "getStatus":
+						case "getBufferSize":
+						case "hashCode":
+							return 0;
+						case "equals":
+							return proxy == args[0];
+						default:
+							return null;
+					}
+				});
+	}
+	
+	/**
+	 * 丢弃所有数据的输出流
+	 */
+	private static final class DiscardOutputStream extends ServletOutputStream {
+		@Override
+		public void write(int b) {}
+		
+		@Override
+		public void write(byte[] b, int off, int len) {}
+		
+		@Override
+		public boolean isReady() {
+			return true;
+		}
+		
+		@Override
+		public void setWriteListener(WriteListener listener) {}
+	}
+}
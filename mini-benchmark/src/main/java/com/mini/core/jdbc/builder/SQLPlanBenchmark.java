@@ -0,0 +1,59 @@
+package com.mini.core.jdbc.builder;
+
+import com.mini.core.benchmark.UserInfo;
+import com.mini.core.jdbc.builder.SQLPlan.Kind;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单个实体生成语句和参数的耗时
+ * <ul>
+ * <li>plan：直接使用已编译语句的最终SQL，只按参数访问器取值，与 JdbcTemplate 的调用方式相同</li>
+ * <li>builder：将已编译语句的结构重放到 SQLBuilder 后再生成SQL，与代码生成的 SQLInterface 相同的路径</li>
+ * </ul>
+ * @author xchao
+ */
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SQLPlanBenchmark {
+	private final SQLInterface inter = SQLInterfaceDef.getSQLInterface(UserInfo.class);
+	private final UserInfo user = new UserInfo();
+	
+	@Param({"INSERT", "UPDATE", "DELETE"})
+	private Kind kind;
+	
+	@Setup
+	public void setup() {
+		user.setId(1L);
+		user.setName("name");
+		user.setFullName("full name");
+		user.setEmail("user@mini.com");
+		user.setAge(20);
+		user.setRegionId(10L);
+	}
+	
+	@Benchmark
+	public void plan(Blackhole bh) {
+		SQLPlan plan = SQLInterfaceDef.getPlan(UserInfo.class, kind);
+		bh.consume(plan.getSql());
+		bh.consume(plan.args(user));
+	}
+	
+	@Benchmark
+	public void builder(Blackhole bh) {
+		SQLBuilder builder = new SQLBuilder();
+		switch (kind) {
+			case INSERT: inter.createInsert(builder, user); break;
+			case UPDATE: inter.createUpdate(builder, user); break;
+			default: inter.createDelete(builder, user); break;
+		}
+		bh.consume(builder.toSQL());
+		bh.consume(builder.args());
+	}
+}
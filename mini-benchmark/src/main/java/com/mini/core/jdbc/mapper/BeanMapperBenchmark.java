@@ -0,0 +1,152 @@
+package com.mini.core.jdbc.mapper;
+
+import com.mini.core.benchmark.Rows;
+import com.mini.core.benchmark.UserInfo;
+import com.mini.core.jdbc.annotation.Column;
+import com.mini.core.jdbc.util.JdbcUtil;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.sql.rowset.CachedRowSet;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.mini.core.jdbc.util.JdbcUtil.lookupColumnName;
+
+/**
+ * BeanMapper 映射整个结果集的耗时
+ * <ul>
+ * <li>prepared：每个结果集准备一次映射计划，与 JdbcTemplate 的调用方式相同</li>
+ * <li>unprepared：每行直接调用 get，按字段名称列表从缓存中取映射计划</li>
+ * <li>manual：手写的映射代码，作为下限参考</li>
+ * <li>legacy：原来的映射方式，每行读取结果集字段信息，按字段名称查找属性后通过反射调用 Setter 方法</li>
+ * </ul>
+ * @author xchao
+ */
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BeanMapperBenchmark {
+	private final Mapper<UserInfo> mapper = BeanMapper.create(UserInfo.class);
+	private final Legacy<UserInfo> legacy = new Legacy<>(UserInfo.class);
+	private CachedRowSet rs;
+	
+	@Param({"10000", "100000", "1000000"})
+	private int rows;
+	
+	@Setup
+	public void setup() throws SQLException {
+		rs = Rows.users(rows);
+	}
+	
+	@Benchmark
+	public void prepared(Blackhole bh) throws SQLException {
+		rs.beforeFirst();
+		Mapper<UserInfo> m = mapper.prepare("SELECT * FROM user_info", rs.getMetaData());
+		for (int number = 1; rs.next(); number++) {
+			bh.consume(m.get(rs, number));
+		}
+	}
+	
+	@Benchmark
+	public void unprepared(Blackhole bh) throws SQLException {
+		rs.beforeFirst();
+		for (int number = 1; rs.next(); number++) {
+			bh.consume(mapper.get(rs, number));
+		}
+	}
+	
+	@Benchmark
+	public void manual(Blackhole bh) throws SQLException {
+		rs.beforeFirst();
+		while (rs.next()) {
+			UserInfo user = new UserInfo();
+			user.setId(rs.getLong(1));
+			user.setName(rs.getString(2));
+			user.setFullName(rs.getString(3));
+			user.setEmail(rs.getString(4));
+			user.setAge(rs.getInt(5));
+			user.setRegionId(rs.getLong(6));
+			user.setCreateTime(rs.getTimestamp(7));
+			bh.consume(user);
+		}
+	}
+	
+	@Benchmark
+	public void legacy(Blackhole bh) throws SQLException {
+		rs.beforeFirst();
+		for (int number = 1; rs.next(); number++) {
+			bh.consume(legacy.get(rs, number));
+		}
+	}
+	
+	/**
+	 * 原来的 BeanMapper：每行获取结果集字段信息和构造方法，按字段名称查找属性，
+	 * 按属性类型查找取值方法，再通过反射调用 Setter 方法
+	 */
+	private static final class Legacy<T> {
+		private static final Map<Class<?>, ResultSetCall> RES = new HashMap<>() {{
+			this.put(String.class, JdbcUtil::getString);
+			this.put(Long.class, JdbcUtil::getOLong);
+			this.put(Integer.class, JdbcUtil::getInteger);
+			this.put(Date.class, JdbcUtil::getTimestamp);
+		}};
+		private static final ResultSetCall DEF = JdbcUtil::getObject;
+		private final Map<String, Method> columns = new HashMap<>();
+		private final Map<String, Class<?>> types = new HashMap<>();
+		private final Class<T> type;
+		
+		private Legacy(Class<T> type) {
+			this.type = type;
+			try {
+				for (Field field : type.getDeclaredFields()) {
+					Column c = field.getAnnotation(Column.class);
+					if (c == null) continue;
+					String name = field.getName();
+					name = "set" + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+					columns.put(c.value(), type.getMethod(name, field.getType()));
+					types.put(c.value(), field.getType());
+				}
+			} catch (ReflectiveOperationException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+		
+		private T get(ResultSet rs, int number) throws SQLException {
+			T result;
+			try {
+				result = type.getConstructor().newInstance();
+			} catch (ReflectiveOperationException e) {
+				throw new IllegalStateException(e);
+			}
+			ResultSetMetaData metaData = rs.getMetaData();
+			for (int i = 1; i <= metaData.getColumnCount(); i++) {
+				try {
+					String name = lookupColumnName(metaData, i);
+					Method setter = columns.get(name);
+					if (setter != null) {
+						ResultSetCall res = RES.get(types.get(name));
+						res = res == null ? DEF : res;
+						setter.invoke(result, res.apply(rs, i));
+					}
+				} catch (Exception ignored) {
+				}
+			}
+			return result;
+		}
+	}
+	
+	private interface ResultSetCall {
+		Object apply(ResultSet rs, int columnIndex) throws SQLException;
+	}
+}
@@ -0,0 +1,71 @@
+package com.mini.core.security;
+
+import com.mini.core.security.crypto.HmacSHA256;
+import com.mini.core.security.crypto.KeyedMac;
+import com.mini.core.security.digest.MD5;
+import com.mini.core.security.digest.SHA256;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * 摘要和 HMAC 的耗时
+ * <ul>
+ * <li>local：静态方法使用线程复用的实例</li>
+ * <li>instance：每次创建新实例，与原来静态方法的实现相同</li>
+ * <li>keyed：预设密钥的 Mac，每次创建新 Mac 并初始化密钥作为对照</li>
+ * </ul>
+ * @author xchao
+ */
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DigestBenchmark {
+	private static final byte[] KEY = "0123456789abcdef0123456789abcdef".getBytes(UTF_8);
+	private final KeyedMac keyed = HmacSHA256.keyed(KEY);
+	private String data;
+	
+	@Param({"16", "256", "4096"})
+	private int length;
+	
+	@Setup
+	public void setup() {
+		data = RandomStringUtils.randomAlphanumeric(length);
+	}
+	
+	@Benchmark
+	public String md5Local() {
+		return MD5.encode(data, UTF_8);
+	}
+	
+	@Benchmark
+	public String md5Instance() {
+		return MD5.getInstance().update(data, UTF_8).encode();
+	}
+	
+	@Benchmark
+	public String sha256Local() {
+		return SHA256.encode(data, UTF_8);
+	}
+	
+	@Benchmark
+	public String sha256Instance() {
+		return SHA256.getInstance().update(data, UTF_8).encode();
+	}
+	
+	@Benchmark
+	public String hmacKeyed() {
+		return keyed.encode(data, UTF_8);
+	}
+	
+	@Benchmark
+	public String hmacInstance() {
+		return new HmacSHA256().init(KEY).update(data, UTF_8).encode();
+	}
+}
@@ -0,0 +1,111 @@
+package com.mini.core.util;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 多线程竞争时生成主键的吞吐量，线程数为 1、4、16、64
+ * <ul>
+ * <li>workerId：CAS 分配序列，blockSize 大于1时每个线程预留序列段</li>
+ * <li>legacy：原来的 synchronized 实现，作为对照</li>
+ * </ul>
+ * 同一毫秒内最多生成 16384 个主键，线程较多时吞吐量受这个上限限制
+ * @author xchao
+ */
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WorkerIdBenchmark {
+	private final WorkerId worker = new WorkerId(1);
+	private final Legacy legacy = new Legacy(1);
+	
+	@Param({"1", "64"})
+	private int blockSize;
+	
+	@Setup
+	public void setup() {
+		worker.setBlockSize(blockSize);
+	}
+	
+	@Benchmark
+	@Threads(1)
+	public long workerId_1() {
+		return worker.nextId();
+	}
+	
+	@Benchmark
+	@Threads(4)
+	public long workerId_4() {
+		return worker.nextId();
+	}
+	
+	@Benchmark
+	@Threads(16)
+	public long workerId_16() {
+		return worker.nextId();
+	}
+	
+	@Benchmark
+	@Threads(64)
+	public long workerId_64() {
+		return worker.nextId();
+	}
+	
+	@Benchmark
+	@Threads(1)
+	public long legacy_1() {
+		return legacy.nextId();
+	}
+	
+	@Benchmark
+	@Threads(4)
+	public long legacy_4() {
+		return legacy.nextId();
+	}
+	
+	@Benchmark
+	@Threads(16)
+	public long legacy_16() {
+		return legacy.nextId();
+	}
+	
+	@Benchmark
+	@Threads(64)
+	public long legacy_64() {
+		return legacy.nextId();
+	}
+	
+	/**
+	 * 原来的 synchronized 实现
+	 */
+	private static final class Legacy {
+		private static final long BASE_TIME = 1451606400000L;
+		private static final long MAX_SEQUENCE = ~(-1L << 14);
+		private static final long MAX_WORK = ~(-1L << 8);
+		private long lastTimestamp = -1L;
+		private long sequence = 0;
+		private final long workerId;
+		
+		private Legacy(long workerId) {
+			this.workerId = workerId;
+		}
+		
+		private synchronized long nextId() {
+			long now = System.currentTimeMillis();
+			while (sequence > MAX_SEQUENCE) {
+				now = System.currentTimeMillis();
+				if (lastTimestamp < now) {
+					sequence = 0;
+				}
+			}
+			this.lastTimestamp = now;
+			var time = (lastTimestamp - BASE_TIME) << 22;
+			var seq = (sequence++ & MAX_SEQUENCE) << 8;
+			return time | seq | (workerId & MAX_WORK);
+		}
+	}
+}
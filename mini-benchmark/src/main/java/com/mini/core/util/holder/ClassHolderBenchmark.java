@@ -0,0 +1,103 @@
+package com.mini.core.util.holder;
+
+import com.mini.core.benchmark.UserInfo;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 属性读写、创建实例和获取属性信息的耗时
+ * <ul>
+ * <li>holder：预先生成调用方法的 ClassHolder/FieldHolder</li>
+ * <li>reflect：原来的实现，Method.invoke 读写属性，每次获取构造方法创建实例</li>
+ * <li>lookup：ClassValue 缓存与原来 synchronized 方法中的 HashMap 缓存，线程数为 1 和 8</li>
+ * </ul>
+ * @author xchao
+ */
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ClassHolderBenchmark {
+	private static final Map<Class<?>, Object> LEGACY = new HashMap<>();
+	private final ClassHolder<UserInfo> holder = ClassHolder.create(UserInfo.class);
+	private final FieldHolder<UserInfo> name = holder.getField("name");
+	private final UserInfo user = new UserInfo();
+	private Method getter, setter;
+	
+	@Setup
+	public void setup() {
+		getter = name.getGetter();
+		setter = name.getSetter();
+		user.setName("xchao");
+	}
+	
+	@Benchmark
+	public Object getHolder() {
+		return name.getValue(user);
+	}
+	
+	@Benchmark
+	public Object getReflect() throws ReflectiveOperationException {
+		return getter.invoke(user);
+	}
+	
+	@Benchmark
+	public UserInfo setHolder() {
+		name.setValue(user, "xchao");
+		return user;
+	}
+	
+	@Benchmark
+	public UserInfo setReflect() throws ReflectiveOperationException {
+		setter.invoke(user, "xchao");
+		return user;
+	}
+	
+	@Benchmark
+	public UserInfo instantiateHolder() {
+		return holder.createInstance();
+	}
+	
+	@Benchmark
+	public UserInfo instantiateReflect() throws ReflectiveOperationException {
+		Constructor<UserInfo> constructor = UserInfo.class.getConstructor();
+		constructor.setAccessible(true);
+		return constructor.newInstance();
+	}
+	
+	@Benchmark
+	@Threads(1)
+	public Object lookupHolder_1() {
+		return ClassHolder.create(UserInfo.class);
+	}
+	
+	@Benchmark
+	@Threads(8)
+	public Object lookupHolder_8() {
+		return ClassHolder.create(UserInfo.class);
+	}
+	
+	@Benchmark
+	@Threads(1)
+	public Object lookupLegacy_1() {
+		return legacy(UserInfo.class);
+	}
+	
+	@Benchmark
+	@Threads(8)
+	public Object lookupLegacy_8() {
+		return legacy(UserInfo.class);
+	}
+	
+	// 原来的缓存方式：synchronized 方法中读写 HashMap
+	private static synchronized Object legacy(Class<?> type) {
+		return LEGACY.computeIfAbsent(type, ClassHolder::create);
+	}
+}
@@ -0,0 +1,202 @@
+package com.mini.core.util.reflect;
+
+import com.mini.core.web.annotation.Controller;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.lang.reflect.Modifier;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+
+/**
+ * 模拟启动时扫描控制器的耗时：5000 个公开类，每个类带一个公开的内部类，其中 100 个类带 @Controller，
+ * 分布在 50 个包中；每次调用使用新的类加载器，相当于冷启动时的类加载
+ * <ul>
+ * <li>index：类路径中有完整的索引，不读取 .class 文件</li>
+ * <li>partial：索引缺少最后 5 个包的类，这部分类读取 .class 文件头</li>
+ * <li>walk：没有索引，全部读取 .class 文件头</li>
+ * <li>legacy：原来的实现，加载并初始化每个类后判断</li>
+ * </ul>
+ * @author xchao
+ */
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ClassScannerBenchmark {
+	private static final int TYPES = 5000, PACKAGES = 50, CONTROLLERS = 50;
+	private final Map<String, Path> roots = new HashMap<>();
+	private URLClassLoader loader;
+	private Path directory;
+	
+	@Param({"path", "jar"})
+	private String layout;
+	
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		directory = Files.createTempDirectory("scanner");
+		Map<String, byte[]> files = new TreeMap<>();
+		StringBuilder index = new StringBuilder(), partial = new StringBuilder();
+		for (int i = 0; i < TYPES; i++) {
+			int pkg = i % PACKAGES;
+			String name = String.format("app.p%02d.Type%04d", pkg, i);
+			boolean controller = i % CONTROLLERS == 0;
+			files.put(name.replace('.', '/') + ".class", type(name, controller));
+			files.put(name.replace('.', '/') + "$Inner.class", type(name + "$Inner", false));
+			String entries = name + "=" + (controller ? Controller.class.getName() : "") + "\n" + name + "$Inner=\n";
+			index.append(entries);
+			if (pkg < PACKAGES - 5) partial.append(entries);
+		}
+		roots.put("index", write("index", files, index.toString()));
+		roots.put("partial", write("partial", files, partial.toString()));
+		roots.put("walk", write("walk", files, null));
+		roots.put("legacy", roots.get("walk"));
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		try (Stream<Path> paths = Files.walk(directory)) {
+			for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+				Files.delete(path);
+			}
+		}
+	}
+	
+	@TearDown(Level.Invocation)
+	public void close() throws IOException {
+		loader.close();
+	}
+	
+	@Benchmark
+	public Set<Class<?>> index() throws IOException {
+		return scanner(open("index"));
+	}
+	
+	@Benchmark
+	public Set<Class<?>> partial() throws IOException {
+		return scanner(open("partial"));
+	}
+	
+	@Benchmark
+	public Set<Class<?>> walk() throws IOException {
+		return scanner(open("walk"));
+	}
+	
+	@Benchmark
+	public Set<Class<?>> legacy() throws IOException {
+		Path root = open("legacy");
+		Set<Class<?>> set = new HashSet<>();
+		for (String name : names(root)) {
+			try {
+				Class<?> clazz = Class.forName(name, true, loader);
+				if (Modifier.isPublic(clazz.getModifiers()) && clazz.getAnnotation(Controller.class) != null) {
+					set.add(clazz);
+				}
+			} catch (Exception | Error ignored) {
+			}
+		}
+		return set;
+	}
+	
+	private Set<Class<?>> scanner(Path root) {
+		ClassScanner scanner = root.toString().endsWith(".jar") ? new ClassScannerJar(loader) : new ClassScannerPath(loader);
+		return scanner.scanner("app", Controller.class);
+	}
+	
+	// 每次调用使用新的类加载器
+	private Path open(String name) throws IOException {
+		Path root = roots.get(name);
+		loader = new URLClassLoader(new URL[]{root.toUri().toURL()}, getClass().getClassLoader());
+		return root;
+	}
+	
+	// 原来的实现遍历包下所有 .class 文件
+	private static List<String> names(Path root) throws IOException {
+		if (root.toString().endsWith(".jar")) {
+			try (JarFile jar = new JarFile(root.toFile())) {
+				return jar.stream().map(JarEntry::getName).filter(n -> n.endsWith(".class"))
+						.map(n -> n.substring(0, n.length() - 6).replace('/', '.'))
+						.collect(Collectors.toList());
+			}
+		}
+		try (Stream<Path> paths = Files.walk(root)) {
+			return paths.map(p -> root.relativize(p).toString()).filter(n -> n.endsWith(".class"))
+					.map(n -> n.substring(0, n.length() - 6).replace('/', '.'))
+					.collect(Collectors.toList());
+		}
+	}
+	
+	// 按布局写入目录或者 Jar 包，索引为空时不写索引
+	private Path write(String name, Map<String, byte[]> files, String index) throws IOException {
+		Map<String, byte[]> entries = new TreeMap<>(files);
+		if (index != null) {
+			entries.put(ClassIndex.LOCATION, index.getBytes(ISO_8859_1));
+		}
+		if ("jar".equals(layout)) {
+			Path jar = directory.resolve(name + ".jar");
+			try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar))) {
+				Set<String> directories = new TreeSet<>();
+				for (String entry : entries.keySet()) {
+					for (int i = entry.indexOf('/'); i > 0; i = entry.indexOf('/', i + 1)) {
+						directories.add(entry.substring(0, i + 1));
+					}
+				}
+				for (String entry : directories) {
+					put(out, entry, new byte[0]);
+				}
+				for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+					put(out, entry.getKey(), entry.getValue());
+				}
+			}
+			return jar;
+		}
+		Path root = directory.resolve(name);
+		for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+			Path path = root.resolve(entry.getKey());
+			Files.createDirectories(path.getParent());
+			Files.write(path, entry.getValue());
+		}
+		return root;
+	}
+	
+	private static void put(JarOutputStream out, String name, byte[] bytes) throws IOException {
+		out.putNextEntry(new JarEntry(name));
+		out.write(bytes);
+		out.closeEntry();
+	}
+	
+	// 生成带无参构造方法的公开类
+	private static byte[] type(String name, boolean controller) {
+		ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+		writer.visit(Opcodes.V11, Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER, name.replace('.', '/'), null, "java/lang/Object", null);
+		if (controller) {
+			writer.visitAnnotation(Type.getDescriptor(Controller.class), true).visitEnd();
+		}
+		MethodVisitor method = writer.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null);
+		method.visitCode();
+		method.visitVarInsn(Opcodes.ALOAD, 0);
+		method.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+		method.visitInsn(Opcodes.RETURN);
+		method.visitMaxs(0, 0);
+		method.visitEnd();
+		writer.visitEnd();
+		return writer.toByteArray();
+	}
+}
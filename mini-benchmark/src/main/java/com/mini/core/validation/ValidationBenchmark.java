@@ -0,0 +1,130 @@
+package com.mini.core.validation;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.mini.core.validation.annotation.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 验证 20 个字段的表单的耗时
+ * <ul>
+ * <li>compiled：编译后缓存的验证链</li>
+ * <li>legacy：原来的实现，每次读取注解并从 Injector 获取验证器</li>
+ * <li>compiledFailure：最后一个字段验证失败，异常不记录调用栈</li>
+ * </ul>
+ * 两种实现使用相同的验证器，正则表达式都已预编译，差别只在注解解析和验证器查找；
+ * Guice 4 在 JDK 17 上生成代码需要开放 java.lang
+ * @author xchao
+ */
+@Fork(value = 1, jvmArgsAppend = "--add-opens=java.base/java.lang=ALL-UNNAMED")
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ValidationBenchmark {
+	private final Injector injector = Guice.createInjector();
+	private final Field[] fields = Form.class.getDeclaredFields();
+	private final Object[] values = new Object[fields.length];
+	private final Object[] invalid = new Object[fields.length];
+	
+	@Setup
+	public void setup() throws ReflectiveOperationException {
+		Form form = new Form();
+		for (int i = 0; i < fields.length; i++) {
+			fields[i].setAccessible(true);
+			values[i] = fields[i].get(form);
+		}
+		System.arraycopy(values, 0, invalid, 0, values.length);
+		invalid[invalid.length - 1] = "not-a-phone";
+		// 两种实现对有效表单都验证通过
+		compiled();
+		legacy();
+	}
+	
+	@Benchmark
+	public Object[] compiled() {
+		for (int i = 0; i < fields.length; i++) {
+			ValidationUtil.validate(injector, fields[i], values[i]);
+		}
+		return values;
+	}
+	
+	@Benchmark
+	public Object[] legacy() {
+		for (int i = 0; i < fields.length; i++) {
+			for (Annotation annotation : fields[i].getAnnotations()) {
+				ValidationUtil.validate(injector, annotation, values[i]);
+			}
+		}
+		return values;
+	}
+	
+	@Benchmark
+	public ValidationException compiledFailure() {
+		try {
+			for (int i = 0; i < fields.length; i++) {
+				ValidationUtil.validate(injector, fields[i], invalid[i]);
+			}
+		} catch (ValidationException e) {
+			return e;
+		}
+		throw new IllegalStateException("Validation should fail");
+	}
+	
+	/**
+	 * 20 个字段的表单，所有字段的值都有效
+	 */
+	@SuppressWarnings("unused")
+	private static final class Form {
+		@NotBlank
+		@Length(min = 2, max = 32)
+		private String name = "xchao";
+		@Email
+		private String email = "xchao@mini.com";
+		@Mobile
+		private String mobile = "13800138000";
+		@Range(min = "0", max = "150")
+		private Integer age = 30;
+		@NotNull
+		@Min("1")
+		private Long id = 1L;
+		@Max("100")
+		private Integer score = 99;
+		@Pattern(regex = "[A-Z]{2}\\d{4}")
+		private String code = "AB1234";
+		@Letter
+		private String login = "xchao_01";
+		@com.mini.core.validation.annotation.Number
+		private String zip = "100000";
+		@Chinese
+		private String nickname = "小超";
+		@Include({"M", "F"})
+		private String gender = "M";
+		@Positive
+		private Integer balance = 10;
+		@Digits(integer = 8, fraction = 2)
+		private BigDecimal price = new BigDecimal("12.50");
+		@Past
+		private Date birthday = new Date(0);
+		@Size(min = 1, max = 10)
+		private List<String> tags = List.of("a", "b");
+		@NotEmpty
+		private List<String> roles = List.of("admin");
+		@Length(max = 200)
+		private String remark = "remark";
+		@AssertTrue
+		private Boolean agree = true;
+		@Require
+		private String username = "user_name";
+		@Phone
+		private String phone = "010-12345678";
+	}
+}
@@ -0,0 +1,313 @@
+package com.mini.core.web.argument;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.mini.core.util.holder.ClassHolder;
+import com.mini.core.util.holder.FieldHolder;
+import com.mini.core.validation.ValidationUtil;
+import com.mini.core.validation.annotation.NotBlank;
+import com.mini.core.validation.annotation.Range;
+import com.mini.core.web.annotation.Param;
+import com.mini.core.web.support.config.Configures;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Bean 参数绑定的耗时
+ * <ul>
+ * <li>plan：编译后缓存的绑定计划</li>
+ * <li>legacy：原来的实现，每次遍历 ClassHolder 字段，经 Optional 转换后使用反射设置</li>
+ * </ul>
+ * flat 为 14 个字段的平铺 Bean；nested 为带 {@link Param} 嵌套类型的 Bean，
+ * 原来的实现不绑定嵌套类型，legacyNested 只绑定外层字段
+ * @author xchao
+ */
+@Fork(value = 1, jvmArgsAppend = "--add-opens=java.base/java.lang=ALL-UNNAMED")
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BindingBenchmark {
+	private final Injector injector = Guice.createInjector();
+	private final Map<String, String[]> params = new HashMap<>();
+	private final Function<String, String[]> source = params::get;
+	private BindingPlan flatPlan, nestedPlan;
+	
+	@Setup
+	public void setup() {
+		ArgumentResolverSupport.init(new Configures());
+		params.put("id", new String[]{"10001"});
+		params.put("name", new String[]{"xchao"});
+		params.put("age", new String[]{"30"});
+		params.put("score", new String[]{"98.5"});
+		params.put("enabled", new String[]{"true"});
+		params.put("regionId", new String[]{"110000"});
+		params.put("level", new String[]{"3"});
+		params.put("email", new String[]{"xchao@mini.com"});
+		params.put("mobile", new String[]{"13800138000"});
+		params.put("birthday", new String[]{"1990-01-02"});
+		params.put("createTime", new String[]{"2020-01-02 10:11:12"});
+		params.put("tags", new String[]{"a", "b", "c"});
+		params.put("roles", new String[]{"1", "2"});
+		params.put("remark", new String[]{"remark"});
+		params.put("address.province", new String[]{"beijing"});
+		params.put("address.city", new String[]{"beijing"});
+		params.put("address.street", new String[]{"street"});
+		params.put("address.zip", new String[]{"100000"});
+		flatPlan = BindingPlan.compile(injector, Flat.class);
+		nestedPlan = BindingPlan.compile(injector, Nested.class);
+	}
+	
+	@Benchmark
+	public Object flatPlan() {
+		return flatPlan.bind(source);
+	}
+	
+	@Benchmark
+	public Object flatLegacy() {
+		return legacy(Flat.class);
+	}
+	
+	@Benchmark
+	public Object nestedPlan() {
+		return nestedPlan.bind(source);
+	}
+	
+	@Benchmark
+	public Object nestedLegacy() {
+		return legacy(Nested.class);
+	}
+	
+	// 原来 ArgumentResolverBean.getValue 中的绑定过程
+	private Object legacy(Class<?> type) {
+		var holder = ClassHolder.create(type);
+		Object result = holder.createInstance();
+		holder.fields().stream().filter(FieldHolder::hasSetter).forEach(h -> {
+			Object value = Optional.ofNullable(ArgumentResolverSupport.getBeanFunc(h.getType()))
+					.map(func -> func.apply(source.apply(h.getName())))
+					.orElse(null);
+			if (h.getField() != null) {
+				ValidationUtil.compile(injector, h.getField()).validate(value);
+			}
+			h.setValue(result, value);
+		});
+		return result;
+	}
+	
+	/**
+	 * 14 个字段的平铺 Bean
+	 */
+	public static class Flat {
+		private long id;
+		@NotBlank
+		private String name;
+		@Range(min = "0", max = "150")
+		private int age;
+		private double score;
+		private boolean enabled;
+		private Long regionId;
+		private Integer level;
+		private String email;
+		private String mobile;
+		private Date birthday;
+		private Date createTime;
+		private String[] tags;
+		private Long[] roles;
+		private String remark;
+		
+		public long getId() {
+			return id;
+		}
+		
+		public void setId(long id) {
+			this.id = id;
+		}
+		
+		public String getName() {
+			return name;
+		}
+		
+		public void setName(String name) {
+			this.name = name;
+		}
+		
+		public int getAge() {
+			return age;
+		}
+		
+		public void setAge(int age) {
+			this.age = age;
+		}
+		
+		public double getScore() {
+			return score;
+		}
+		
+		public void setScore(double score) {
+			this.score = score;
+		}
+		
+		public boolean isEnabled() {
+			return enabled;
+		}
+		
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+		
+		public Long getRegionId() {
+			return regionId;
+		}
+		
+		public void setRegionId(Long regionId) {
+			this.regionId = regionId;
+		}
+		
+		public Integer getLevel() {
+			return level;
+		}
+		
+		public void setLevel(Integer level) {
+			this.level = level;
+		}
+		
+		public String getEmail() {
+			return email;
+		}
+		
+		public void setEmail(String email) {
+			this.email = email;
+		}
+		
+		public String getMobile() {
+			return mobile;
+		}
+		
+		public void setMobile(String mobile) {
+			this.mobile = mobile;
+		}
+		
+		public Date getBirthday() {
+			return birthday;
+		}
+		
+		public void setBirthday(Date birthday) {
+			this.birthday = birthday;
+		}
+		
+		public Date getCreateTime() {
+			return createTime;
+		}
+		
+		public void setCreateTime(Date createTime) {
+			this.createTime = createTime;
+		}
+		
+		public String[] getTags() {
+			return tags;
+		}
+		
+		public void setTags(String[] tags) {
+			this.tags = tags;
+		}
+		
+		public Long[] getRoles() {
+			return roles;
+		}
+		
+		public void setRoles(Long[] roles) {
+			this.roles = roles;
+		}
+		
+		public String getRemark() {
+			return remark;
+		}
+		
+		public void setRemark(String remark) {
+			this.remark = remark;
+		}
+	}
+	
+	/**
+	 * 带嵌套地址信息的 Bean
+	 */
+	public static class Nested {
+		private long id;
+		private String name;
+		private Address address;
+		
+		public long getId() {
+			return id;
+		}
+		
+		public void setId(long id) {
+			this.id = id;
+		}
+		
+		public String getName() {
+			return name;
+		}
+		
+		public void setName(String name) {
+			this.name = name;
+		}
+		
+		public Address getAddress() {
+			return address;
+		}
+		
+		public void setAddress(Address address) {
+			this.address = address;
+		}
+	}
+	
+	/**
+	 * 嵌套的地址信息
+	 */
+	@Param
+	public static class Address {
+		private String province;
+		private String city;
+		private String street;
+		private String zip;
+		
+		public String getProvince() {
+			return province;
+		}
+		
+		public void setProvince(String province) {
+			this.province = province;
+		}
+		
+		public String getCity() {
+			return city;
+		}
+		
+		public void setCity(String city) {
+			this.city = city;
+		}
+		
+		public String getStreet() {
+			return street;
+		}
+		
+		public void setStreet(String street) {
+			this.street = street;
+		}
+		
+		public String getZip() {
+			return zip;
+		}
+		
+		public void setZip(String zip) {
+			this.zip = zip;
+		}
+	}
+}
@@ -0,0 +1,71 @@
+package com.mini.core.web.view;
+
+import com.alibaba.fastjson.JSON;
+import com.mini.core.benchmark.Servlets;
+import com.mini.core.benchmark.UserInfo;
+import org.openjdk.jmh.annotations.*;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JsonModel 输出 JSON 响应的耗时和内存分配，使用 -prof gc 查看每次响应分配的字节数
+ * <ul>
+ * <li>streaming：{@link FastJsonViewResolver} 直接写入响应流</li>
+ * <li>legacy：原来的实现，匿名 HashMap 转换为 JSON 树和字符串后写入 Writer</li>
+ * </ul>
+ * @author xchao
+ */
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JsonViewBenchmark {
+	private final JsonViewResolver resolver = new FastJsonViewResolver();
+	private final HttpServletResponse response = Servlets.response();
+	private List<UserInfo> data;
+	
+	@Param({"1", "200"})
+	private int rows;
+	
+	@Setup
+	public void setup() {
+		data = new ArrayList<>(rows);
+		Date now = new Date();
+		for (int row = 1; row <= rows; row++) {
+			UserInfo user = new UserInfo();
+			user.setId((long) row);
+			user.setName("name" + row);
+			user.setFullName("full name " + row);
+			user.setEmail("user" + row + "@mini.com");
+			user.setAge(row % 100);
+			user.setRegionId((long) (row % 1000));
+			user.setCreateTime(now);
+			data.add(user);
+		}
+	}
+	
+	@Benchmark
+	public void streaming() throws Exception {
+		resolver.generator(0, "Success", data, response);
+	}
+	
+	@Benchmark
+	public void legacy() throws Exception {
+		try (PrintWriter writer = response.getWriter()) {
+			writer.write(JSON.toJSON(new HashMap<>() {{
+				put("message", "Success");
+				put("data", data);
+				put("error", 0);
+			}}).toString());
+			writer.flush();
+		}
+	}
+}
@@ -10,13 +10,16 @@ import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 
 import javax.annotation.Nullable;
+import java.io.Serializable;
 import java.sql.Date;
+import java.sql.SQLException;
 import java.sql.Time;
 import java.sql.Timestamp;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import static java.util.Optional.ofNullable;
 
@@ -374,6 +377,171 @@ public interface MiniRepository {
         return queryListSingle(0, size, sql, type);
     }
 
+    /**
+     * 流式查询，逐行映射结果，Stream 关闭时释放结果集、Statement 和连接
+     * <p>
+     * 返回的 Stream 必须关闭（try-with-resources），每次从数据库获取的行数由 fetchSize 控制
+     *
+     * @param sql    SQL
+     * @param params 参数
+     * @param mapper 映射器
+     * @param <T>    解析器类型
+     * @return 查询结果
+     */
+    <T> Stream<T> queryStream(String sql, @Nullable Object[] params, RowMapper<T> mapper);
+
+    /**
+     * 流式查询，逐行映射结果，Stream 关闭时释放结果集、Statement 和连接
+     *
+     * @param sql    SQL
+     * @param mapper 映射器
+     * @param <T>    解析器类型
+     * @return 查询结果
+     */
+    default <T> Stream<T> queryStream(AbstractSql<?> sql, RowMapper<T> mapper) {
+        return queryStream(sql.getSql(), sql.getArgs(), mapper);
+    }
+
+    /**
+     * 流式查询，逐行映射结果，Stream 关闭时释放结果集、Statement 和连接
+     *
+     * @param sql    SQL
+     * @param params 参数
+     * @param type   类型类对象
+     * @param <T>    解析器类型
+     * @return 查询结果
+     */
+    <T> Stream<T> queryStream(String sql, @Nullable Object[] params, Class<T> type);
+
+    /**
+     * 流式查询，逐行映射结果，Stream 关闭时释放结果集、Statement 和连接
+     *
+     * @param sql  SQL
+     * @param type 类型类对象
+     * @param <T>  解析器类型
+     * @return 查询结果
+     */
+    default <T> Stream<T> queryStream(AbstractSql<?> sql, Class<T> type) {
+        return queryStream(sql.getSql(), sql.getArgs(), type);
+    }
+
+    /**
+     * 流式查询，逐行映射结果，Stream 关闭时释放结果集、Statement 和连接
+     *
+     * @param sql    SQL
+     * @param params 参数
+     * @return 查询结果
+     */
+    Stream<Map<String, Object>> queryStreamMap(String sql, @Nullable Object[] params);
+
+    /**
+     * 流式查询，逐行映射结果，Stream 关闭时释放结果集、Statement 和连接
+     *
+     * @param sql SQL
+     * @return 查询结果
+     */
+    default Stream<Map<String, Object>> queryStreamMap(AbstractSql<?> sql) {
+        return queryStreamMap(sql.getSql(), sql.getArgs());
+    }
+
+    /**
+     * 逐行查询并回调，不保存查询结果
+     *
+     * @param sql      SQL
+     * @param params   参数
+     * @param mapper   映射器
+     * @param callback 每一行数据的回调
+     * @param <T>      解析器类型
+     */
+    <T> void queryForEach(String sql, @Nullable Object[] params, RowMapper<T> mapper, RowCallback<T> callback);
+
+    /**
+     * 逐行查询并回调，不保存查询结果
+     *
+     * @param sql      SQL
+     * @param mapper   映射器
+     * @param callback 每一行数据的回调
+     * @param <T>      解析器类型
+     */
+    default <T> void queryForEach(AbstractSql<?> sql, RowMapper<T> mapper, RowCallback<T> callback) {
+        queryForEach(sql.getSql(), sql.getArgs(), mapper, callback);
+    }
+
+    /**
+     * 逐行查询并回调，不保存查询结果
+     *
+     * @param sql      SQL
+     * @param params   参数
+     * @param type     类型类对象
+     * @param callback 每一行数据的回调
+     * @param <T>      解析器类型
+     */
+    <T> void queryForEach(String sql, @Nullable Object[] params, Class<T> type, RowCallback<T> callback);
+
+    /**
+     * 逐行查询并回调，不保存查询结果
+     *
+     * @param sql      SQL
+     * @param type     类型类对象
+     * @param callback 每一行数据的回调
+     * @param <T>      解析器类型
+     */
+    default <T> void queryForEach(AbstractSql<?> sql, Class<T> type, RowCallback<T> callback) {
+        queryForEach(sql.getSql(), sql.getArgs(), type, callback);
+    }
+
+    /**
+     * 分块查询，每次返回最多 size 条数据，读取完成或者关闭游标时释放连接
+     * <p>
+     * 未读取完成时必须关闭返回的游标
+     *
+     * @param size   每块数据条数
+     * @param sql    SQL
+     * @param params 参数
+     * @param mapper 映射器
+     * @param <T>    解析器类型
+     * @return 查询游标
+     */
+    <T> Cursor<List<T>> queryChunks(int size, String sql, @Nullable Object[] params, RowMapper<T> mapper);
+
+    /**
+     * 分块查询，每次返回最多 size 条数据，读取完成或者关闭游标时释放连接
+     *
+     * @param size   每块数据条数
+     * @param sql    SQL
+     * @param mapper 映射器
+     * @param <T>    解析器类型
+     * @return 查询游标
+     */
+    default <T> Cursor<List<T>> queryChunks(int size, AbstractSql<?> sql, RowMapper<T> mapper) {
+        return queryChunks(size, sql.getSql(), sql.getArgs(), mapper);
+    }
+
+    /**
+     * 分块查询，每次返回最多 size 条数据，读取完成或者关闭游标时释放连接
+     *
+     * @param size   每块数据条数
+     * @param sql    SQL
+     * @param params 参数
+     * @param type   类型类对象
+     * @param <T>    解析器类型
+     * @return 查询游标
+     */
+    <T> Cursor<List<T>> queryChunks(int size, String sql, @Nullable Object[] params, Class<T> type);
+
+    /**
+     * 分块查询，每次返回最多 size 条数据，读取完成或者关闭游标时释放连接
+     *
+     * @param size 每块数据条数
+     * @param sql  SQL
+     * @param type 类型类对象
+     * @param <T>  解析器类型
+     * @return 查询游标
+     */
+    default <T> Cursor<List<T>> queryChunks(int size, AbstractSql<?> sql, Class<T> type) {
+        return queryChunks(size, sql.getSql(), sql.getArgs(), type);
+    }
+
     /**
      * 查询对象
      *
@@ -819,6 +987,68 @@ public interface MiniRepository {
         return queryPageSingle(pageable, sql.getSql(), sql.getArgs(), type);
     }
 
+    /**
+     * 键集分页查询，按排序键的值定位下一页，不使用 OFFSET 也不统计总条数
+     * <p>
+     * 排序键格式为“字段名 [ASC|DESC]”，字段必须出现在查询结果中且不能为空（NOT NULL），
+     * 最后一个排序键必须唯一（例如主键）。基础查询不需要 ORDER BY，
+     * 读取到为空的排序键值时抛出 IllegalStateException
+     *
+     * @param size   每页条数
+     * @param next   上一页返回的令牌，第一页时为 null
+     * @param keys   排序键
+     * @param sql    SQL
+     * @param params 参数
+     * @param mapper 映射器
+     * @param <T>    解析器类型
+     * @return 查询结果
+     */
+    <T> KeysetPage<T> queryKeyset(int size, @Nullable String next, String[] keys, String sql, @Nullable Object[] params, RowMapper<T> mapper);
+
+    /**
+     * 键集分页查询，按排序键的值定位下一页，不使用 OFFSET 也不统计总条数
+     *
+     * @param size   每页条数
+     * @param next   上一页返回的令牌，第一页时为 null
+     * @param keys   排序键
+     * @param sql    SQL
+     * @param mapper 映射器
+     * @param <T>    解析器类型
+     * @return 查询结果
+     */
+    default <T> KeysetPage<T> queryKeyset(int size, @Nullable String next, String[] keys, AbstractSql<?> sql, RowMapper<T> mapper) {
+        return queryKeyset(size, next, keys, sql.getSql(), sql.getArgs(), mapper);
+    }
+
+    /**
+     * 键集分页查询，按排序键的值定位下一页，不使用 OFFSET 也不统计总条数
+     *
+     * @param size   每页条数
+     * @param next   上一页返回的令牌，第一页时为 null
+     * @param keys   排序键
+     * @param sql    SQL
+     * @param params 参数
+     * @param type   类型类对象
+     * @param <T>    解析器类型
+     * @return 查询结果
+     */
+    <T> KeysetPage<T> queryKeyset(int size, @Nullable String next, String[] keys, String sql, @Nullable Object[] params, Class<T> type);
+
+    /**
+     * 键集分页查询，按排序键的值定位下一页，不使用 OFFSET 也不统计总条数
+     *
+     * @param size 每页条数
+     * @param next 上一页返回的令牌，第一页时为 null
+     * @param keys 排序键
+     * @param sql  SQL
+     * @param type 类型类对象
+     * @param <T>  解析器类型
+     * @return 查询结果
+     */
+    default <T> KeysetPage<T> queryKeyset(int size, @Nullable String next, String[] keys, AbstractSql<?> sql, Class<T> type) {
+        return queryKeyset(size, next, keys, sql.getSql(), sql.getArgs(), type);
+    }
+
     /**
      * 添加数据
      *
@@ -1066,6 +1296,60 @@ public interface MiniRepository {
     @Nullable
     <T> T selectOne(Class<T> type);
 
+    /**
+     * 逐行查询回调处理
+     *
+     * @param <T> 行数据类型
+     */
+    @FunctionalInterface
+    interface RowCallback<T> {
+        void apply(T row) throws SQLException;
+    }
+
+    /**
+     * 查询游标，读取完成后自动关闭
+     *
+     * @param <T> 数据类型
+     */
+    interface Cursor<T> extends Iterator<T>, AutoCloseable {
+        @Override
+        void close();
+    }
+
+    /**
+     * 键集分页结果
+     *
+     * @param <T> 数据类型
+     */
+    final class KeysetPage<T> implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private final List<T> content;
+        private final String next;
+
+        public KeysetPage(List<T> content, @Nullable String next) {
+            this.content = content;
+            this.next = next;
+        }
+
+        public List<T> getContent() {
+            return content;
+        }
+
+        /**
+         * 获取下一页的令牌，查询下一页时原样传回
+         *
+         * @return 下一页的令牌，没有下一页时为 null
+         */
+        @Nullable
+        public String getNext() {
+            return next;
+        }
+
+        public boolean hasNext() {
+            return next != null;
+        }
+    }
+
     class AutoMiniId extends ApplicationEvent {
         private final GeneratedKeyHolder holder;
 
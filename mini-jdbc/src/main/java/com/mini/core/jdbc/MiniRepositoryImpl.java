@@ -4,6 +4,8 @@ import com.mini.core.jdbc.builder.AbstractSql;
 import com.mini.core.jdbc.builder.SelectSql;
 import com.mini.core.jdbc.builder.fragment.*;
 import com.mini.core.jdbc.builder.support.Join;
+import com.mini.core.util.CountCache;
+import com.mini.core.util.KeysetQuery;
 import com.mini.core.util.holder.ClassHolder;
 import com.mini.core.util.holder.FieldHolder;
 import org.jetbrains.annotations.Nullable;
@@ -22,24 +24,25 @@ import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
 import org.springframework.jdbc.core.BeanPropertyRowMapper;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.DataSourceUtils;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.JdbcUtils;
 import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
 
 import javax.sql.DataSource;
 import java.sql.Date;
-import java.sql.Time;
-import java.sql.Timestamp;
-import java.util.List;
-import java.util.Map;
-import java.util.Objects;
-import java.util.Optional;
+import java.sql.*;
+import java.util.*;
 import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import static java.sql.Statement.RETURN_GENERATED_KEYS;
 import static java.util.Optional.ofNullable;
 
 public class MiniRepositoryImpl extends JdbcTemplate implements MiniRepository {
+    private final CountCache counts = new CountCache();
     private final ApplicationContext context;
     private final Dialect dialect;
 
@@ -210,6 +213,130 @@ public class MiniRepositoryImpl extends JdbcTemplate implements MiniRepository {
         return MiniRepository.super.queryListSingle(size, sql, type);
     }
 
+    @Override
+    public final <T> Stream<T> queryStream(String sql, @Nullable Object[] params, RowMapper<T> mapper) {
+        var cursor = this.cursor(sql, params, mapper);
+        var spliterator = Spliterators.spliteratorUnknownSize(cursor, Spliterator.ORDERED);
+        return StreamSupport.stream(spliterator, false).onClose(cursor::close);
+    }
+
+    @Override
+    public final <T> Stream<T> queryStream(AbstractSql<?> sql, RowMapper<T> mapper) {
+        return MiniRepository.super.queryStream(sql, mapper);
+    }
+
+    @Override
+    public final <T> Stream<T> queryStream(String sql, @Nullable Object[] params, Class<T> type) {
+        return this.queryStream(sql, params, getBeanMapper(type));
+    }
+
+    @Override
+    public final <T> Stream<T> queryStream(AbstractSql<?> sql, Class<T> type) {
+        return MiniRepository.super.queryStream(sql, type);
+    }
+
+    @Override
+    public final Stream<Map<String, Object>> queryStreamMap(String sql, @Nullable Object[] params) {
+        return this.queryStream(sql, params, getColumnMapRowMapper());
+    }
+
+    @Override
+    public final Stream<Map<String, Object>> queryStreamMap(AbstractSql<?> sql) {
+        return MiniRepository.super.queryStreamMap(sql);
+    }
+
+    @Override
+    public final <T> void queryForEach(String sql, @Nullable Object[] params, RowMapper<T> mapper, RowCallback<T> callback) {
+        try (var cursor = this.cursor(sql, params, mapper)) {
+            while (cursor.hasNext()) {
+                try {
+                    callback.apply(cursor.next());
+                } catch (SQLException e) {
+                    throw translateException("ForEachCallback", sql, e);
+                }
+            }
+        }
+    }
+
+    @Override
+    public final <T> void queryForEach(AbstractSql<?> sql, RowMapper<T> mapper, RowCallback<T> callback) {
+        MiniRepository.super.queryForEach(sql, mapper, callback);
+    }
+
+    @Override
+    public final <T> void queryForEach(String sql, @Nullable Object[] params, Class<T> type, RowCallback<T> callback) {
+        this.queryForEach(sql, params, getBeanMapper(type), callback);
+    }
+
+    @Override
+    public final <T> void queryForEach(AbstractSql<?> sql, Class<T> type, RowCallback<T> callback) {
+        MiniRepository.super.queryForEach(sql, type, callback);
+    }
+
+    @Override
+    public final <T> Cursor<List<T>> queryChunks(int size, String sql, @Nullable Object[] params, RowMapper<T> mapper) {
+        Assert.isTrue(size > 0, "Chunk size must be greater than 0");
+        var cursor = this.cursor(sql, params, mapper);
+        return new Cursor<>() {
+            @Override
+            public boolean hasNext() {
+                return cursor.hasNext();
+            }
+
+            @Override
+            public List<T> next() {
+                if (!cursor.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                List<T> chunk = new ArrayList<>(size);
+                while (chunk.size() < size && cursor.hasNext()) {
+                    chunk.add(cursor.next());
+                }
+                return chunk;
+            }
+
+            @Override
+            public void close() {
+                cursor.close();
+            }
+        };
+    }
+
+    @Override
+    public final <T> Cursor<List<T>> queryChunks(int size, AbstractSql<?> sql, RowMapper<T> mapper) {
+        return MiniRepository.super.queryChunks(size, sql, mapper);
+    }
+
+    @Override
+    public final <T> Cursor<List<T>> queryChunks(int size, String sql, @Nullable Object[] params, Class<T> type) {
+        return this.queryChunks(size, sql, params, getBeanMapper(type));
+    }
+
+    @Override
+    public final <T> Cursor<List<T>> queryChunks(int size, AbstractSql<?> sql, Class<T> type) {
+        return MiniRepository.super.queryChunks(size, sql, type);
+    }
+
+    // 打开只读、只进的查询游标，连接在游标关闭时释放
+    private <T> RowCursor<T> cursor(String sql, @Nullable Object[] params, RowMapper<T> mapper) {
+        var dataSource = obtainDataSource();
+        var con = DataSourceUtils.getConnection(dataSource);
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        try {
+            ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            applyStatementSettings(ps);
+            new ArgumentPreparedStatementSetter(params).setValues(ps);
+            rs = ps.executeQuery();
+            return new RowCursor<>(this, sql, dataSource, con, ps, rs, mapper);
+        } catch (SQLException e) {
+            JdbcUtils.closeResultSet(rs);
+            JdbcUtils.closeStatement(ps);
+            DataSourceUtils.releaseConnection(con, dataSource);
+            throw translateException("StreamQuery", sql, e);
+        }
+    }
+
     @Nullable
     @Override
     public final <T> T queryObject(String sql, Object[] params, RowMapper<T> mapper) {
@@ -393,8 +520,11 @@ public class MiniRepositoryImpl extends JdbcTemplate implements MiniRepository {
     @Override
     public final <T> Page<T> queryPage(Pageable pageable, String sql, Object[] params, RowMapper<T> mapper) {
         List<T> content = queryList(pageable.getOffset(), pageable.getPageSize(), sql, params, mapper);
-        long total = ofNullable(queryLong("SELECT COUNT(*) FROM (" + sql + ") T ", params)).orElse(0L);
-        return new PageImpl<>(content, pageable, total);
+        // 最后一页不满时可以直接得到总条数，不需要再统计
+        if (content.size() < pageable.getPageSize() && (!content.isEmpty() || pageable.getOffset() == 0)) {
+            return new PageImpl<>(content, pageable, pageable.getOffset() + content.size());
+        }
+        return new PageImpl<>(content, pageable, total(sql, params));
     }
 
     @Override
@@ -432,6 +562,76 @@ public class MiniRepositoryImpl extends JdbcTemplate implements MiniRepository {
         return MiniRepository.super.queryPageSingle(pageable, sql, type);
     }
 
+    @Override
+    public final <T> KeysetPage<T> queryKeyset(int size, @Nullable String next, String[] keys, String sql, @Nullable Object[] params, RowMapper<T> mapper) {
+        Assert.isTrue(size > 0, "Page size must be greater than 0");
+        KeysetQuery keyset = new KeysetQuery(keys);
+        List<Object> args = new ArrayList<>();
+        String query = keyset.sql(sql, next, params, args) + " " + dialect.limit().getLimit(size + 1);
+        return Objects.requireNonNull(super.query(query, args.toArray(), rs -> {
+            List<T> content = new ArrayList<>(size);
+            String token = null;
+            while (rs.next()) {
+                // 多查询的一行只用于判断是否还有下一页
+                if (content.size() == size) {
+                    return new KeysetPage<>(content, token);
+                }
+                content.add(mapper.mapRow(rs, content.size()));
+                if (content.size() == size) {
+                    token = keyset.token(rs);
+                }
+            }
+            return new KeysetPage<>(content, null);
+        }));
+    }
+
+    @Override
+    public final <T> KeysetPage<T> queryKeyset(int size, @Nullable String next, String[] keys, AbstractSql<?> sql, RowMapper<T> mapper) {
+        return MiniRepository.super.queryKeyset(size, next, keys, sql, mapper);
+    }
+
+    @Override
+    public final <T> KeysetPage<T> queryKeyset(int size, @Nullable String next, String[] keys, String sql, @Nullable Object[] params, Class<T> type) {
+        return this.queryKeyset(size, next, keys, sql, params, getBeanMapper(type));
+    }
+
+    @Override
+    public final <T> KeysetPage<T> queryKeyset(int size, @Nullable String next, String[] keys, AbstractSql<?> sql, Class<T> type) {
+        return MiniRepository.super.queryKeyset(size, next, keys, sql, type);
+    }
+
+    /**
+     * 设置分页总条数缓存的有效时间，相同的SQL和参数在有效时间内不再重复统计
+     * <p>
+     * 0 时不缓存（默认），缓存的总条数在有效时间内可能与实际数据不一致
+     *
+     * @param countCacheTtl 有效时间（毫秒）
+     */
+    public final void setCountCacheTtl(long countCacheTtl) {
+        counts.setTtl(countCacheTtl);
+    }
+
+    /**
+     * 设置分页总条数缓存的最大条数
+     *
+     * @param countCacheSize 最大条数
+     */
+    public final void setCountCacheSize(int countCacheSize) {
+        counts.setSize(countCacheSize);
+    }
+
+    /**
+     * 清空分页总条数缓存
+     */
+    public final void clearCountCache() {
+        counts.clear();
+    }
+
+    // 查询总条数，开启缓存时按规范化后的SQL和参数缓存
+    private long total(String sql, @Nullable Object[] params) {
+        return counts.get(sql, params, () -> ofNullable(queryLong("SELECT COUNT(*) FROM (" + sql + ") T ", params)).orElse(0L));
+    }
+
     @Override
     public final int insert(String table, GeneratedKeyHolder keyHolder, Consumer<InsertFragment<?>> consumer) {
         return MiniRepository.super.insert(table, keyHolder, consumer);
@@ -788,4 +988,72 @@ public class MiniRepositoryImpl extends JdbcTemplate implements MiniRepository {
             }
         }};
     }
+
+    /**
+     * 查询结果游标，读取完成、出错或关闭时释放结果集、Statement 和连接
+     *
+     * @param <T> 行数据类型
+     */
+    private static final class RowCursor<T> implements Cursor<T> {
+        private final MiniRepositoryImpl repository;
+        private final DataSource dataSource;
+        private final RowMapper<T> mapper;
+        private final PreparedStatement ps;
+        private final Connection con;
+        private final ResultSet rs;
+        private final String sql;
+        private boolean closed;
+        private Boolean next;
+        private int rowNum;
+
+        private RowCursor(MiniRepositoryImpl repository, String sql, DataSource dataSource, Connection con,
+                PreparedStatement ps, ResultSet rs, RowMapper<T> mapper) {
+            this.repository = repository;
+            this.sql = sql;
+            this.dataSource = dataSource;
+            this.con = con;
+            this.ps = ps;
+            this.rs = rs;
+            this.mapper = mapper;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (closed) return false;
+            if (next != null) return next;
+            try {
+                if (!(next = rs.next())) close();
+                return next;
+            } catch (SQLException e) {
+                close();
+                throw repository.translateException("StreamQuery", sql, e);
+            }
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            next = null;
+            try {
+                return mapper.mapRow(rs, rowNum++);
+            } catch (SQLException e) {
+                close();
+                throw repository.translateException("StreamQuery", sql, e);
+            } catch (RuntimeException | Error e) {
+                close();
+                throw e;
+            }
+        }
+
+        @Override
+        public void close() {
+            if (closed) return;
+            closed = true;
+            JdbcUtils.closeResultSet(rs);
+            JdbcUtils.closeStatement(ps);
+            DataSourceUtils.releaseConnection(con, dataSource);
+        }
+    }
 }
@@ -9,6 +9,8 @@ import org.springframework.data.relational.core.conversion.DbAction;
 import org.springframework.data.relational.core.mapping.event.BeforeSaveEvent;
 import org.springframework.stereotype.Component;
 
+import java.math.BigDecimal;
+
 import static com.mini.core.util.PKGenerator.id;
 import static com.mini.core.util.PKGenerator.uuid;
 import static com.mini.core.util.holder.ClassHolder.create;
@@ -83,25 +85,34 @@ public class MiniGeneratedIdListener {
                 return;
             }
 
+            // 驱动返回的主键可能是 Long、Integer 或 BigInteger，按属性类型转换，超出范围时抛出异常
             Number value = miniId.getHolder().getKey();
             if (Long.class == field.getType()) {
-                field.setValue(entity, value);
+                field.setValue(entity, longKey(value));
                 return;
             }
             if (long.class == field.getType()) {
-                field.setValue(entity, value);
+                field.setValue(entity, longKey(value));
                 return;
             }
             if (Integer.class == field.getType()) {
-                field.setValue(entity, value);
+                field.setValue(entity, Math.toIntExact(longKey(value)));
                 return;
             }
             if (int.class == field.getType()) {
-                field.setValue(entity, value);
+                field.setValue(entity, Math.toIntExact(longKey(value)));
             }
         });
     }
 
+    // 主键转换成 long，超出范围或者有小数时抛出 ArithmeticException
+    private static long longKey(Number value) {
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return value.longValue();
+        }
+        return new BigDecimal(value.toString()).longValueExact();
+    }
+
     @SuppressWarnings("BooleanMethodIsAlwaysInverted")
     protected boolean isNew(Object entity, FieldHolder<?> field) {
         Object object = field.getValue(entity);
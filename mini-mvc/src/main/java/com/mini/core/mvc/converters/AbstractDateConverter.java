@@ -1,6 +1,7 @@
 package com.mini.core.mvc.converters;
 
 
+import com.mini.core.util.DateTimeParser;
 import org.springframework.core.convert.converter.Converter;
 
 public abstract class AbstractDateConverter<T> implements Converter<String, T> {
@@ -21,4 +22,17 @@ public abstract class AbstractDateConverter<T> implements Converter<String, T> {
     protected String getTimeFormat() {
         return format.getTimeFormat();
     }
+
+    // 解析器按格式缓存，配置的格式变化时自动使用新的解析器
+    protected DateTimeParser getDateTimeParser() {
+        return DateTimeParser.of(getDateTimeFormat());
+    }
+
+    protected DateTimeParser getDateParser() {
+        return DateTimeParser.of(getDateFormat());
+    }
+
+    protected DateTimeParser getTimeParser() {
+        return DateTimeParser.of(getTimeFormat());
+    }
 }
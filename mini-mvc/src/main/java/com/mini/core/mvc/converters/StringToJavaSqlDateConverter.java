@@ -7,11 +7,8 @@ import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
 
 import static java.lang.Long.parseLong;
-import static java.time.format.DateTimeFormatter.ofPattern;
 
 @ConfigurationPropertiesBinding
 public class StringToJavaSqlDateConverter extends AbstractDateConverter<java.sql.Date> {
@@ -24,11 +21,9 @@ public class StringToJavaSqlDateConverter extends AbstractDateConverter<java.sql
         if (!StringUtils.hasText(source)) {
             return null;
         }
-        try {
-            DateTimeFormatter format = ofPattern(getDateFormat());
-            LocalDate date = LocalDate.parse(source, format);
+        LocalDate date = getDateParser().parseLocalDate(source);
+        if (date != null) {
             return java.sql.Date.valueOf(date);
-        } catch (DateTimeParseException ignored) {
         }
         return new java.sql.Date(parseLong(source));
     }
@@ -6,11 +6,8 @@ import org.springframework.boot.context.properties.ConfigurationPropertiesBindin
 import org.springframework.util.StringUtils;
 
 import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
 
 import static java.lang.Long.parseLong;
-import static java.time.format.DateTimeFormatter.ofPattern;
 
 @ConfigurationPropertiesBinding
 public class StringToJavaSqlTimeConverter extends AbstractDateConverter<java.sql.Time> {
@@ -23,11 +20,9 @@ public class StringToJavaSqlTimeConverter extends AbstractDateConverter<java.sql
         if (!StringUtils.hasText(source)) {
             return null;
         }
-        try {
-            DateTimeFormatter format = ofPattern(getTimeFormat());
-            LocalTime time = LocalTime.parse(source, format);
+        LocalTime time = getTimeParser().parseLocalTime(source);
+        if (time != null) {
             return java.sql.Time.valueOf(time);
-        } catch (DateTimeParseException ignored) {
         }
         return new java.sql.Time(parseLong(source));
     }
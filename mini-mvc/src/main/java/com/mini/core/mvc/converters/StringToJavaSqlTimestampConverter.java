@@ -6,11 +6,8 @@ import org.springframework.boot.context.properties.ConfigurationPropertiesBindin
 import org.springframework.util.StringUtils;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
 
 import static java.lang.Long.parseLong;
-import static java.time.format.DateTimeFormatter.ofPattern;
 
 @ConfigurationPropertiesBinding
 public class StringToJavaSqlTimestampConverter extends AbstractDateConverter<java.sql.Timestamp> {
@@ -23,11 +20,9 @@ public class StringToJavaSqlTimestampConverter extends AbstractDateConverter<jav
         if (!StringUtils.hasText(source)) {
             return null;
         }
-        try {
-            DateTimeFormatter format = ofPattern(this.getDateTimeFormat());
-            LocalDateTime date = LocalDateTime.parse(source, format);
+        LocalDateTime date = getDateTimeParser().parseLocalDateTime(source);
+        if (date != null) {
             return java.sql.Timestamp.valueOf(date);
-        } catch (DateTimeParseException ignored) {
         }
         return new java.sql.Timestamp(parseLong(source));
     }
@@ -1,17 +1,15 @@
 package com.mini.core.mvc.converters;
 
 
+import com.mini.core.util.DateTimeParser;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.boot.context.properties.ConfigurationPropertiesBinding;
 import org.springframework.util.StringUtils;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
 
 import static java.lang.Long.parseLong;
-import static java.time.format.DateTimeFormatter.ofPattern;
 
 @ConfigurationPropertiesBinding
 public class StringToJavaUtilDateConverter extends AbstractDateConverter<java.util.Date> {
@@ -24,17 +22,14 @@ public class StringToJavaUtilDateConverter extends AbstractDateConverter<java.ut
         if (!StringUtils.hasText(source)) {
             return null;
         }
-        try {
-            DateTimeFormatter format = ofPattern(getDateTimeFormat());
-            LocalDateTime date = LocalDateTime.parse(source, format);
-            return java.sql.Timestamp.valueOf(date);
-        } catch (DateTimeParseException ignored) {
+        DateTimeParser parser = getDateTimeParser();
+        LocalDateTime dateTime = parser.parseLocalDateTime(source);
+        if (dateTime != null) {
+            return java.sql.Timestamp.valueOf(dateTime);
         }
-        try {
-            DateTimeFormatter format = ofPattern(getDateTimeFormat());
-            LocalDate date = LocalDate.parse(source, format);
+        LocalDate date = parser.parseLocalDate(source);
+        if (date != null) {
             return java.sql.Date.valueOf(date);
-        } catch (DateTimeParseException ignored) {
         }
         return new java.util.Date(parseLong(source));
     }
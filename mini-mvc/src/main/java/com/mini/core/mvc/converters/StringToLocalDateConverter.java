@@ -7,13 +7,11 @@ import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
 import java.time.LocalDate;
-import java.time.format.DateTimeParseException;
 
 import static java.lang.Long.parseLong;
 import static java.time.Instant.ofEpochMilli;
 import static java.time.LocalDate.ofInstant;
 import static java.time.ZoneId.systemDefault;
-import static java.time.format.DateTimeFormatter.ofPattern;
 
 @ConfigurationPropertiesBinding
 public class StringToLocalDateConverter extends AbstractDateConverter<LocalDate> {
@@ -26,10 +24,9 @@ public class StringToLocalDateConverter extends AbstractDateConverter<LocalDate>
         if (!StringUtils.hasText(source)) {
             return null;
         }
-        try {
-            var format = ofPattern(getDateFormat());
-            return LocalDate.parse(source, format);
-        } catch (DateTimeParseException ignored) {
+        var value = getDateParser().parseLocalDate(source);
+        if (value != null) {
+            return value;
         }
         var instant = ofEpochMilli(parseLong(source));
         return ofInstant(instant, systemDefault());
@@ -6,13 +6,11 @@ import org.springframework.boot.context.properties.ConfigurationPropertiesBindin
 import org.springframework.util.StringUtils;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeParseException;
 
 import static java.lang.Long.parseLong;
 import static java.time.Instant.ofEpochMilli;
 import static java.time.LocalDateTime.ofInstant;
 import static java.time.ZoneId.systemDefault;
-import static java.time.format.DateTimeFormatter.ofPattern;
 
 @ConfigurationPropertiesBinding
 public class StringToLocalDateTimeConverter extends AbstractDateConverter<LocalDateTime> {
@@ -25,10 +23,9 @@ public class StringToLocalDateTimeConverter extends AbstractDateConverter<LocalD
         if (!StringUtils.hasText(source)) {
             return null;
         }
-        try {
-            var format = ofPattern(getDateTimeFormat());
-            return LocalDateTime.parse(source, format);
-        } catch (DateTimeParseException ignored) {
+        var value = getDateTimeParser().parseLocalDateTime(source);
+        if (value != null) {
+            return value;
         }
         var instant = ofEpochMilli(parseLong(source));
         return ofInstant(instant, systemDefault());
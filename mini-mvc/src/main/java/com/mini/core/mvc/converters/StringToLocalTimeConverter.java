@@ -6,13 +6,11 @@ import org.springframework.boot.context.properties.ConfigurationPropertiesBindin
 import org.springframework.util.StringUtils;
 
 import java.time.LocalTime;
-import java.time.format.DateTimeParseException;
 
 import static java.lang.Long.parseLong;
 import static java.time.Instant.ofEpochMilli;
 import static java.time.LocalTime.ofInstant;
 import static java.time.ZoneId.systemDefault;
-import static java.time.format.DateTimeFormatter.ofPattern;
 
 @ConfigurationPropertiesBinding
 public class StringToLocalTimeConverter extends AbstractDateConverter<LocalTime> {
@@ -25,10 +23,9 @@ public class StringToLocalTimeConverter extends AbstractDateConverter<LocalTime>
         if (!StringUtils.hasText(source)) {
             return null;
         }
-        try {
-            var format = ofPattern(getDateTimeFormat());
-            return LocalTime.parse(source, format);
-        } catch (DateTimeParseException ignored) {
+        var value = getDateTimeParser().parseLocalTime(source);
+        if (value != null) {
+            return value;
         }
         var instant = ofEpochMilli(parseLong(source));
         return ofInstant(instant, systemDefault());
@@ -0,0 +1,168 @@
+package com.mini.core.processor;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.*;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Types;
+import java.lang.annotation.Annotation;
+import java.util.*;
+
+/**
+ * 编译期的 Bean 属性信息
+ * <p>
+ * 与 {@code ClassHolder}/{@code FieldHolder} 运行时通过 Introspector 得到的属性保持一致：
+ * 公开的 getter/setter 方法确定属性，属性上的注解从同名字段上读取
+ * @author xchao
+ */
+final class BeanProperty {
+	private final String name;
+	private final TypeMirror type;
+	private final ExecutableElement getter;
+	private final ExecutableElement setter;
+	private final VariableElement field;
+	
+	private BeanProperty(String name, TypeMirror type, ExecutableElement getter, ExecutableElement setter,
+			VariableElement field) {
+		this.name = name;
+		this.type = type;
+		this.getter = getter;
+		this.setter = setter;
+		this.field = field;
+	}
+	
+	public final String getName() {
+		return name;
+	}
+	
+	public final TypeMirror getType() {
+		return type;
+	}
+	
+	public final boolean hasGetter() {
+		return getter != null;
+	}
+	
+	public final boolean hasSetter() {
+		return setter != null;
+	}
+	
+	public final String getGetterName() {
+		return getter == null ? null : getter.getSimpleName().toString();
+	}
+	
+	public final String getSetterName() {
+		return setter == null ? null : setter.getSimpleName().toString();
+	}
+	
+	@Nullable
+	public final VariableElement getField() {
+		return field;
+	}
+	
+	@Nullable
+	public final <A extends Annotation> A getAnnotation(Class<A> clazz) {
+		return field == null ? null : field.getAnnotation(clazz);
+	}
+	
+	/**
+	 * 获取类型的所有属性
+	 * <p>
+	 * 运行时 ClassHolder 使用 HashMap 保存属性，生成的代码需要与反射方式的处理顺序完全一致，
+	 * 所以这里按 Introspector 的顺序（属性名排序）放入同样的 HashMap 后再取出
+	 * @param env  编译环境
+	 * @param type 类型
+	 * @return 属性列表
+	 */
+	@Nonnull
+	public static List<BeanProperty> of(ProcessingEnvironment env, TypeElement type) {
+		Types types = env.getTypeUtils();
+		Map<String, ExecutableElement> getters = new TreeMap<>();
+		Map<String, ExecutableElement> setters = new TreeMap<>();
+		for (TypeElement t = type; t != null; t = superclass(t)) {
+			if (Object.class.getName().contentEquals(t.getQualifiedName())) break;
+			for (ExecutableElement method : ElementFilter.methodsIn(t.getEnclosedElements())) {
+				Set<Modifier> modifiers = method.getModifiers();
+				if (!modifiers.contains(Modifier.PUBLIC)) continue;
+				if (modifiers.contains(Modifier.STATIC)) continue;
+				String methodName = method.getSimpleName().toString();
+				int count = method.getParameters().size();
+				TypeKind kind = method.getReturnType().getKind();
+				if (count == 0 && methodName.startsWith("get") && methodName.length() > 3 && kind != TypeKind.VOID) {
+					getters.putIfAbsent(decapitalize(methodName.substring(3)), method);
+				} else if (count == 0 && methodName.startsWith("is") && methodName.length() > 2 && kind == TypeKind.BOOLEAN) {
+					getters.putIfAbsent(decapitalize(methodName.substring(2)), method);
+				} else if (count == 1 && methodName.startsWith("set") && methodName.length() > 3 && kind == TypeKind.VOID) {
+					setters.putIfAbsent(decapitalize(methodName.substring(3)), method);
+				}
+			}
+		}
+		Set<String> names = new TreeSet<>(getters.keySet());
+		names.addAll(setters.keySet());
+		Map<String, BeanProperty> properties = new HashMap<>();
+		for (String name : names) {
+			ExecutableElement getter = getters.get(name);
+			ExecutableElement setter = setters.get(name);
+			TypeMirror propertyType = getter != null ? getter.getReturnType() : setter.getParameters().get(0).asType();
+			if (getter != null && setter != null) {
+				TypeMirror setterType = setter.getParameters().get(0).asType();
+				if (!types.isSameType(types.erasure(propertyType), types.erasure(setterType))) {
+					setter = null;
+				}
+			}
+			VariableElement field = findField(types, type, name, propertyType);
+			properties.put(name, new BeanProperty(name, propertyType, getter, setter, field));
+		}
+		return new ArrayList<>(properties.values());
+	}
+	
+	/**
+	 * 类型是否可以在生成的代码中直接创建实例（公开的无参构造方法）
+	 * @param type 类型
+	 * @return true-可以
+	 */
+	public static boolean hasPublicConstructor(TypeElement type) {
+		if (type.getModifiers().contains(Modifier.ABSTRACT)) {
+			return false;
+		}
+		return ElementFilter.constructorsIn(type.getEnclosedElements()).stream().anyMatch(c -> {
+			return c.getModifiers().contains(Modifier.PUBLIC) && c.getParameters().isEmpty();
+		});
+	}
+	
+	// 获取父类
+	private static TypeElement superclass(TypeElement type) {
+		TypeMirror superclass = type.getSuperclass();
+		if (superclass.getKind() != TypeKind.DECLARED) {
+			return null;
+		}
+		return (TypeElement) ((DeclaredType) superclass).asElement();
+	}
+	
+	// 与 FieldHolder.findField 一致：从当前类向父类查找同名并且类型兼容的字段
+	private static VariableElement findField(Types types, TypeElement type, String name, TypeMirror propertyType) {
+		for (TypeElement t = type; t != null; t = superclass(t)) {
+			for (VariableElement field : ElementFilter.fieldsIn(t.getEnclosedElements())) {
+				if (!field.getSimpleName().contentEquals(name)) continue;
+				if (types.isAssignable(types.erasure(field.asType()), types.erasure(propertyType))) {
+					return field;
+				}
+			}
+		}
+		return null;
+	}
+	
+	// 与 java.beans.Introspector.decapitalize 一致
+	private static String decapitalize(String name) {
+		if (name.length() > 1 && Character.isUpperCase(name.charAt(1)) && Character.isUpperCase(name.charAt(0))) {
+			return name;
+		}
+		char[] chars = name.toCharArray();
+		chars[0] = Character.toLowerCase(chars[0]);
+		return new String(chars);
+	}
+}
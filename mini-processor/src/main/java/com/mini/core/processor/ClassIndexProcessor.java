@@ -0,0 +1,110 @@
+package com.mini.core.processor;
+
+import com.google.auto.service.AutoService;
+import com.mini.core.util.reflect.ClassIndex;
+
+import javax.annotation.processing.*;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+
+/**
+ * 编译期生成类型索引 {@value ClassIndex#LOCATION}
+ * <p>
+ * 记录所有类（包括内部类）和公开类上的注解，ClassScanner 遍历类路径时索引中有记录的类不再读取 .class 文件；
+ * 增量编译时与已有的索引合并，已删除的类在遍历时不会出现，索引中多余的记录没有影响
+ * @author xchao
+ */
+@AutoService(Processor.class)
+@SupportedAnnotationTypes("*")
+public final class ClassIndexProcessor extends AbstractProcessor {
+	private final TreeMap<String, String> types = new TreeMap<>();
+	
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+	
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		if (roundEnv.processingOver()) {
+			write();
+			return false;
+		}
+		for (TypeElement type : ElementFilter.typesIn(roundEnv.getRootElements())) {
+			index(type);
+		}
+		return false;
+	}
+	
+	// 记录类和内部类，非公开类不记录注解
+	private void index(TypeElement type) {
+		var elements = processingEnv.getElementUtils();
+		if (!type.getModifiers().contains(Modifier.PUBLIC)) {
+			types.put(elements.getBinaryName(type).toString(), ClassIndex.NON_PUBLIC);
+		} else {
+			StringJoiner joiner = new StringJoiner(",");
+			for (AnnotationMirror mirror : elements.getAllAnnotationMirrors(type)) {
+				var element = (TypeElement) mirror.getAnnotationType().asElement();
+				joiner.add(elements.getBinaryName(element));
+			}
+			types.put(elements.getBinaryName(type).toString(), joiner.toString());
+		}
+		for (TypeElement member : ElementFilter.typesIn(type.getEnclosedElements())) {
+			index(member);
+		}
+	}
+	
+	// 与已有的索引合并后按类名排序写入
+	private void write() {
+		if (types.isEmpty()) return;
+		Filer filer = processingEnv.getFiler();
+		TreeMap<String, String> merged = new TreeMap<>();
+		try {
+			FileObject old = filer.getResource(StandardLocation.CLASS_OUTPUT, "", ClassIndex.LOCATION);
+			try (InputStream in = old.openInputStream()) {
+				Properties properties = new Properties();
+				properties.load(in);
+				properties.stringPropertyNames().forEach(k -> merged.put(k, properties.getProperty(k)));
+			}
+		} catch (IOException | IllegalArgumentException ignored) {
+		}
+		merged.putAll(types);
+		try {
+			FileObject file = filer.createResource(StandardLocation.CLASS_OUTPUT, "", ClassIndex.LOCATION);
+			try (Writer writer = new OutputStreamWriter(file.openOutputStream(), StandardCharsets.ISO_8859_1)) {
+				for (Map.Entry<String, String> entry : merged.entrySet()) {
+					writer.write(escape(entry.getKey()) + "=" + escape(entry.getValue()) + "\n");
+				}
+			}
+		} catch (IOException e) {
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, e.getMessage());
+		}
+	}
+	
+	// Properties 文件使用 ISO-8859-1 编码，其它字符使用 Unicode 转义
+	private static String escape(String text) {
+		StringBuilder builder = new StringBuilder(text.length());
+		for (char c : text.toCharArray()) {
+			if (c < 0x20 || c > 0x7E) {
+				builder.append(String.format("\\u%04X", (int) c));
+				continue;
+			}
+			builder.append(c);
+		}
+		return builder.toString();
+	}
+}
@@ -0,0 +1,81 @@
+package com.mini.core.processor;
+
+import com.google.auto.service.AutoService;
+import com.mini.core.jdbc.annotation.Table;
+import com.mini.core.web.annotation.Param;
+
+import javax.annotation.processing.*;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Set;
+
+/**
+ * 编译期生成映射器、SQL 语句创建类和参数绑定类
+ * <ul>
+ * <li>带 {@link Table} 注解的类型生成 {@code _$$$MAPPER$$$} 和 {@code _$$$SQL$$$}</li>
+ * <li>带 {@link Param} 注解的类型生成 {@code _$$$RESOLVER$$$}</li>
+ * </ul>
+ * 只处理顶层的类，无法生成的类型在运行时仍然使用反射实现
+ * @author xchao
+ */
+@AutoService(Processor.class)
+@SupportedAnnotationTypes({
+		"com.mini.core.jdbc.annotation.Table",
+		"com.mini.core.web.annotation.Param"
+})
+public final class CompanionProcessor extends AbstractProcessor {
+	
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+	
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		for (TypeElement type : ElementFilter.typesIn(roundEnv.getElementsAnnotatedWith(Table.class))) {
+			if (!isSupported(type)) continue;
+			write(type, MapperGenerator.SUFFIX, MapperGenerator.generate(processingEnv, type, packageName(type)));
+			write(type, SQLGenerator.SUFFIX, SQLGenerator.generate(processingEnv, type, packageName(type)));
+		}
+		for (TypeElement type : ElementFilter.typesIn(roundEnv.getElementsAnnotatedWith(Param.class))) {
+			if (!isSupported(type)) continue;
+			write(type, ResolverGenerator.SUFFIX, ResolverGenerator.generate(processingEnv, type, packageName(type)));
+		}
+		return false;
+	}
+	
+	// 只处理公开的顶层普通类
+	private boolean isSupported(TypeElement type) {
+		if (type.getKind() != ElementKind.CLASS) {
+			return false;
+		}
+		if (type.getNestingKind() != NestingKind.TOP_LEVEL) {
+			return false;
+		}
+		return type.getModifiers().contains(Modifier.PUBLIC);
+	}
+	
+	// 获取类型所在的包名
+	private String packageName(TypeElement type) {
+		return processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+	}
+	
+	// 写入生成的源文件
+	private void write(TypeElement type, String suffix, String source) {
+		if (source == null) return;
+		String name = type.getQualifiedName() + suffix;
+		try {
+			JavaFileObject file = processingEnv.getFiler().createSourceFile(name, type);
+			try (Writer writer = file.openWriter()) {
+				writer.write(source);
+			}
+		} catch (IOException e) {
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, e.getMessage(), type);
+		}
+	}
+}
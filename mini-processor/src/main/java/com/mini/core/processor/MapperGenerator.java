@@ -0,0 +1,141 @@
+package com.mini.core.processor;
+
+import com.mini.core.jdbc.annotation.Column;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeMirror;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.mini.core.processor.SourceWriter.literal;
+import static org.apache.commons.lang3.StringUtils.defaultIfBlank;
+
+/**
+ * 生成 {@code <Type>_$$$MAPPER$$$} 结果集映射类
+ * <p>
+ * 生成的映射器在 prepare 时按列名解析一次列序号，之后每行直接调用 JdbcUtil 的类型化取值方法和实体的 Setter 方法，
+ * 取值规则与 BeanMapper 的反射实现一致，取值错误直接抛出
+ * @author xchao
+ */
+final class MapperGenerator {
+	static final String SUFFIX = "_$$$MAPPER$$$";
+	private static final Map<String, String> GETTERS = new LinkedHashMap<>() {{
+		put("java.lang.String", "JdbcUtil.getString(rs, i)");
+		put("java.lang.Long", "JdbcUtil.getOLong(rs, i)");
+		put("long", "JdbcUtil.getLong(rs, i)");
+		put("java.lang.Integer", "JdbcUtil.getInteger(rs, i)");
+		put("int", "JdbcUtil.getInt(rs, i)");
+		put("java.lang.Short", "JdbcUtil.getOShort(rs, i)");
+		put("short", "JdbcUtil.getShort(rs, i)");
+		put("java.lang.Byte", "JdbcUtil.getOByte(rs, i)");
+		put("byte", "JdbcUtil.getByte(rs, i)");
+		put("java.lang.Double", "JdbcUtil.getODouble(rs, i)");
+		put("double", "JdbcUtil.getDouble(rs, i)");
+		put("java.lang.Float", "JdbcUtil.getOFloat(rs, i)");
+		put("float", "JdbcUtil.getFloat(rs, i)");
+		put("java.lang.Boolean", "JdbcUtil.getOBoolean(rs, i)");
+		put("boolean", "JdbcUtil.getBoolean(rs, i)");
+		put("byte[]", "JdbcUtil.getBytes(rs, i)");
+		put("java.util.Date", "JdbcUtil.getTimestamp(rs, i)");
+		put("java.sql.Timestamp", "JdbcUtil.getTimestamp(rs, i)");
+		put("java.sql.Date", "JdbcUtil.getDate(rs, i)");
+		put("java.sql.Time", "JdbcUtil.getTime(rs, i)");
+	}};
+	private static final Map<String, String[]> CONVERTS = new LinkedHashMap<>() {{
+		put("java.time.LocalDateTime", new String[]{"JdbcUtil.getTimestamp(rs, i)", "toLocalDateTime"});
+		put("java.time.LocalDate", new String[]{"JdbcUtil.getDate(rs, i)", "toLocalDate"});
+		put("java.time.LocalTime", new String[]{"JdbcUtil.getTime(rs, i)", "toLocalTime"});
+	}};
+	
+	private MapperGenerator() {}
+	
+	/**
+	 * 生成映射类源代码
+	 * @param env  编译环境
+	 * @param type 实体类型
+	 * @return 源代码，不支持生成时返回 null
+	 */
+	static String generate(ProcessingEnvironment env, TypeElement type, String packageName) {
+		if (!BeanProperty.hasPublicConstructor(type)) {
+			return null;
+		}
+		// 与 BeanMapper 一致：同名的列由后放入 HashMap 的属性覆盖
+		Map<String, BeanProperty> columns = new LinkedHashMap<>();
+		for (BeanProperty property : BeanProperty.of(env, type)) {
+			Column column = property.getAnnotation(Column.class);
+			if (column == null) continue;
+			String name = defaultIfBlank(column.alias(), column.value());
+			columns.remove(name);
+			columns.put(name, property);
+		}
+		String entity = type.getQualifiedName().toString();
+		String simpleName = type.getSimpleName() + SUFFIX;
+		SourceWriter w = new SourceWriter();
+		if (!packageName.isEmpty()) {
+			w.line("package %s;", packageName).line();
+		}
+		w.line("import com.mini.core.jdbc.mapper.Mapper;");
+		w.line("import com.mini.core.jdbc.util.JdbcUtil;").line();
+		w.line("import java.sql.ResultSet;");
+		w.line("import java.sql.ResultSetMetaData;");
+		w.line("import java.sql.SQLException;").line();
+		List<Map.Entry<String, BeanProperty>> setters = new ArrayList<>();
+		for (Map.Entry<String, BeanProperty> entry : columns.entrySet()) {
+			if (entry.getValue().hasSetter()) setters.add(entry);
+		}
+		w.line("@SuppressWarnings(\"all\")");
+		w.line("public final class %s implements Mapper<%s> {", simpleName, entity);
+		w.line("private final int[] indexes;").line();
+		w.line("public %s(Class<%s> type) {", simpleName, entity);
+		w.line("this.indexes = null;");
+		w.line("}").line();
+		w.line("private %s(int[] indexes) {", simpleName);
+		w.line("this.indexes = indexes;");
+		w.line("}").line();
+		// 每个结果集只解析一次列序号，同名的列由后面的列覆盖
+		w.line("@Override");
+		w.line("public Mapper<%s> prepare(String sql, ResultSetMetaData metaData) throws SQLException {", entity);
+		w.line("int[] indexes = new int[%d];", setters.size());
+		w.line("for (int i = 1, count = metaData.getColumnCount(); i <= count; i++) {");
+		w.line("switch (JdbcUtil.lookupColumnName(metaData, i)) {");
+		for (int k = 0; k < setters.size(); k++) {
+			w.line("case %s: indexes[%d] = i; break;", literal(setters.get(k).getKey()), k);
+		}
+		w.line("}");
+		w.line("}");
+		w.line("return new %s(indexes);", simpleName);
+		w.line("}").line();
+		w.line("@Override");
+		w.line("public %s get(ResultSet rs, int number) throws SQLException {", entity);
+		w.line("if (indexes == null) {");
+		w.line("return prepare(null, rs.getMetaData()).get(rs, number);");
+		w.line("}");
+		w.line("%s result = new %s();", entity, entity);
+		w.line("int i;");
+		for (int k = 0; k < setters.size(); k++) {
+			BeanProperty property = setters.get(k).getValue();
+			w.line("if ((i = indexes[%d]) > 0) result.%s(%s);", k, property.getSetterName(), getValue(env, property.getType()));
+		}
+		w.line("return result;");
+		w.line("}");
+		w.line("}");
+		return w.toString();
+	}
+	
+	// 获取列值的表达式
+	private static String getValue(ProcessingEnvironment env, TypeMirror type) {
+		String name = env.getTypeUtils().erasure(type).toString();
+		String getter = GETTERS.get(name);
+		if (getter != null) {
+			return getter;
+		}
+		String[] convert = CONVERTS.get(name);
+		if (convert != null) {
+			return String.format("java.util.Optional.ofNullable(%s).map(v -> v.%s()).orElse(null)", convert[0], convert[1]);
+		}
+		return String.format("(%s) JdbcUtil.getObject(rs, i)", name);
+	}
+}
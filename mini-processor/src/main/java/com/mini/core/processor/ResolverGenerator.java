@@ -0,0 +1,206 @@
+package com.mini.core.processor;
+
+import com.mini.core.validation.Constraint;
+import com.mini.core.web.annotation.Param;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.*;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Types;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 生成 {@code <Type>_$$$RESOLVER$$$} 参数绑定类
+ * <p>
+ * 生成的绑定器按 ArgumentResolverBean 相同的属性顺序转换参数、执行验证并直接调用 Setter 方法；
+ * 带 {@link Param} 注解的嵌套类型与 BindingPlan 一样使用“字段名.属性名”绑定
+ * @author xchao
+ */
+final class ResolverGenerator {
+	static final String SUFFIX = "_$$$RESOLVER$$$";
+	
+	private ResolverGenerator() {}
+	
+	/**
+	 * 生成参数绑定类源代码
+	 * @param env  编译环境
+	 * @param type 参数类型
+	 * @return 源代码，不支持生成时返回 null
+	 */
+	static String generate(ProcessingEnvironment env, TypeElement type, String packageName) {
+		if (!BeanProperty.hasPublicConstructor(type)) {
+			return null;
+		}
+		Types types = env.getTypeUtils();
+		List<Plan> plans = new ArrayList<>();
+		int[] counter = new int[1];
+		if (plan(env, type, "", new HashSet<>(), plans, counter) == null) {
+			return null;
+		}
+		String simpleName = type.getSimpleName() + SUFFIX;
+		SourceWriter w = new SourceWriter();
+		if (!packageName.isEmpty()) {
+			w.line("package %s;", packageName).line();
+		}
+		w.line("import com.google.inject.Injector;");
+		w.line("import com.mini.core.util.holder.ClassHolder;");
+		w.line("import com.mini.core.validation.ValidationUtil;");
+		w.line("import com.mini.core.web.argument.ArgumentResolverBean;");
+		w.line("import com.mini.core.web.argument.ArgumentResolverSupport;").line();
+		w.line("import java.lang.reflect.Field;");
+		w.line("import java.util.function.Function;").line();
+		w.line("@SuppressWarnings(\"all\")");
+		w.line("public final class %s implements ArgumentResolverBean.Binder {", simpleName);
+		Property[] properties = new Property[counter[0]];
+		for (Plan plan : plans) {
+			plan.properties.forEach(property -> properties[property.index] = property);
+		}
+		for (Property property : properties) {
+			BeanProperty p = property.property;
+			int i = property.index;
+			if (property.nested == null) {
+				String erasure = types.erasure(p.getType()).toString();
+				w.line("private static final Function<String[], Object> F%d = ArgumentResolverSupport.getBeanFunc(%s.class);", i, erasure);
+			}
+			if (hasConstraint(p.getField())) {
+				String entity = property.owner.getQualifiedName().toString();
+				w.line("private static final Field V%d = ClassHolder.create(%s.class).getField(%s).getField();", i, entity, SourceWriter.literal(p.getName()));
+			}
+		}
+		for (Plan plan : plans) {
+			String entity = plan.type.getQualifiedName().toString();
+			w.line();
+			if (plan.method < 0) {
+				w.line("@Override");
+				w.line("public Object bind(Injector injector, Function<String, String[]> source) {");
+			} else {
+				// 嵌套类型，没有任何参数时返回空，与 BindingPlan 一致
+				w.line("private static Object n%d(Injector injector, Function<String, String[]> source) {", plan.method);
+				w.line("boolean present = false;");
+			}
+			w.line("%1$s result = new %1$s();", entity);
+			for (Property property : plan.properties) {
+				BeanProperty p = property.property;
+				int i = property.index;
+				String name = SourceWriter.literal(plan.prefix + p.getName());
+				if (property.nested != null) {
+					w.line("Object v%d = n%d(injector, source);", i, property.nested.method);
+				} else {
+					w.line("String[] s%1$d = F%1$d == null ? null : source.apply(%2$s);", i, name);
+					w.line("Object v%1$d = F%1$d == null ? null : F%1$d.apply(s%1$d);", i);
+				}
+				if (plan.method >= 0) {
+					w.line("present |= %s%d != null;", property.nested != null ? "v" : "s", i);
+				}
+				if (hasConstraint(p.getField())) {
+					w.line("ValidationUtil.validate(injector, V%1$d, v%1$d);", i);
+				}
+				// 基本类型没有参数值时保留默认值，与 BindingPlan 一致
+				if (p.getType().getKind().isPrimitive()) {
+					w.line("if (v%3$d != null) result.%1$s((%2$s) v%3$d);", p.getSetterName(), boxed(types, p.getType()), i);
+				} else w.line("result.%s((%s) v%d);", p.getSetterName(), boxed(types, p.getType()), i);
+			}
+			w.line(plan.method < 0 ? "return result;" : "return present ? result : null;");
+			w.line("}");
+		}
+		w.line("}");
+		return w.toString();
+	}
+	
+	// 生成类型及其嵌套类型的绑定计划，嵌套类型不能在生成的代码中访问时返回 null
+	private static Plan plan(ProcessingEnvironment env, TypeElement type, String prefix, Set<String> parents,
+			List<Plan> plans, int[] counter) {
+		Plan plan = new Plan(type, prefix, plans.size() - 1);
+		plans.add(plan);
+		parents.add(type.getQualifiedName().toString());
+		for (BeanProperty p : BeanProperty.of(env, type)) {
+			if (!p.hasSetter()) continue;
+			Property property = new Property(type, p, counter[0]++);
+			TypeElement nested = nested(p.getType(), parents);
+			if (nested != null) {
+				if (!nested.getModifiers().contains(Modifier.PUBLIC)) {
+					return null;
+				}
+				property.nested = plan(env, nested, prefix + p.getName() + ".", parents, plans, counter);
+				if (property.nested == null) {
+					return null;
+				}
+			}
+			plan.properties.add(property);
+		}
+		parents.remove(type.getQualifiedName().toString());
+		return plan;
+	}
+	
+	// 带 Param 注解并且可以创建实例的嵌套类型，与 BindingPlan 一样忽略循环引用和不能创建实例的类型
+	private static TypeElement nested(TypeMirror type, Set<String> parents) {
+		if (type.getKind() != TypeKind.DECLARED) {
+			return null;
+		}
+		TypeElement element = (TypeElement) ((DeclaredType) type).asElement();
+		if (element.getKind() != ElementKind.CLASS || element.getAnnotation(Param.class) == null) {
+			return null;
+		}
+		if (parents.contains(element.getQualifiedName().toString()) || !BeanProperty.hasPublicConstructor(element)) {
+			return null;
+		}
+		if (element.getNestingKind() == NestingKind.MEMBER && !element.getModifiers().contains(Modifier.STATIC)) {
+			return null;
+		}
+		return element;
+	}
+	
+	// 字段上是否有验证注解
+	private static boolean hasConstraint(VariableElement field) {
+		if (field == null) return false;
+		for (AnnotationMirror mirror : field.getAnnotationMirrors()) {
+			if (mirror.getAnnotationType().asElement().getAnnotation(Constraint.class) != null) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	// 基本类型转换成包装类型
+	private static String boxed(Types types, TypeMirror type) {
+		if (type.getKind().isPrimitive()) {
+			return types.boxedClass(types.getPrimitiveType(type.getKind())).getQualifiedName().toString();
+		}
+		return types.erasure(type).toString();
+	}
+	
+	/**
+	 * 一个类型的绑定计划，嵌套类型生成单独的方法
+	 */
+	private static final class Plan {
+		private final List<Property> properties = new ArrayList<>();
+		private final TypeElement type;
+		private final String prefix;
+		// 嵌套类型的方法序号，-1 表示 bind 方法
+		private final int method;
+		
+		private Plan(TypeElement type, String prefix, int method) {
+			this.type = type;
+			this.prefix = prefix;
+			this.method = method;
+		}
+	}
+	
+	private static final class Property {
+		private final BeanProperty property;
+		private final TypeElement owner;
+		private final int index;
+		private Plan nested;
+		
+		private Property(TypeElement owner, BeanProperty property, int index) {
+			this.property = property;
+			this.owner = owner;
+			this.index = index;
+		}
+	}
+}
@@ -0,0 +1,206 @@
+package com.mini.core.processor;
+
+import com.mini.core.jdbc.annotation.*;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.TypeElement;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.mini.core.processor.SourceWriter.literal;
+
+/**
+ * 生成 {@code <Type>_$$$SQL$$$} SQL 语句创建类
+ * <p>
+ * 生成的代码按 SQLInterfaceDef 相同的字段顺序和注解规则直接调用 SQLBuilder，
+ * 不再需要运行时读取注解和反射调用 Getter 方法
+ * @author xchao
+ */
+final class SQLGenerator {
+	static final String SUFFIX = "_$$$SQL$$$";
+	private final List<BeanProperty> columns;
+	private final TypeElement type;
+	private final SourceWriter w;
+	private final String entity;
+	private final String table;
+	
+	private SQLGenerator(ProcessingEnvironment env, TypeElement type) {
+		this.columns = BeanProperty.of(env, type).stream().filter(p -> {
+			return p.getAnnotation(Column.class) != null;
+		}).collect(Collectors.toList());
+		this.table = type.getAnnotation(Table.class).value();
+		this.entity = type.getQualifiedName().toString();
+		this.w = new SourceWriter();
+		this.type = type;
+	}
+	
+	/**
+	 * 生成 SQL 语句创建类源代码
+	 * @param env  编译环境
+	 * @param type 实体类型
+	 * @return 源代码
+	 */
+	static String generate(ProcessingEnvironment env, TypeElement type, String packageName) {
+		SQLGenerator generator = new SQLGenerator(env, type);
+		boolean deleted = BeanProperty.of(env, type).stream().anyMatch(p -> {
+			return p.getAnnotation(Del.class) != null;
+		});
+		return generator.write(packageName, deleted);
+	}
+	
+	private String write(String packageName, boolean deleted) {
+		String simpleName = type.getSimpleName() + SUFFIX;
+		if (!packageName.isEmpty()) {
+			w.line("package %s;", packageName).line();
+		}
+		w.line("import com.mini.core.jdbc.annotation.Join;");
+		w.line("import com.mini.core.jdbc.builder.SQLBuilder;");
+		w.line("import com.mini.core.jdbc.builder.SQLInterface;").line();
+		w.line("import java.util.Date;").line();
+		w.line("import static java.lang.System.currentTimeMillis;").line();
+		w.line("@SuppressWarnings(\"all\")");
+		w.line("public final class %s implements SQLInterface {", simpleName);
+		writeInsert("createReplace", "replaceInto");
+		writeInsert("createInsert", "insertInto");
+		writeDelete(deleted);
+		writeUpdate();
+		writeInsertOnUpdate();
+		writeSelect();
+		w.line("}");
+		return w.toString();
+	}
+	
+	// REPLACE INTO 与 INSERT INTO 语句
+	private void writeInsert(String method, String into) {
+		begin(method);
+		w.line("builder.%s(%s);", into, literal(table));
+		writeValues();
+		w.line("}");
+	}
+	
+	private void writeValues() {
+		for (BeanProperty p : columns) {
+			if (p.getAnnotation(Auto.class) != null) continue;
+			String column = column(p);
+			w.line("builder.values(%s);", column);
+			if (p.getAnnotation(Lock.class) != null) {
+				w.line("builder.args(currentTimeMillis());");
+			} else if (p.getAnnotation(CreateAt.class) != null) {
+				w.line("builder.args(new Date());");
+			} else if (p.getAnnotation(UpdateAt.class) != null) {
+				w.line("builder.args(new Date());");
+			} else w.line("builder.args(%s);", value(p));
+		}
+	}
+	
+	// DELETE 语句，有删除状态字段时修改删除状态
+	private void writeDelete(boolean deleted) {
+		begin("createDelete");
+		if (deleted) {
+			w.line("builder.update(%s);", literal(table));
+			for (BeanProperty p : columns) {
+				Del del = p.getAnnotation(Del.class);
+				if (del != null) {
+					w.line("builder.setEquals(%s, %d);", column(p), del.value());
+				}
+				if (p.getAnnotation(Lock.class) != null) {
+					w.line("builder.setEquals(%s, currentTimeMillis());", column(p));
+				}
+			}
+		} else w.line("builder.delete(%1$s).from(%1$s);", literal(table));
+		for (BeanProperty p : columns) {
+			if (p.getAnnotation(Id.class) != null) {
+				w.line("builder.whereEquals(%s, %s);", column(p), value(p));
+			}
+			if (p.getAnnotation(Lock.class) != null) {
+				w.line("builder.whereEquals(%s, %s);", column(p), value(p));
+			}
+		}
+		w.line("}");
+	}
+	
+	// UPDATE 语句
+	private void writeUpdate() {
+		begin("createUpdate");
+		w.line("builder.update(%s);", literal(table));
+		for (BeanProperty p : columns) {
+			if (p.getAnnotation(Id.class) != null) continue;
+			if (p.getAnnotation(CreateAt.class) != null) continue;
+			w.line("builder.set(\"%%s = ?\", %s);", column(p));
+			if (p.getAnnotation(UpdateAt.class) != null) {
+				w.line("builder.args(new Date());");
+			} else if (p.getAnnotation(Lock.class) != null) {
+				w.line("builder.args(currentTimeMillis());");
+			} else w.line("builder.args(%s);", value(p));
+		}
+		for (BeanProperty p : columns) {
+			if (p.getAnnotation(Id.class) == null && p.getAnnotation(Lock.class) == null) {
+				continue;
+			}
+			w.line("builder.where(\"%%s = ?\", %s);", column(p));
+			w.line("builder.args(%s);", value(p));
+		}
+		w.line("}");
+	}
+	
+	// INSERT ON DUPLICATE KEY UPDATE 语句
+	private void writeInsertOnUpdate() {
+		begin("createInsertOnUpdate");
+		w.line("builder.insertInto(%s);", literal(table));
+		writeValues();
+		for (BeanProperty p : columns) {
+			if (p.getAnnotation(Id.class) != null) continue;
+			if (p.getAnnotation(CreateAt.class) != null) continue;
+			if (p.getAnnotation(UpdateAt.class) != null) {
+				w.line("builder.onDuplicateKeyUpdate(\"%%s = ?\", %s);", column(p));
+				w.line("builder.args(new Date());");
+			} else if (p.getAnnotation(Lock.class) != null) {
+				w.line("builder.onDuplicateKeyUpdate(\"%%s = ?\", %s);", column(p));
+				w.line("builder.args(currentTimeMillis());");
+			} else {
+				w.line("builder.onDuplicateKeyUpdate(\"%%s = VALUES(%%s)\", %1$s, %1$s);", column(p));
+			}
+		}
+		w.line("}");
+	}
+	
+	// SELECT 语句
+	private void writeSelect() {
+		w.line().line("@Override");
+		w.line("public <T> void createSelect(SQLBuilder builder, Class<T> type) {");
+		for (BeanProperty p : columns) {
+			w.line("builder.select(%s);", column(p));
+		}
+		w.line("builder.from(%s);", literal(table));
+		for (Join join : type.getAnnotationsByType(Join.class)) {
+			String args = Stream.of(join.args()).map(SourceWriter::literal).collect(Collectors.joining(", "));
+			w.line("Join.JoinType.%s.execute(builder, %s, new Object[]{%s});", join.type().name(), literal(join.value()), args);
+		}
+		for (BeanProperty p : columns) {
+			Del del = p.getAnnotation(Del.class);
+			if (del == null) continue;
+			w.line("builder.where(\"%%s <> ?\", %s);", column(p));
+			w.line("builder.args(%d);", del.value());
+		}
+		w.line("}");
+	}
+	
+	// 生成方法的开始部分
+	private void begin(String method) {
+		w.line().line("@Override");
+		w.line("public <T> void %s(SQLBuilder builder, T instance) {", method);
+		w.line("%1$s o = (%1$s) instance;", entity);
+	}
+	
+	// 字段名称的字面量
+	private static String column(BeanProperty p) {
+		return literal(p.getAnnotation(Column.class).value());
+	}
+	
+	// 字段值的表达式，没有 Getter 方法时与 FieldHolder 一致返回 null
+	private static String value(BeanProperty p) {
+		if (!p.hasGetter()) return "(Object) null";
+		return String.format("(Object) o.%s()", p.getGetterName());
+	}
+}
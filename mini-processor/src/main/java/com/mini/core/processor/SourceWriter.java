@@ -0,0 +1,72 @@
+package com.mini.core.processor;
+
+import javax.annotation.Nonnull;
+
+/**
+ * 生成源代码的简单写入工具
+ * @author xchao
+ */
+final class SourceWriter {
+	private final StringBuilder builder = new StringBuilder();
+	private int indent = 0;
+	
+	/**
+	 * 写入一行代码，以 “{” 结尾时增加缩进，以 “}” 开头时减少缩进
+	 * @param format 代码格式
+	 * @param args   格式参数
+	 * @return {@code this}
+	 */
+	public final SourceWriter line(@Nonnull String format, Object... args) {
+		String code = args.length == 0 ? format : String.format(format, args);
+		if (code.startsWith("}")) indent--;
+		builder.append("\t".repeat(Math.max(indent, 0)));
+		builder.append(code).append('\n');
+		if (code.endsWith("{")) indent++;
+		return this;
+	}
+	
+	/**
+	 * 写入一个空行
+	 * @return {@code this}
+	 */
+	public final SourceWriter line() {
+		builder.append('\n');
+		return this;
+	}
+	
+	/**
+	 * 将字符串转换成 Java 字符串字面量
+	 * @param value 字符串
+	 * @return 字符串字面量
+	 */
+	public static String literal(String value) {
+		StringBuilder result = new StringBuilder("\"");
+		for (char c : value.toCharArray()) {
+			switch (c) {
+				case '"':
+					result.append("\\\"");
+					break;
+				case '\\':
+					result.append("\\\\");
+					break;
+				case '\n':
+					result.append("\\n");
+					break;
+				case '\r':
+					result.append("\\r");
+					break;
+				case '\t':
+					result.append("\\t");
+					break;
+				default:
+					result.append(c);
+			}
+		}
+		return result.append('"').toString();
+	}
+	
+	@Override
+	public String toString() {
+		return builder.toString();
+	}
+}
@@ -0,0 +1,101 @@
+package com.mini.core.processor;
+
+import com.mini.core.jdbc.mapper.BeanMapper;
+import com.mini.core.jdbc.mapper.Mapper;
+import com.mini.core.test.entity.ScoreInfo;
+import com.mini.core.test.entity.UserInfo;
+import org.junit.Test;
+
+import java.lang.reflect.Constructor;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.mini.core.processor.Stubs.assertSameFields;
+import static com.mini.core.processor.Stubs.resultSet;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 生成的映射器与 BeanMapper 反射实现的结果必须一致
+ * @author xchao
+ */
+public class MapperGeneratorTest {
+	private static final String[] USER_LABELS = {"user_id", "user_name", "user_full_name", "user_email", //
+			"user_age", "user_region_id", "user_create_time"};
+	private static final String[] SCORE_LABELS = {"score_id", "score_value", "score_rate", "score_passed", //
+			"score_rank", "score_level", "score_weight", "score_time", "score_day", "remark", "score_version", //
+			"score_deleted"};
+	
+	@Test
+	public void generatedMapperIsUsed() {
+		assertTrue(BeanMapper.create(UserInfo.class).getClass().getName().endsWith(MapperGenerator.SUFFIX));
+		assertTrue(BeanMapper.create(ScoreInfo.class).getClass().getName().endsWith(MapperGenerator.SUFFIX));
+	}
+	
+	@Test
+	public void userInfo() throws SQLException {
+		Object[] row = {1L, "name", "full name", "a@b.c", 18, 2L, new Timestamp(1600000000000L)};
+		assertSame(UserInfo.class, USER_LABELS, row);
+		assertSame(UserInfo.class, USER_LABELS, new Object[USER_LABELS.length]);
+	}
+	
+	@Test
+	public void scoreInfo() throws SQLException {
+		Object[] row = {1L, 90, 0.5D, true, (short) 3, (byte) 4, 1.5F, new Timestamp(1600000000000L), //
+				Date.valueOf("2020-09-13"), "remark", 7L, 0};
+		assertSame(ScoreInfo.class, SCORE_LABELS, row);
+		assertSame(ScoreInfo.class, SCORE_LABELS, new Object[SCORE_LABELS.length]);
+	}
+	
+	@Test
+	public void unknownMissingAndDuplicateColumns() throws SQLException {
+		String[] labels = {"extra", "user_name", "user_age", "user_name", "count(*)"};
+		assertSame(UserInfo.class, labels, new Object[]{1, "first", 20, "last", 5L});
+		// 字段名为 score_remark 但声明了别名时只按别名匹配
+		assertSame(ScoreInfo.class, new String[]{"score_remark", "score_value"}, new Object[]{"r", 1});
+	}
+	
+	@Test
+	public void preparedMapperReadsMetaDataOnce() throws SQLException {
+		Object[] row = {1L, "name", "full name", "a@b.c", 18, 2L, null};
+		AtomicInteger count = new AtomicInteger();
+		ResultSet rs = resultSet(USER_LABELS, row, count, 0);
+		Mapper<UserInfo> mapper = BeanMapper.create(UserInfo.class).prepare("SELECT", rs.getMetaData());
+		for (int number = 1; number <= 3; number++) {
+			assertEquals("name", mapper.get(rs, number).getName());
+		}
+		assertEquals(1, count.get());
+	}
+	
+	@Test(expected = SQLException.class)
+	public void generatedMapperPropagatesErrors() throws SQLException {
+		Object[] row = {1L, "name", "full name", "a@b.c", 18, 2L, null};
+		ResultSet rs = resultSet(USER_LABELS, row, new AtomicInteger(), 5);
+		BeanMapper.create(UserInfo.class).get(rs, 1);
+	}
+	
+	// 生成的映射器与反射实现，直接读取和先准备再读取，结果都一致
+	private static <T> void assertSame(Class<T> type, String[] labels, Object[] row) throws SQLException {
+		Mapper<T> generated = BeanMapper.create(type);
+		Mapper<T> reflective = reflective(type);
+		ResultSet rs = resultSet(labels, row, new AtomicInteger(), 0);
+		T expected = reflective.get(rs, 1);
+		assertSameFields(expected, generated.get(rs, 1));
+		assertSameFields(expected, generated.prepare("SELECT", rs.getMetaData()).get(rs, 1));
+		assertSameFields(expected, reflective.prepare("SELECT", rs.getMetaData()).get(rs, 1));
+	}
+	
+	@SuppressWarnings("unchecked")
+	private static <T> Mapper<T> reflective(Class<T> type) {
+		try {
+			Constructor<?> constructor = BeanMapper.class.getDeclaredConstructor(Class.class);
+			constructor.setAccessible(true);
+			return (Mapper<T>) constructor.newInstance(type);
+		} catch (ReflectiveOperationException e) {
+			throw new AssertionError(e);
+		}
+	}
+}
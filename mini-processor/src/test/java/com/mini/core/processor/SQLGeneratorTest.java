@@ -0,0 +1,81 @@
+package com.mini.core.processor;
+
+import com.mini.core.jdbc.builder.SQLBuilder;
+import com.mini.core.jdbc.builder.SQLInterface;
+import com.mini.core.jdbc.builder.SQLInterfaceDef;
+import com.mini.core.test.entity.ScoreInfo;
+import com.mini.core.test.entity.UserInfo;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.function.BiConsumer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 生成的 SQL 创建类与 SQLInterfaceDef 编译的语句必须一致
+ * @author xchao
+ */
+public class SQLGeneratorTest {
+	private final SQLInterfaceDef reflective = new SQLInterfaceDef();
+	
+	@Test
+	public void userInfo() throws ReflectiveOperationException {
+		UserInfo user = new UserInfo();
+		user.setId(1L);
+		user.setName("name");
+		user.setAge(18);
+		assertSame(user);
+		assertSame(new UserInfo());
+	}
+	
+	@Test
+	public void scoreInfo() throws ReflectiveOperationException {
+		ScoreInfo score = new ScoreInfo();
+		score.setId(1L);
+		score.setValue(90);
+		score.setPassed(true);
+		score.setTime(LocalDateTime.of(2020, 9, 13, 12, 0));
+		score.setDay(LocalDate.of(2020, 9, 13));
+		score.setRemark("remark");
+		score.setVersion(7L);
+		assertSame(score);
+	}
+	
+	// 所有语句类型的 SQL 和参数都一致
+	private void assertSame(Object instance) throws ReflectiveOperationException {
+		Class<?> type = instance.getClass();
+		SQLInterface generated = (SQLInterface) Class.forName(type.getName() + SQLGenerator.SUFFIX)
+				.getDeclaredConstructor().newInstance();
+		assertSame(instance, generated::createInsert, reflective::createInsert);
+		assertSame(instance, generated::createReplace, reflective::createReplace);
+		assertSame(instance, generated::createDelete, reflective::createDelete);
+		assertSame(instance, generated::createUpdate, reflective::createUpdate);
+		assertSame(instance, generated::createInsertOnUpdate, reflective::createInsertOnUpdate);
+		assertSame(type, generated::createSelect, reflective::createSelect);
+	}
+	
+	private static <T> void assertSame(T instance, BiConsumer<SQLBuilder, T> generated, BiConsumer<SQLBuilder, T> reflective) {
+		SQLBuilder expected = new SQLBuilder(), actual = new SQLBuilder();
+		reflective.accept(expected, instance);
+		generated.accept(actual, instance);
+		assertEquals(expected.toSQL(), actual.toSQL());
+		assertArrayEquals(normalize(expected.args()), normalize(actual.args()));
+	}
+	
+	// 当前时间的参数只比较类型
+	private static Object[] normalize(Object[] args) {
+		long now = System.currentTimeMillis();
+		return Arrays.stream(args).map(arg -> {
+			if (arg instanceof Date) return Date.class;
+			if (arg instanceof Long && Math.abs((Long) arg - now) < 60_000) {
+				return "now";
+			}
+			return arg;
+		}).toArray();
+	}
+}
@@ -0,0 +1,105 @@
+package com.mini.core.processor;
+
+import com.mini.core.web.annotation.Param;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+/**
+ * 测试使用的结果集桩和属性比较方法
+ * @author xchao
+ */
+public final class Stubs {
+	private Stubs() {}
+	
+	/**
+	 * 单行结果集，get 方法按 JDBC 规则转换值，值为空时基本类型返回 0
+	 * @param labels   字段名称
+	 * @param row      行数据
+	 * @param metaData 记录 getMetaData 调用次数
+	 * @param failAt   读取该序号的字段时抛出 SQLException，0 表示不抛出
+	 * @return 结果集
+	 */
+	public static ResultSet resultSet(String[] labels, Object[] row, AtomicInteger metaData, int failAt) {
+		ResultSetMetaData md = (ResultSetMetaData) Proxy.newProxyInstance(Stubs.class.getClassLoader(),
+				new Class<?>[]{ResultSetMetaData.class}, (proxy, method, args) -> {
+					switch (method.getName()) {
+						case "getColumnCount":
+							return labels.length;
+						case "getColumnLabel":
+						case "getColumnName":
+							return labels[(Integer) args[0] - 1];
+						default:
+							throw new UnsupportedOperationException(method.getName());
+					}
+				});
+		boolean[] wasNull = {false};
+		return (ResultSet) Proxy.newProxyInstance(Stubs.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+				(proxy, method, args) -> {
+					String name = method.getName();
+					if (name.equals("getMetaData")) {
+						metaData.incrementAndGet();
+						return md;
+					}
+					if (name.equals("wasNull")) {
+						return wasNull[0];
+					}
+					if (!name.startsWith("get") || args == null || !(args[0] instanceof Integer)) {
+						throw new UnsupportedOperationException(name);
+					}
+					int index = (Integer) args[0];
+					if (index == failAt) {
+						throw new SQLException("column " + index);
+					}
+					Object value = row[index - 1];
+					wasNull[0] = value == null;
+					return convert(method.getReturnType(), value);
+				});
+	}
+	
+	// 按方法返回类型转换值
+	private static Object convert(Class<?> type, Object value) {
+		if (type == Object.class) return value;
+		if (type == String.class) return value == null ? null : value.toString();
+		if (type == boolean.class) return value != null && (Boolean) value;
+		if (!type.isPrimitive()) return value;
+		Number number = value == null ? 0 : (Number) value;
+		if (type == long.class) return number.longValue();
+		if (type == int.class) return number.intValue();
+		if (type == short.class) return number.shortValue();
+		if (type == byte.class) return number.byteValue();
+		if (type == double.class) return number.doubleValue();
+		if (type == float.class) return number.floatValue();
+		throw new UnsupportedOperationException(type.getName());
+	}
+	
+	/**
+	 * 比较两个对象所有实例字段的值，带 {@link Param} 注解的嵌套对象逐个字段比较
+	 * @param expected 期望值
+	 * @param actual   实际值
+	 */
+	public static void assertSameFields(Object expected, Object actual) {
+		assertNotNull(actual);
+		assertEquals(expected.getClass(), actual.getClass());
+		try {
+			for (Field field : expected.getClass().getDeclaredFields()) {
+				if (Modifier.isStatic(field.getModifiers())) continue;
+				field.setAccessible(true);
+				Object value = field.get(expected);
+				if (value != null && value.getClass().isAnnotationPresent(Param.class)) {
+					assertSameFields(value, field.get(actual));
+				} else assertEquals(field.getName(), value, field.get(actual));
+			}
+		} catch (IllegalAccessException e) {
+			throw new AssertionError(e);
+		}
+	}
+}
@@ -0,0 +1,149 @@
+package com.mini.core.test.entity;
+
+import com.mini.core.jdbc.annotation.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 覆盖基本类型、时间类型、别名、锁和删除状态字段的实体
+ * @author xchao
+ */
+@Table("score_info")
+public class ScoreInfo {
+	@Id
+	@Auto
+	@Column("score_id")
+	private long id;
+	
+	@Column("score_value")
+	private int value;
+	
+	@Column("score_rate")
+	private double rate;
+	
+	@Column("score_passed")
+	private boolean passed;
+	
+	@Column("score_rank")
+	private short rank;
+	
+	@Column("score_level")
+	private byte level;
+	
+	@Column("score_weight")
+	private float weight;
+	
+	@Column("score_time")
+	private LocalDateTime time;
+	
+	@Column("score_day")
+	private LocalDate day;
+	
+	@Column(value = "score_remark", alias = "remark")
+	private String remark;
+	
+	@Lock
+	@Column("score_version")
+	private long version;
+	
+	@Del
+	@Column("score_deleted")
+	private int deleted;
+	
+	public long getId() {
+		return id;
+	}
+	
+	public void setId(long id) {
+		this.id = id;
+	}
+	
+	public int getValue() {
+		return value;
+	}
+	
+	public void setValue(int value) {
+		this.value = value;
+	}
+	
+	public double getRate() {
+		return rate;
+	}
+	
+	public void setRate(double rate) {
+		this.rate = rate;
+	}
+	
+	public boolean isPassed() {
+		return passed;
+	}
+	
+	public void setPassed(boolean passed) {
+		this.passed = passed;
+	}
+	
+	public short getRank() {
+		return rank;
+	}
+	
+	public void setRank(short rank) {
+		this.rank = rank;
+	}
+	
+	public byte getLevel() {
+		return level;
+	}
+	
+	public void setLevel(byte level) {
+		this.level = level;
+	}
+	
+	public float getWeight() {
+		return weight;
+	}
+	
+	public void setWeight(float weight) {
+		this.weight = weight;
+	}
+	
+	public LocalDateTime getTime() {
+		return time;
+	}
+	
+	public void setTime(LocalDateTime time) {
+		this.time = time;
+	}
+	
+	public LocalDate getDay() {
+		return day;
+	}
+	
+	public void setDay(LocalDate day) {
+		this.day = day;
+	}
+	
+	public String getRemark() {
+		return remark;
+	}
+	
+	public void setRemark(String remark) {
+		this.remark = remark;
+	}
+	
+	public long getVersion() {
+		return version;
+	}
+	
+	public void setVersion(long version) {
+		this.version = version;
+	}
+	
+	public int getDeleted() {
+		return deleted;
+	}
+	
+	public void setDeleted(int deleted) {
+		this.deleted = deleted;
+	}
+}
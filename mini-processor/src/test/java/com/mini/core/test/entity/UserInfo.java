@@ -0,0 +1,103 @@
+package com.mini.core.test.entity;
+
+import com.mini.core.jdbc.annotation.Column;
+import com.mini.core.jdbc.annotation.CreateAt;
+import com.mini.core.jdbc.annotation.Id;
+import com.mini.core.jdbc.annotation.Table;
+
+import java.util.Date;
+
+/**
+ * 与 test-jdbc 中 UserInfo 相同的表结构，使用框架自己的注解
+ * @author xchao
+ */
+@Table(UserInfo.USER_INFO)
+public class UserInfo {
+	public static final String USER_INFO = "user_info";
+	public static final String USER_ID = "user_id";
+	public static final String USER_NAME = "user_name";
+	public static final String USER_FULL_NAME = "user_full_name";
+	public static final String USER_EMAIL = "user_email";
+	public static final String USER_AGE = "user_age";
+	public static final String USER_REGION_ID = "user_region_id";
+	public static final String USER_CREATE_TIME = "user_create_time";
+	
+	@Id
+	@Column(USER_ID)
+	private Long id;
+	
+	@Column(USER_NAME)
+	private String name;
+	
+	@Column(USER_FULL_NAME)
+	private String fullName;
+	
+	@Column(USER_EMAIL)
+	private String email;
+	
+	@Column(USER_AGE)
+	private Integer age;
+	
+	@Column(USER_REGION_ID)
+	private Long regionId;
+	
+	@CreateAt
+	@Column(USER_CREATE_TIME)
+	private Date createTime;
+	
+	public Long getId() {
+		return id;
+	}
+	
+	public void setId(Long id) {
+		this.id = id;
+	}
+	
+	public String getName() {
+		return name;
+	}
+	
+	public void setName(String name) {
+		this.name = name;
+	}
+	
+	public String getFullName() {
+		return fullName;
+	}
+	
+	public void setFullName(String fullName) {
+		this.fullName = fullName;
+	}
+	
+	public String getEmail() {
+		return email;
+	}
+	
+	public void setEmail(String email) {
+		this.email = email;
+	}
+	
+	public Integer getAge() {
+		return age;
+	}
+	
+	public void setAge(Integer age) {
+		this.age = age;
+	}
+	
+	public Long getRegionId() {
+		return regionId;
+	}
+	
+	public void setRegionId(Long regionId) {
+		this.regionId = regionId;
+	}
+	
+	public Date getCreateTime() {
+		return createTime;
+	}
+	
+	public void setCreateTime(Date createTime) {
+		this.createTime = createTime;
+	}
+}
@@ -0,0 +1,69 @@
+package com.mini.core.test.form;
+
+import com.mini.core.web.annotation.Param;
+
+/**
+ * 嵌套参数，其中的 Region 再嵌套一层
+ * @author xchao
+ */
+@Param
+public class Address {
+	private String city;
+	private String street;
+	private int zip;
+	private Region region;
+	
+	public String getCity() {
+		return city;
+	}
+	
+	public void setCity(String city) {
+		this.city = city;
+	}
+	
+	public String getStreet() {
+		return street;
+	}
+	
+	public void setStreet(String street) {
+		this.street = street;
+	}
+	
+	public int getZip() {
+		return zip;
+	}
+	
+	public void setZip(int zip) {
+		this.zip = zip;
+	}
+	
+	public Region getRegion() {
+		return region;
+	}
+	
+	public void setRegion(Region region) {
+		this.region = region;
+	}
+	
+	@Param
+	public static class Region {
+		private Long id;
+		private String name;
+		
+		public Long getId() {
+			return id;
+		}
+		
+		public void setId(Long id) {
+			this.id = id;
+		}
+		
+		public String getName() {
+			return name;
+		}
+		
+		public void setName(String name) {
+			this.name = name;
+		}
+	}
+}
@@ -0,0 +1,24 @@
+package com.mini.core.test.form;
+
+import com.mini.core.web.annotation.Param;
+
+/**
+ * 没有公共无参构造方法的嵌套参数，绑定时设置为空
+ * @author xchao
+ */
+@Param
+public class Contact {
+	private String phone;
+	
+	public Contact(String phone) {
+		this.phone = phone;
+	}
+	
+	public String getPhone() {
+		return phone;
+	}
+	
+	public void setPhone(String phone) {
+		this.phone = phone;
+	}
+}
@@ -0,0 +1,56 @@
+package com.mini.core.test.form;
+
+import com.mini.core.web.annotation.Param;
+
+/**
+ * 带嵌套参数的表单：嵌套类型、不能创建实例的嵌套类型和循环引用
+ * @author xchao
+ */
+@Param
+public class OrderSave {
+	private Long id;
+	private String remark;
+	private Address address;
+	private Contact contact;
+	private OrderSave parent;
+	
+	public Long getId() {
+		return id;
+	}
+	
+	public void setId(Long id) {
+		this.id = id;
+	}
+	
+	public String getRemark() {
+		return remark;
+	}
+	
+	public void setRemark(String remark) {
+		this.remark = remark;
+	}
+	
+	public Address getAddress() {
+		return address;
+	}
+	
+	public void setAddress(Address address) {
+		this.address = address;
+	}
+	
+	public Contact getContact() {
+		return contact;
+	}
+	
+	public void setContact(Contact contact) {
+		this.contact = contact;
+	}
+	
+	public OrderSave getParent() {
+		return parent;
+	}
+	
+	public void setParent(OrderSave parent) {
+		this.parent = parent;
+	}
+}
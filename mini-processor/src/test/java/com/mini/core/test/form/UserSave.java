@@ -0,0 +1,101 @@
+package com.mini.core.test.form;
+
+import com.mini.core.web.annotation.Param;
+
+/**
+ * 与 test-jdbc 中 UserSave 相同的表单，另外加入没有参数时保留默认值的基本类型属性
+ * @author xchao
+ */
+@Param
+public class UserSave {
+	private Long id;
+	private String name;
+	private String fullName;
+	private String email;
+	private Integer age;
+	private Long regionId;
+	private int level;
+	private short rank;
+	private boolean enabled;
+	private char grade = 'C';
+	
+	public Long getId() {
+		return id;
+	}
+	
+	public void setId(Long id) {
+		this.id = id;
+	}
+	
+	public String getName() {
+		return name;
+	}
+	
+	public void setName(String name) {
+		this.name = name;
+	}
+	
+	public String getFullName() {
+		return fullName;
+	}
+	
+	public void setFullName(String fullName) {
+		this.fullName = fullName;
+	}
+	
+	public String getEmail() {
+		return email;
+	}
+	
+	public void setEmail(String email) {
+		this.email = email;
+	}
+	
+	public Integer getAge() {
+		return age;
+	}
+	
+	public void setAge(Integer age) {
+		this.age = age;
+	}
+	
+	public Long getRegionId() {
+		return regionId;
+	}
+	
+	public void setRegionId(Long regionId) {
+		this.regionId = regionId;
+	}
+	
+	public int getLevel() {
+		return level;
+	}
+	
+	public void setLevel(int level) {
+		this.level = level;
+	}
+	
+	public short getRank() {
+		return rank;
+	}
+	
+	public void setRank(short rank) {
+		this.rank = rank;
+	}
+	
+	public boolean isEnabled() {
+		return enabled;
+	}
+	
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+	
+	public char getGrade() {
+		return grade;
+	}
+	
+	public void setGrade(char grade) {
+		this.grade = grade;
+	}
+}
@@ -0,0 +1,95 @@
+package com.mini.core.web.argument;
+
+import com.mini.core.processor.Stubs;
+import com.mini.core.test.form.OrderSave;
+import com.mini.core.test.form.UserSave;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * 生成的参数绑定器与 BindingPlan 的结果必须一致
+ * <p>
+ * 表单上没有验证注解，两种实现都不使用 Injector；嵌套参数使用“字段名.属性名”绑定
+ * @author xchao
+ */
+public class ResolverGeneratorTest {
+	private static final String SUFFIX = "_$$$RESOLVER$$$";
+	
+	@Test
+	public void allParameters() throws ReflectiveOperationException {
+		Map<String, String[]> params = new HashMap<>();
+		params.put("id", new String[]{"1"});
+		params.put("name", new String[]{"name"});
+		params.put("fullName", new String[]{"full name"});
+		params.put("email", new String[]{"a@b.c"});
+		params.put("age", new String[]{"18"});
+		params.put("regionId", new String[]{"2"});
+		params.put("level", new String[]{"3"});
+		params.put("rank", new String[]{"4"});
+		params.put("enabled", new String[]{"true"});
+		params.put("grade", new String[]{"A"});
+		assertSame(params::get);
+	}
+	
+	@Test
+	public void missingParameters() throws ReflectiveOperationException {
+		UserSave save = (UserSave) assertSame(name -> null);
+		assertEquals('C', save.getGrade());
+		assertEquals(0, save.getLevel());
+	}
+	
+	@Test
+	public void blankParameters() throws ReflectiveOperationException {
+		assertSame(name -> new String[]{""});
+	}
+	
+	@Test
+	public void nestedParameters() throws ReflectiveOperationException {
+		Map<String, String[]> params = new HashMap<>();
+		params.put("id", new String[]{"1"});
+		params.put("remark", new String[]{"remark"});
+		params.put("address.city", new String[]{"city"});
+		params.put("address.zip", new String[]{"100000"});
+		params.put("address.region.id", new String[]{"2"});
+		params.put("address.region.name", new String[]{"region"});
+		// 没有公共无参构造方法的类型和循环引用不绑定
+		params.put("contact.phone", new String[]{"123"});
+		params.put("parent.id", new String[]{"3"});
+		OrderSave save = (OrderSave) assertSame(OrderSave.class, params::get);
+		assertEquals("city", save.getAddress().getCity());
+		assertEquals(100000, save.getAddress().getZip());
+		assertEquals("region", save.getAddress().getRegion().getName());
+		assertNull(save.getContact());
+		assertNull(save.getParent());
+	}
+	
+	@Test
+	public void nestedWithoutParameters() throws ReflectiveOperationException {
+		Map<String, String[]> params = new HashMap<>();
+		params.put("address.street", new String[]{"street"});
+		OrderSave save = (OrderSave) assertSame(OrderSave.class, params::get);
+		assertEquals("street", save.getAddress().getStreet());
+		assertNull(save.getAddress().getRegion());
+		
+		save = (OrderSave) assertSame(OrderSave.class, name -> null);
+		assertNull(save.getAddress());
+	}
+	
+	private static Object assertSame(Function<String, String[]> source) throws ReflectiveOperationException {
+		return assertSame(UserSave.class, source);
+	}
+	
+	private static Object assertSame(Class<?> type, Function<String, String[]> source) throws ReflectiveOperationException {
+		var binder = (ArgumentResolverBean.Binder) Class.forName(type.getName() + SUFFIX)
+				.getDeclaredConstructor().newInstance();
+		Object expected = BindingPlan.compile(null, type).bind(source);
+		Stubs.assertSameFields(expected, binder.bind(null, source));
+		return expected;
+	}
+}
@@ -0,0 +1,168 @@
+package com.mini.core.util;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * 分页总条数缓存，相同的SQL（规范化引号外的空白后）和参数在有效时间内不再重复统计
+ * <p>
+ * 有效时间为 0 时不缓存（默认），缓存的总条数在有效时间内可能与实际数据不一致；
+ * 超过最大条数时先淘汰过期的条目，仍然超过时再任意淘汰
+ *
+ * @author xchao
+ */
+public final class CountCache {
+    private final Map<Key, Entry> counts = new ConcurrentHashMap<>();
+    private final LongSupplier nanoTime;
+    private volatile int size = 1024;
+    private volatile long ttl = 0;
+
+    public CountCache() {
+        this(System::nanoTime);
+    }
+
+    /**
+     * @param nanoTime 时钟（纳秒），用于测试
+     */
+    public CountCache(@Nonnull LongSupplier nanoTime) {
+        this.nanoTime = nanoTime;
+    }
+
+    /**
+     * 设置有效时间，小于等于 0 时不缓存并清空已有的缓存
+     *
+     * @param ttl 有效时间（毫秒）
+     */
+    public final void setTtl(long ttl) {
+        this.ttl = ttl;
+        if (ttl <= 0) counts.clear();
+    }
+
+    /**
+     * 设置最大条数
+     *
+     * @param size 最大条数
+     */
+    public final void setSize(int size) {
+        this.size = size;
+    }
+
+    /**
+     * 清空缓存
+     */
+    public final void clear() {
+        counts.clear();
+    }
+
+    /**
+     * 当前缓存的条数
+     *
+     * @return 条数
+     */
+    public final int size() {
+        return counts.size();
+    }
+
+    /**
+     * 获取总条数，未开启缓存或者缓存已过期时调用统计方法
+     *
+     * @param sql     查询SQL
+     * @param params  查询参数
+     * @param counter 统计方法
+     * @return 总条数
+     */
+    public final long get(@Nonnull String sql, @Nullable Object[] params, @Nonnull LongSupplier counter) {
+        final long ttl = this.ttl;
+        if (ttl <= 0) {
+            return counter.getAsLong();
+        }
+        Key key = new Key(normalize(sql), params);
+        Entry entry = counts.get(key);
+        long now = nanoTime.getAsLong();
+        if (entry != null && entry.expireAt - now > 0) {
+            return entry.total;
+        }
+        long total = counter.getAsLong();
+        if (counts.size() >= size) {
+            counts.values().removeIf(e -> e.expireAt - now <= 0);
+            Iterator<Key> iterator = counts.keySet().iterator();
+            while (counts.size() >= size && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        }
+        if (size > 0) {
+            counts.put(key, new Entry(total, now + MILLISECONDS.toNanos(ttl)));
+        }
+        return total;
+    }
+
+    // 引号外连续的空白替换为一个空格，字符串常量和带引号的标识符中的空白保持不变
+    static String normalize(String sql) {
+        StringBuilder builder = new StringBuilder(sql.length());
+        char quote = 0;
+        boolean blank = false;
+        for (int i = 0, length = sql.length(); i < length; i++) {
+            char c = sql.charAt(i);
+            if (quote == 0 && Character.isWhitespace(c)) {
+                blank = true;
+                continue;
+            }
+            if (blank && builder.length() > 0) {
+                builder.append(' ');
+            }
+            blank = false;
+            builder.append(c);
+            if (quote != 0 && c == '\\' && i + 1 < length) {
+                builder.append(sql.charAt(++i));
+            } else if (quote != 0 && c == quote) {
+                quote = 0;
+            } else if (quote == 0 && (c == '\'' || c == '"' || c == '`')) {
+                quote = c;
+            }
+        }
+        return builder.toString();
+    }
+
+    private static final class Key {
+        private final String sql;
+        private final Object[] params;
+        private final int hash;
+
+        private Key(String sql, Object[] params) {
+            this.sql = sql;
+            this.params = params == null ? new Object[0] : params.clone();
+            this.hash = 31 * sql.hashCode() + Arrays.deepHashCode(this.params);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key that = (Key) o;
+            return sql.equals(that.sql) && Arrays.deepEquals(params, that.params);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class Entry {
+        private final long total;
+        private final long expireAt;
+
+        private Entry(long total, long expireAt) {
+            this.total = total;
+            this.expireAt = expireAt;
+        }
+    }
+}
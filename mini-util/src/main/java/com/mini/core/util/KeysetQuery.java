@@ -0,0 +1,203 @@
+package com.mini.core.util;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.*;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.*;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * 键集分页（Seek 分页）查询
+ * <p>
+ * 排序键格式为“字段名 [ASC|DESC]”，在原查询外层按上一页最后一行的排序键值定位，
+ * 条件为 (k1 > ?) OR (k1 = ? AND k2 > ?) ...，混合排序方向时 MySQL 与 Oracle 都可以使用；
+ * 令牌是排序键值按类型编码后的 Base64url 字符串，不使用 Java 序列化。
+ * 排序键的值不能为空，为空时无法定位下一页，读取时直接抛出异常
+ *
+ * @author xchao
+ */
+public final class KeysetQuery {
+    private static final String INVALID = "Invalid keyset token";
+    private final String[] labels;
+    private final boolean[] desc;
+
+    /**
+     * 解析排序键
+     *
+     * @param keys 排序键，最后一个排序键必须唯一（例如主键）
+     */
+    public KeysetQuery(@Nonnull String[] keys) {
+        if (keys.length == 0 || keys.length > 255) {
+            throw new IllegalArgumentException("Keyset requires 1 to 255 key columns");
+        }
+        this.labels = new String[keys.length];
+        this.desc = new boolean[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            String[] parts = keys[i] == null ? new String[0] : keys[i].trim().split("\\s+");
+            if (parts.length == 0 || parts[0].isEmpty() || parts.length > 2) {
+                throw new IllegalArgumentException("Invalid keyset column: '" + keys[i] + "'");
+            }
+            labels[i] = parts[0].substring(parts[0].lastIndexOf('.') + 1);
+            desc[i] = parts.length > 1 && "DESC".equalsIgnoreCase(parts[1]);
+        }
+    }
+
+    /**
+     * 生成定位到下一页的查询语句（不包括分页限制）
+     *
+     * @param sql    基础查询，不需要 ORDER BY
+     * @param next   上一页返回的令牌，第一页时为 null
+     * @param params 基础查询的参数
+     * @param args   查询语句的参数输出
+     * @return 查询语句
+     */
+    @Nonnull
+    public final String sql(@Nonnull String sql, @Nullable String next, @Nullable Object[] params, @Nonnull List<Object> args) {
+        Object[] last = next == null ? null : decode(next);
+        if (last != null && last.length != labels.length) {
+            throw new IllegalArgumentException("Keyset token does not match the key columns");
+        }
+        if (params != null) Collections.addAll(args, params);
+        StringBuilder query = new StringBuilder("SELECT * FROM (").append(sql).append(") t");
+        for (int i = 0; last != null && i < last.length; i++) {
+            query.append(i == 0 ? " WHERE (" : " OR (");
+            for (int j = 0; j < i; j++) {
+                query.append(labels[j]).append(" = ? AND ");
+                args.add(last[j]);
+            }
+            query.append(labels[i]).append(desc[i] ? " < ?)" : " > ?)");
+            args.add(last[i]);
+        }
+        for (int i = 0; i < labels.length; i++) {
+            query.append(i == 0 ? " ORDER BY " : ", ").append(labels[i]).append(desc[i] ? " DESC" : " ASC");
+        }
+        return query.toString();
+    }
+
+    /**
+     * 读取结果集当前行的排序键值并编码成令牌
+     *
+     * @param rs 结果集
+     * @return 令牌
+     */
+    @Nonnull
+    public final String token(@Nonnull ResultSet rs) throws SQLException {
+        Object[] values = new Object[labels.length];
+        for (int i = 0; i < labels.length; i++) {
+            if ((values[i] = rs.getObject(labels[i])) == null) {
+                throw new IllegalStateException("Keyset column '" + labels[i] + "' is null, keyset columns must be NOT NULL");
+            }
+        }
+        return encode(values);
+    }
+
+    /**
+     * 将排序键值编码成令牌
+     *
+     * @param values 排序键值
+     * @return 令牌
+     */
+    @Nonnull
+    public static String encode(@Nonnull Object[] values) {
+        try (var bytes = new ByteArrayOutputStream(); var out = new DataOutputStream(bytes)) {
+            out.writeByte(values.length);
+            for (Object value : values) {
+                if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+                    out.writeByte('J');
+                    out.writeLong(((Number) value).longValue());
+                } else if (value instanceof Double || value instanceof Float) {
+                    out.writeByte('F');
+                    out.writeDouble(((Number) value).doubleValue());
+                } else if (value instanceof BigDecimal || value instanceof BigInteger) {
+                    out.writeByte('N');
+                    out.writeUTF(value.toString());
+                } else if (value instanceof String) {
+                    out.writeByte('S');
+                    byte[] text = ((String) value).getBytes(UTF_8);
+                    out.writeInt(text.length);
+                    out.write(text);
+                } else if (value instanceof Timestamp) {
+                    out.writeByte('T');
+                    out.writeLong(((Timestamp) value).getTime());
+                    out.writeInt(((Timestamp) value).getNanos());
+                } else if (value instanceof Date) {
+                    out.writeByte('D');
+                    out.writeUTF(value.toString());
+                } else if (value instanceof Time) {
+                    out.writeByte('t');
+                    out.writeUTF(value.toString());
+                } else if (value instanceof LocalDateTime) {
+                    out.writeByte('L');
+                    out.writeUTF(value.toString());
+                } else if (value instanceof LocalDate) {
+                    out.writeByte('d');
+                    out.writeUTF(value.toString());
+                } else if (value instanceof LocalTime) {
+                    out.writeByte('l');
+                    out.writeUTF(value.toString());
+                } else if (value instanceof Boolean) {
+                    out.writeByte('Z');
+                    out.writeBoolean((Boolean) value);
+                } else if (value == null) {
+                    throw new IllegalArgumentException("Keyset column value must not be null");
+                } else {
+                    throw new IllegalArgumentException("Unsupported keyset column type: " + value.getClass().getName());
+                }
+            }
+            out.flush();
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 将令牌解码成排序键值
+     *
+     * @param token 令牌
+     * @return 排序键值
+     */
+    @Nonnull
+    public static Object[] decode(@Nonnull String token) {
+        try (var in = new DataInputStream(new ByteArrayInputStream(Base64.getUrlDecoder().decode(token)))) {
+            Object[] values = new Object[in.readUnsignedByte()];
+            for (int i = 0; i < values.length; i++) {
+                switch (in.readUnsignedByte()) {
+                    case 'J': values[i] = in.readLong(); break;
+                    case 'F': values[i] = in.readDouble(); break;
+                    case 'N': values[i] = new BigDecimal(in.readUTF()); break;
+                    case 'S': values[i] = new String(in.readNBytes(in.readInt()), UTF_8); break;
+                    case 'T': {
+                        var value = new Timestamp(in.readLong());
+                        value.setNanos(in.readInt());
+                        values[i] = value;
+                        break;
+                    }
+                    case 'D': values[i] = Date.valueOf(in.readUTF()); break;
+                    case 't': values[i] = Time.valueOf(in.readUTF()); break;
+                    case 'L': values[i] = LocalDateTime.parse(in.readUTF()); break;
+                    case 'd': values[i] = LocalDate.parse(in.readUTF()); break;
+                    case 'l': values[i] = LocalTime.parse(in.readUTF()); break;
+                    case 'Z': values[i] = in.readBoolean(); break;
+                    default: throw new IllegalArgumentException(INVALID);
+                }
+            }
+            if (in.read() != -1) {
+                throw new IllegalArgumentException(INVALID);
+            }
+            return values;
+        } catch (IOException | DateTimeException | IllegalArgumentException e) {
+            throw new IllegalArgumentException(INVALID, e);
+        }
+    }
+}
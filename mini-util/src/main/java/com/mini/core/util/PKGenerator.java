@@ -27,21 +27,40 @@ public final class PKGenerator {
         workerId.setWorkerId(workId);
     }
 
+    /**
+     * 获取主键生成器，用于配置时钟回拨策略和线程预留序列
+     *
+     * @return 主键生成器
+     */
+    public static WorkerId getWorkerId() {
+        return workerId;
+    }
+
     /**
      * 生成主键
      *
      * @return 主键
      */
-    public static synchronized long nextId() {
+    public static long nextId() {
         return workerId.nextId();
     }
 
+    /**
+     * 批量生成主键
+     *
+     * @param count 主键数量
+     * @return 主键列表
+     */
+    public static long[] nextIds(int count) {
+        return workerId.nextIds(count);
+    }
+
     /**
      * 生成主键
      *
      * @return 主键
      */
-    public static synchronized long id() {
+    public static long id() {
         return PKGenerator.nextId();
     }
 
@@ -1,20 +1,37 @@
 package com.mini.core.util.holder;
 
+import com.mini.core.util.ThrowableKt;
 
+import javax.annotation.Nonnull;
+import java.io.Serializable;
 import java.lang.annotation.Annotation;
-import java.util.HashMap;
+import java.util.Collection;
+import java.util.EventListener;
 import java.util.Map;
-import java.util.Objects;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
-public final class ClassHolder<T> {
-    private static final Map<Class<?>, ClassHolder<?>> M = new ConcurrentHashMap<>();
-    private final Map<String, FieldHolder<T>> fields = new ConcurrentHashMap<>();
-    private final Class<T> type;
-    private T instance;
+import static java.util.Objects.hash;
 
+/**
+ * 类型的属性信息
+ * <p>
+ * 按类型缓存在 ClassValue 中，创建后不再修改；属性的读写与实例创建使用预先生成的调用方法
+ * @author xchao
+ */
+public final class ClassHolder<T> implements Serializable, EventListener {
+    private static final ClassValue<ClassHolder<?>> HOLDERS = new ClassValue<>() {
+        @Override
+        protected ClassHolder<?> computeValue(Class<?> type) {
+            return new ClassHolder<>(type);
+        }
+    };
+    private final transient Supplier<Object> creator;
+    private final Map<String, FieldHolder<T>> fields;
+    private final Class<T> type;
 
-    private ClassHolder(Class<T> type) {
+    private ClassHolder(@Nonnull Class<T> type) {
+        this.fields = FieldHolder.create(type);
+        this.creator = Accessors.creator(type);
         this.type = type;
     }
 
@@ -22,42 +39,69 @@ public final class ClassHolder<T> {
         return type.getSimpleName();
     }
 
-    public Class<T> getType() {
-        return type;
+    public final <A extends Annotation> A[] getAnnotationsByType(Class<A> clazz) {
+        return this.type.getAnnotationsByType(clazz);
     }
 
-    public final T getInstance() throws ReflectiveOperationException {
-        if (Objects.isNull(ClassHolder.this.instance)) {
-            var constructor = type.getConstructor();
-            instance = constructor.newInstance();
-        }
-        return instance;
+    public final <A extends Annotation> A getAnnotation(Class<A> clazz) {
+        return type.getAnnotation(clazz);
     }
 
-    public Map<String, FieldHolder<T>> getFields() {
-        return fields;
+    public final FieldHolder<T> getField(String fieldName) {
+        return fields.get(fieldName);
     }
 
-    public void addField(FieldHolder<T> field) {
-        this.fields.put(field.getName(), field);
+    public final boolean hasField(FieldHolder<T> holder) {
+        return fields.get(holder.getName()) != null;
     }
 
-    public <A extends Annotation> A[] getAnnotationsByType(Class<A> clazz) {
-        return type.getAnnotationsByType(clazz);
+    public final boolean hasField(String fieldName) {
+        return fields.get(fieldName) != null;
     }
 
-    public <A extends Annotation> A getAnnotation(Class<A> clazz) {
-        return type.getAnnotation(clazz);
+    public final Map<String, FieldHolder<T>> getFields() {
+        return fields;
+    }
+
+    public final Collection<FieldHolder<T>> fields() {
+        return fields.values();
+    }
+
+    /**
+     * 创建实例
+     *
+     * @return 新的实例
+     * @deprecated 不再缓存实例，使用 {@link #createInstance()}
+     */
+    @Deprecated
+    public final T getInstance() throws ReflectiveOperationException {
+        return createInstance();
     }
 
     @SuppressWarnings("unchecked")
-    public static <T> ClassHolder<T> create(Class<T> type) {
-        return (ClassHolder<T>) M.computeIfAbsent(type, key -> {
-            ClassHolder<T> holder = new ClassHolder<>(type);
-            FieldHolder.create(holder);
-            return holder;
-        });
+    public final T createInstance() {
+        if (creator != null) {
+            return (T) creator.get();
+        }
+        // 没有公共无参构造方法或者不能创建实例的类型，抛出与反射调用相同的异常
+        try {
+            return type.getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw ThrowableKt.hidden(e);
+        }
+    }
+
+    public final Class<T> getType() {
+        return type;
     }
 
+    @Override
+    public int hashCode() {
+        return hash(fields);
+    }
 
-}
\ No newline at end of file
+    @SuppressWarnings("unchecked")
+    public static <T> ClassHolder<T> create(Class<T> type) {
+        return (ClassHolder<T>) HOLDERS.get(type);
+    }
+}
@@ -11,14 +11,18 @@ import java.io.Serializable;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
-import java.util.Objects;
-import java.util.stream.Stream;
-
-import static java.util.Optional.ofNullable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 
 public final class FieldHolder<T> implements Serializable {
+    private final transient BiConsumer<Object, Object> writer;
+    private final transient Function<Object, Object> reader;
     private final PropertyDescriptor descriptor;
-    private final Method getter, setter;
+    private final Method setter;
+    private final Method getter;
     private final Field field;
 
     private FieldHolder(@Nonnull Class<T> type, @Nonnull PropertyDescriptor des) {
@@ -26,6 +30,9 @@ public final class FieldHolder<T> implements Serializable {
         setter = des.getWriteMethod();
         getter = des.getReadMethod();
         descriptor = des;
+        // 创建时编译调用方法，没有 Setter 方法时直接设置字段值
+        reader = getter == null ? null : Accessors.reader(getter);
+        writer = setter != null ? Accessors.writer(setter) : field == null ? null : Accessors.writer(field);
     }
 
     public final <A extends Annotation> A getAnnotation(Class<A> clazz) {
@@ -33,22 +40,14 @@ public final class FieldHolder<T> implements Serializable {
     }
 
     /**
-     * 调用属性的Setter方法
+     * 调用属性的Setter方法，没有 Setter 方法时直接设置字段值
      *
      * @param instance 属性对象
      * @param value    属性值
      */
     public final void setValue(Object instance, Object value) {
-        try {
-            if (Objects.nonNull(this.setter)) {
-                setter.invoke(instance, value);
-                return;
-            }
-            field.setAccessible(true);
-            field.set(instance, value);
-        } catch (ReflectiveOperationException e) {
-            throw ThrowableKt.hidden(e);
-        }
+        if (this.writer == null) return;
+        writer.accept(instance, value);
     }
 
     /**
@@ -58,12 +57,8 @@ public final class FieldHolder<T> implements Serializable {
      * @return 方法返回值
      */
     public final Object getValue(Object instance) {
-        try {
-            if (getter == null) return null;
-            return getter.invoke(instance);
-        } catch (ReflectiveOperationException e) {
-            throw ThrowableKt.hidden(e);
-        }
+        if (reader == null) return null;
+        return reader.apply(instance);
     }
 
     /**
@@ -88,6 +83,14 @@ public final class FieldHolder<T> implements Serializable {
         return field;
     }
 
+    public final Method getSetter() {
+        return setter;
+    }
+
+    public final Method getGetter() {
+        return getter;
+    }
+
     public final Class<?> getType() {
         return descriptor.getPropertyType();
     }
@@ -96,14 +99,16 @@ public final class FieldHolder<T> implements Serializable {
         return descriptor.getName();
     }
 
-    static synchronized <T> void create(@Nonnull ClassHolder<T> h) {
+    // 读取类型的全部属性，创建后不再修改
+    static <T> Map<String, FieldHolder<T>> create(@Nonnull Class<T> type) {
         try {
-            ofNullable(Introspector.getBeanInfo(h.getType()))
-                    .map(BeanInfo::getPropertyDescriptors).stream()
-                    .flatMap(Stream::of)
-                    .filter(des -> !"class".equals(des.getName()))
-                    .map(d -> new FieldHolder<>(h.getType(), d))
-                    .forEach(h::addField);
+            Map<String, FieldHolder<T>> fields = new HashMap<>();
+            BeanInfo info = Introspector.getBeanInfo(type);
+            for (PropertyDescriptor des : info.getPropertyDescriptors()) {
+                if ("class".equals(des.getName())) continue;
+                fields.put(des.getName(), new FieldHolder<>(type, des));
+            }
+            return Collections.unmodifiableMap(fields);
         } catch (IntrospectionException e) {
             throw ThrowableKt.hidden(e);
         }
@@ -121,4 +126,4 @@ public final class FieldHolder<T> implements Serializable {
         }
         return null;
     }
-}
\ No newline at end of file
+}
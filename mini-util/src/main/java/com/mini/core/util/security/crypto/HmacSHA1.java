@@ -1,7 +1,23 @@
 package com.mini.core.util.security.crypto;
 
+import java.nio.charset.Charset;
+
 public final class HmacSHA1 extends BaseMac {
     public HmacSHA1() {
         super("HmacSHA1");
     }
+
+    /**
+     * 创建预设密钥的线程安全 Mac
+     *
+     * @param key 密钥
+     * @return {@link KeyedMac}
+     */
+    public static KeyedMac keyed(byte[] key) {
+        return new KeyedMac("HmacSHA1", key);
+    }
+
+    public static KeyedMac keyed(String key, Charset charset) {
+        return keyed(key.getBytes(charset));
+    }
 }
\ No newline at end of file
@@ -1,20 +1,49 @@
 package com.mini.core.util.security.digest;
 
 import javax.annotation.Nonnull;
+import java.io.IOException;
 import java.nio.charset.Charset;
+import java.nio.file.Path;
 
 public final class SHA512 extends BaseDigest {
+    private static final ThreadLocal<SHA512> LOCAL = ThreadLocal.withInitial(SHA512::new);
+
     public SHA512() {
         super("SHA-512");
     }
 
+    /**
+     * 获取当前线程复用的实例，获取时已重置
+     * <p>
+     * 实例不能在线程之间共享，并且要在当前线程再次调用本类静态方法之前使用完
+     *
+     * @return 实例
+     */
+    public static SHA512 local() {
+        return current(LOCAL);
+    }
+
     public static String encode(String data, Charset charset) {
-        final var v = new SHA512().update(data, charset);
-        return toHexString(v.digest());
+        return toHexString(local().update(data, charset).digest());
     }
 
     public static String encode(@Nonnull String data) {
-        final var v = new SHA512().update(data);
-        return toHexString(v.digest());
+        return toHexString(local().update(data).digest());
+    }
+
+    public static String encode(@Nonnull Path path) throws IOException {
+        return toHexString(local().update(path).digest());
+    }
+
+    /**
+     * 并行分块计算文件的树形摘要
+     *
+     * @param path      文件路径
+     * @param chunkSize 分块大小
+     * @return 树形摘要
+     * @see BaseDigest#tree(ThreadLocal, Path, int)
+     */
+    public static byte[] tree(@Nonnull Path path, int chunkSize) throws IOException {
+        return tree(LOCAL, path, chunkSize);
     }
 }
\ No newline at end of file
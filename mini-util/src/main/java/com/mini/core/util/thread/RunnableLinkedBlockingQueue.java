@@ -0,0 +1,64 @@
+package com.mini.core.util.thread;
+
+
+import org.slf4j.Logger;
+
+import java.io.Serializable;
+import java.util.EventListener;
+import java.util.List;
+
+import static java.lang.Runtime.getRuntime;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * 全局任务队列，队列已满时由添加任务的线程执行，JVM 退出时最多等待30秒执行完已添加的任务
+ *
+ * @author xchao
+ */
+public final class RunnableLinkedBlockingQueue implements EventListener, Serializable {
+    private static final Logger log = getLogger(RunnableLinkedBlockingQueue.class);
+    private static final BoundedRunnableQueue queue = BoundedRunnableQueue.builder()
+            .consumers(getRuntime().availableProcessors())
+            .policy(BoundedRunnableQueue.Policy.CALLER_RUNS)
+            .name("runnable-linked-blocking-queue")
+            .capacity(1 << 16)
+            .build();
+
+    static {
+        getRuntime().addShutdownHook(new Thread(() -> {
+            List<Runnable> list = queue.shutdown(30, SECONDS);
+            if (!list.isEmpty()) {
+                log.warn("{} tasks are not executed before shutdown", list.size());
+            }
+        }));
+    }
+
+    /**
+     * 添加一个任务到队列
+     *
+     * @param runnable 任务执行过程
+     */
+    public static void put(Runnable runnable) {
+        queue.put(runnable);
+    }
+
+    /**
+     * 添加一个任务到队列，相同键的任务按添加顺序依次执行
+     *
+     * @param key      任务分道的键
+     * @param runnable 任务执行过程
+     */
+    public static void put(Object key, Runnable runnable) {
+        queue.put(key, runnable);
+    }
+
+    /**
+     * 获取全局任务队列，用于查看队列状态
+     *
+     * @return 任务队列
+     */
+    public static BoundedRunnableQueue getQueue() {
+        return queue;
+    }
+}
@@ -4,12 +4,8 @@ package com.mini.core.util.thread;
 import javax.annotation.Nonnull;
 import java.io.Serializable;
 import java.util.EventListener;
-import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.RunnableScheduledFuture;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.ScheduledThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.*;
 
 import static java.lang.Runtime.getRuntime;
 
@@ -20,7 +16,7 @@ import static java.lang.Runtime.getRuntime;
  */
 public final class ThreadExecutor implements EventListener, Serializable {
     private static final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(2 * getRuntime().availableProcessors());
-    private static final Map<String, ScheduledFuture<?>> futures = new HashMap<>();
+    private static final Map<String, Handle> futures = new ConcurrentHashMap<>();
 
     /**
      * 在后台线程执行一个任务
@@ -72,11 +68,12 @@ public final class ThreadExecutor implements EventListener, Serializable {
      * @param unit     时间单位
      */
     public static void post(@Nonnull String id, @Nonnull Runnable runnable, long delay, @Nonnull TimeUnit unit) {
-        futures.put(id, executor.schedule(() -> {
+        final Handle handle = register(id);
+        handle.set(executor.schedule(() -> {
             try {
                 runnable.run();
             } finally {
-                futures.remove(id);
+                futures.remove(id, handle);
             }
         }, delay, unit));
     }
@@ -135,11 +132,13 @@ public final class ThreadExecutor implements EventListener, Serializable {
      * @param unit         时间单位
      */
     public static void postAtFixedRate(@Nonnull String id, @Nonnull Runnable runnable, long initialDelay, long delay, @Nonnull TimeUnit unit) {
-        futures.put(id, executor.scheduleAtFixedRate(() -> {
+        final Handle handle = register(id);
+        handle.set(executor.scheduleAtFixedRate(() -> {
             try {
                 runnable.run();
-            } finally {
-                futures.remove(id);
+            } catch (RuntimeException | Error e) {
+                futures.remove(id, handle);
+                throw e;
             }
         }, initialDelay, delay, unit));
     }
@@ -210,11 +209,13 @@ public final class ThreadExecutor implements EventListener, Serializable {
      * @param unit         时间单位
      */
     public static void postWithFixedDelay(@Nonnull String id, @Nonnull Runnable runnable, long initialDelay, long delay, @Nonnull TimeUnit unit) {
-        futures.put(id, executor.scheduleWithFixedDelay(() -> {
+        final Handle handle = register(id);
+        handle.set(executor.scheduleWithFixedDelay(() -> {
             try {
                 runnable.run();
-            } finally {
-                futures.remove(id);
+            } catch (RuntimeException | Error e) {
+                futures.remove(id, handle);
+                throw e;
             }
         }, initialDelay, delay, unit));
     }
@@ -244,10 +245,46 @@ public final class ThreadExecutor implements EventListener, Serializable {
      * @param id 定时器ID
      */
     public static void cancel(@Nonnull final String id) {
-        final ScheduledFuture<?> future = futures.get(id);
-        if (future instanceof RunnableScheduledFuture) {
-            executor.remove((Runnable) future);
-            future.cancel(false);
+        final Handle handle = futures.remove(id);
+        if (handle != null) {
+            handle.cancel();
+        }
+    }
+
+    // 注册可取消的任务，相同识别码的旧任务会被取消
+    private static Handle register(String id) {
+        final Handle handle = new Handle();
+        final Handle old = futures.put(id, handle);
+        if (old != null) {
+            old.cancel();
+        }
+        return handle;
+    }
+
+    /**
+     * 可取消的任务，调度前取消时在调度后立即取消
+     */
+    private static final class Handle {
+        private volatile boolean cancelled;
+        private volatile ScheduledFuture<?> future;
+
+        private void set(ScheduledFuture<?> future) {
+            this.future = future;
+            if (cancelled) {
+                cancel(future);
+            }
+        }
+
+        private void cancel() {
+            this.cancelled = true;
+            cancel(future);
+        }
+
+        private static void cancel(ScheduledFuture<?> future) {
+            if (future instanceof RunnableScheduledFuture) {
+                executor.remove((Runnable) future);
+                future.cancel(false);
+            }
         }
     }
 }
\ No newline at end of file
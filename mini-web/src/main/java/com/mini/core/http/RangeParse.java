@@ -1,26 +1,31 @@
 package com.mini.core.http;
 
 import javax.annotation.Nonnull;
-import java.io.IOException;
-import java.io.StringReader;
+import javax.annotation.Nullable;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 
-import static java.lang.Long.parseLong;
 import static java.lang.Math.max;
 import static java.lang.Math.min;
 
 public final class RangeParse {
+    // 超过这个数量的范围按普通请求处理，避免大量小范围消耗资源
+    private static final int MAX_RANGES = 64;
+    // 间隔不超过这个字节数的范围合并，多传输的数据不超过一个分片头部的大小
+    private static final long COALESCE_GAP = 80;
 
     // 下载分片数据
     public static final class Range {
-        private final long start;
+        // 请求的开始和结束位置，开始位置为 -1 时结束位置为最后的字节数，结束位置为 -1 时到文件末尾
+        private final long first, last;
+        private long start, end = -1;
         private long length;
-        private long end;
 
-        Range(long start, long end) {
-            this.start = start;
-            this.end = end;
+        Range(long first, long last) {
+            this.first = first;
+            this.last = last;
         }
 
         public final long getLength() {
@@ -32,105 +37,139 @@ public final class RangeParse {
         }
 
         public final long getEnd() {
-            return min(end, length - 1);
+            return end;
         }
 
-        // 判断数据合法性
+        /**
+         * 获取范围内的字节数
+         * @return 字节数
+         */
+        public final long getSize() {
+            return end - start + 1;
+        }
+
+        // 判断数据合法性，并计算实际的开始和结束位置
         public final boolean validate(long contentLength) {
-            length = contentLength;
-            end = min(max(length, 0), length - 1);
-            return start >= 0 & start <= end && length > 0;
+            this.length = contentLength;
+            if (contentLength <= 0) {
+                return false;
+            }
+            if (first == -1) {
+                this.start = max(0, contentLength - last);
+                this.end = contentLength - 1;
+                return last > 0;
+            }
+            this.start = first;
+            this.end = last == -1 ? contentLength - 1 : min(last, contentLength - 1);
+            return start < contentLength && start <= end;
         }
     }
 
-    private final StringReader reader;
-
-    private RangeParse(StringReader reader) {
-        this.reader = reader;
+    private RangeParse() {
     }
 
-    private boolean skipConstant(String constant) throws IOException {
-        int length = constant.length();
-        this.reader.mark(length);
-        for (int i = 0; i < length; i++) {
-            int c = reader.read();
-            if (c == -1 || c != constant.charAt(i)) {
-                reader.reset();
-                return false;
+    /**
+     * 解析Range数据
+     * @param rangeText Range头信息
+     * @return 数据范围，格式错误时返回 null
+     */
+    @Nullable
+    public static List<Range> parseRange(@Nonnull String rangeText) {
+        int index = skipBlank(rangeText, 0);
+        // Range固定格式以"bytes="开头
+        if (!rangeText.regionMatches(true, index, "bytes=", 0, 6)) {
+            return null;
+        }
+        List<Range> result = new ArrayList<>();
+        for (int i = index + 6, length = rangeText.length(); i <= length; i++) {
+            int next = rangeText.indexOf(',', i);
+            next = next < 0 ? length : next;
+            int start = skipBlank(rangeText, i);
+            int end = trimEnd(rangeText, start, next);
+            // 允许空的列表元素，如 "bytes=0-1,,5-6"
+            if (start < end) {
+                int dash = rangeText.indexOf('-', start);
+                if (dash < 0 || dash >= end) return null;
+                long first = readLong(rangeText, start, trimEnd(rangeText, start, dash));
+                long last = readLong(rangeText, skipBlank(rangeText, dash + 1), end);
+                if (first == -2 || last == -2 || (first == -1 && last == -1)) {
+                    return null;
+                }
+                if (first >= 0 && last >= 0 && last < first) {
+                    return null;
+                }
+                result.add(new Range(first, last));
             }
+            i = next;
         }
-        return true;
+        return result.isEmpty() ? null : result;
     }
 
-    private long readLong() throws IOException {
-        String number = this.readNumber();
-        if (number.length() <= 0) {
-            return -1;
+    /**
+     * 解析并验证Range数据，重叠或者间隔很小的范围合并为一个，并按开始位置排序
+     * @param rangeText     Range头信息
+     * @param contentLength 内容长度
+     * @return 格式错误或者范围过多时返回 null（按普通请求处理），没有可满足的范围时返回空列表
+     */
+    @Nullable
+    public static List<Range> parseRange(@Nonnull String rangeText, long contentLength) {
+        List<Range> list = parseRange(rangeText);
+        if (list == null || list.size() > MAX_RANGES) {
+            return null;
+        }
+        list.removeIf(range -> !range.validate(contentLength));
+        if (list.size() <= 1) {
+            return list;
+        }
+        list.sort(Comparator.comparingLong(Range::getStart));
+        List<Range> result = new ArrayList<>();
+        Range current = list.get(0);
+        for (Range range : list.subList(1, list.size())) {
+            if (range.start - current.end - 1 <= COALESCE_GAP) {
+                current = merge(current, max(current.end, range.end));
+            } else {
+                result.add(current);
+                current = range;
+            }
         }
-        return parseLong(number);
+        result.add(current);
+        return result.size() == 1 ? Collections.singletonList(current) : result;
     }
 
-    @Nonnull
-    private String readNumber() throws IOException {
-        StringBuilder result = new StringBuilder();
-        this.reader.mark(1);
-        int c = reader.read();
-        while (c >= '0' && c <= '9') {
-            result.append((char) c);
-            this.reader.mark(1);
-            c = reader.read();
-        }
-        reader.reset();
-        return result.toString();
+    private static Range merge(Range range, long end) {
+        Range result = new Range(range.start, end);
+        result.validate(range.length);
+        return result;
     }
 
-    private void skipBlankCharacter() throws IOException {
-        this.reader.mark(1);
-        int c = reader.read(); // 32, 9, 10, 13
-        while (c == ' ' || c == '\t' || c == '\n' || c == '\r') {
-            this.reader.mark(1);
-            c = reader.read();
+    // 读取数字，没有数字时返回 -1，格式错误时返回 -2，超出范围时返回 Long.MAX_VALUE
+    private static long readLong(String text, int start, int end) {
+        if (start >= end) return -1;
+        long result = 0;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') return -2;
+            int d = c - '0';
+            result = result > (Long.MAX_VALUE - d) / 10 ? Long.MAX_VALUE : result * 10 + d;
         }
-        reader.reset();
+        return result;
     }
 
-    // 解析Range数据
-    public static List<Range> parseRange(@Nonnull String rangeText) throws IOException {
-        // 读取器
-        StringReader reader = new StringReader(rangeText);
-        RangeParse parse = new RangeParse(reader);
-
-        // Range固定格式以"bytes="开头
-        parse.skipBlankCharacter();
-        if (!parse.skipConstant("bytes=")) {
-            return null;
+    private static int skipBlank(String text, int index) {
+        while (index < text.length() && isBlank(text.charAt(index))) {
+            index++;
         }
+        return index;
+    }
 
-        // 数据容器
-        List<Range> result = new ArrayList<>();
-        do {
-            // 读取范围的开始字节
-            parse.skipBlankCharacter();
-            long start = parse.readLong();
-            if (start == -1) start = 0;
-
-            // 读取开始与结束之间的“-”
-            parse.skipBlankCharacter();
-            if (!parse.skipConstant("-")) {
-                return null;
-            }
-
-            // 读取范围的结束字节
-            parse.skipBlankCharacter();
-            long end = parse.readLong();
-
-            // 创建Range并添加到列表中
-            Range range = new Range(start, end);
-            result.add(range);
+    private static int trimEnd(String text, int start, int end) {
+        while (end > start && isBlank(text.charAt(end - 1))) {
+            end--;
+        }
+        return end;
+    }
 
-            // 跳过空白字符
-            parse.skipBlankCharacter();
-        } while (parse.skipConstant(","));
-        return result;
+    private static boolean isBlank(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r';
     }
 }
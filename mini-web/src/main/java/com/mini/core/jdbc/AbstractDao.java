@@ -2,6 +2,7 @@ package com.mini.core.jdbc;
 
 import com.mini.core.jdbc.builder.SQLBuilder;
 import com.mini.core.jdbc.mapper.Mapper;
+import com.mini.core.jdbc.model.KeysetPaging;
 import com.mini.core.jdbc.model.Paging;
 
 import javax.annotation.Nonnull;
@@ -10,6 +11,7 @@ import java.sql.Date;
 import java.sql.Time;
 import java.sql.Timestamp;
 import java.util.List;
+import java.util.stream.Stream;
 
 public abstract class AbstractDao implements JdbcInterface {
 	
@@ -77,6 +79,21 @@ public abstract class AbstractDao implements JdbcInterface {
 		return writeTemplate().insertOnUpdate(instance);
 	}
 	
+	@Override
+	public final <T> int replaceBatch(List<T> instances) {
+		return writeTemplate().replaceBatch(instances);
+	}
+	
+	@Override
+	public final <T> int insertBatch(List<T> instances) {
+		return writeTemplate().insertBatch(instances);
+	}
+	
+	@Override
+	public final <T> int insertOnUpdateBatch(List<T> instances) {
+		return writeTemplate().insertOnUpdateBatch(instances);
+	}
+	
 	@Override
 	public final <T> T query(String str, ResultSetCallback<T> callback, Object... params) {
 		return readTemplate().query(str, callback, params);
@@ -195,6 +212,74 @@ public abstract class AbstractDao implements JdbcInterface {
 		return readTemplate().queryListSingle(limit, builder, type);
 	}
 	
+	@Nonnull
+	@Override
+	public final <T> Stream<T> queryStream(String str, Mapper<T> m, Object... params) {
+		return readTemplate().queryStream(str, m, params);
+	}
+	
+	@Nonnull
+	@Override
+	public final <T> Stream<T> queryStream(SQLBuilder builder, Mapper<T> m) {
+		return readTemplate().queryStream(builder, m);
+	}
+	
+	@Nonnull
+	@Override
+	public final <T> Stream<T> queryStream(String str, Class<T> type, Object... params) {
+		return readTemplate().queryStream(str, type, params);
+	}
+	
+	@Nonnull
+	@Override
+	public final <T> Stream<T> queryStream(SQLBuilder builder, Class<T> type) {
+		return readTemplate().queryStream(builder, type);
+	}
+	
+	@Override
+	public final <T> void queryForEach(String str, Mapper<T> m, RowCallback<T> callback, Object... params) {
+		readTemplate().queryForEach(str, m, callback, params);
+	}
+	
+	@Override
+	public final <T> void queryForEach(SQLBuilder builder, Mapper<T> m, RowCallback<T> callback) {
+		readTemplate().queryForEach(builder, m, callback);
+	}
+	
+	@Override
+	public final <T> void queryForEach(String str, Class<T> type, RowCallback<T> callback, Object... params) {
+		readTemplate().queryForEach(str, type, callback, params);
+	}
+	
+	@Override
+	public final <T> void queryForEach(SQLBuilder builder, Class<T> type, RowCallback<T> callback) {
+		readTemplate().queryForEach(builder, type, callback);
+	}
+	
+	@Nonnull
+	@Override
+	public final <T> Cursor<List<T>> queryChunks(int size, String str, Mapper<T> m, Object... params) {
+		return readTemplate().queryChunks(size, str, m, params);
+	}
+	
+	@Nonnull
+	@Override
+	public final <T> Cursor<List<T>> queryChunks(int size, SQLBuilder builder, Mapper<T> m) {
+		return readTemplate().queryChunks(size, builder, m);
+	}
+	
+	@Nonnull
+	@Override
+	public final <T> Cursor<List<T>> queryChunks(int size, String str, Class<T> type, Object... params) {
+		return readTemplate().queryChunks(size, str, type, params);
+	}
+	
+	@Nonnull
+	@Override
+	public final <T> Cursor<List<T>> queryChunks(int size, SQLBuilder builder, Class<T> type) {
+		return readTemplate().queryChunks(size, builder, type);
+	}
+	
 	@Nonnull
 	@Override
 	public final <T> Paging<T> queryPaging(int page, int limit, String str, Mapper<T> m, Object... params) {
@@ -231,6 +316,30 @@ public abstract class AbstractDao implements JdbcInterface {
 		return readTemplate().queryPagingSingle(page, limit, builder, type);
 	}
 	
+	@Nonnull
+	@Override
+	public final <T> KeysetPaging<T> queryKeyset(int limit, @Nullable String next, String[] keys, String str, Mapper<T> m, Object... params) {
+		return readTemplate().queryKeyset(limit, next, keys, str, m, params);
+	}
+	
+	@Nonnull
+	@Override
+	public final <T> KeysetPaging<T> queryKeyset(int limit, @Nullable String next, String[] keys, SQLBuilder builder, Mapper<T> m) {
+		return readTemplate().queryKeyset(limit, next, keys, builder, m);
+	}
+	
+	@Nonnull
+	@Override
+	public final <T> KeysetPaging<T> queryKeyset(int limit, @Nullable String next, String[] keys, String str, Class<T> type, Object... params) {
+		return readTemplate().queryKeyset(limit, next, keys, str, type, params);
+	}
+	
+	@Nonnull
+	@Override
+	public final <T> KeysetPaging<T> queryKeyset(int limit, @Nullable String next, String[] keys, SQLBuilder builder, Class<T> type) {
+		return readTemplate().queryKeyset(limit, next, keys, builder, type);
+	}
+	
 	@Nullable
 	@Override
 	public final <T> T queryObject(String str, Mapper<T> m, Object... params) {
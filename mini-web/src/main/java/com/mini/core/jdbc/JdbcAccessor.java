@@ -5,12 +5,10 @@ import javax.sql.DataSource;
 import javax.transaction.UserTransaction;
 import java.io.Serializable;
 import java.sql.*;
-import java.util.EventListener;
-import java.util.Map;
-import java.util.Optional;
-import java.util.Properties;
+import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
 
 import static com.mini.core.util.ThrowsUtil.hidden;
 import static java.lang.ThreadLocal.withInitial;
@@ -18,6 +16,10 @@ import static java.lang.ThreadLocal.withInitial;
 public abstract class JdbcAccessor implements EventListener, Serializable {
 	private static final ThreadLocal<Map<DataSource, Holder>> RESOURCES = withInitial(ConcurrentHashMap::new);
 	private static final ThreadLocal<JtaTransaction> JTA = new ThreadLocal<>();
+	private static final ThreadLocal<TransactionScope> SCOPE = new ThreadLocal<>();
+	private final LongAdder statementCacheMisses = new LongAdder();
+	private final LongAdder statementCacheHits = new LongAdder();
+	private volatile int statementCacheSize = 20;
 	private final DataSource dataSource;
 	
 	public JdbcAccessor(@Nonnull DataSource dataSource) {
@@ -29,15 +31,55 @@ public abstract class JdbcAccessor implements EventListener, Serializable {
 		return dataSource;
 	}
 	
+	/**
+	 * 设置每个连接缓存的 PreparedStatement 数量，小于等于0时不缓存
+	 * <p>
+	 * 缓存挂在线程持有的连接上，连接释放时关闭所有缓存的 PreparedStatement
+	 * @param statementCacheSize 缓存数量
+	 */
+	public final void setStatementCacheSize(int statementCacheSize) {
+		this.statementCacheSize = statementCacheSize;
+	}
+	
+	public final int getStatementCacheSize() {
+		return statementCacheSize;
+	}
+	
+	/**
+	 * 获取 PreparedStatement 缓存命中次数
+	 * @return 命中次数
+	 */
+	public final long getStatementCacheHits() {
+		return statementCacheHits.sum();
+	}
+	
+	/**
+	 * 获取 PreparedStatement 缓存未命中次数
+	 * @return 未命中次数
+	 */
+	public final long getStatementCacheMisses() {
+		return statementCacheMisses.sum();
+	}
+	
 	@Nonnull
 	private Connection getConnection() throws SQLException {
 		Holder connection = RESOURCES.get().get(dataSource);
 		if (connection == null || connection.isClosed()) {
-			connection = JdbcAccessor.create(dataSource);
+			connection = JdbcAccessor.create(this);
 			RESOURCES.get().put(dataSource, connection);
 		}
 		// 返回连接并更新连接使用计数，嵌套时不会关闭错误
-		return connection.requestedConnection();
+		connection.requestedConnection();
+		TransactionScope scope = SCOPE.get();
+		if (scope != null) {
+			try {
+				scope.enlist(this, connection);
+			} catch (SQLException | RuntimeException e) {
+				connection.close();
+				throw e;
+			}
+		}
+		return connection;
 	}
 	
 	/**
@@ -75,10 +117,42 @@ public abstract class JdbcAccessor implements EventListener, Serializable {
 	 */
 	public final <T> T execute(PreparedStatementCreator creator, PreparedStatementCallback<T> callback) {
 		return this.execute((ConnectionCallback<T>) (connection) -> {
-			return callback.apply(creator.apply(connection)); //
+			final var holder = (Holder) connection;
+			final var statement = creator.apply(holder);
+			boolean success = false;
+			try {
+				T result = callback.apply(statement);
+				success = true;
+				return result;
+			} finally {
+				// 执行成功时放回缓存，否则关闭
+				holder.release(statement, success);
+			}
 		});
 	}
 	
+	/**
+	 * 打开一个 PreparedStatement 对象，返回的资源关闭前一直占用 PreparedStatement 和连接
+	 * <p>
+	 * 用于流式查询等需要在方法返回后继续读取结果的场景，
+	 * PreparedStatement 使用完成后直接关闭，不放回缓存
+	 * @param creator 创建回调函数
+	 * @return PreparedStatement 资源
+	 */
+	protected final StatementResource open(PreparedStatementCreator creator) {
+		try {
+			final var holder = (Holder) this.getConnection();
+			try {
+				return new StatementResource(holder, creator.apply(holder));
+			} catch (SQLException | RuntimeException e) {
+				holder.close();
+				throw e;
+			}
+		} catch (SQLException e) {
+			throw hidden(e);
+		}
+	}
+	
 	/**
 	 * 处理普通的 CallableStatement 对象
 	 * @param creator  创建回调函数
@@ -88,7 +162,9 @@ public abstract class JdbcAccessor implements EventListener, Serializable {
 	 */
 	public final <T> T execute(CallableStatementCreator creator, CallableStatementCallback<T> callback) {
 		return this.execute((ConnectionCallback<T>) (connection) -> {
-			return callback.apply(creator.apply(connection)); //
+			try (CallableStatement statement = creator.apply(connection)) {
+				return callback.apply(statement);
+			}
 		});
 	}
 	
@@ -106,6 +182,51 @@ public abstract class JdbcAccessor implements EventListener, Serializable {
 		}
 	}
 	
+	/**
+	 * 开启一个延迟加入的事务范围
+	 * <p>
+	 * 开启时不获取连接，范围内第一次获取某个 JdbcAccessor 的连接时才按隔离级别和只读属性开启该连接的事务，
+	 * 结束时只提交或回滚实际加入的事务；嵌套的范围加入最外层范围，使用最外层范围的属性；
+	 * 事务过程出错后结束事务也失败时，抛出事务过程的原始异常，结束事务的异常附加为 suppressed
+	 * @param accessors 可加入事务的 JdbcAccessor
+	 * @param isolation 事务隔离级别，小于0时使用连接默认的隔离级别
+	 * @param readOnly  是否只读事务
+	 * @param callback  事务过程
+	 * @return 返回类型实例
+	 */
+	public static <T> T transaction(Collection<? extends JdbcAccessor> accessors, int isolation, boolean readOnly,
+			TransactionScopeCallback<T> callback) throws Throwable {
+		TransactionScope scope = SCOPE.get();
+		if (scope != null) {
+			scope.depth++;
+			try {
+				return callback.apply();
+			} finally {
+				scope.depth--;
+			}
+		}
+		SCOPE.set(scope = new TransactionScope(accessors, isolation, readOnly));
+		boolean commit = false;
+		Throwable error = null;
+		try {
+			T t = callback.apply();
+			commit = true;
+			return t;
+		} catch (Throwable e) {
+			error = e;
+			throw e;
+		} finally {
+			SCOPE.remove();
+			try {
+				scope.end(commit);
+			} catch (SQLException | RuntimeException e) {
+				// 事务过程已经出错时，结束事务的异常附加到原始异常上，不覆盖原始异常
+				if (error == null) throw e;
+				error.addSuppressed(e);
+			}
+		}
+	}
+	
 	/**
 	 * 开启一个数据库事务
 	 * @param holder   全局事务管理
@@ -153,18 +274,133 @@ public abstract class JdbcAccessor implements EventListener, Serializable {
 		}
 	}
 	
+	/**
+	 * 延迟加入的事务范围，记录事务属性和实际加入事务的连接
+	 */
+	private static final class TransactionScope {
+		private final Map<JdbcAccessor, Enlisted> enlisted = new IdentityHashMap<>();
+		private final List<Enlisted> order = new ArrayList<>();
+		private final Set<JdbcAccessor> accessors;
+		private final boolean readOnly;
+		private final int isolation;
+		private int depth;
+		
+		private TransactionScope(Collection<? extends JdbcAccessor> accessors, int isolation, boolean readOnly) {
+			this.accessors = Collections.newSetFromMap(new IdentityHashMap<>());
+			this.accessors.addAll(accessors);
+			this.isolation = isolation;
+			this.readOnly = readOnly;
+		}
+		
+		// 第一次获取连接时开启该连接的事务，范围持有一个连接引用直到范围结束
+		private void enlist(JdbcAccessor accessor, Holder holder) throws SQLException {
+			if (!accessors.contains(accessor) || enlisted.containsKey(accessor)) {
+				return;
+			}
+			Enlisted e = new Enlisted(holder.requestedConnection());
+			try {
+				e.apply(isolation, readOnly);
+				e.trans.startTransaction();
+			} catch (SQLException | RuntimeException ex) {
+				e.restore();
+				holder.close();
+				throw ex;
+			}
+			enlisted.put(accessor, e);
+			order.add(e);
+		}
+		
+		// 按加入的相反顺序结束事务，任何一个提交失败后其余事务全部回滚
+		private void end(boolean commit) throws SQLException {
+			SQLException error = null;
+			for (int i = order.size() - 1; i >= 0; i--) {
+				Enlisted e = order.get(i);
+				try {
+					e.trans.endTransaction(commit);
+				} catch (SQLException | RuntimeException ex) {
+					if (error == null) {
+						error = ex instanceof SQLException ? (SQLException) ex : new SQLException(ex);
+					} else {
+						error.addSuppressed(ex);
+					}
+					commit = false;
+				} finally {
+					e.restore();
+					e.holder.close();
+				}
+			}
+			if (error != null) throw error;
+		}
+	}
+	
+	/**
+	 * 加入事务范围的连接及其原始属性
+	 */
+	private static final class Enlisted {
+		private final JdbcTransaction trans;
+		private final Holder holder;
+		private boolean readOnly;
+		private int isolation = -1;
+		
+		private Enlisted(Holder holder) {
+			this.trans = holder.getTransaction();
+			this.holder = holder;
+		}
+		
+		// 设置事务属性，只记录实际修改过的原始属性
+		private void apply(int isolation, boolean readOnly) throws SQLException {
+			if (readOnly && !holder.isReadOnly()) {
+				holder.setReadOnly(true);
+				this.readOnly = true;
+			}
+			if (isolation >= 0) {
+				int level = holder.getTransactionIsolation();
+				if (level != isolation) {
+					holder.setTransactionIsolation(isolation);
+					this.isolation = level;
+				}
+			}
+		}
+		
+		// 还原修改过的连接属性，失败时忽略
+		private void restore() {
+			try {
+				if (readOnly) {
+					holder.setReadOnly(false);
+				}
+				if (isolation >= 0) {
+					holder.setTransactionIsolation(isolation);
+				}
+			} catch (SQLException ignored) {
+			}
+		}
+	}
+	
 	// 创建 Holder Connection 对象
-	private static Holder create(DataSource dataSource) throws SQLException {
-		return new Holder(dataSource.getConnection());
+	private static Holder create(JdbcAccessor accessor) throws SQLException {
+		return new Holder(accessor, accessor.dataSource.getConnection());
 	}
 	
 	private static class Holder implements Connection {
+		private final Map<PreparedStatement, StatementKey> borrowed = new IdentityHashMap<>();
+		private final Map<StatementKey, PreparedStatement> statements;
+		private final JdbcAccessor accessor;
 		private final Connection connection;
 		private int transactionCount = 0;
 		private int referenceCount;
 		
-		public Holder(Connection connection) {
+		public Holder(JdbcAccessor accessor, Connection connection) {
+			this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+				protected boolean removeEldestEntry(Map.Entry<StatementKey, PreparedStatement> eldest) {
+					if (size() <= accessor.statementCacheSize) {
+						return false;
+					}
+					closeQuietly(eldest.getValue());
+					return true;
+				}
+			};
 			this.connection = connection;
+			this.accessor = accessor;
 			referenceCount = 0;
 		}
 		
@@ -173,6 +409,51 @@ public abstract class JdbcAccessor implements EventListener, Serializable {
 			return this;
 		}
 		
+		// 从缓存中取出 PreparedStatement，没有时创建，使用中的 PreparedStatement 不在缓存中
+		private PreparedStatement prepare(StatementKey key, PreparedStatementCreator creator) throws SQLException {
+			if (accessor.statementCacheSize <= 0) {
+				return creator.apply(connection);
+			}
+			PreparedStatement statement = statements.remove(key);
+			if (statement == null || statement.isClosed()) {
+				accessor.statementCacheMisses.increment();
+				statement = creator.apply(connection);
+			} else accessor.statementCacheHits.increment();
+			borrowed.put(statement, key);
+			return statement;
+		}
+		
+		// 使用完成后放回缓存，不能缓存的 PreparedStatement 直接关闭
+		private void release(PreparedStatement statement, boolean reusable) throws SQLException {
+			StatementKey key = borrowed.remove(statement);
+			if (key == null || !reusable || statement.isClosed() || statements.containsKey(key)) {
+				statement.close();
+				return;
+			}
+			try {
+				statement.clearParameters();
+				statements.put(key, statement);
+			} catch (SQLException | RuntimeException e) {
+				closeQuietly(statement);
+				throw e;
+			}
+		}
+		
+		// 关闭所有缓存和使用中的 PreparedStatement
+		private void closeStatements() {
+			statements.values().forEach(Holder::closeQuietly);
+			borrowed.keySet().forEach(Holder::closeQuietly);
+			statements.clear();
+			borrowed.clear();
+		}
+		
+		private static void closeQuietly(Statement statement) {
+			try {
+				statement.close();
+			} catch (SQLException ignored) {
+			}
+		}
+		
 		protected JdbcTransaction getTransaction() {
 			return new JdbcTransaction() {
 				private Savepoint point;
@@ -224,6 +505,7 @@ public abstract class JdbcAccessor implements EventListener, Serializable {
 		@Override
 		public void close() throws SQLException {
 			if (--referenceCount <= 0) {
+				closeStatements();
 				connection.close();
 			}
 		}
@@ -360,32 +642,44 @@ public abstract class JdbcAccessor implements EventListener, Serializable {
 		
 		@Override
 		public PreparedStatement prepareStatement(String sql) throws SQLException {
-			return connection.prepareStatement(sql);
+			return prepare(new StatementKey(sql, "S"), con -> {
+				return con.prepareStatement(sql); //
+			});
 		}
 		
 		@Override
 		public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
-			return connection.prepareStatement(sql, resultSetType, resultSetConcurrency);
+			return prepare(new StatementKey(sql, "S", resultSetType, resultSetConcurrency), con -> {
+				return con.prepareStatement(sql, resultSetType, resultSetConcurrency);
+			});
 		}
 		
 		@Override
 		public PreparedStatement prepareStatement(String arg0, int arg1, int arg2, int arg3) throws SQLException {
-			return connection.prepareStatement(arg0, arg1, arg2, arg3);
+			return prepare(new StatementKey(arg0, "S", arg1, arg2, arg3), con -> {
+				return con.prepareStatement(arg0, arg1, arg2, arg3);
+			});
 		}
 		
 		@Override
 		public PreparedStatement prepareStatement(String arg0, int arg1) throws SQLException {
-			return connection.prepareStatement(arg0, arg1);
+			return prepare(new StatementKey(arg0, "K", arg1), con -> {
+				return con.prepareStatement(arg0, arg1); //
+			});
 		}
 		
 		@Override
 		public PreparedStatement prepareStatement(String arg0, int[] arg1) throws SQLException {
-			return connection.prepareStatement(arg0, arg1);
+			return prepare(new StatementKey(arg0, "I" + Arrays.toString(arg1)), con -> {
+				return con.prepareStatement(arg0, arg1); //
+			});
 		}
 		
 		@Override
 		public PreparedStatement prepareStatement(String arg0, String[] arg1) throws SQLException {
-			return connection.prepareStatement(arg0, arg1);
+			return prepare(new StatementKey(arg0, "N" + Arrays.toString(arg1)), con -> {
+				return con.prepareStatement(arg0, arg1); //
+			});
 		}
 		
 		@Override
@@ -522,6 +816,61 @@ public abstract class JdbcAccessor implements EventListener, Serializable {
 	}
 	
 	
+	/**
+	 * 占用中的 PreparedStatement 和连接
+	 * @author xchao
+	 */
+	protected static final class StatementResource implements AutoCloseable {
+		private final PreparedStatement statement;
+		private final Holder holder;
+		
+		private StatementResource(Holder holder, PreparedStatement statement) {
+			this.statement = statement;
+			this.holder = holder;
+		}
+		
+		public final PreparedStatement getStatement() {
+			return statement;
+		}
+		
+		@Override
+		public final void close() throws SQLException {
+			try {
+				holder.release(statement, false);
+			} finally {
+				holder.close();
+			}
+		}
+	}
+	
+	// PreparedStatement 缓存键：SQL、创建方式和结果集选项
+	private static final class StatementKey {
+		private final String sql, kind;
+		private final int[] options;
+		private final int hash;
+		
+		private StatementKey(String sql, String kind, int... options) {
+			this.sql = sql;
+			this.kind = kind;
+			this.options = options;
+			this.hash = Objects.hash(sql, kind, Arrays.hashCode(options));
+		}
+		
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) return true;
+			if (!(o instanceof StatementKey)) return false;
+			StatementKey that = (StatementKey) o;
+			return hash == that.hash && sql.equals(that.sql) && kind.equals(that.kind)
+					&& Arrays.equals(options, that.options);
+		}
+		
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+	}
+	
 	@FunctionalInterface
 	public interface ConnectionCallback<T> {
 		T apply(Connection con) throws SQLException;
@@ -532,6 +881,11 @@ public abstract class JdbcAccessor implements EventListener, Serializable {
 		T trans(JdbcTransaction trans) throws SQLException;
 	}
 	
+	@FunctionalInterface
+	public interface TransactionScopeCallback<T> {
+		T apply() throws Throwable;
+	}
+	
 	@FunctionalInterface
 	public interface JtaTransactionCallback<T> {
 		T trans(JtaTransaction trans) throws SQLException;
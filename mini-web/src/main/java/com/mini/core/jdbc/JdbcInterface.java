@@ -2,13 +2,16 @@ package com.mini.core.jdbc;
 
 import com.mini.core.jdbc.builder.SQLBuilder;
 import com.mini.core.jdbc.mapper.Mapper;
+import com.mini.core.jdbc.model.KeysetPaging;
 import com.mini.core.jdbc.model.Paging;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.sql.*;
 import java.util.EventListener;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * 数据库操作对象
@@ -106,6 +109,33 @@ public interface JdbcInterface extends EventListener {
 	 */
 	<T> int insertOnUpdate(T instance);
 	
+	/**
+	 * 批量添加实体信息，按每批的最大行数和参数个数分批执行多行“REPLACE INTO”语句
+	 * <p>
+	 * 所有实体的类型必须相同，自增长ID按顺序回填到带 {@link com.mini.core.jdbc.annotation.Auto} 注解的属性
+	 * @param instances 实体信息
+	 * @return 执行结果
+	 */
+	<T> int replaceBatch(List<T> instances);
+	
+	/**
+	 * 批量添加实体信息，按每批的最大行数和参数个数分批执行多行“INSERT INTO”语句
+	 * <p>
+	 * 所有实体的类型必须相同，自增长ID按顺序回填到带 {@link com.mini.core.jdbc.annotation.Auto} 注解的属性
+	 * @param instances 实体信息
+	 * @return 执行结果
+	 */
+	<T> int insertBatch(List<T> instances);
+	
+	/**
+	 * 批量新增或者修改实体信息，按每批的最大行数和参数个数分批执行多行“INSERT ON DUPLICATE KEY UPDATE”语句
+	 * <p>
+	 * 所有实体的类型必须相同，该操作不回填自增长ID
+	 * @param instances 实体信息
+	 * @return 执行结果
+	 */
+	<T> int insertOnUpdateBatch(List<T> instances);
+	
 	/**
 	 * 查询结果
 	 * @param str      查询SQL
@@ -332,6 +362,136 @@ public interface JdbcInterface extends EventListener {
 	@Nonnull
 	<T> List<T> queryListSingle(int limit, SQLBuilder builder, Class<T> type);
 	
+	/**
+	 * 流式查询，逐行映射结果，Stream 关闭时释放结果集、PreparedStatement 和连接
+	 * <p>
+	 * 返回的 Stream 必须在当前线程使用并关闭（try-with-resources）
+	 * @param str    SQL
+	 * @param m      映射器
+	 * @param params 参数
+	 * @param <T>    解析器类型
+	 * @return 查询结果
+	 */
+	@Nonnull
+	<T> Stream<T> queryStream(String str, Mapper<T> m, Object... params);
+	
+	/**
+	 * 流式查询，逐行映射结果，Stream 关闭时释放结果集、PreparedStatement 和连接
+	 * @param builder SQL和参数
+	 * @param m       映射器
+	 * @param <T>     解析器类型
+	 * @return 查询结果
+	 */
+	@Nonnull
+	<T> Stream<T> queryStream(SQLBuilder builder, Mapper<T> m);
+	
+	/**
+	 * 流式查询，逐行映射结果，Stream 关闭时释放结果集、PreparedStatement 和连接
+	 * @param str    SQL
+	 * @param type   类型类对象
+	 * @param params 参数
+	 * @param <T>    解析器类型
+	 * @return 查询结果
+	 */
+	@Nonnull
+	<T> Stream<T> queryStream(String str, Class<T> type, Object... params);
+	
+	/**
+	 * 流式查询，逐行映射结果，Stream 关闭时释放结果集、PreparedStatement 和连接
+	 * @param builder SQL和参数
+	 * @param type    类型类对象
+	 * @param <T>     解析器类型
+	 * @return 查询结果
+	 */
+	@Nonnull
+	<T> Stream<T> queryStream(SQLBuilder builder, Class<T> type);
+	
+	/**
+	 * 逐行查询并回调，不保存查询结果
+	 * @param str      SQL
+	 * @param m        映射器
+	 * @param callback 每一行数据的回调
+	 * @param params   参数
+	 * @param <T>      解析器类型
+	 */
+	<T> void queryForEach(String str, Mapper<T> m, RowCallback<T> callback, Object... params);
+	
+	/**
+	 * 逐行查询并回调，不保存查询结果
+	 * @param builder  SQL和参数
+	 * @param m        映射器
+	 * @param callback 每一行数据的回调
+	 * @param <T>      解析器类型
+	 */
+	<T> void queryForEach(SQLBuilder builder, Mapper<T> m, RowCallback<T> callback);
+	
+	/**
+	 * 逐行查询并回调，不保存查询结果
+	 * @param str      SQL
+	 * @param type     类型类对象
+	 * @param callback 每一行数据的回调
+	 * @param params   参数
+	 * @param <T>      解析器类型
+	 */
+	<T> void queryForEach(String str, Class<T> type, RowCallback<T> callback, Object... params);
+	
+	/**
+	 * 逐行查询并回调，不保存查询结果
+	 * @param builder  SQL和参数
+	 * @param type     类型类对象
+	 * @param callback 每一行数据的回调
+	 * @param <T>      解析器类型
+	 */
+	<T> void queryForEach(SQLBuilder builder, Class<T> type, RowCallback<T> callback);
+	
+	/**
+	 * 分块查询，每次返回最多 size 条数据，读取完成或者关闭游标时释放连接
+	 * <p>
+	 * 未读取完成时必须关闭返回的游标
+	 * @param size   每块数据条数
+	 * @param str    SQL
+	 * @param m      映射器
+	 * @param params 参数
+	 * @param <T>    解析器类型
+	 * @return 查询游标
+	 */
+	@Nonnull
+	<T> Cursor<List<T>> queryChunks(int size, String str, Mapper<T> m, Object... params);
+	
+	/**
+	 * 分块查询，每次返回最多 size 条数据，读取完成或者关闭游标时释放连接
+	 * @param size    每块数据条数
+	 * @param builder SQL和参数
+	 * @param m       映射器
+	 * @param <T>     解析器类型
+	 * @return 查询游标
+	 */
+	@Nonnull
+	<T> Cursor<List<T>> queryChunks(int size, SQLBuilder builder, Mapper<T> m);
+	
+	/**
+	 * 分块查询，每次返回最多 size 条数据，读取完成或者关闭游标时释放连接
+	 * @param size   每块数据条数
+	 * @param str    SQL
+	 * @param type   类型类对象
+	 * @param params 参数
+	 * @param <T>    解析器类型
+	 * @return 查询游标
+	 */
+	@Nonnull
+	<T> Cursor<List<T>> queryChunks(int size, String str, Class<T> type, Object... params);
+	
+	/**
+	 * 分块查询，每次返回最多 size 条数据，读取完成或者关闭游标时释放连接
+	 * @param size    每块数据条数
+	 * @param builder SQL和参数
+	 * @param type    类型类对象
+	 * @param <T>     解析器类型
+	 * @return 查询游标
+	 */
+	@Nonnull
+	<T> Cursor<List<T>> queryChunks(int size, SQLBuilder builder, Class<T> type);
+	
 	/**
 	 * 查询列表
 	 * @param page   当前页数
@@ -407,6 +567,64 @@ public interface JdbcInterface extends EventListener {
 	@Nonnull
 	<T> Paging<T> queryPagingSingle(int page, int limit, SQLBuilder builder, Class<T> type);
 	
+	/**
+	 * 键集分页查询，按排序键的值定位下一页，不使用 OFFSET 也不统计总条数
+	 * <p>
+	 * 排序键格式为“字段名 [ASC|DESC]”，字段必须出现在查询结果中且不能为空（NOT NULL），
+	 * 最后一个排序键必须唯一（例如主键）。基础查询不需要 ORDER BY，
+	 * 读取到为空的排序键值时抛出 IllegalStateException
+	 * @param limit  每页条数
+	 * @param next   上一页返回的令牌，第一页时为 null
+	 * @param keys   排序键
+	 * @param str    SQL
+	 * @param m      映射器
+	 * @param params 参数
+	 * @param <T>    解析器类型
+	 * @return 查询结果
+	 */
+	@Nonnull
+	<T> KeysetPaging<T> queryKeyset(int limit, @Nullable String next, String[] keys, String str, Mapper<T> m, Object... params);
+	
+	/**
+	 * 键集分页查询，按排序键的值定位下一页，不使用 OFFSET 也不统计总条数
+	 * @param limit   每页条数
+	 * @param next    上一页返回的令牌，第一页时为 null
+	 * @param keys    排序键
+	 * @param builder SQL和参数
+	 * @param m       映射器
+	 * @param <T>     解析器类型
+	 * @return 查询结果
+	 */
+	@Nonnull
+	<T> KeysetPaging<T> queryKeyset(int limit, @Nullable String next, String[] keys, SQLBuilder builder, Mapper<T> m);
+	
+	/**
+	 * 键集分页查询，按排序键的值定位下一页，不使用 OFFSET 也不统计总条数
+	 * @param limit  每页条数
+	 * @param next   上一页返回的令牌，第一页时为 null
+	 * @param keys   排序键
+	 * @param str    SQL
+	 * @param type   类型类对象
+	 * @param params 参数
+	 * @param <T>    解析器类型
+	 * @return 查询结果
+	 */
+	@Nonnull
+	<T> KeysetPaging<T> queryKeyset(int limit, @Nullable String next, String[] keys, String str, Class<T> type, Object... params);
+	
+	/**
+	 * 键集分页查询，按排序键的值定位下一页，不使用 OFFSET 也不统计总条数
+	 * @param limit   每页条数
+	 * @param next    上一页返回的令牌，第一页时为 null
+	 * @param keys    排序键
+	 * @param builder SQL和参数
+	 * @param type    类型类对象
+	 * @param <T>     解析器类型
+	 * @return 查询结果
+	 */
+	@Nonnull
+	<T> KeysetPaging<T> queryKeyset(int limit, @Nullable String next, String[] keys, SQLBuilder builder, Class<T> type);
+	
 	/**
 	 * 查询对象
 	 * @param str    SQL
@@ -769,6 +987,26 @@ public interface JdbcInterface extends EventListener {
 		T apply(ResultSet rs) throws SQLException;
 	}
 	
+	/**
+	 * 逐行查询回调处理
+	 * @param <T> 行数据类型
+	 * @author xchao
+	 */
+	@FunctionalInterface
+	interface RowCallback<T> {
+		void apply(T row) throws SQLException;
+	}
+	
+	/**
+	 * 查询游标，读取完成后自动关闭
+	 * @param <T> 数据类型
+	 * @author xchao
+	 */
+	interface Cursor<T> extends Iterator<T>, AutoCloseable {
+		@Override
+		void close();
+	}
+	
 	/**
 	 * 指处理参数设置
 	 * @author xchao
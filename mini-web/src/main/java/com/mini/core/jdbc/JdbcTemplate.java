@@ -1,24 +1,36 @@
 package com.mini.core.jdbc;
 
+import com.mini.core.jdbc.annotation.Auto;
 import com.mini.core.jdbc.builder.SQLBuilder;
+import com.mini.core.jdbc.builder.SQLInterface;
 import com.mini.core.jdbc.builder.SQLInterfaceDef;
+import com.mini.core.jdbc.builder.SQLPlan.Kind;
 import com.mini.core.jdbc.mapper.BeanMapper;
 import com.mini.core.jdbc.mapper.Mapper;
 import com.mini.core.jdbc.mapper.SingleMapper;
+import com.mini.core.jdbc.model.KeysetPaging;
 import com.mini.core.jdbc.model.Paging;
+import com.mini.core.util.CountCache;
+import com.mini.core.util.KeysetQuery;
+import com.mini.core.util.holder.ClassHolder;
+import com.mini.core.util.holder.FieldHolder;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.sql.DataSource;
+import java.sql.Date;
 import java.sql.*;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Objects;
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import static com.mini.core.jdbc.util.JdbcUtil.full;
+import static com.mini.core.util.ThrowsUtil.hidden;
 import static java.sql.ResultSet.CONCUR_READ_ONLY;
 import static java.sql.ResultSet.TYPE_FORWARD_ONLY;
 import static java.sql.Statement.RETURN_GENERATED_KEYS;
+import static java.util.Spliterator.ORDERED;
+import static java.util.Spliterators.spliteratorUnknownSize;
 import static java.util.Optional.ofNullable;
 
 /**
@@ -26,10 +38,83 @@ import static java.util.Optional.ofNullable;
  * @author xchao
  */
 public abstract class JdbcTemplate extends JdbcAccessor implements JdbcInterface {
+	private final CountCache counts = new CountCache();
+	private volatile int batchParams = 65535;
+	private volatile int batchRows = 1000;
+	private volatile int fetchSize = 0;
+	
 	public JdbcTemplate(@Nonnull DataSource dataSource) {
 		super(dataSource);
 	}
 	
+	/**
+	 * 设置流式查询每次从数据库获取的行数，0 时使用驱动的默认值
+	 * <p>
+	 * MySQL 驱动需要设置为 Integer.MIN_VALUE 逐行读取，或者连接开启 useCursorFetch 后设置正数
+	 * @param fetchSize 每次获取的行数
+	 */
+	public final void setFetchSize(int fetchSize) {
+		this.fetchSize = fetchSize;
+	}
+	
+	public final int getFetchSize() {
+		return fetchSize;
+	}
+	
+	/**
+	 * 设置批量执行时每批的最大行数，超过时分多批执行
+	 * @param batchRows 每批的最大行数
+	 */
+	public final void setBatchRows(int batchRows) {
+		this.batchRows = Math.max(1, batchRows);
+	}
+	
+	/**
+	 * 设置多行 INSERT 语句中参数的最大个数，MySQL 单条语句最多 65535 个参数
+	 * @param batchParams 参数的最大个数
+	 */
+	public final void setBatchParams(int batchParams) {
+		this.batchParams = Math.max(1, batchParams);
+	}
+	
+	/**
+	 * 是否支持多行的“INSERT INTO ... VALUES (...), (...)”语句，不支持时使用 JDBC 批处理逐行执行
+	 * @return true-支持
+	 */
+	protected boolean multiRowInsert() {
+		return true;
+	}
+	
+	/**
+	 * 设置分页总条数缓存的有效时间，相同的SQL和参数在有效时间内不再重复统计
+	 * <p>
+	 * 0 时不缓存（默认），缓存的总条数在有效时间内可能与实际数据不一致
+	 * @param countCacheTtl 有效时间（毫秒）
+	 */
+	public final void setCountCacheTtl(long countCacheTtl) {
+		counts.setTtl(countCacheTtl);
+	}
+	
+	/**
+	 * 设置分页总条数缓存的最大条数
+	 * @param countCacheSize 最大条数
+	 */
+	public final void setCountCacheSize(int countCacheSize) {
+		counts.setSize(countCacheSize);
+	}
+	
+	/**
+	 * 清空分页总条数缓存
+	 */
+	public final void clearCountCache() {
+		counts.clear();
+	}
+	
+	// 查询总条数，开启缓存时按规范化后的SQL和参数缓存
+	private long total(String str, Object[] params) {
+		return counts.get(str, params, () -> query(totals(str), rs -> rs.next() ? rs.getLong(1) : 0L, params));
+	}
+	
 	/**
 	 * 指执行SQL
 	 * @param str    SQL
@@ -38,13 +123,21 @@ public abstract class JdbcTemplate extends JdbcAccessor implements JdbcInterface
 	 */
 	@Override
 	public final int[] executeBatch(String str, PreparedStatementSetter setter) {
-		return this.execute((ConnectionCallback<int[]>) (connection) -> {
-			PreparedStatement statement = connection.prepareStatement(str);
-			for (int i = 0, size = setter.getBatchSize(); i < size; i++) {
+		final int chunk = batchRows;
+		return execute((PreparedStatementCreator) con -> con.prepareStatement(str), statement -> {
+			int size = setter.getBatchSize();
+			int[] result = new int[size];
+			for (int i = 0, from = 0; i < size; i++) {
 				setter.setValues(statement, i);
 				statement.addBatch();
+				// 按每批的最大行数分批发送
+				if (i + 1 - from == chunk || i == size - 1) {
+					int[] part = statement.executeBatch();
+					System.arraycopy(part, 0, result, from, part.length);
+					from = i + 1;
+				}
 			}
-			return statement.executeBatch();
+			return result;
 		});
 	}
 	
@@ -76,73 +169,140 @@ public abstract class JdbcTemplate extends JdbcAccessor implements JdbcInterface
 	}
 	
 	@Override
-	@SuppressWarnings("unchecked")
 	public final <T> int replace(T instance) {
-		return JdbcTemplate.this.execute(new SQLBuilder() {{
-			var type = (Class<? extends T>) instance.getClass();
-			var inter = SQLInterfaceDef.getSQLInterface(type);
-			inter.createReplace(this, instance);
-		}});
+		return write(null, instance, Kind.REPLACE, SQLInterface::createReplace);
 	}
 	
 	@Override
-	@SuppressWarnings("unchecked")
 	public final <T> int replace(HolderGenerated holder, T instance) {
-		return JdbcTemplate.this.execute(holder, new SQLBuilder() {{
-			var type = (Class<? extends T>) instance.getClass();
-			var inter = SQLInterfaceDef.getSQLInterface(type);
-			inter.createReplace(this, instance);
-		}});
+		return write(holder, instance, Kind.REPLACE, SQLInterface::createReplace);
 	}
 	
 	@Override
-	@SuppressWarnings("unchecked")
 	public final <T> int insert(T instance) {
-		return JdbcTemplate.this.execute(new SQLBuilder() {{
-			var type = (Class<? extends T>) instance.getClass();
-			var inter = SQLInterfaceDef.getSQLInterface(type);
-			inter.createInsert(this, instance);
-		}});
+		return write(null, instance, Kind.INSERT, SQLInterface::createInsert);
 	}
 	
 	@Override
-	@SuppressWarnings("unchecked")
 	public final <T> int insert(HolderGenerated holder, T instance) {
-		return JdbcTemplate.this.execute(holder, new SQLBuilder() {{
-			var type = (Class<? extends T>) instance.getClass();
-			var inter = SQLInterfaceDef.getSQLInterface(type);
-			inter.createInsert(this, instance);
-		}});
+		return write(holder, instance, Kind.INSERT, SQLInterface::createInsert);
 	}
 	
 	@Override
-	@SuppressWarnings("unchecked")
 	public final <T> int delete(T instance) {
-		return JdbcTemplate.this.execute(new SQLBuilder() {{
-			var type = (Class<? extends T>) instance.getClass();
-			var inter = SQLInterfaceDef.getSQLInterface(type);
-			inter.createDelete(this, instance);
-		}});
+		return write(null, instance, Kind.DELETE, SQLInterface::createDelete);
 	}
 	
 	@Override
-	@SuppressWarnings("unchecked")
 	public final <T> int update(T instance) {
-		return JdbcTemplate.this.execute(new SQLBuilder() {{
-			var type = (Class<? extends T>) instance.getClass();
-			var inter = SQLInterfaceDef.getSQLInterface(type);
-			inter.createUpdate(this, instance);
-		}});
+		return write(null, instance, Kind.UPDATE, SQLInterface::createUpdate);
 	}
 	
 	@Override
-	@SuppressWarnings("unchecked")
 	public final <T> int insertOnUpdate(T instance) {
-		return JdbcTemplate.this.execute(new SQLBuilder() {{
-			var type = (Class<? extends T>) instance.getClass();
-			var inter = SQLInterfaceDef.getSQLInterface(type);
-			inter.createInsertOnUpdate(this, instance);
-		}});
+		return write(null, instance, Kind.INSERT_ON_UPDATE, SQLInterface::createInsertOnUpdate);
+	}
+	
+	// 有已编译语句时直接使用缓存的SQL，否则通过 SQLBuilder 构建
+	private int write(@Nullable HolderGenerated holder, Object instance, Kind kind, RowCreator creator) {
+		var type = instance.getClass();
+		var inter = SQLInterfaceDef.getSQLInterface(type);
+		var plan = inter.compiled(type, kind);
+		var args = plan == null ? null : plan.args(instance);
+		if (plan != null && args != null) {
+			return holder == null ? execute(plan.getSql(), args) : execute(holder, plan.getSql(), args);
+		}
+		SQLBuilder builder = new SQLBuilder();
+		creator.create(inter, builder, instance);
+		return holder == null ? execute(builder) : execute(holder, builder);
+	}
+	
+	@Override
+	public final <T> int replaceBatch(List<T> instances) {
+		return batch(instances, SQLInterface::createReplace, true);
+	}
+	
+	@Override
+	public final <T> int insertBatch(List<T> instances) {
+		return batch(instances, SQLInterface::createInsert, true);
+	}
+	
+	@Override
+	public final <T> int insertOnUpdateBatch(List<T> instances) {
+		return batch(instances, SQLInterface::createInsertOnUpdate, false);
+	}
+	
+	// 按每批的最大行数和参数个数分批执行多行语句，自增长ID按顺序回填到实体
+	private <T> int batch(List<T> instances, RowCreator creator, boolean generated) {
+		if (instances.isEmpty()) return 0;
+		final Class<?> type = instances.get(0).getClass();
+		final SQLInterface inter = SQLInterfaceDef.getSQLInterface(type);
+		final FieldHolder<?> auto = generated ? ClassHolder.create(type).fields().stream()
+				.filter(h -> h.getAnnotation(Auto.class) != null)
+				.findFirst().orElse(null) : null;
+		int result = 0;
+		for (int from = 0, to; from < instances.size(); from = to) {
+			SQLBuilder chunk = new SQLBuilder();
+			creator.create(inter, chunk, row(type, instances.get(from)));
+			int limit = Math.min(batchRows, batchParams / Math.max(1, chunk.args().length));
+			to = Math.min(instances.size(), from + Math.max(1, limit));
+			
+			List<Object[]> params = new ArrayList<>(to - from);
+			params.add(chunk.args());
+			for (int i = from + 1; i < to; i++) {
+				SQLBuilder row = new SQLBuilder();
+				creator.create(inter, row, row(type, instances.get(i)));
+				if (multiRowInsert()) {
+					chunk.addRow(row);
+				} else params.add(row.args());
+			}
+			result += batch(chunk, params, instances.subList(from, to), auto);
+		}
+		return result;
+	}
+	
+	// 执行一批数据，不支持多行语句时使用 JDBC 批处理
+	private int batch(SQLBuilder chunk, List<Object[]> params, List<?> rows, @Nullable FieldHolder<?> auto) {
+		final String str = chunk.toSQL();
+		final boolean multiRow = multiRowInsert();
+		return execute((PreparedStatementCreator) con -> auto == null ? con.prepareStatement(str) :
+				con.prepareStatement(str, RETURN_GENERATED_KEYS), stm -> {
+			int result = 0;
+			if (multiRow) {
+				result = full(stm, chunk.args()).executeUpdate();
+			} else {
+				for (Object[] param : params) {
+					full(stm, param).addBatch();
+				}
+				for (int count : stm.executeBatch()) {
+					result += count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(0, count);
+				}
+			}
+			if (auto != null) {
+				try (ResultSet rs = stm.getGeneratedKeys()) {
+					for (int i = 0; i < rows.size() && rs.next(); i++) {
+						auto.setValue(rows.get(i), generatedValue(auto.getType(), rs));
+					}
+				}
+			}
+			return result;
+		});
+	}
+	
+	// 批量执行时实体类型必须一致
+	private static Object row(Class<?> type, Object instance) {
+		if (instance.getClass() != type) {
+			throw new IllegalArgumentException("Batch instances must be of the same type: " + type.getName());
+		}
+		return instance;
+	}
+	
+	// 按属性类型读取自增长ID
+	private static Object generatedValue(Class<?> type, ResultSet rs) throws SQLException {
+		if (type == long.class || type == Long.class) return rs.getLong(1);
+		if (type == int.class || type == Integer.class) return rs.getInt(1);
+		if (type == String.class) return rs.getString(1);
+		return rs.getObject(1);
 	}
 	
 	@Override
@@ -165,8 +325,11 @@ public abstract class JdbcTemplate extends JdbcAccessor implements JdbcInterface
 	public final <T> List<T> queryList(String str, Mapper<T> m, Object... params) {
 		return JdbcTemplate.this.query(str, rs -> {
 			final List<T> result = new ArrayList<>();
-			while (Objects.nonNull(rs) && rs.next()) {
-				result.add(m.get(rs, rs.getRow()));
+			if (Objects.isNull(rs)) return result;
+			// 同一个结果集的所有行使用同一个映射器
+			final Mapper<T> mapper = m.prepare(str, rs.getMetaData());
+			while (rs.next()) {
+				result.add(mapper.get(rs, rs.getRow()));
 			}
 			return result;
 		}, params);
@@ -292,12 +455,131 @@ public abstract class JdbcTemplate extends JdbcAccessor implements JdbcInterface
 		return queryList(0, limit, builder, SingleMapper.create(type));
 	}
 	
+	// 打开只读并且只能向前的查询游标
+	private <T> RowCursor<T> cursor(String str, Mapper<T> m, Object[] params) {
+		final StatementResource resource = open(con -> {
+			return con.prepareStatement(str, TYPE_FORWARD_ONLY, CONCUR_READ_ONLY); //
+		});
+		try {
+			final PreparedStatement statement = resource.getStatement();
+			if (fetchSize != 0) statement.setFetchSize(fetchSize);
+			ResultSet rs = full(statement, params).executeQuery();
+			return new RowCursor<>(resource, rs, m.prepare(str, rs.getMetaData()));
+		} catch (SQLException | RuntimeException e) {
+			RowCursor.closeQuietly(resource, e);
+			throw hidden(e);
+		}
+	}
+	
+	@Nonnull
+	@Override
+	public final <T> Stream<T> queryStream(String str, Mapper<T> m, Object... params) {
+		final RowCursor<T> cursor = cursor(str, m, params);
+		return StreamSupport.stream(spliteratorUnknownSize(cursor, ORDERED), false).onClose(cursor::close);
+	}
+	
+	@Nonnull
+	@Override
+	public final <T> Stream<T> queryStream(SQLBuilder builder, Mapper<T> m) {
+		return queryStream(builder.toSQL(), m, builder.args());
+	}
+	
+	@Nonnull
+	@Override
+	public final <T> Stream<T> queryStream(String str, Class<T> type, Object... params) {
+		return queryStream(str, BeanMapper.create(type), params);
+	}
+	
+	@Nonnull
+	@Override
+	public final <T> Stream<T> queryStream(SQLBuilder builder, Class<T> type) {
+		return queryStream(builder, BeanMapper.create(type));
+	}
+	
+	@Override
+	public final <T> void queryForEach(String str, Mapper<T> m, RowCallback<T> callback, Object... params) {
+		try (RowCursor<T> cursor = cursor(str, m, params)) {
+			while (cursor.hasNext()) {
+				callback.apply(cursor.next());
+			}
+		} catch (SQLException e) {
+			throw hidden(e);
+		}
+	}
+	
+	@Override
+	public final <T> void queryForEach(SQLBuilder builder, Mapper<T> m, RowCallback<T> callback) {
+		queryForEach(builder.toSQL(), m, callback, builder.args());
+	}
+	
+	@Override
+	public final <T> void queryForEach(String str, Class<T> type, RowCallback<T> callback, Object... params) {
+		queryForEach(str, BeanMapper.create(type), callback, params);
+	}
+	
+	@Override
+	public final <T> void queryForEach(SQLBuilder builder, Class<T> type, RowCallback<T> callback) {
+		queryForEach(builder, BeanMapper.create(type), callback);
+	}
+	
+	@Nonnull
+	@Override
+	public final <T> Cursor<List<T>> queryChunks(int size, String str, Mapper<T> m, Object... params) {
+		if (size <= 0) throw new IllegalArgumentException("size must be positive");
+		final RowCursor<T> cursor = cursor(str, m, params);
+		return new Cursor<>() {
+			@Override
+			public boolean hasNext() {
+				return cursor.hasNext();
+			}
+			
+			@Override
+			public List<T> next() {
+				if (!cursor.hasNext()) {
+					throw new NoSuchElementException();
+				}
+				final List<T> result = new ArrayList<>(size);
+				while (result.size() < size && cursor.hasNext()) {
+					result.add(cursor.next());
+				}
+				return result;
+			}
+			
+			@Override
+			public void close() {
+				cursor.close();
+			}
+		};
+	}
+	
+	@Nonnull
+	@Override
+	public final <T> Cursor<List<T>> queryChunks(int size, SQLBuilder builder, Mapper<T> m) {
+		return queryChunks(size, builder.toSQL(), m, builder.args());
+	}
+	
+	@Nonnull
+	@Override
+	public final <T> Cursor<List<T>> queryChunks(int size, String str, Class<T> type, Object... params) {
+		return queryChunks(size, str, BeanMapper.create(type), params);
+	}
+	
+	@Nonnull
+	@Override
+	public final <T> Cursor<List<T>> queryChunks(int size, SQLBuilder builder, Class<T> type) {
+		return queryChunks(size, builder, BeanMapper.create(type));
+	}
+	
 	@Nonnull
 	@Override
 	public final <T> Paging<T> queryPaging(int page, int limit, String str, Mapper<T> m, Object... params) {
 		Paging<T> paging = new Paging<>(page, limit);
-		paging.setRows(queryList(paging(paging.getStart(), paging.getLimit(), str), m, params));
-		paging.setTotal(query(totals(str), (rs -> rs.next() ? rs.getInt(1) : 0), params));
+		List<T> rows = queryList(paging(paging.getStart(), paging.getLimit(), str), m, params);
+		paging.setRows(rows);
+		// 最后一页不满时可以直接得到总条数，不需要再统计
+		if (rows.size() < paging.getLimit() && (!rows.isEmpty() || paging.getStart() == 0)) {
+			paging.setTotal((long) paging.getStart() + rows.size());
+		} else paging.setTotal(total(str, params));
 		return paging;
 	}
 	
@@ -331,10 +613,59 @@ public abstract class JdbcTemplate extends JdbcAccessor implements JdbcInterface
 		return queryPaging(page, limit, builder, SingleMapper.create(type));
 	}
 	
+	@Nonnull
+	@Override
+	public final <T> KeysetPaging<T> queryKeyset(int limit, @Nullable String next, String[] keys, String str, Mapper<T> m, Object... params) {
+		KeysetPaging<T> paging = new KeysetPaging<>(limit);
+		KeysetQuery keyset = new KeysetQuery(keys);
+		List<Object> args = new ArrayList<>();
+		final String query = paging(0, paging.getLimit() + 1, keyset.sql(str, next, params, args));
+		paging.setRows(query(query, rs -> {
+			List<T> rows = new ArrayList<>(paging.getLimit());
+			String token = null;
+			Mapper<T> mapper = null;
+			while (rs.next()) {
+				// 多查询的一行只用于判断是否还有下一页
+				if (rows.size() == paging.getLimit()) {
+					paging.setNext(token);
+					break;
+				}
+				if (mapper == null) {
+					mapper = m.prepare(query, rs.getMetaData());
+				}
+				rows.add(mapper.get(rs, rows.size() + 1));
+				if (rows.size() == paging.getLimit()) {
+					token = keyset.token(rs);
+				}
+			}
+			return rows;
+		}, args.toArray()));
+		return paging;
+	}
+	
+	@Nonnull
+	@Override
+	public final <T> KeysetPaging<T> queryKeyset(int limit, @Nullable String next, String[] keys, SQLBuilder builder, Mapper<T> m) {
+		return queryKeyset(limit, next, keys, builder.toSQL(), m, builder.args());
+	}
+	
+	@Nonnull
+	@Override
+	public final <T> KeysetPaging<T> queryKeyset(int limit, @Nullable String next, String[] keys, String str, Class<T> type, Object... params) {
+		return queryKeyset(limit, next, keys, str, BeanMapper.create(type), params);
+	}
+	
+	@Nonnull
+	@Override
+	public final <T> KeysetPaging<T> queryKeyset(int limit, @Nullable String next, String[] keys, SQLBuilder builder, Class<T> type) {
+		return queryKeyset(limit, next, keys, builder, BeanMapper.create(type));
+	}
+	
 	@Nullable
 	@Override
 	public final <T> T queryObject(String str, Mapper<T> m, Object... params) {
-		return query(paging(0, 1, str), rs -> rs.next() ? m.get(rs, rs.getRow()) : null, params);
+		final String sql = paging(0, 1, str);
+		return query(sql, rs -> rs.next() ? m.prepare(sql, rs.getMetaData()).get(rs, rs.getRow()) : null, params);
 	}
 	
 	@Nullable
@@ -582,4 +913,83 @@ public abstract class JdbcTemplate extends JdbcAccessor implements JdbcInterface
 	public final Time queryTime(SQLBuilder builder) {
 		return queryObjectSingle(builder, Time.class);
 	}
-}
\ No newline at end of file
+	
+	private interface RowCreator {
+		void create(SQLInterface inter, SQLBuilder builder, Object instance);
+	}
+	
+	/**
+	 * 逐行读取结果集的游标，读取完成、出错或者关闭时释放结果集和连接
+	 * @param <T> 数据类型
+	 */
+	private static final class RowCursor<T> implements Cursor<T> {
+		private final StatementResource resource;
+		private final Mapper<T> mapper;
+		private final ResultSet rs;
+		private boolean closed, fetched, next;
+		private int number = 0;
+		
+		private RowCursor(StatementResource resource, ResultSet rs, Mapper<T> mapper) {
+			this.resource = resource;
+			this.mapper = mapper;
+			this.rs = rs;
+		}
+		
+		@Override
+		public final boolean hasNext() {
+			if (closed) return false;
+			if (fetched) return next;
+			try {
+				next = rs.next();
+				fetched = true;
+			} catch (SQLException | RuntimeException e) {
+				close(e);
+				throw hidden(e);
+			}
+			if (!next) close();
+			return next;
+		}
+		
+		@Override
+		public final T next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			fetched = false;
+			try {
+				return mapper.get(rs, ++number);
+			} catch (SQLException | RuntimeException e) {
+				close(e);
+				throw hidden(e);
+			}
+		}
+		
+		@Override
+		public final void close() {
+			if (closed) return;
+			closed = true;
+			try (StatementResource ignored = resource) {
+				rs.close();
+			} catch (SQLException e) {
+				throw hidden(e);
+			}
+		}
+		
+		// 出错时关闭，关闭时的异常添加到原异常中
+		private void close(Exception e) {
+			try {
+				close();
+			} catch (RuntimeException ex) {
+				e.addSuppressed(ex);
+			}
+		}
+		
+		private static void closeQuietly(StatementResource resource, Exception e) {
+			try {
+				resource.close();
+			} catch (SQLException | RuntimeException ex) {
+				e.addSuppressed(ex);
+			}
+		}
+	}
+}
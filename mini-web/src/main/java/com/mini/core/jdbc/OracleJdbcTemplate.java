@@ -13,6 +13,11 @@ public final class OracleJdbcTemplate extends JdbcTemplate {
 		super(dataSource);
 	}
 	
+	@Override
+	protected boolean multiRowInsert() {
+		return false;
+	}
+	
 	@Nonnull
 	@Override
 	public String totals(String str) {
@@ -26,6 +31,6 @@ public final class OracleJdbcTemplate extends JdbcTemplate {
 				"   SELECT MAX_COUNT.*, rownum ROW_NUMBER FROM ( \n",
 				"      ", str, " \n",
 				"   ) MAX_COUNT WHERE rownum <= ", (start + limit), "\n",
-				") MAX_COUNT_ROWNUM WHERE ROW_NUMBER > ", limit, "\n");
+				") MAX_COUNT_ROWNUM WHERE ROW_NUMBER > ", start, "\n");
 	}
 }
@@ -47,6 +47,7 @@ public class SQLBuilder implements EventListener, Serializable {
 	private WhereStatement last = null;
 	private StatementType statement;
 	private boolean distinct;
+	private int rows = 1;
 	
 	/**
 	 * 创建一个空的SQL构建语句
@@ -82,6 +83,30 @@ public class SQLBuilder implements EventListener, Serializable {
 		return args.toArray();
 	}
 	
+	/**
+	 * 追加一行 VALUES 数据，生成多行的 INSERT/REPLACE/INSERT ON DUPLICATE KEY UPDATE 语句
+	 * <p>追加的语句必须与当前语句的表和字段相同，只取其中 VALUES 子句对应的参数，插入到当前已有的行之后</p>
+	 * @param row 单行数据的SQL构建语句
+	 * @return {@code this}
+	 */
+	public final SQLBuilder addRow(@Nonnull SQLBuilder row) {
+		if (!columns.values.equals(row.columns.values) || !values.values.equals(row.values.values)) {
+			throw new IllegalArgumentException("Row does not match the columns of this statement");
+		}
+		int count = values.placeholders();
+		args.addAll(rows * count, row.args.subList(0, count));
+		rows++;
+		return this;
+	}
+	
+	/**
+	 * 获取 VALUES 数据的行数
+	 * @return 行数
+	 */
+	public final int rows() {
+		return rows;
+	}
+	
 	/**
 	 * 根据列名称将SQL语句类型更改为INSERT INTO语句
 	 * <p>该语句不能重复构建，后一次会覆盖前一次的表，但不会清空之前VALUE中的字段与值</p>
@@ -1678,7 +1703,7 @@ public class SQLBuilder implements EventListener, Serializable {
 		builder.append("INSERT INTO ");
 		table.builder(builder);
 		columns.builder(builder);
-		values.builder(builder);
+		values.builder(builder, rows);
 		return builder.toString(); //
 	}
 	
@@ -1688,7 +1713,7 @@ public class SQLBuilder implements EventListener, Serializable {
 		builder.append("REPLACE INTO ");
 		table.builder(builder);
 		columns.builder(builder);
-		values.builder(builder);
+		values.builder(builder, rows);
 		return builder.toString(); //
 	}
 	
@@ -1740,7 +1765,7 @@ public class SQLBuilder implements EventListener, Serializable {
 		builder.append("INSERT INTO ");
 		table.builder(builder);
 		columns.builder(builder);
-		values.builder(builder);
+		values.builder(builder, rows);
 		onDuplicateKeyUpdate.builder(builder);
 		return builder.toString(); //
 	}
@@ -1877,6 +1902,26 @@ public class SQLBuilder implements EventListener, Serializable {
 			super(VALUES, ", ");
 		}
 		
+		// 多行数据时重复值列表
+		private void builder(StringBuilder builder, int rows) {
+			int start = builder.length() + VALUES.length();
+			this.builder(builder);
+			if (values.isEmpty() || rows <= 1) return;
+			String tuple = builder.substring(start);
+			for (int i = 1; i < rows; i++) {
+				builder.append(", ").append(tuple);
+			}
+		}
+		
+		// 每行数据的参数个数
+		private int placeholders() {
+			int count = 0;
+			for (String value : values) {
+				count += StringUtils.countMatches(value, '?');
+			}
+			return count;
+		}
+		
 		@Nonnull
 		protected final String getOpen() {
 			return "(";
@@ -1,5 +1,6 @@
 package com.mini.core.jdbc.builder;
 
+import javax.annotation.Nullable;
 import java.io.Serializable;
 import java.util.EventListener;
 
@@ -48,5 +49,14 @@ public interface SQLInterface extends Serializable, EventListener {
 	 */
 	<T> void createSelect(SQLBuilder builder, Class<T> type);
 	
-	
+	/**
+	 * 获取实体类型的已编译语句，返回 null 时通过 {@link SQLBuilder} 构建
+	 * @param type 实体类型
+	 * @param kind 语句类型
+	 * @return 已编译语句
+	 */
+	@Nullable
+	default SQLPlan compiled(Class<?> type, SQLPlan.Kind kind) {
+		return null;
+	}
 }
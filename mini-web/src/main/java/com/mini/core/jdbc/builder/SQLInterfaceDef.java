@@ -1,38 +1,117 @@
 package com.mini.core.jdbc.builder;
 
 import com.mini.core.jdbc.annotation.*;
+import com.mini.core.jdbc.builder.SQLPlan.Kind;
+import com.mini.core.jdbc.builder.SQLPlan.Param;
+import com.mini.core.jdbc.builder.SQLPlan.Step;
 import com.mini.core.util.ThrowsUtil;
 import com.mini.core.util.holder.ClassHolder;
+import com.mini.core.util.holder.FieldHolder;
 
 import javax.annotation.Nonnull;
 import javax.inject.Singleton;
 import java.io.Serializable;
-import java.util.Date;
-import java.util.EventListener;
-import java.util.Map;
-import java.util.Objects;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 
 import static java.lang.Class.forName;
 import static java.lang.System.currentTimeMillis;
+import static java.lang.invoke.MethodType.methodType;
 import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
 import static java.util.Optional.of;
 
+/**
+ * SQLInterfaceDef.java
+ * <p>
+ * 每个实体类型在第一次使用时解析注解，按语句类型编译成 {@link SQLPlan} 并缓存，
+ * 之后每次调用只按参数访问器取值
+ * @author xchao
+ */
 @Singleton
 public final class SQLInterfaceDef implements SQLInterface, EventListener, Serializable {
 	private static final Map<Class<?>, SQLInterface> INTER_MAP = new ConcurrentHashMap<>();
+	private static final Map<Class<?>, SQLPlan[]> PLAN_MAP = new ConcurrentHashMap<>();
+	private static final Param NOW_MILLIS = instance -> currentTimeMillis();
+	private static final Param NOW_DATE = instance -> new Date();
 	private static final String $SQL$ = "_$$$SQL$$$";
 	
 	@Override
-	@SuppressWarnings("unchecked")
 	public final <T> void createReplace(SQLBuilder builder, @Nonnull T instance) {
-		Class<? extends T> type = (Class<T>) instance.getClass();
-		ClassHolder<? extends T> table = ClassHolder.create(type);
+		getPlan(instance.getClass(), Kind.REPLACE).apply(builder, instance);
+	}
+	
+	@Override
+	public final <T> void createInsert(SQLBuilder builder, @Nonnull T instance) {
+		getPlan(instance.getClass(), Kind.INSERT).apply(builder, instance);
+	}
+	
+	@Override
+	public final <T> void createDelete(SQLBuilder builder, @Nonnull T instance) {
+		getPlan(instance.getClass(), Kind.DELETE).apply(builder, instance);
+	}
+	
+	@Override
+	public final <T> void createUpdate(SQLBuilder builder, @Nonnull T instance) {
+		getPlan(instance.getClass(), Kind.UPDATE).apply(builder, instance);
+	}
+	
+	@Override
+	public <T> void createInsertOnUpdate(SQLBuilder builder, T instance) {
+		getPlan(instance.getClass(), Kind.INSERT_ON_UPDATE).apply(builder, instance);
+	}
+	
+	@Override
+	public final <T> void createSelect(SQLBuilder builder, @Nonnull Class<T> type) {
+		getPlan(type, Kind.SELECT).apply(builder, null);
+	}
+	
+	@Nonnull
+	@Override
+	public final SQLPlan compiled(Class<?> type, Kind kind) {
+		return getPlan(type, kind);
+	}
+	
+	/**
+	 * 获取实体类型指定语句类型的已编译语句
+	 * @param type 实体类型
+	 * @param kind 语句类型
+	 * @return 已编译语句
+	 */
+	public static SQLPlan getPlan(Class<?> type, Kind kind) {
+		SQLPlan[] plans = PLAN_MAP.get(type);
+		if (plans == null) {
+			plans = PLAN_MAP.computeIfAbsent(type, SQLInterfaceDef::compile);
+		}
+		return plans[kind.ordinal()];
+	}
+	
+	// 按注解编译实体类型的所有语句
+	private static SQLPlan[] compile(Class<?> type) {
+		ClassHolder<?> table = ClassHolder.create(type);
 		Table aTable = table.getAnnotation(Table.class);
 		Objects.requireNonNull(aTable);
 		
-		builder.replaceInto(aTable.value());
+		SQLPlan[] plans = new SQLPlan[Kind.values().length];
+		plans[Kind.INSERT.ordinal()] = compileInsert(table, aTable, Kind.INSERT);
+		plans[Kind.REPLACE.ordinal()] = compileInsert(table, aTable, Kind.REPLACE);
+		plans[Kind.INSERT_ON_UPDATE.ordinal()] = compileInsert(table, aTable, Kind.INSERT_ON_UPDATE);
+		plans[Kind.DELETE.ordinal()] = compileDelete(table, aTable);
+		plans[Kind.UPDATE.ordinal()] = compileUpdate(table, aTable);
+		plans[Kind.SELECT.ordinal()] = compileSelect(table, aTable);
+		return plans;
+	}
+	
+	// INSERT INTO、REPLACE INTO 和 INSERT ON DUPLICATE KEY UPDATE 语句
+	private static SQLPlan compileInsert(ClassHolder<?> table, Table aTable, Kind kind) {
+		Compiler c = new Compiler();
+		String name = aTable.value();
+		if (kind == Kind.REPLACE) {
+			c.step((builder, args) -> builder.replaceInto(name));
+		} else c.step((builder, args) -> builder.insertInto(name));
+		
 		table.fields().forEach(h -> {
 			// 带Auto注解的字段不处理
 			if (nonNull(h.getAnnotation(Auto.class))) {
@@ -42,137 +121,117 @@ public final class SQLInterfaceDef implements SQLInterface, EventListener, Seria
 			Column column = h.getAnnotation(Column.class);
 			if (isNull(column)) return;
 			
-			// 带Lock注解的字段设置值为当前时间
+			// 带Lock注解的字段设置值为当前时间，带CreateAt和UpdateAt注解的字段设置值为当前时间
+			final int index;
 			if (nonNull(h.getAnnotation(Lock.class))) {
-				builder.values(column.value());
-				builder.args(currentTimeMillis());
-				return;
-			}
-			
-			// 带CreateAt注解的字段设置值为当前时间
-			if (nonNull(h.getAnnotation(CreateAt.class))) {
-				builder.values(column.value());
-				builder.args(new Date());
-				return;
-			}
+				index = c.param(NOW_MILLIS);
+			} else if (nonNull(h.getAnnotation(CreateAt.class))) {
+				index = c.param(NOW_DATE);
+			} else if (nonNull(h.getAnnotation(UpdateAt.class))) {
+				index = c.param(NOW_DATE);
+			} else index = c.param(getter(h));
 			
-			// 带UpdateAt注解的字段设置值为当前时间
-			if (nonNull(h.getAnnotation(UpdateAt.class))) {
-				builder.values(column.value());
-				builder.args(new Date());
-				return;
-			}
-			
-			// 其它字段
-			builder.values(column.value());
-			builder.args(h.getValue(instance));
+			String col = column.value();
+			c.step((builder, args) -> builder.values(col).args(args[index]));
 		});
-	}
-	
-	@Override
-	@SuppressWarnings("unchecked")
-	public final <T> void createInsert(SQLBuilder builder, @Nonnull T instance) {
-		Class<? extends T> type = (Class<T>) instance.getClass();
-		ClassHolder<? extends T> table = ClassHolder.create(type);
-		Table aTable = table.getAnnotation(Table.class);
-		Objects.requireNonNull(aTable);
+		if (kind != Kind.INSERT_ON_UPDATE) {
+			return c.build();
+		}
 		
-		builder.insertInto(aTable.value());
 		table.fields().forEach(h -> {
-			// 带Auto注解的字段不处理
-			if (nonNull(h.getAnnotation(Auto.class))) {
+			// 带ID注解的字段不修改
+			if (nonNull(h.getAnnotation(Id.class))) {
 				return;
 			}
-			// 获取表字段信息
-			Column column = h.getAnnotation(Column.class);
-			if (isNull(column)) return;
 			
-			// 带Lock注解的字段设置值为当前时间
-			if (nonNull(h.getAnnotation(Lock.class))) {
-				builder.values(column.value());
-				builder.args(currentTimeMillis());
+			// 带CreateAt注解的字段不修改
+			if (nonNull(h.getAnnotation(CreateAt.class))) {
 				return;
 			}
 			
-			// 带CreateAt注解的字段设置值为当前时间
-			if (nonNull(h.getAnnotation(CreateAt.class))) {
-				builder.values(column.value());
-				builder.args(new Date());
+			// 获取表字段信息
+			Column column = h.getAnnotation(Column.class);
+			if (column == null) return;
+			String col = column.value();
+			
+			// 还UpdateAt注解的字段设置字段值为当前时间
+			if (nonNull(h.getAnnotation(UpdateAt.class))) {
+				int index = c.param(NOW_DATE);
+				c.step((builder, args) -> builder.onDuplicateKeyUpdate("%s = ?", col).args(args[index]));
 				return;
 			}
 			
-			// 带UpdateAt注解的字段设置值为当前时间
-			if (nonNull(h.getAnnotation(UpdateAt.class))) {
-				builder.values(column.value());
-				builder.args(new Date());
+			// 带Lock注解的字段修改为当前时间戳值
+			if (nonNull(h.getAnnotation(Lock.class))) {
+				int index = c.param(NOW_MILLIS);
+				c.step((builder, args) -> builder.onDuplicateKeyUpdate("%s = ?", col).args(args[index]));
 				return;
 			}
 			
-			// 其它字段
-			builder.values(column.value());
-			builder.args(h.getValue(instance));
+			// 其它所有的字段
+			c.step((builder, args) -> builder.onDuplicateKeyUpdate("%s = VALUES(%s)", col, col));
 		});
+		return c.build();
 	}
 	
-	@Override
-	@SuppressWarnings("unchecked")
-	public final <T> void createDelete(SQLBuilder builder, @Nonnull T instance) {
-		Class<? extends T> type = (Class<T>) instance.getClass();
-		ClassHolder<? extends T> table = ClassHolder.create(type);
-		Table aTable = table.getAnnotation(Table.class);
-		Objects.requireNonNull(aTable);
-		
+	// DELETE 语句，有字段代表删除状态时为 UPDATE 语句
+	private static SQLPlan compileDelete(ClassHolder<?> table, Table aTable) {
+		Compiler c = new Compiler();
+		String name = aTable.value();
 		if (table.fields().stream().anyMatch(h -> {
 			Del del = h.getAnnotation(Del.class);
 			return nonNull(del);
 		})) {
 			// 有字段代表删除状态时，修改该字段为删除状态
-			builder.update(aTable.value());
+			c.step((builder, args) -> builder.update(name));
 			table.fields().forEach(h -> {
 				// 获取表字段信息
 				Column column = h.getAnnotation(Column.class);
 				if (isNull(column)) return;
+				String col = column.value();
 				
 				// 修改字段的删除状态
 				Del del = h.getAnnotation(Del.class);
 				if (nonNull(del)) {
-					builder.setEquals(column.value(), del.value());
+					int index = c.param(constant(del.value()));
+					c.step((builder, args) -> builder.setEquals(col, args[index]));
 				}
 				
 				// 修改字段的锁数据
 				if (nonNull(h.getAnnotation(Lock.class))) {
-					builder.setEquals(column.value(), currentTimeMillis());
+					int index = c.param(NOW_MILLIS);
+					c.step((builder, args) -> builder.setEquals(col, args[index]));
 				}
 			});
-		} else builder.delete(aTable.value()).from(aTable.value());
+		} else c.step((builder, args) -> builder.delete(name).from(name));
 		
-		// 添加修改或者删除的条件
+		// 添加修改或者删除的条件，值为 null 时条件为“IS NULL”
 		table.fields().forEach(h -> {
 			// 获取表字段信息
 			Column column = h.getAnnotation(Column.class);
 			if (column == null) return;
+			String col = column.value();
 			
 			// 添加字段ID条件
 			if (nonNull(h.getAnnotation(Id.class))) {
-				builder.whereEquals(column.value(), h.getValue(instance));
+				int index = c.nullable(getter(h));
+				c.step((builder, args) -> builder.whereEquals(col, args[index]));
 			}
 			
 			// 添加字段锁条件
 			if (nonNull(h.getAnnotation(Lock.class))) {
-				builder.whereEquals(column.value(), h.getValue(instance));
+				int index = c.nullable(getter(h));
+				c.step((builder, args) -> builder.whereEquals(col, args[index]));
 			}
 		});
+		return c.build();
 	}
 	
-	@Override
-	@SuppressWarnings("unchecked")
-	public final <T> void createUpdate(SQLBuilder builder, @Nonnull T instance) {
-		Class<? extends T> type = (Class<T>) instance.getClass();
-		ClassHolder<? extends T> table = ClassHolder.create(type);
-		Table aTable = table.getAnnotation(Table.class);
-		Objects.requireNonNull(aTable);
-		
-		builder.update(aTable.value());
+	// UPDATE 语句
+	private static SQLPlan compileUpdate(ClassHolder<?> table, Table aTable) {
+		Compiler c = new Compiler();
+		String name = aTable.value();
+		c.step((builder, args) -> builder.update(name));
 		table.fields().forEach(h -> {
 			// 带ID注解的字段不修改
 			if (nonNull(h.getAnnotation(Id.class))) {
@@ -187,129 +246,44 @@ public final class SQLInterfaceDef implements SQLInterface, EventListener, Seria
 			// 获取表字段信息
 			Column column = h.getAnnotation(Column.class);
 			if (column == null) return;
+			String col = column.value();
 			
-			// 还UpdateAt注解的字段设置字段值为当前时间
+			// 还UpdateAt注解的字段设置字段值为当前时间，带Lock注解的字段修改为当前时间戳值
+			final int index;
 			if (nonNull(h.getAnnotation(UpdateAt.class))) {
-				builder.set("%s = ?", column.value());
-				builder.args(new Date());
-				return;
-			}
-			
-			// 带Lock注解的字段修改为当前时间戳值
-			if (nonNull(h.getAnnotation(Lock.class))) {
-				builder.set("%s = ?", column.value());
-				builder.args(currentTimeMillis());
-				return;
-			}
-			
-			// 其它所有的字段
-			builder.set("%s = ?", column.value());
-			builder.args(h.getValue(instance));
+				index = c.param(NOW_DATE);
+			} else if (nonNull(h.getAnnotation(Lock.class))) {
+				index = c.param(NOW_MILLIS);
+			} else index = c.param(getter(h));
+			c.step((builder, args) -> builder.set("%s = ?", col).args(args[index]));
 		});
 		
 		table.fields().forEach(h -> {
 			// 获取表字段信息
 			Column column = h.getAnnotation(Column.class);
 			if (column == null) return;
+			String col = column.value();
 			
 			// 添加字段ID条件
 			if (nonNull(h.getAnnotation(Id.class))) {
-				builder.where("%s = ?", column.value());
-				builder.args(h.getValue(instance));
+				int index = c.param(getter(h));
+				c.step((builder, args) -> builder.where("%s = ?", col).args(args[index]));
 				return;
 			}
 			
 			// 带Lock注解的字段设置修改值和条件
 			if (nonNull(h.getAnnotation(Lock.class))) {
-				builder.where("%s = ?", column.value());
-				builder.args(h.getValue(instance));
+				int index = c.param(getter(h));
+				c.step((builder, args) -> builder.where("%s = ?", col).args(args[index]));
 			}
 		});
+		return c.build();
 	}
 	
-	@Override
-	@SuppressWarnings("unchecked")
-	public <T> void createInsertOnUpdate(SQLBuilder builder, T instance) {
-		Class<? extends T> type = (Class<T>) instance.getClass();
-		ClassHolder<? extends T> table = ClassHolder.create(type);
-		Table aTable = table.getAnnotation(Table.class);
-		Objects.requireNonNull(aTable);
-		
-		builder.insertInto(aTable.value());
-		table.fields().forEach(h -> {
-			// 带Auto注解的字段不处理
-			if (nonNull(h.getAnnotation(Auto.class))) {
-				return;
-			}
-			// 获取表字段信息
-			Column column = h.getAnnotation(Column.class);
-			if (isNull(column)) return;
-			
-			// 带Lock注解的字段设置值为当前时间
-			if (nonNull(h.getAnnotation(Lock.class))) {
-				builder.values(column.value());
-				builder.args(currentTimeMillis());
-				return;
-			}
-			
-			// 带CreateAt注解的字段设置值为当前时间
-			if (nonNull(h.getAnnotation(CreateAt.class))) {
-				builder.values(column.value());
-				builder.args(new Date());
-				return;
-			}
-			
-			// 带UpdateAt注解的字段设置值为当前时间
-			if (nonNull(h.getAnnotation(UpdateAt.class))) {
-				builder.values(column.value());
-				builder.args(new Date());
-				return;
-			}
-			
-			// 其它字段
-			builder.values(column.value());
-			builder.args(h.getValue(instance));
-		});
-		
-		table.fields().forEach(h -> {
-			// 带ID注解的字段不修改
-			if (nonNull(h.getAnnotation(Id.class))) {
-				return;
-			}
-			
-			// 带CreateAt注解的字段不修改
-			if (nonNull(h.getAnnotation(CreateAt.class))) {
-				return;
-			}
-			
-			// 获取表字段信息
-			Column column = h.getAnnotation(Column.class);
-			if (column == null) return;
-			
-			// 还UpdateAt注解的字段设置字段值为当前时间
-			if (nonNull(h.getAnnotation(UpdateAt.class))) {
-				builder.onDuplicateKeyUpdate("%s = ?", column.value());
-				builder.args(new Date());
-				return;
-			}
-			
-			// 带Lock注解的字段修改为当前时间戳值
-			if (nonNull(h.getAnnotation(Lock.class))) {
-				builder.onDuplicateKeyUpdate("%s = ?", column.value());
-				builder.args(currentTimeMillis());
-				return;
-			}
-			
-			// 其它所有的字段
-			builder.onDuplicateKeyUpdate("%s = VALUES(%s)", column.value(), column.value());
-		});
-	}
-	
-	@Override
-	public final <T> void createSelect(SQLBuilder builder, @Nonnull Class<T> type) {
-		ClassHolder<? extends T> table = ClassHolder.create(type);
-		Table aTable = table.getAnnotation(Table.class);
-		Objects.requireNonNull(aTable);
+	// SELECT 语句-不带ID条件
+	private static SQLPlan compileSelect(ClassHolder<?> table, Table aTable) {
+		Compiler c = new Compiler();
+		String name = aTable.value();
 		
 		// 查询字段信息
 		table.fields().forEach(h -> {
@@ -318,14 +292,15 @@ public final class SQLInterfaceDef implements SQLInterface, EventListener, Seria
 			if (column == null) return;
 			
 			// 添加查询字段
-			builder.select(column.value());
+			String col = column.value();
+			c.step((builder, args) -> builder.select(col));
 		});
 		// from 表名
-		builder.from(aTable.value());
+		c.step((builder, args) -> builder.from(name));
 		
 		// 处理关联表信息
 		for (Join join : table.getAnnotationsByType(Join.class)) {
-			join.type().execute(builder, join.value(), join.args());
+			c.step((builder, args) -> join.type().execute(builder, join.value(), join.args()));
 		}
 		
 		// 查询字段信息
@@ -337,10 +312,36 @@ public final class SQLInterfaceDef implements SQLInterface, EventListener, Seria
 			// 排除删除的数据
 			Del del = h.getAnnotation(Del.class);
 			if (nonNull(del)) {
-				builder.where("%s <> ?", column.value());
-				builder.args(del.value());
+				String col = column.value();
+				int index = c.param(constant(del.value()));
+				c.step((builder, args) -> builder.where("%s <> ?", col).args(args[index]));
 			}
 		});
+		return c.build();
+	}
+	
+	// 通过方法句柄调用 Getter 方法取值
+	private static Param getter(FieldHolder<?> field) {
+		if (!field.hasGetter()) return constant(null);
+		try {
+			var getter = field.getGetter();
+			getter.trySetAccessible();
+			MethodHandle handle = MethodHandles.lookup().unreflect(getter)
+					.asType(methodType(Object.class, Object.class));
+			return instance -> {
+				try {
+					return (Object) handle.invokeExact(instance);
+				} catch (Throwable e) {
+					throw ThrowsUtil.hidden(e);
+				}
+			};
+		} catch (IllegalAccessException e) {
+			throw ThrowsUtil.hidden(e);
+		}
+	}
+	
+	private static Param constant(Object value) {
+		return instance -> value;
 	}
 	
 	// 获取SQL创建的实现类
@@ -362,4 +363,33 @@ public final class SQLInterfaceDef implements SQLInterface, EventListener, Seria
 			}
 		});
 	}
+	
+	/**
+	 * 记录构建步骤和参数访问器
+	 */
+	private static final class Compiler {
+		private final List<Step> steps = new ArrayList<>();
+		private final List<Param> params = new ArrayList<>();
+		private final List<Integer> nullable = new ArrayList<>();
+		
+		private void step(Step step) {
+			steps.add(step);
+		}
+		
+		private int param(Param param) {
+			params.add(param);
+			return params.size() - 1;
+		}
+		
+		// 值为 null 时SQL会不同的参数
+		private int nullable(Param param) {
+			int index = param(param);
+			nullable.add(index);
+			return index;
+		}
+		
+		private SQLPlan build() {
+			return new SQLPlan(steps, params, nullable);
+		}
+	}
 }
@@ -0,0 +1,98 @@
+package com.mini.core.jdbc.builder;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 实体类型某种操作的已编译语句
+ * <p>
+ * 注解只在编译时解析一次，最终SQL也只生成一次，之后每次调用只按参数访问器取值
+ * @author xchao
+ */
+public final class SQLPlan {
+	private final Step[] steps;
+	private final Param[] params;
+	private final int[] nullable;
+	private final String sql;
+	
+	SQLPlan(List<Step> steps, List<Param> params, List<Integer> nullable) {
+		this.steps = steps.toArray(new Step[0]);
+		this.params = params.toArray(new Param[0]);
+		this.nullable = nullable.stream().mapToInt(Integer::intValue).toArray();
+		// 所有参数都不为 null 时的最终SQL
+		Object[] args = new Object[this.params.length];
+		Arrays.fill(args, Boolean.TRUE);
+		SQLBuilder builder = new SQLBuilder();
+		for (Step step : this.steps) {
+			step.apply(builder, args);
+		}
+		this.sql = builder.toSQL();
+	}
+	
+	/**
+	 * 获取最终SQL
+	 * @return 最终SQL
+	 */
+	@Nonnull
+	public final String getSql() {
+		return sql;
+	}
+	
+	/**
+	 * 按参数访问器获取参数
+	 * <p>条件字段的值为 null 时需要生成“IS NULL”条件，与最终SQL不一致，此时返回 null</p>
+	 * @param instance 实体信息
+	 * @return 参数列表
+	 */
+	@Nullable
+	public final Object[] args(@Nullable Object instance) {
+		Object[] args = values(instance);
+		for (int index : nullable) {
+			if (args[index] == null) return null;
+		}
+		return args;
+	}
+	
+	/**
+	 * 将语句结构和参数写入 SQLBuilder
+	 * @param builder  {@link SQLBuilder}
+	 * @param instance 实体信息
+	 */
+	public final void apply(@Nonnull SQLBuilder builder, @Nullable Object instance) {
+		Object[] args = values(instance);
+		for (Step step : steps) {
+			step.apply(builder, args);
+		}
+	}
+	
+	private Object[] values(@Nullable Object instance) {
+		Object[] args = new Object[params.length];
+		for (int i = 0; i < params.length; i++) {
+			args[i] = params[i].get(instance);
+		}
+		return args;
+	}
+	
+	/**
+	 * 语句类型
+	 */
+	public enum Kind {
+		INSERT, REPLACE, DELETE, UPDATE, INSERT_ON_UPDATE, SELECT
+	}
+	
+	/**
+	 * 构建语句结构的步骤，参数按下标从参数列表中获取
+	 */
+	interface Step {
+		void apply(SQLBuilder builder, Object[] args);
+	}
+	
+	/**
+	 * 参数访问器
+	 */
+	interface Param {
+		Object get(Object instance);
+	}
+}
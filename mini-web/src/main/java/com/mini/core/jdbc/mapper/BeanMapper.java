@@ -7,8 +7,11 @@ import com.mini.core.util.holder.ClassHolder;
 import com.mini.core.util.holder.FieldHolder;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.inject.Singleton;
 import java.io.Serializable;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
@@ -20,11 +23,15 @@ import java.util.concurrent.ConcurrentHashMap;
 
 import static com.mini.core.jdbc.util.JdbcUtil.lookupColumnName;
 import static java.lang.Class.forName;
+import static java.lang.invoke.MethodType.methodType;
 import static java.util.Objects.requireNonNull;
 import static org.apache.commons.lang3.StringUtils.defaultIfBlank;
 
 /**
  * BeanMapper.java
+ * <p>
+ * 每种结果集字段结构只解析一次字段与属性的对应关系（按字段名称列表缓存，数量只与查询的字段组合有关，
+ * 与 SQL 文本无关），之后每一行数据按字段序号取值，并通过方法句柄调用 Setter 方法，基本类型不装箱
  * @author xchao
  */
 @Singleton
@@ -33,19 +40,12 @@ public final class BeanMapper<T> implements Mapper<T>, EventListener, Serializab
 	private static final Map<Class<?>, ResultSetCall> RES = new HashMap<>() {{
 		this.put(String.class, JdbcUtil::getString);
 		this.put(Long.class, JdbcUtil::getOLong);
-		this.put(long.class, JdbcUtil::getLong);
 		this.put(Integer.class, JdbcUtil::getInteger);
-		this.put(int.class, JdbcUtil::getInt);
 		this.put(Short.class, JdbcUtil::getOShort);
-		this.put(short.class, JdbcUtil::getShort);
 		this.put(Byte.class, JdbcUtil::getOByte);
-		this.put(byte.class, JdbcUtil::getByte);
 		this.put(Double.class, JdbcUtil::getODouble);
-		this.put(double.class, JdbcUtil::getDouble);
 		this.put(Float.class, JdbcUtil::getOFloat);
-		this.put(float.class, JdbcUtil::getFloat);
 		this.put(Boolean.class, JdbcUtil::getOBoolean);
-		this.put(boolean.class, JdbcUtil::getBoolean);
 		this.put(byte[].class, JdbcUtil::getBytes);
 		this.put(Date.class, JdbcUtil::getTimestamp);
 		this.put(java.sql.Timestamp.class, JdbcUtil::getTimestamp);
@@ -64,7 +64,8 @@ public final class BeanMapper<T> implements Mapper<T>, EventListener, Serializab
 			return value == null ? null : value.toLocalTime();
 		});
 	}};
-	private final Map<String, FieldHolder<T>> columns = new HashMap<>();
+	private final Map<String, ColumnSetter> columns = new HashMap<>();
+	private final Map<List<String>, Plan<T>> plans = new ConcurrentHashMap<>();
 	private static final ResultSetCall DEF = JdbcUtil::getObject;
 	private static final String $MAPPER$ = "_$$$MAPPER$$$";
 	private final ClassHolder<T> holder;
@@ -73,32 +74,89 @@ public final class BeanMapper<T> implements Mapper<T>, EventListener, Serializab
 		this.holder = requireNonNull(ClassHolder.create(type));
 		BeanMapper.this.holder.fields().forEach(field -> {
 			Column c = field.getAnnotation(Column.class);
-			if (Objects.isNull(c)) return;
+			if (Objects.isNull(c) || !field.hasSetter()) return;
 			// 获取字段名和别名
 			var name = defaultIfBlank(c.alias(), c.value());
-			columns.put(name, field);
+			columns.put(name, createSetter(field));
 		});
 	}
 	
 	@Nonnull
 	@Override
 	public T get(ResultSet rs, int number) throws SQLException {
-		var result = holder.createInstance();
-		ResultSetMetaData metaData = rs.getMetaData();
-		for (int i = 1; i <= metaData.getColumnCount(); i++) {
-			try {
-				var name = lookupColumnName(metaData, i);
-				FieldHolder<T> h = columns.get(name);
-				if (h != null) {
-					var res = RES.get(h.getType());
-					res = res == null ? DEF : res;
-					var o = res.apply(rs, i);
-					h.setValue(result, o);
-				}
-			} catch (Exception ignored) {
+		return prepare(null, rs.getMetaData()).get(rs, number);
+	}
+	
+	@Nonnull
+	@Override
+	public Mapper<T> prepare(@Nullable String sql, @Nonnull ResultSetMetaData metaData) throws SQLException {
+		String[] labels = new String[metaData.getColumnCount()];
+		for (int i = 0; i < labels.length; i++) {
+			labels[i] = lookupColumnName(metaData, i + 1);
+		}
+		List<String> key = Arrays.asList(labels);
+		Plan<T> plan = plans.get(key);
+		if (plan == null) {
+			plan = plans.computeIfAbsent(key, this::createPlan);
+		}
+		return plan;
+	}
+	
+	// 根据结果集字段名称创建映射计划
+	private Plan<T> createPlan(List<String> labels) {
+		List<Integer> indexes = new ArrayList<>();
+		List<ColumnSetter> setters = new ArrayList<>();
+		for (int i = 0; i < labels.size(); i++) {
+			ColumnSetter setter = columns.get(labels.get(i));
+			if (setter == null) continue;
+			setters.add(setter);
+			indexes.add(i + 1);
+		}
+		return new Plan<>(holder, indexes.stream().mapToInt(Integer::intValue).toArray(),
+				setters.toArray(new ColumnSetter[0]));
+	}
+	
+	// 根据属性类型创建取值并设置属性的方法
+	private static ColumnSetter createSetter(FieldHolder<?> field) {
+		try {
+			var setter = field.getSetter();
+			setter.trySetAccessible();
+			MethodHandle handle = MethodHandles.lookup().unreflect(setter);
+			Class<?> type = field.getType();
+			if (type == long.class) {
+				var h = handle.asType(methodType(void.class, Object.class, long.class));
+				return (instance, rs, i) -> { h.invokeExact(instance, rs.getLong(i)); };
+			}
+			if (type == int.class) {
+				var h = handle.asType(methodType(void.class, Object.class, int.class));
+				return (instance, rs, i) -> { h.invokeExact(instance, rs.getInt(i)); };
 			}
+			if (type == short.class) {
+				var h = handle.asType(methodType(void.class, Object.class, short.class));
+				return (instance, rs, i) -> { h.invokeExact(instance, rs.getShort(i)); };
+			}
+			if (type == byte.class) {
+				var h = handle.asType(methodType(void.class, Object.class, byte.class));
+				return (instance, rs, i) -> { h.invokeExact(instance, rs.getByte(i)); };
+			}
+			if (type == double.class) {
+				var h = handle.asType(methodType(void.class, Object.class, double.class));
+				return (instance, rs, i) -> { h.invokeExact(instance, rs.getDouble(i)); };
+			}
+			if (type == float.class) {
+				var h = handle.asType(methodType(void.class, Object.class, float.class));
+				return (instance, rs, i) -> { h.invokeExact(instance, rs.getFloat(i)); };
+			}
+			if (type == boolean.class) {
+				var h = handle.asType(methodType(void.class, Object.class, boolean.class));
+				return (instance, rs, i) -> { h.invokeExact(instance, rs.getBoolean(i)); };
+			}
+			var res = RES.getOrDefault(type, DEF);
+			var h = handle.asType(methodType(void.class, Object.class, Object.class));
+			return (instance, rs, i) -> { h.invokeExact(instance, res.apply(rs, i)); };
+		} catch (IllegalAccessException e) {
+			throw ThrowsUtil.hidden(e);
 		}
-		return result;
 	}
 	
 	@SuppressWarnings("unchecked")
@@ -124,4 +182,40 @@ public final class BeanMapper<T> implements Mapper<T>, EventListener, Serializab
 	private interface ResultSetCall {
 		Object apply(ResultSet rs, int columnIndex) throws SQLException;
 	}
+	
+	private interface ColumnSetter {
+		void apply(Object instance, ResultSet rs, int columnIndex) throws Throwable;
+	}
+	
+	/**
+	 * 一种结果集字段结构的映射计划
+	 * @param <T> 实体类型
+	 */
+	private static final class Plan<T> implements Mapper<T> {
+		private final ClassHolder<T> holder;
+		private final ColumnSetter[] setters;
+		private final int[] indexes;
+		
+		private Plan(ClassHolder<T> holder, int[] indexes, ColumnSetter[] setters) {
+			this.holder = holder;
+			this.indexes = indexes;
+			this.setters = setters;
+		}
+		
+		@Nonnull
+		@Override
+		public T get(ResultSet rs, int number) throws SQLException {
+			T result = holder.createInstance();
+			for (int i = 0; i < setters.length; i++) {
+				try {
+					setters[i].apply(result, rs, indexes[i]);
+				} catch (SQLException | RuntimeException | Error e) {
+					throw e;
+				} catch (Throwable e) {
+					throw ThrowsUtil.hidden(e);
+				}
+			}
+			return result;
+		}
+	}
 }
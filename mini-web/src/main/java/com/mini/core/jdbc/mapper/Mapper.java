@@ -1,7 +1,9 @@
 package com.mini.core.jdbc.mapper;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 
 @FunctionalInterface
@@ -14,4 +16,16 @@ public interface Mapper<T> {
 	 * @throws SQLException 转换错误
 	 */
 	T get(ResultSet rs, int number) throws SQLException;
+	
+	/**
+	 * 根据查询SQL和结果集字段信息准备映射器，同一个结果集的所有行都使用返回的映射器
+	 * @param sql      查询SQL，可以为空（映射器可以按字段信息缓存，不依赖SQL）
+	 * @param metaData 结果集字段信息
+	 * @return 映射器
+	 * @throws SQLException 读取字段信息错误
+	 */
+	@Nonnull
+	default Mapper<T> prepare(@Nullable String sql, @Nonnull ResultSetMetaData metaData) throws SQLException {
+		return this;
+	}
 }
@@ -0,0 +1,83 @@
+package com.mini.core.jdbc.model;
+
+import javax.annotation.Nullable;
+import java.io.Serializable;
+import java.util.List;
+
+import static java.lang.Math.max;
+
+/**
+ * 键集分页（Seek 分页）结果
+ * <p>
+ * 按排序键的值定位下一页，不使用 OFFSET 跳过数据，也不统计总条数
+ */
+public final class KeysetPaging<T> implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private final int limit;
+    private List<T> rows;
+    private String next;
+
+    /**
+     * 指定每页条数初始化
+     *
+     * @param limit 每页条数
+     */
+    public KeysetPaging(int limit) {
+        this.limit = limit;
+    }
+
+    /**
+     * 获取每页条数
+     *
+     * @return 每页条数
+     */
+    public final int getLimit() {
+        return max(1, limit);
+    }
+
+    /**
+     * 设置分页数据
+     *
+     * @param rows 分页数据
+     */
+    public final void setRows(List<T> rows) {
+        this.rows = rows;
+    }
+
+    /**
+     * 获取分页数据
+     *
+     * @return 数据列表
+     */
+    public final List<T> getRows() {
+        return this.rows;
+    }
+
+    /**
+     * 设置下一页的令牌
+     *
+     * @param next 下一页的令牌
+     */
+    public final void setNext(@Nullable String next) {
+        this.next = next;
+    }
+
+    /**
+     * 获取下一页的令牌，查询下一页时原样传回
+     *
+     * @return 下一页的令牌，没有下一页时为 null
+     */
+    @Nullable
+    public final String getNext() {
+        return this.next;
+    }
+
+    /**
+     * 是否还有下一页
+     *
+     * @return true-有下一页
+     */
+    public final boolean hasNext() {
+        return this.next != null;
+    }
+}
@@ -6,8 +6,9 @@ import java.util.List;
 import static java.lang.Math.max;
 
 public final class Paging<T> implements Serializable {
-    private static final long serialVersionUID = 1L;
-    private int page, limit, total;
+    private static final long serialVersionUID = 2L;
+    private int page, limit;
+    private long total;
     private List<T> rows;
 
     /**
@@ -27,7 +28,7 @@ public final class Paging<T> implements Serializable {
      * @param total 总条数
      * @return 当前对象
      */
-    public final Paging setTotal(int total) {
+    public final Paging setTotal(long total) {
         this.total = total;
         return this;
     }
@@ -55,8 +56,8 @@ public final class Paging<T> implements Serializable {
      *
      * @return 总条数
      */
-    public final int getTotal() {
-        return max(0, total);
+    public final long getTotal() {
+        return max(0L, total);
     }
 
     /**
@@ -3,16 +3,19 @@ package com.mini.core.jdbc.transaction;
 import com.mini.core.jdbc.JdbcTemplate;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.inject.Inject;
 import javax.inject.Singleton;
-import java.util.Iterator;
 import java.util.List;
 
-import static com.mini.core.util.ThrowsUtil.hidden;
+import static com.mini.core.jdbc.JdbcAccessor.transaction;
 import static java.sql.Connection.TRANSACTION_REPEATABLE_READ;
 
 /**
  * JDBC 事务实现
+ * <p>
+ * 开启事务时不获取连接，只有方法中实际使用到的 JdbcTemplate 才会开启数据库事务，
+ * 结束时也只提交或回滚这些事务
  * @author xchao
  */
 @Singleton
@@ -26,23 +29,13 @@ public final class JdbcTransactionManager implements TransactionManager {
 	
 	@Override
 	public <T> T open(TransactionManagerCallback<T> callback) throws Throwable {
-		return trans(jdbcTemplateList.iterator(), callback);
+		return transaction(jdbcTemplateList, TRANSACTION_REPEATABLE_READ, false, callback::apply);
 	}
 	
-	private <T> T trans(Iterator<JdbcTemplate> iter, TransactionManagerCallback<T> call) throws Throwable {
-		return iter.hasNext() ? iter.next().transaction((trans) -> {
-			trans.setTransactionIsolation(TRANSACTION_REPEATABLE_READ);
-			boolean commit = false;
-			try {
-				trans.startTransaction();
-				T t = trans(iter, call);
-				commit = true;
-				return t;
-			} catch (Throwable e) {
-				throw hidden(e);
-			} finally {
-				trans.endTransaction(commit);
-			}
-		}) : call.apply();
+	@Override
+	public <T> T open(@Nullable Transactional transactional, TransactionManagerCallback<T> callback) throws Throwable {
+		if (transactional == null) return open(callback);
+		int isolation = transactional.isolation();
+		return transaction(jdbcTemplateList, isolation, transactional.readOnly(), callback::apply);
 	}
 }
@@ -20,6 +20,7 @@ public final class TransactionInterceptor implements MethodInterceptor {
 	@Override
 	public final Object invoke(MethodInvocation invocation) throws Throwable {
 		requireNonNull(transactionManager, "TransactionManager can not be null");
-		return transactionManager.open(invocation::proceed);
+		var transactional = invocation.getMethod().getAnnotation(Transactional.class);
+		return transactionManager.open(transactional, invocation::proceed);
 	}
 }
@@ -1,9 +1,21 @@
 package com.mini.core.jdbc.transaction;
 
+import javax.annotation.Nullable;
+
 @FunctionalInterface
 public interface TransactionManager {
 	<T> T open(TransactionManagerCallback<T> callback) throws Throwable;
 	
+	/**
+	 * 按方法上的事务属性开启事务，默认忽略事务属性
+	 * @param transactional 事务属性
+	 * @param callback      事务过程
+	 * @return 返回类型实例
+	 */
+	default <T> T open(@Nullable Transactional transactional, TransactionManagerCallback<T> callback) throws Throwable {
+		return open(callback);
+	}
+	
 	@FunctionalInterface
 	interface TransactionManagerCallback<T> {
 		T apply() throws Throwable;
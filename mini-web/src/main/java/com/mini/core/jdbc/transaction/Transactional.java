@@ -1,10 +1,22 @@
 package com.mini.core.jdbc.transaction;
 
 import java.lang.annotation.*;
+import java.sql.Connection;
 
 @Inherited
 @Documented
 @Target(ElementType.METHOD)
 @Retention(RetentionPolicy.RUNTIME)
 public @interface Transactional {
+	/**
+	 * 事务隔离级别，小于0时使用连接默认的隔离级别
+	 * @return 隔离级别
+	 */
+	int isolation() default Connection.TRANSACTION_REPEATABLE_READ;
+	
+	/**
+	 * 是否只读事务
+	 * @return true-只读
+	 */
+	boolean readOnly() default false;
 }
@@ -1,14 +1,23 @@
 package com.mini.core.security;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
+import java.nio.file.Path;
 import java.util.Base64;
 import java.util.EventListener;
 
+import static java.nio.file.StandardOpenOption.READ;
+
 public abstract class SecurityBase<T extends SecurityBase<T>> implements EventListener {
 	// 用来将字节转换成 16 进制表示的字符
 	private static final char[] DIGITS = {   //
 			'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'A', 'B', 'C', 'D', 'E', 'F' //
 	};
+	// 每个线程复用的读取缓冲区
+	private static final ThreadLocal<Buffer> BUFFER = ThreadLocal.withInitial(Buffer::new);
 	
 	public abstract T update(byte[] input, int offset, int len);
 	
@@ -16,6 +25,8 @@ public abstract class SecurityBase<T extends SecurityBase<T>> implements EventLi
 	
 	public abstract T update(byte input);
 	
+	public abstract T update(ByteBuffer input);
+	
 	public final T update(String input, Charset charset) {
 		return update(input.getBytes(charset));
 	}
@@ -24,6 +35,57 @@ public abstract class SecurityBase<T extends SecurityBase<T>> implements EventLi
 		return update(input.getBytes());
 	}
 	
+	/**
+	 * 读取输入流的全部数据，不关闭输入流
+	 * @param input 输入流
+	 * @return 当前对象
+	 */
+	public final T update(InputStream input) throws IOException {
+		byte[] array = BUFFER.get().array;
+		for (int n; (n = input.read(array)) != -1; ) {
+			update(array, 0, n);
+		}
+		return self();
+	}
+	
+	/**
+	 * 从文件通道的当前位置读取到文件结尾，不关闭文件通道
+	 * @param channel 文件通道
+	 * @return 当前对象
+	 */
+	public final T update(FileChannel channel) throws IOException {
+		ByteBuffer bytes = BUFFER.get().bytes;
+		for (bytes.clear(); channel.read(bytes) != -1; bytes.clear()) {
+			update(bytes.flip());
+		}
+		return self();
+	}
+	
+	/**
+	 * 读取文件通道的指定区域，不改变文件通道的位置，可以多个线程同时读取同一个文件通道
+	 * @param channel  文件通道
+	 * @param position 开始位置
+	 * @param size     读取长度
+	 * @return 当前对象
+	 */
+	public final T update(FileChannel channel, long position, long size) throws IOException {
+		ByteBuffer bytes = BUFFER.get().bytes;
+		for (long end = position + size; position < end; ) {
+			bytes.clear().limit((int) Math.min(bytes.capacity(), end - position));
+			int n = channel.read(bytes, position);
+			if (n < 0) break;
+			position += n;
+			update(bytes.flip());
+		}
+		return self();
+	}
+	
+	public final T update(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, READ)) {
+			return update(channel);
+		}
+	}
+	
 	public abstract byte[] digest(byte[] input);
 	
 	public abstract byte[] digest();
@@ -47,6 +109,11 @@ public abstract class SecurityBase<T extends SecurityBase<T>> implements EventLi
 		return code.encodeToString(bytes);
 	}
 	
+	@SuppressWarnings("unchecked")
+	private T self() {
+		return (T) this;
+	}
+	
 	/** 将byte数组转换成String */
 	private static String toHexString(byte[] bytes) {
 		char[] result = new char[bytes.length * 2];
@@ -61,4 +128,9 @@ public abstract class SecurityBase<T extends SecurityBase<T>> implements EventLi
 		// 换后的结果转换为字符串
 		return new String(result);
 	}
+	
+	private static final class Buffer {
+		private final byte[] array = new byte[1 << 16];
+		private final ByteBuffer bytes = ByteBuffer.wrap(array);
+	}
 }
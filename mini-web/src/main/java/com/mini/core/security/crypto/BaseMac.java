@@ -19,6 +19,11 @@ public abstract class BaseMac extends SecurityBase<BaseMac> {
 	private final String algorithm;
 	private final Mac mac;
 	
+	protected BaseMac(Mac mac) {
+		this.algorithm = mac.getAlgorithm();
+		this.mac = mac;
+	}
+	
 	public BaseMac(String algorithm) {
 		try {
 			mac = getInstance(algorithm);
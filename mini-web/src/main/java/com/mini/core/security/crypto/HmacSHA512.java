@@ -1,7 +1,22 @@
 package com.mini.core.security.crypto;
 
+import java.nio.charset.Charset;
+
 public final class HmacSHA512 extends BaseMac {
 	public HmacSHA512() {
 		super("HmacSHA512");
 	}
+	
+	/**
+	 * 创建预设密钥的线程安全 Mac
+	 * @param key 密钥
+	 * @return {@link KeyedMac}
+	 */
+	public static KeyedMac keyed(byte[] key) {
+		return new KeyedMac("HmacSHA512", key);
+	}
+	
+	public static KeyedMac keyed(String key, Charset charset) {
+		return keyed(key.getBytes(charset));
+	}
 }
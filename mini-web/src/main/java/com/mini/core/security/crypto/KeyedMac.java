@@ -0,0 +1,95 @@
+package com.mini.core.security.crypto;
+
+import javax.annotation.Nonnull;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.security.GeneralSecurityException;
+import java.util.EventListener;
+
+import static com.mini.core.util.ThrowsUtil.hidden;
+import static javax.crypto.Mac.getInstance;
+
+/**
+ * 预设密钥的 Mac
+ * <p>
+ * 密钥只初始化一次，每个线程使用一份克隆的 Mac，可以在线程之间共享；
+ * 同一个密钥应长期持有一个实例，不要每次计算时创建
+ * @author xchao
+ */
+public final class KeyedMac implements EventListener {
+	private final ThreadLocal<BaseMac> local = ThreadLocal.withInitial(this::copy);
+	private final SecretKeySpec key;
+	private final Mac prototype;
+	
+	public KeyedMac(@Nonnull String algorithm, @Nonnull byte[] key) {
+		try {
+			this.key = new SecretKeySpec(key, algorithm);
+			this.prototype = getInstance(algorithm);
+			this.prototype.init(this.key);
+		} catch (GeneralSecurityException e) {
+			throw hidden(e);
+		}
+	}
+	
+	/**
+	 * 获取当前线程复用的 Mac，获取时已重置
+	 * <p>
+	 * 返回的 Mac 不能在线程之间共享，并且要在当前线程再次调用本对象方法之前使用完
+	 * @return {@link BaseMac}
+	 */
+	@Nonnull
+	public final BaseMac local() {
+		BaseMac mac = local.get();
+		mac.reset();
+		return mac;
+	}
+	
+	public final byte[] doFinal(byte[] input) {
+		return local().doFinal(input);
+	}
+	
+	public final byte[] doFinal(ByteBuffer input) {
+		return local().update(input).doFinal();
+	}
+	
+	public final byte[] doFinal(String input, Charset charset) {
+		return local().update(input, charset).doFinal();
+	}
+	
+	public final String encode(String input, Charset charset) {
+		return local().update(input, charset).encode();
+	}
+	
+	public final String encode(String input) {
+		return local().update(input).encode();
+	}
+	
+	public final String base64(String input, Charset charset) {
+		return local().update(input, charset).base64();
+	}
+	
+	// 从已初始化密钥的 Mac 克隆，不支持克隆时重新初始化
+	private BaseMac copy() {
+		try {
+			synchronized (prototype) {
+				return new Keyed((Mac) prototype.clone());
+			}
+		} catch (CloneNotSupportedException e) {
+			try {
+				Mac mac = getInstance(key.getAlgorithm());
+				mac.init(key);
+				return new Keyed(mac);
+			} catch (GeneralSecurityException ex) {
+				throw hidden(ex);
+			}
+		}
+	}
+	
+	private static final class Keyed extends BaseMac {
+		private Keyed(Mac mac) {
+			super(mac);
+		}
+	}
+}
@@ -2,10 +2,16 @@ package com.mini.core.security.digest;
 
 import com.mini.core.security.SecurityBase;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.stream.IntStream;
 
 import static com.mini.core.util.ThrowsUtil.hidden;
+import static java.nio.file.StandardOpenOption.READ;
 import static java.security.MessageDigest.getInstance;
 
 /**
@@ -43,6 +49,11 @@ public abstract class BaseDigest extends SecurityBase<BaseDigest> {
 		return this;
 	}
 	
+	public final BaseDigest update(ByteBuffer input) {
+		digest.update(input);
+		return this;
+	}
+	
 	public final byte[] digest(byte[] input) {
 		return digest.digest(input);
 	}
@@ -58,4 +69,50 @@ public abstract class BaseDigest extends SecurityBase<BaseDigest> {
 	public final void reset() {
 		digest.reset();
 	}
+	
+	/**
+	 * 获取当前线程复用的摘要对象，获取时已重置
+	 * @param local 线程复用的摘要对象
+	 * @return 摘要对象
+	 */
+	protected static <T extends BaseDigest> T current(ThreadLocal<T> local) {
+		T digest = local.get();
+		digest.reset();
+		return digest;
+	}
+	
+	/**
+	 * 并行分块计算文件的树形摘要
+	 * <p>
+	 * 文件按 chunkSize 分块，各块在 ForkJoin 公共线程池中并行计算摘要，再按顺序对所有块的摘要计算一次摘要；
+	 * 结果与整个文件的普通摘要不同，只能和相同分块大小的树形摘要比较
+	 * @param local     线程复用的摘要对象
+	 * @param path      文件路径
+	 * @param chunkSize 分块大小
+	 * @return 树形摘要
+	 */
+	protected static byte[] tree(ThreadLocal<? extends BaseDigest> local, Path path, int chunkSize) throws IOException {
+		if (chunkSize <= 0) {
+			throw new IllegalArgumentException("chunkSize must be greater than 0");
+		}
+		try (FileChannel channel = FileChannel.open(path, READ)) {
+			long size = channel.size();
+			int count = (int) Math.max(1, (size + chunkSize - 1) / chunkSize);
+			byte[][] chunks = new byte[count][];
+			IntStream.range(0, count).parallel().forEach(i -> {
+				try {
+					long position = (long) i * chunkSize;
+					long length = Math.min(chunkSize, size - position);
+					chunks[i] = current(local).update(channel, position, length).digest();
+				} catch (IOException e) {
+					throw hidden(e);
+				}
+			});
+			BaseDigest root = current(local);
+			for (byte[] chunk : chunks) {
+				root.update(chunk);
+			}
+			return root.digest();
+		}
+	}
 }
@@ -1,8 +1,12 @@
 package com.mini.core.security.digest;
 
+import java.io.IOException;
 import java.nio.charset.Charset;
+import java.nio.file.Path;
 
 public final class MD5 extends BaseDigest {
+	private static final ThreadLocal<MD5> LOCAL = ThreadLocal.withInitial(MD5::new);
+	
 	public MD5() {
 		super("MD5");
 	}
@@ -11,11 +15,36 @@ public final class MD5 extends BaseDigest {
 		return new MD5();
 	}
 	
+	/**
+	 * 获取当前线程复用的实例，获取时已重置
+	 * <p>
+	 * 实例不能在线程之间共享，并且要在当前线程再次调用本类静态方法之前使用完
+	 * @return 实例
+	 */
+	public static MD5 local() {
+		return current(LOCAL);
+	}
+	
 	public static String encode(String data, Charset charset) {
-		return getInstance().update(data, charset).encode();
+		return local().update(data, charset).encode();
 	}
 	
 	public static String encode(String data) {
-		return getInstance().update(data).encode();
+		return local().update(data).encode();
+	}
+	
+	public static String encode(Path path) throws IOException {
+		return local().update(path).encode();
+	}
+	
+	/**
+	 * 并行分块计算文件的树形摘要
+	 * @param path      文件路径
+	 * @param chunkSize 分块大小
+	 * @return 树形摘要
+	 * @see BaseDigest#tree(ThreadLocal, Path, int)
+	 */
+	public static byte[] tree(Path path, int chunkSize) throws IOException {
+		return tree(LOCAL, path, chunkSize);
 	}
 }
@@ -1,21 +1,98 @@
 package com.mini.core.thread;
 
-import com.google.common.eventbus.EventBus;
+import com.google.common.eventbus.AllowConcurrentEvents;
+import com.google.common.eventbus.DeadEvent;
+import com.google.common.eventbus.Subscribe;
+import com.mini.core.util.ThrowsUtil;
+import org.slf4j.Logger;
 
+import javax.annotation.Nonnull;
 import java.io.Serializable;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 import static com.mini.core.thread.ScheduledThreadExecutor.schedule;
+import static java.lang.Runtime.getRuntime;
+import static java.lang.invoke.MethodType.methodType;
+import static org.slf4j.LoggerFactory.getLogger;
 
+/**
+ * 事件通知
+ * <p>
+ * 订阅方法（{@link Subscribe} 或者 {@link Subscriber}）在注册时解析一次并转换为方法句柄；
+ * 同步订阅在发送线程中执行，异步订阅放入有界的事件队列，实现了 {@link Keyed} 的事件同一个键按发送顺序执行；
+ * 订阅方法没有 {@link AllowConcurrentEvents} 时同一个订阅者的方法依次执行；
+ * 订阅方法中发送的事件与 Guava 一样在当前事件通知完所有订阅者后再发送；
+ * 没有订阅者的事件作为 {@link DeadEvent} 再次发送
+ * @author xchao
+ */
 @SuppressWarnings("UnstableApiUsage")
 public final class EventExecutor implements Serializable {
-	private static final EventBus EVENT = new EventBus();
+	private static final Logger log = getLogger(EventExecutor.class);
+	private static final Map<Class<?>, Invoker[]> SUBSCRIBERS = new ConcurrentHashMap<>();
+	private static final LongAdder DEAD = new LongAdder();
+	// 每个线程待发送的事件，订阅方法中发送的事件排队，不递归发送
+	private static final ThreadLocal<Queue<Runnable>> QUEUED = ThreadLocal.withInitial(ArrayDeque::new);
+	private static final ThreadLocal<Boolean> DISPATCHING = ThreadLocal.withInitial(() -> false);
+	// 类型中的订阅方法
+	private static final ClassValue<Method[]> METHODS = new ClassValue<>() {
+		protected Method[] computeValue(Class<?> type) {
+			Map<String, Method> result = new LinkedHashMap<>();
+			for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+				for (Method method : c.getDeclaredMethods()) {
+					if (method.isBridge() || method.isSynthetic() || Modifier.isStatic(method.getModifiers())) continue;
+					if (!method.isAnnotationPresent(Subscribe.class) && !method.isAnnotationPresent(Subscriber.class)) continue;
+					if (method.getParameterCount() != 1) {
+						throw new IllegalArgumentException("Subscriber method must have exactly 1 parameter: " + method);
+					}
+					// 子类覆盖的方法只注册一次
+					String key = method.getName() + method.getParameterTypes()[0].getName();
+					result.putIfAbsent(key, method);
+				}
+			}
+			return result.values().toArray(new Method[0]);
+		}
+	};
+	// 事件类型的所有父类和接口
+	private static final ClassValue<Class<?>[]> TYPES = new ClassValue<>() {
+		protected Class<?>[] computeValue(Class<?> type) {
+			Set<Class<?>> result = new LinkedHashSet<>();
+			Deque<Class<?>> deque = new ArrayDeque<>(List.of(type));
+			for (Class<?> c; (c = deque.poll()) != null; ) {
+				if (!result.add(c)) continue;
+				if (c.getSuperclass() != null) {
+					deque.add(c.getSuperclass());
+				}
+				deque.addAll(Arrays.asList(c.getInterfaces()));
+			}
+			return result.toArray(new Class<?>[0]);
+		}
+	};
 	
 	/**
-	 * 注册通知事件
+	 * 注册通知事件，同一个对象重复注册时只注册一次
 	 * @param object 通知对象
 	 */
 	public static void register(Object object) {
-		EVENT.register(object);
+		for (Method method : METHODS.get(object.getClass())) {
+			Invoker invoker = new Invoker(object, method);
+			SUBSCRIBERS.compute(method.getParameterTypes()[0], (type, invokers) -> {
+				if (invokers == null) {
+					return new Invoker[]{invoker};
+				}
+				for (Invoker v : invokers) {
+					if (v.target == object && v.method.equals(method)) return invokers;
+				}
+				Invoker[] result = Arrays.copyOf(invokers, invokers.length + 1);
+				result[invokers.length] = invoker;
+				return result;
+			});
+		}
 	}
 	
 	/**
@@ -23,7 +100,12 @@ public final class EventExecutor implements Serializable {
 	 * @param object 通知对象
 	 */
 	public static void unregister(Object object) {
-		EVENT.unregister(object);
+		for (Method method : METHODS.get(object.getClass())) {
+			SUBSCRIBERS.computeIfPresent(method.getParameterTypes()[0], (type, invokers) -> {
+				Invoker[] result = Arrays.stream(invokers).filter(v -> v.target != object).toArray(Invoker[]::new);
+				return result.length == 0 ? null : result;
+			});
+		}
 	}
 	
 	/**
@@ -31,7 +113,44 @@ public final class EventExecutor implements Serializable {
 	 * @param event 事件对象
 	 */
 	public static void post(Object event) {
-		EVENT.post(event);
+		List<Invoker> invokers = new ArrayList<>();
+		for (Class<?> type : TYPES.get(event.getClass())) {
+			Invoker[] array = SUBSCRIBERS.get(type);
+			if (array != null) {
+				invokers.addAll(Arrays.asList(array));
+			}
+		}
+		if (invokers.isEmpty()) {
+			if (!(event instanceof DeadEvent)) {
+				DEAD.increment();
+				post(new DeadEvent(EventExecutor.class, event));
+			}
+			return;
+		}
+		Queue<Runnable> queue = QUEUED.get();
+		queue.offer(() -> dispatch(event, invokers));
+		if (DISPATCHING.get()) {
+			return;
+		}
+		DISPATCHING.set(true);
+		try {
+			for (Runnable next; (next = queue.poll()) != null; ) {
+				next.run();
+			}
+		} finally {
+			DISPATCHING.remove();
+			QUEUED.remove();
+		}
+	}
+	
+	// 依次通知所有订阅者，订阅者的异常不影响其它订阅者
+	private static void dispatch(Object event, List<Invoker> invokers) {
+		for (Invoker invoker : invokers) {
+			if (invoker.async) {
+				Object key = event instanceof Keyed ? ((Keyed) event).key() : null;
+				Async.QUEUE.put(key, () -> invoker.invoke(event));
+			} else invoker.invoke(event);
+		}
 	}
 	
 	/**
@@ -41,4 +160,148 @@ public final class EventExecutor implements Serializable {
 	public static void post(Object event, long delay) {
 		schedule(() -> post(event), delay);
 	}
+	
+	/**
+	 * 获取没有订阅者的事件数量
+	 * @return 事件数量
+	 */
+	public static long getDeadEventCount() {
+		return DEAD.sum();
+	}
+	
+	/**
+	 * 获取异步事件队列，用于查看队列状态
+	 * @return 事件队列
+	 */
+	@Nonnull
+	public static RunnableQueue getQueue() {
+		return Async.QUEUE;
+	}
+	
+	/**
+	 * 获取所有订阅者的执行统计
+	 * @return 统计信息
+	 */
+	@Nonnull
+	public static List<SubscriberStats> getSubscriberStats() {
+		List<SubscriberStats> result = new ArrayList<>();
+		SUBSCRIBERS.values().forEach(invokers -> {
+			for (Invoker v : invokers) {
+				result.add(new SubscriberStats(v.name, v.async, v.count.sum(), v.nanos.sum(), v.errors.sum()));
+			}
+		});
+		return result;
+	}
+	
+	/**
+	 * 异步执行时需要按键保证顺序的事件
+	 */
+	public interface Keyed {
+		/**
+		 * 事件键，同一个键的异步订阅按发送顺序执行
+		 * @return 事件键
+		 */
+		Object key();
+	}
+	
+	// 第一次发送异步事件时创建事件队列
+	private static final class Async {
+		private static final RunnableQueue QUEUE = RunnableQueue.builder()
+				.consumers(getRuntime().availableProcessors())
+				.policy(RunnableQueue.Policy.CALLER_RUNS)
+				.name("event-executor")
+				.capacity(1 << 16)
+				.build();
+	}
+	
+	private static final class Invoker {
+		private final LongAdder errors = new LongAdder();
+		private final LongAdder count = new LongAdder();
+		private final LongAdder nanos = new LongAdder();
+		private final MethodHandle handle;
+		private final boolean concurrent;
+		private final boolean async;
+		private final Object target;
+		private final Method method;
+		private final String name;
+		
+		private Invoker(Object target, Method method) {
+			try {
+				method.trySetAccessible();
+				MethodHandle handle = MethodHandles.lookup().unreflect(method);
+				this.handle = handle.bindTo(target).asType(methodType(void.class, Object.class));
+				Subscriber subscriber = method.getAnnotation(Subscriber.class);
+				this.async = subscriber != null && subscriber.async();
+				this.concurrent = method.isAnnotationPresent(AllowConcurrentEvents.class);
+				this.name = method.getDeclaringClass().getName() + "." + method.getName();
+				this.target = target;
+				this.method = method;
+			} catch (IllegalAccessException e) {
+				throw ThrowsUtil.hidden(e);
+			}
+		}
+		
+		// 没有 AllowConcurrentEvents 的订阅方法同时只能有一个线程执行
+		private void invoke(Object event) {
+			if (concurrent) {
+				call(event);
+				return;
+			}
+			synchronized (this) {
+				call(event);
+			}
+		}
+		
+		private void call(Object event) {
+			long start = System.nanoTime();
+			try {
+				handle.invokeExact(event);
+			} catch (Throwable e) {
+				errors.increment();
+				log.error("Could not dispatch event " + event + " to subscriber " + name, e);
+			} finally {
+				nanos.add(System.nanoTime() - start);
+				count.increment();
+			}
+		}
+	}
+	
+	/**
+	 * 订阅者执行统计
+	 */
+	public static final class SubscriberStats implements Serializable {
+		private final boolean async;
+		private final String name;
+		private final long errors;
+		private final long count;
+		private final long nanos;
+		
+		private SubscriberStats(String name, boolean async, long count, long nanos, long errors) {
+			this.errors = errors;
+			this.async = async;
+			this.count = count;
+			this.nanos = nanos;
+			this.name = name;
+		}
+		
+		public final String getName() {
+			return name;
+		}
+		
+		public final boolean isAsync() {
+			return async;
+		}
+		
+		public final long getCount() {
+			return count;
+		}
+		
+		public final long getNanos() {
+			return nanos;
+		}
+		
+		public final long getErrors() {
+			return errors;
+		}
+	}
 }
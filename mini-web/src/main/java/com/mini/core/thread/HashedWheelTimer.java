@@ -0,0 +1,267 @@
+package com.mini.core.thread;
+
+import org.slf4j.Logger;
+
+import javax.annotation.Nonnull;
+import java.util.EventListener;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * 时间轮定时器
+ * <p>
+ * 定时任务按到期刻度放入环形槽中，添加和取消都是 O(1)，适合数万个定时任务；
+ * 工作线程休眠到下一个有任务的槽再处理，没有任务时一直休眠，到期的任务交给执行器执行
+ * @author xchao
+ */
+public final class HashedWheelTimer implements EventListener {
+	private static final Logger log = getLogger(HashedWheelTimer.class);
+	private final Queue<Timeout> pending = new ConcurrentLinkedQueue<>();
+	private final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger count = new AtomicInteger();
+	private final LongSupplier clock;
+	private final Executor executor;
+	private final Bucket[] wheel;
+	private final boolean manual;
+	private final long start;
+	private final long tick;
+	// 工作线程计划唤醒的时间，新任务早于这个时间到期时唤醒工作线程
+	private volatile long wakeup = Long.MAX_VALUE;
+	private volatile Thread worker;
+	// 已处理的刻度数，只在工作线程中访问
+	private long ticks;
+	
+	/**
+	 * 创建定时器，第一次添加任务时启动工作线程
+	 * @param tick      每个刻度的毫秒数
+	 * @param wheelSize 槽数量，向上取2的幂
+	 * @param executor  到期任务的执行器
+	 */
+	public HashedWheelTimer(long tick, int wheelSize, @Nonnull Executor executor) {
+		this(tick, wheelSize, executor, () -> TimeUnit.NANOSECONDS.toMillis(System.nanoTime()), false);
+	}
+	
+	/**
+	 * 使用指定时钟创建定时器，不启动工作线程，由调用者调用 {@link #advance()} 推进时间
+	 * @param tick      每个刻度的毫秒数
+	 * @param wheelSize 槽数量，向上取2的幂
+	 * @param executor  到期任务的执行器
+	 * @param clock     时钟（毫秒）
+	 */
+	public HashedWheelTimer(long tick, int wheelSize, @Nonnull Executor executor, @Nonnull LongSupplier clock) {
+		this(tick, wheelSize, executor, clock, true);
+	}
+	
+	private HashedWheelTimer(long tick, int wheelSize, Executor executor, LongSupplier clock, boolean manual) {
+		isTrue(tick > 0 && wheelSize > 0 && wheelSize <= 1 << 30);
+		int size = 1;
+		while (size < wheelSize) {
+			size <<= 1;
+		}
+		this.wheel = new Bucket[size];
+		for (int i = 0; i < size; i++) {
+			wheel[i] = new Bucket();
+		}
+		this.start = clock.getAsLong();
+		this.executor = executor;
+		this.manual = manual;
+		this.clock = clock;
+		this.tick = tick;
+	}
+	
+	/**
+	 * 添加一个定时任务
+	 * @param task  任务内容
+	 * @param delay 延时毫秒数
+	 * @return 可取消的定时任务
+	 */
+	@Nonnull
+	public final Timeout newTimeout(@Nonnull Runnable task, long delay) {
+		long deadline = clock.getAsLong() - start + Math.max(delay, 0);
+		Timeout timeout = new Timeout(this, task, deadline);
+		count.incrementAndGet();
+		pending.add(timeout);
+		if (!manual) {
+			Thread thread = worker;
+			if (thread == null) {
+				start();
+			} else if (deadline < wakeup) {
+				LockSupport.unpark(thread);
+			}
+		}
+		return timeout;
+	}
+	
+	/**
+	 * 获取未到期并且未取消的任务数量
+	 * @return 任务数量
+	 */
+	public final int size() {
+		return count.get();
+	}
+	
+	/**
+	 * 处理到当前时间为止到期的任务，到期任务交给执行器执行
+	 * <p>
+	 * 由工作线程调用，使用指定时钟创建的定时器由调用者调用，不能多个线程同时调用
+	 */
+	public final void advance() {
+		long now = clock.getAsLong() - start;
+		transfer();
+		while ((ticks + 1) * tick <= now) {
+			wheel[(int) (ticks & (wheel.length - 1))].expire();
+			ticks++;
+			transfer();
+		}
+	}
+	
+	// 到下一个有任务的槽的等待毫秒数，没有任务时返回 Long.MAX_VALUE；
+	// advance 之后时钟可能已经跨过刻度，这时槽已到期但还未处理，返回 0
+	long delay() {
+		for (int i = 0; i < wheel.length; i++) {
+			if (wheel[(int) ((ticks + i) & (wheel.length - 1))].head != null) {
+				return Math.max(0, (ticks + i + 1) * tick - (clock.getAsLong() - start));
+			}
+		}
+		return Long.MAX_VALUE;
+	}
+	
+	// 处理新添加和已取消的任务
+	private void transfer() {
+		for (Timeout timeout; (timeout = cancelled.poll()) != null; ) {
+			if (timeout.bucket != null) {
+				timeout.bucket.remove(timeout);
+			}
+		}
+		for (Timeout timeout; (timeout = pending.poll()) != null; ) {
+			if (timeout.state.get() != Timeout.INIT) continue;
+			long calculated = timeout.deadline / tick;
+			timeout.rounds = (calculated - ticks) / wheel.length;
+			long index = Math.max(calculated, ticks);
+			wheel[(int) (index & (wheel.length - 1))].add(timeout);
+		}
+	}
+	
+	private synchronized void start() {
+		if (worker != null) return;
+		Thread thread = new Thread(this::run, "hashed-wheel-timer");
+		thread.setDaemon(true);
+		worker = thread;
+		thread.start();
+	}
+	
+	private void run() {
+		while (!Thread.currentThread().isInterrupted()) {
+			advance();
+			long delay = delay();
+			wakeup = delay == Long.MAX_VALUE ? Long.MAX_VALUE : clock.getAsLong() - start + delay;
+			// 设置唤醒时间后再次检查，避免错过设置前添加的任务
+			if (!pending.isEmpty()) continue;
+			if (delay == Long.MAX_VALUE) {
+				LockSupport.park(this);
+			} else if (delay > 0) {
+				LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(delay));
+			}
+		}
+	}
+	
+	/**
+	 * 可取消的定时任务
+	 */
+	public static final class Timeout {
+		private static final int INIT = 0, CANCELLED = 1, EXPIRED = 2;
+		private final AtomicInteger state = new AtomicInteger(INIT);
+		private final HashedWheelTimer timer;
+		private final long deadline;
+		private final Runnable task;
+		private Timeout prev, next;
+		private Bucket bucket;
+		private long rounds;
+		
+		private Timeout(HashedWheelTimer timer, Runnable task, long deadline) {
+			this.deadline = deadline;
+			this.timer = timer;
+			this.task = task;
+		}
+		
+		/**
+		 * 取消未到期的任务
+		 * @return true-取消成功
+		 */
+		public final boolean cancel() {
+			if (!state.compareAndSet(INIT, CANCELLED)) {
+				return false;
+			}
+			timer.count.decrementAndGet();
+			timer.cancelled.add(this);
+			return true;
+		}
+		
+		public final boolean isCancelled() {
+			return state.get() == CANCELLED;
+		}
+		
+		public final boolean isExpired() {
+			return state.get() == EXPIRED;
+		}
+	}
+	
+	/**
+	 * 时间轮的一个槽，双向链表
+	 */
+	private final class Bucket {
+		private Timeout head, tail;
+		
+		private void add(Timeout timeout) {
+			timeout.bucket = this;
+			if (head == null) {
+				head = tail = timeout;
+			} else {
+				tail.next = timeout;
+				timeout.prev = tail;
+				tail = timeout;
+			}
+		}
+		
+		private void remove(Timeout timeout) {
+			if (timeout.prev != null) {
+				timeout.prev.next = timeout.next;
+			} else head = timeout.next;
+			if (timeout.next != null) {
+				timeout.next.prev = timeout.prev;
+			} else tail = timeout.prev;
+			timeout.prev = timeout.next = null;
+			timeout.bucket = null;
+		}
+		
+		// 到期的任务交给执行器，未到期的任务减少一圈
+		private void expire() {
+			for (Timeout timeout = head, next; timeout != null; timeout = next) {
+				next = timeout.next;
+				if (timeout.rounds > 0) {
+					timeout.rounds--;
+					continue;
+				}
+				remove(timeout);
+				if (!timeout.state.compareAndSet(Timeout.INIT, Timeout.EXPIRED)) {
+					continue;
+				}
+				count.decrementAndGet();
+				try {
+					executor.execute(timeout.task);
+				} catch (RejectedExecutionException e) {
+					log.error(e.getMessage(), e);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,430 @@
+package com.mini.core.thread;
+
+import org.slf4j.Logger;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * 多消费者的有界任务队列
+ * <p>
+ * 队列已满时按 {@link Policy} 处理；指定了键的任务按键分道，同一个键的任务按添加顺序依次执行，
+ * 不同键的任务并行执行；关闭时等待已添加的任务执行完成，超时后中断消费线程并返回未执行的任务
+ * @author xchao
+ */
+public final class RunnableQueue implements EventListener {
+	private static final Logger log = getLogger(RunnableQueue.class);
+	private final BlockingQueue<Runnable> queue = new LinkedBlockingQueue<>();
+	private final Map<Object, Lane> lanes = new ConcurrentHashMap<>();
+	private final AtomicInteger pending = new AtomicInteger();
+	private final LongAdder submitted = new LongAdder();
+	private final LongAdder completed = new LongAdder();
+	private final LongAdder rejected = new LongAdder();
+	private final LongAdder callerRuns = new LongAdder();
+	private final LongAdder waitNanos = new LongAdder();
+	private final LongAdder runNanos = new LongAdder();
+	private final Semaphore permits;
+	private final Worker[] workers;
+	private final Policy policy;
+	private volatile boolean shutdown;
+	// 等待超时后停止消费线程
+	private volatile boolean stopped;
+	
+	private RunnableQueue(Builder builder) {
+		this.permits = new Semaphore(builder.capacity);
+		this.workers = new Worker[builder.consumers];
+		this.policy = builder.policy;
+		for (int i = 0; i < workers.length; i++) {
+			workers[i] = new Worker(builder.name + "-" + i);
+			workers[i].start();
+		}
+	}
+	
+	/**
+	 * 添加一个任务到队列
+	 * @param runnable 任务执行过程
+	 */
+	public final void put(@Nonnull Runnable runnable) {
+		put(null, runnable);
+	}
+	
+	/**
+	 * 添加一个任务到队列，相同键的任务按添加顺序依次执行
+	 * @param key      任务分道的键，为空时不分道
+	 * @param runnable 任务执行过程
+	 */
+	public final void put(@Nullable Object key, @Nonnull Runnable runnable) {
+		if (shutdown) {
+			throw new RejectedExecutionException("RunnableQueue has been shutdown");
+		}
+		Task task = new Task(key, runnable);
+		if (!admit(task)) {
+			return;
+		}
+		submitted.increment();
+		pending.incrementAndGet();
+		if (key == null) {
+			queue.add(task);
+			return;
+		}
+		lanes.compute(key, (k, lane) -> {
+			lane = lane == null ? new Lane(k) : lane;
+			lane.tasks.add(task);
+			if (!lane.scheduled) {
+				lane.scheduled = true;
+				queue.add(lane);
+			}
+			return lane;
+		});
+	}
+	
+	// 获取队列容量，返回 false 时任务已经被处理（调用者执行或者丢弃）
+	private boolean admit(Task task) {
+		if (permits.tryAcquire()) {
+			return task.permit = true;
+		}
+		Thread thread = Thread.currentThread();
+		boolean worker = thread instanceof Worker && ((Worker) thread).owner() == this;
+		// 不分道的任务由调用者执行，分道的任务不能越过同一个键前面的任务，按阻塞处理
+		if (policy == Policy.CALLER_RUNS && task.key == null) {
+			callerRuns.increment();
+			try {
+				task.runnable.run();
+			} catch (RuntimeException e) {
+				log.error(e.getMessage(), e);
+			}
+			return false;
+		}
+		if (policy == Policy.DROP_OLDEST) {
+			Task oldest = dropOldest(task.key);
+			if (oldest == null) {
+				rejected.increment();
+				log.warn("RunnableQueue is full, drop the task: {}", task.runnable);
+				return false;
+			}
+			// 被丢弃任务占用的容量留给新任务
+			task.permit = oldest.permit;
+			return true;
+		}
+		// 消费线程中阻塞可能导致所有消费线程互相等待，由消费线程直接执行
+		if (worker) {
+			runInline(task);
+			return false;
+		}
+		try {
+			permits.acquire();
+			return task.permit = true;
+		} catch (InterruptedException e) {
+			thread.interrupt();
+			throw new RejectedExecutionException(e);
+		}
+	}
+	
+	// 在消费线程中直接执行任务，分道的任务只有在该键没有等待和正在执行的任务时才能执行，否则拒绝
+	private void runInline(Task task) {
+		Lane lane = null;
+		if (task.key != null) {
+			Lane[] created = new Lane[1];
+			lanes.computeIfAbsent(task.key, k -> {
+				created[0] = new Lane(k);
+				created[0].scheduled = true;
+				return created[0];
+			});
+			if ((lane = created[0]) == null) {
+				rejected.increment();
+				throw new RejectedExecutionException("RunnableQueue is full");
+			}
+		}
+		callerRuns.increment();
+		try {
+			task.runnable.run();
+		} catch (RuntimeException e) {
+			log.error(e.getMessage(), e);
+		} finally {
+			if (lane != null) {
+				lane.reschedule();
+			}
+		}
+	}
+	
+	// 丢弃最早等待的任务，指定了键时优先丢弃同一个键的任务
+	private Task dropOldest(Object key) {
+		Task task = key == null ? null : poll(lanes.get(key));
+		for (Iterator<Runnable> it = queue.iterator(); task == null && it.hasNext(); ) {
+			Runnable next = it.next();
+			if (next instanceof Task && queue.remove(next)) {
+				task = (Task) next;
+			} else if (next instanceof Lane) {
+				task = poll((Lane) next);
+			}
+		}
+		if (task != null) {
+			rejected.increment();
+			pending.decrementAndGet();
+			log.warn("RunnableQueue is full, drop the oldest task: {}", task.runnable);
+		}
+		return task;
+	}
+	
+	// 从分道中取出一个等待的任务
+	private Task poll(Lane lane) {
+		if (lane == null) return null;
+		Task[] result = new Task[1];
+		lanes.computeIfPresent(lane.key, (k, l) -> {
+			result[0] = l.tasks.poll();
+			return l;
+		});
+		return result[0];
+	}
+	
+	private void execute(Task task) {
+		long start = System.nanoTime();
+		waitNanos.add(start - task.created);
+		try {
+			task.runnable.run();
+		} catch (Throwable e) {
+			log.error(e.getMessage(), e);
+		} finally {
+			runNanos.add(System.nanoTime() - start);
+			completed.increment();
+			if (task.permit) {
+				permits.release();
+			}
+			if (pending.decrementAndGet() == 0) {
+				synchronized (this) {
+					this.notifyAll();
+				}
+			}
+		}
+	}
+	
+	/**
+	 * 停止接收任务，等待已添加的任务执行完成
+	 * @param timeout 最长等待时间
+	 * @param unit    时间单位
+	 * @return 超时后未执行的任务
+	 */
+	@Nonnull
+	public final List<Runnable> shutdown(long timeout, @Nonnull TimeUnit unit) {
+		this.shutdown = true;
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		synchronized (this) {
+			try {
+				for (long wait; pending.get() > 0 && (wait = deadline - System.nanoTime()) > 0; ) {
+					TimeUnit.NANOSECONDS.timedWait(this, wait);
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		this.stopped = true;
+		for (Worker worker : workers) {
+			worker.interrupt();
+		}
+		List<Runnable> result = new ArrayList<>();
+		for (Runnable next; (next = queue.poll()) != null; ) {
+			if (next instanceof Task) {
+				result.add(((Task) next).runnable);
+			}
+		}
+		lanes.values().forEach(lane -> lane.tasks.forEach(t -> result.add(t.runnable)));
+		lanes.clear();
+		return result;
+	}
+	
+	public final boolean isShutdown() {
+		return shutdown;
+	}
+	
+	/**
+	 * 获取等待和正在执行的任务数量
+	 * @return 任务数量
+	 */
+	public final int size() {
+		return pending.get();
+	}
+	
+	public final long getSubmittedCount() {
+		return submitted.sum();
+	}
+	
+	public final long getCompletedCount() {
+		return completed.sum();
+	}
+	
+	/**
+	 * 获取队列已满时丢弃的任务数量
+	 * @return 任务数量
+	 */
+	public final long getRejectedCount() {
+		return rejected.sum();
+	}
+	
+	/**
+	 * 获取队列已满时由调用者线程执行的任务数量
+	 * @return 任务数量
+	 */
+	public final long getCallerRunsCount() {
+		return callerRuns.sum();
+	}
+	
+	/**
+	 * 获取任务从添加到开始执行的平均等待纳秒数
+	 * @return 纳秒数
+	 */
+	public final long getAverageWaitNanos() {
+		long count = completed.sum();
+		return count == 0 ? 0 : waitNanos.sum() / count;
+	}
+	
+	/**
+	 * 获取任务的平均执行纳秒数
+	 * @return 纳秒数
+	 */
+	public final long getAverageRunNanos() {
+		long count = completed.sum();
+		return count == 0 ? 0 : runNanos.sum() / count;
+	}
+	
+	@Nonnull
+	public static Builder builder() {
+		return new Builder();
+	}
+	
+	/**
+	 * 队列已满时的处理策略
+	 */
+	public enum Policy {
+		/**
+		 * 阻塞等待；消费线程中添加任务时不等待，由该消费线程直接执行，
+		 * 指定了键且该键还有等待或正在执行的任务时抛出 {@link RejectedExecutionException}
+		 */
+		BLOCK,
+		/** 由添加任务的线程直接执行，指定了键的任务按 BLOCK 处理 */
+		CALLER_RUNS,
+		/** 丢弃最早等待的任务（指定了键时优先丢弃同一个键的任务） */
+		DROP_OLDEST
+	}
+	
+	public static class Builder {
+		private Policy policy = Policy.BLOCK;
+		private String name = "runnable-queue";
+		private int capacity = Integer.MAX_VALUE;
+		private int consumers = 1;
+		
+		private Builder() {
+		}
+		
+		public Builder consumers(int consumers) {
+			isTrue(consumers > 0);
+			this.consumers = consumers;
+			return this;
+		}
+		
+		public Builder capacity(int capacity) {
+			isTrue(capacity > 0);
+			this.capacity = capacity;
+			return this;
+		}
+		
+		public Builder policy(@Nonnull Policy policy) {
+			this.policy = policy;
+			return this;
+		}
+		
+		public Builder name(@Nonnull String name) {
+			this.name = name;
+			return this;
+		}
+		
+		public RunnableQueue build() {
+			return new RunnableQueue(this);
+		}
+	}
+	
+	private static final class Task implements Runnable {
+		private final long created = System.nanoTime();
+		private final Runnable runnable;
+		private final Object key;
+		// 是否占用了队列容量
+		private boolean permit;
+		
+		private Task(Object key, Runnable runnable) {
+			this.runnable = runnable;
+			this.key = key;
+		}
+		
+		@Override
+		public void run() {
+			runnable.run();
+		}
+	}
+	
+	/**
+	 * 同一个键的任务分道，每次只有一个消费线程执行其中的一个任务，执行完后重新排队
+	 */
+	private final class Lane implements Runnable {
+		private final Deque<Task> tasks = new ArrayDeque<>();
+		private final Object key;
+		private boolean scheduled;
+		
+		private Lane(Object key) {
+			this.key = key;
+		}
+		
+		@Override
+		public void run() {
+			Task task = poll(this);
+			try {
+				if (task != null) {
+					execute(task);
+				}
+			} finally {
+				reschedule();
+			}
+		}
+		
+		// 分道中还有任务时重新排队，否则移除分道
+		private void reschedule() {
+			lanes.computeIfPresent(key, (k, lane) -> {
+				if (lane.tasks.isEmpty()) {
+					return null;
+				}
+				queue.add(lane);
+				return lane;
+			});
+		}
+	}
+	
+	private final class Worker extends Thread {
+		private Worker(String name) {
+			super(name);
+			setDaemon(true);
+		}
+		
+		private RunnableQueue owner() {
+			return RunnableQueue.this;
+		}
+		
+		@Override
+		public void run() {
+			while (!stopped) {
+				try {
+					Runnable next = queue.take();
+					if (next instanceof Task) {
+						execute((Task) next);
+					} else next.run();
+				} catch (InterruptedException e) {
+					return;
+				}
+			}
+		}
+	}
+}
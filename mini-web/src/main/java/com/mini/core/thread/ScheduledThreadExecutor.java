@@ -2,18 +2,12 @@ package com.mini.core.thread;
 
 import javax.annotation.Nonnull;
 import java.io.Serializable;
-import java.util.Calendar;
 import java.util.EventListener;
-import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.RunnableScheduledFuture;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.ScheduledThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.*;
 
 import static java.lang.Runtime.getRuntime;
 import static java.lang.System.currentTimeMillis;
-import static java.util.Calendar.*;
 
 /**
  * - 开启后台执行任务和定时任务
@@ -21,7 +15,8 @@ import static java.util.Calendar.*;
  */
 public final class ScheduledThreadExecutor implements EventListener, Serializable {
 	private static final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(2 * getRuntime().availableProcessors());
-	private static final Map<String, ScheduledFuture<?>> futures = new HashMap<>();
+	private static final HashedWheelTimer timer = new HashedWheelTimer(100, 512, executor);
+	private static final Map<String, Handle> futures = new ConcurrentHashMap<>();
 	
 	/**
 	 * 在后台线程执行一个任务
@@ -68,11 +63,12 @@ public final class ScheduledThreadExecutor implements EventListener, Serializabl
 	 * @param unit     时间单位
 	 */
 	public static void schedule(@Nonnull String id, @Nonnull Runnable runnable, long delay, @Nonnull TimeUnit unit) {
-		futures.put(id, executor.schedule(() -> {
+		final Handle handle = register(id);
+		handle.set(executor.schedule(() -> {
 			try {
 				runnable.run();
 			} finally {
-				futures.remove(id);
+				futures.remove(id, handle);
 			}
 		}, delay, unit));
 	}
@@ -126,11 +122,13 @@ public final class ScheduledThreadExecutor implements EventListener, Serializabl
 	 * @param unit         时间单位
 	 */
 	public static void scheduleAtFixedRate(@Nonnull String id, @Nonnull Runnable runnable, long initialDelay, long delay, @Nonnull TimeUnit unit) {
-		futures.put(id, executor.scheduleAtFixedRate(() -> {
+		final Handle handle = register(id);
+		handle.set(executor.scheduleAtFixedRate(() -> {
 			try {
 				runnable.run();
-			} finally {
-				futures.remove(id);
+			} catch (RuntimeException | Error e) {
+				futures.remove(id, handle);
+				throw e;
 			}
 		}, initialDelay, delay, unit));
 	}
@@ -195,47 +193,26 @@ public final class ScheduledThreadExecutor implements EventListener, Serializabl
 	 * @param unit         时间单位
 	 */
 	public static void scheduleWithFixedDelay(@Nonnull String id, @Nonnull Runnable runnable, long initialDelay, long delay, @Nonnull TimeUnit unit) {
-		futures.put(id, executor.scheduleWithFixedDelay(() -> {
+		final Handle handle = register(id);
+		handle.set(executor.scheduleWithFixedDelay(() -> {
 			try {
 				runnable.run();
-			} finally {
-				futures.remove(id);
+			} catch (RuntimeException | Error e) {
+				futures.remove(id, handle);
+				throw e;
 			}
 		}, initialDelay, delay, unit));
 	}
 	
 	/**
 	 * 根据时间规则开启一个定时任务
+	 * <p>
+	 * 按时间规则计算下一次执行时间后放入时间轮，不逐秒检查
 	 * @param runnable 任务内容
 	 * @param rule     时间规则
 	 */
 	public static void scheduleAtTimeRule(@Nonnull Runnable runnable, @Nonnull TimeRule rule) {
-		final long delay = 1000 - currentTimeMillis() % 1000;
-		ScheduledThreadExecutor.scheduleAtFixedRate(() -> {
-			final Calendar c = Calendar.getInstance();
-			if (!rule.secondMatch(c.get(SECOND))) {
-				return; // 秒
-			}
-			if (!rule.minuteMatch(c.get(MINUTE))) {
-				return; // 分
-			}
-			if (!rule.hourMatch(c.get(HOUR_OF_DAY))) {
-				return; // 时
-			}
-			if (!rule.dayMatch(c.get(DAY_OF_MONTH))) {
-				return; // 日
-			}
-			if (!rule.monthMatch(c.get(MONTH))) {
-				return; // 月
-			}
-			if (!rule.weekMatch(c.get(DAY_OF_WEEK))) {
-				return; // 周
-			}
-			if (!rule.yearMatch(c.get(YEAR))) {
-				return; // 年
-			}
-			runnable.run();
-		}, delay, 1000);
+		new RuleTask(null, new Handle(), runnable, rule).schedule(currentTimeMillis());
 	}
 	
 	/**
@@ -245,32 +222,7 @@ public final class ScheduledThreadExecutor implements EventListener, Serializabl
 	 * @param rule     时间规则
 	 */
 	public static void scheduleAtTimeRule(@Nonnull String id, @Nonnull Runnable runnable, @Nonnull TimeRule rule) {
-		final long delay = 1000 - currentTimeMillis() % 1000;
-		ScheduledThreadExecutor.scheduleAtFixedRate(id, () -> {
-			final Calendar c = Calendar.getInstance();
-			if (!rule.secondMatch(c.get(SECOND))) {
-				return; // 秒
-			}
-			if (!rule.minuteMatch(c.get(MINUTE))) {
-				return; // 分
-			}
-			if (!rule.hourMatch(c.get(HOUR_OF_DAY))) {
-				return; // 时
-			}
-			if (!rule.dayMatch(c.get(DAY_OF_MONTH))) {
-				return; // 日
-			}
-			if (!rule.monthMatch(c.get(MONTH))) {
-				return; // 月
-			}
-			if (!rule.weekMatch(c.get(DAY_OF_WEEK))) {
-				return; // 周
-			}
-			if (!rule.yearMatch(c.get(YEAR))) {
-				return; // 年
-			}
-			runnable.run();
-		}, delay, 1000);
+		new RuleTask(id, register(id), runnable, rule).schedule(currentTimeMillis());
 	}
 	
 	/**
@@ -295,10 +247,82 @@ public final class ScheduledThreadExecutor implements EventListener, Serializabl
 	 * @param id 定时器ID
 	 */
 	public static void cancel(@Nonnull final String id) {
-		final ScheduledFuture<?> future = futures.get(id);
-		if (future instanceof RunnableScheduledFuture) {
-			executor.remove((Runnable) future);
-			future.cancel(false);
+		final Handle handle = futures.remove(id);
+		if (handle != null) {
+			handle.cancel();
+		}
+	}
+	
+	// 注册可取消的任务，相同识别码的旧任务会被取消
+	private static Handle register(String id) {
+		final Handle handle = new Handle();
+		final Handle old = futures.put(id, handle);
+		if (old != null) {
+			old.cancel();
+		}
+		return handle;
+	}
+	
+	/**
+	 * 可取消的任务，按时间规则执行的任务每次重新调度时更新
+	 */
+	private static final class Handle {
+		private volatile boolean cancelled;
+		private volatile Object future;
+		
+		private void set(Object future) {
+			this.future = future;
+			if (cancelled) {
+				cancel(future);
+			}
+		}
+		
+		private void cancel() {
+			this.cancelled = true;
+			cancel(future);
+		}
+		
+		private static void cancel(Object future) {
+			if (future instanceof HashedWheelTimer.Timeout) {
+				((HashedWheelTimer.Timeout) future).cancel();
+			} else if (future instanceof RunnableScheduledFuture) {
+				executor.remove((Runnable) future);
+				((Future<?>) future).cancel(false);
+			}
+		}
+	}
+	
+	/**
+	 * 按时间规则执行的任务，先计算并调度下一次执行再执行本次任务
+	 */
+	private static final class RuleTask implements Runnable {
+		private final Runnable runnable;
+		private final Handle handle;
+		private final TimeRule rule;
+		private final String id;
+		private long next;
+		
+		private RuleTask(String id, Handle handle, Runnable runnable, TimeRule rule) {
+			this.runnable = runnable;
+			this.handle = handle;
+			this.rule = rule;
+			this.id = id;
+		}
+		
+		private void schedule(long millis) {
+			if (handle.cancelled) return;
+			if ((next = rule.nextTime(millis)) < 0) {
+				if (id != null) futures.remove(id, handle);
+				return;
+			}
+			handle.set(timer.newTimeout(this, next - currentTimeMillis()));
+		}
+		
+		@Override
+		public void run() {
+			// 执行晚于计划时间时跳过错过的时间
+			schedule(Math.max(next, currentTimeMillis()));
+			runnable.run();
 		}
 	}
 }
@@ -0,0 +1,20 @@
+package com.mini.core.thread;
+
+import java.lang.annotation.*;
+
+/**
+ * 事件订阅方法，方法只能有一个参数，参数类型为订阅的事件类型
+ * <p>
+ * 与 {@link com.google.common.eventbus.Subscribe} 相同，可以指定异步执行
+ * @author xchao
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Subscriber {
+	/**
+	 * 是否在事件队列中异步执行
+	 * @return true-异步执行
+	 */
+	boolean async() default false;
+}
@@ -2,49 +2,216 @@ package com.mini.core.thread;
 
 import javax.annotation.Nonnull;
 import java.io.Serializable;
-import java.util.ArrayList;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
 import java.util.EventListener;
-import java.util.List;
 
+/**
+ * 定时任务时间规则
+ * <p>
+ * 每个时间字段编译成位集合，未设置的字段匹配所有值；月份与 {@link java.util.Calendar#MONTH} 一致从0开始，
+ * 周与 {@link java.util.Calendar#DAY_OF_WEEK} 一致，周日为1
+ * @author xchao
+ */
 public final class TimeRule implements Serializable, EventListener {
 	private static final long serialVersionUID = -797416894L;
-	private final List<Integer> second = new ArrayList<>();
-	private final List<Integer> minute = new ArrayList<>();
-	private final List<Integer> month = new ArrayList<>();
-	private final List<Integer> hour = new ArrayList<>();
-	private final List<Integer> year = new ArrayList<>();
-	private final List<Integer> week = new ArrayList<>();
-	private final List<Integer> day = new ArrayList<>();
+	// 未设置的字段，匹配所有值
+	private static final long ANY = -1L;
+	private long second = ANY;
+	private long minute = ANY;
+	private long month = ANY;
+	private long hour = ANY;
+	private long week = ANY;
+	private long day = ANY;
+	// 为空时匹配所有年份，否则按从小到大排列
+	private int[] year;
 	
 	private TimeRule() {
 	}
 	
 	public final boolean secondMatch(int value) {
-		return second.isEmpty() || second.stream().anyMatch(v -> v == value);
+		return match(second, value);
 	}
 	
 	public final boolean minuteMatch(int value) {
-		return minute.isEmpty() || minute.stream().anyMatch(v -> v == value);
+		return match(minute, value);
 	}
 	
 	public final boolean monthMatch(int value) {
-		return month.isEmpty() || month.stream().anyMatch(v -> v == value);
+		return match(month, value);
 	}
 	
 	public final boolean hourMatch(int value) {
-		return hour.isEmpty() || hour.stream().anyMatch(v -> v == value);
+		return match(hour, value);
 	}
 	
 	public final boolean yearMatch(int value) {
-		return year.isEmpty() || year.stream().anyMatch(v -> v == value);
+		return year == null || Arrays.binarySearch(year, value) >= 0;
 	}
 	
 	public final boolean weekMatch(int value) {
-		return week.isEmpty() || week.stream().anyMatch(v -> v == value);
+		return match(week, value);
 	}
 	
 	public final boolean dayMatch(int value) {
-		return day.isEmpty() || day.stream().anyMatch(v -> v == value);
+		return match(day, value);
+	}
+	
+	/**
+	 * 计算指定时间之后（不包含当前秒）下一次匹配的时间
+	 * @param millis 开始时间
+	 * @return 下一次匹配的时间，没有时返回 -1
+	 */
+	public final long nextTime(long millis) {
+		return nextTime(millis, ZoneId.systemDefault());
+	}
+	
+	/**
+	 * 计算指定时间之后（不包含当前秒）下一次匹配的时间
+	 * <p>
+	 * 每个字段通过位运算直接找到下一个匹配值，不匹配时向上一级字段进位，不逐秒检查
+	 * @param millis 开始时间
+	 * @param zone   时区
+	 * @return 下一次匹配的时间，没有时返回 -1
+	 */
+	public final long nextTime(long millis, @Nonnull ZoneId zone) {
+		LocalDateTime t = LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), zone).withNano(0).plusSeconds(1);
+		// 日期和周的组合每400年重复一次，超过后不可能再匹配
+		final int limit = t.getYear() + 400;
+		for (int y = t.getYear(), m = t.getMonthValue() - 1, d = t.getDayOfMonth(),
+		     h = t.getHour(), n = t.getMinute(), s = t.getSecond(); ; ) {
+			if (y > limit) return -1;
+			// 年
+			if (!yearMatch(y)) {
+				if ((y = nextYear(y)) < 0) return -1;
+				m = 0;
+				d = 1;
+				h = n = s = 0;
+			}
+			// 月
+			int v = next(month, m, 11);
+			if (v != m) {
+				if (v < 0) {
+					y++;
+					m = 0;
+				} else m = v;
+				d = 1;
+				h = n = s = 0;
+				continue;
+			}
+			// 日和周
+			int length = LocalDate.of(y, m + 1, 1).lengthOfMonth();
+			v = nextDay(y, m, d, length);
+			if (v != d) {
+				if (v < 0) {
+					m++;
+					d = 1;
+				} else d = v;
+				h = n = s = 0;
+				if (m > 11) {
+					y++;
+					m = 0;
+				}
+				continue;
+			}
+			// 时
+			v = next(hour, h, 23);
+			if (v != h) {
+				if (v < 0) {
+					d++;
+					h = 0;
+				} else h = v;
+				n = s = 0;
+				if (d > length) {
+					m++;
+					d = 1;
+				}
+				if (m > 11) {
+					y++;
+					m = 0;
+				}
+				continue;
+			}
+			// 分
+			v = next(minute, n, 59);
+			if (v != n) {
+				if (v < 0) {
+					h++;
+					n = 0;
+				} else n = v;
+				s = 0;
+				if (h > 23) {
+					d++;
+					h = 0;
+				}
+				if (d > length) {
+					m++;
+					d = 1;
+				}
+				if (m > 11) {
+					y++;
+					m = 0;
+				}
+				continue;
+			}
+			// 秒
+			v = next(second, s, 59);
+			if (v < 0) {
+				n++;
+				s = 0;
+				if (n > 59) {
+					h++;
+					n = 0;
+				}
+				if (h > 23) {
+					d++;
+					h = 0;
+				}
+				if (d > length) {
+					m++;
+					d = 1;
+				}
+				if (m > 11) {
+					y++;
+					m = 0;
+				}
+				continue;
+			}
+			LocalDateTime r = LocalDateTime.of(y, m + 1, d, h, n, v);
+			return r.atZone(zone).toInstant().toEpochMilli();
+		}
+	}
+	
+	// 从指定日期开始当月第一个日期和周都匹配的日期，没有时返回 -1
+	private int nextDay(int y, int m, int d, int length) {
+		for (int v = d; (v = next(day, v, length)) >= 0; v++) {
+			int w = LocalDate.of(y, m + 1, v).getDayOfWeek().getValue() % 7 + 1;
+			if (match(week, w)) return v;
+		}
+		return -1;
+	}
+	
+	// 大于当前年份的第一个匹配年份，没有时返回 -1
+	private int nextYear(int y) {
+		int index = Arrays.binarySearch(year, y + 1);
+		index = index >= 0 ? index : -index - 1;
+		return index < year.length ? year[index] : -1;
+	}
+	
+	private static boolean match(long bits, int value) {
+		return bits == ANY || (value >= 0 && value < 64 && (bits & 1L << value) != 0);
+	}
+	
+	// 大于等于 from 并且小于等于 max 的第一个匹配值，没有时返回 -1
+	private static int next(long bits, int from, int max) {
+		if (from > max) return -1;
+		if (bits == ANY) return from;
+		long rest = bits & (-1L << from);
+		int v = rest == 0 ? 64 : Long.numberOfTrailingZeros(rest);
+		return v <= max ? v : -1;
 	}
 	
 	@Nonnull
@@ -61,56 +228,62 @@ public final class TimeRule implements Serializable, EventListener {
 		}
 		
 		public Builder second(int... values) {
-			for (int value : values) {
-				rule.second.add(value);
-			}
+			rule.second = bits(rule.second, values);
 			return this;
 		}
 		
 		public Builder minute(int... values) {
-			for (int value : values) {
-				rule.minute.add(value);
-			}
+			rule.minute = bits(rule.minute, values);
 			return this;
 		}
 		
 		public Builder month(int... values) {
-			for (int value : values) {
-				rule.month.add(value);
-			}
+			rule.month = bits(rule.month, values);
 			return this;
 		}
 		
 		public Builder hour(int... values) {
-			for (int value : values) {
-				rule.hour.add(value);
-			}
+			rule.hour = bits(rule.hour, values);
 			return this;
 		}
 		
 		public Builder year(int... values) {
-			for (int value : values) {
-				rule.year.add(value);
-			}
+			if (values.length == 0) return this;
+			int[] year = rule.year == null ? values.clone() : concat(rule.year, values);
+			rule.year = Arrays.stream(year).sorted().distinct().toArray();
 			return this;
 		}
 		
 		public Builder week(int... values) {
-			for (int value : values) {
-				rule.week.add(value);
-			}
+			rule.week = bits(rule.week, values);
 			return this;
 		}
 		
 		public Builder day(int... values) {
-			for (int value : values) {
-				rule.day.add(value);
-			}
+			rule.day = bits(rule.day, values);
 			return this;
 		}
 		
 		public TimeRule builder() {
 			return rule;
 		}
+		
+		// 超出范围的值永远不会匹配，不加入位集合
+		private static long bits(long bits, int[] values) {
+			if (values.length == 0) return bits;
+			bits = bits == ANY ? 0 : bits;
+			for (int value : values) {
+				if (value >= 0 && value < 63) {
+					bits |= 1L << value;
+				}
+			}
+			return bits;
+		}
+		
+		private static int[] concat(int[] a, int[] b) {
+			int[] r = Arrays.copyOf(a, a.length + b.length);
+			System.arraycopy(b, 0, r, a.length, b.length);
+			return r;
+		}
 	}
 }
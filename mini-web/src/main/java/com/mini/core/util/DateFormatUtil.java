@@ -10,11 +10,18 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.Set;
 
 import static com.mini.core.util.ThrowsUtil.hidden;
+import static java.time.LocalDate.EPOCH;
+import static java.time.ZoneId.systemDefault;
 import static java.time.format.DateTimeFormatter.ofPattern;
 
 public class DateFormatUtil extends DateFormatUtils {
+	private static final int GREGORIAN = 1582;
+	// 可以按字符快速解析的格式，其它格式（包括 [] 可选段等 DateTimeFormatter 语法）都交给 SimpleDateFormat
+	private static final Set<String> FAST_FORMATS = Set.of("yyyy-MM-dd", "yyyy-MM-dd HH:mm:ss", "yyyy-MM-dd HH:mm",
+			"yyyy-MM-dd'T'HH:mm:ss", "HH:mm:ss", "HH:mm");
 	
 	/**
 	 * 将日期格式化为 时间 (format) 格式
@@ -159,12 +166,34 @@ public class DateFormatUtil extends DateFormatUtils {
 	public static Date parse(String date, String format) {
 		try {
 			if (date == null || format == null) return null;
+			// 常用格式的合法日期直接按字符解析，其它情况保持 SimpleDateFormat 的宽松解析
+			if (FAST_FORMATS.contains(format)) {
+				Date result = fastParse(date, format);
+				if (result != null) return result;
+			}
 			return new SimpleDateFormat(format).parse(date);
 		} catch (ParseException e) {
 			throw hidden(e);
 		}
 	}
 	
+	// SimpleDateFormat 在 1582 年之前使用儒略历，这些日期不使用快速解析
+	private static Date fastParse(String date, String format) {
+		DateTimeParser parser = DateTimeParser.of(format);
+		if (format.indexOf('H') < 0) {
+			LocalDate value = parser.fastLocalDate(date);
+			if (value == null || value.getYear() <= GREGORIAN) return null;
+			return Date.from(value.atStartOfDay(systemDefault()).toInstant());
+		}
+		if (format.indexOf('y') < 0) {
+			LocalTime value = parser.fastLocalTime(date);
+			return value == null ? null : Date.from(value.atDate(EPOCH).atZone(systemDefault()).toInstant());
+		}
+		LocalDateTime value = parser.fastLocalDateTime(date);
+		if (value == null || value.getYear() <= GREGORIAN) return null;
+		return Date.from(value.atZone(systemDefault()).toInstant());
+	}
+	
 	/**
 	 * 将 yyyy-MM-dd 日期格式的字符串转换成日期格式
 	 * @param date 日期字符串
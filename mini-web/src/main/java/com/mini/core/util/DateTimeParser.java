@@ -0,0 +1,274 @@
+package com.mini.core.util;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.text.ParsePosition;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.Month;
+import java.time.Year;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.TemporalAccessor;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.time.temporal.ChronoField.EPOCH_DAY;
+import static java.time.temporal.ChronoField.NANO_OF_DAY;
+
+/**
+ * 日期时间解析器
+ * <p>
+ * 按格式缓存 DateTimeFormatter；常用的 yyyy-MM-dd HH:mm:ss 与 ISO 格式直接按字符解析，
+ * 其它格式先检查是否匹配再解析，格式不匹配时返回空，不使用异常判断
+ * @author xchao
+ */
+public final class DateTimeParser {
+	private static final Map<String, DateTimeParser> PARSERS = new ConcurrentHashMap<>();
+	private static final Map<String, Layout> LAYOUTS = Map.ofEntries(
+			Map.entry("yyyy-MM-dd HH[:mm[:ss[.SSS]]]", new Layout(true, ' ', 1, 4, false)),
+			Map.entry("yyyy-MM-dd HH[:mm[:ss]]", new Layout(true, ' ', 1, 3, false)),
+			Map.entry("yyyy-MM-dd HH:mm:ss.SSS", new Layout(true, ' ', 4, 4, false)),
+			Map.entry("yyyy-MM-dd HH:mm:ss", new Layout(true, ' ', 3, 3, false)),
+			Map.entry("yyyy-MM-dd HH:mm", new Layout(true, ' ', 2, 2, false)),
+			Map.entry("yyyy-MM-dd'T'HH:mm:ss.SSS", new Layout(true, 'T', 4, 4, false)),
+			Map.entry("yyyy-MM-dd'T'HH:mm:ss", new Layout(true, 'T', 3, 3, false)),
+			Map.entry("yyyy-MM-dd", new Layout(true, ' ', 0, 0, false)),
+			Map.entry("yyyy[-MM[-dd]]", new Layout(true, ' ', 0, 0, true)),
+			Map.entry("HH[:mm[:ss]]", new Layout(false, ' ', 1, 3, true)),
+			Map.entry("HH:mm:ss", new Layout(false, ' ', 3, 3, false)),
+			Map.entry("HH:mm", new Layout(false, ' ', 2, 2, false)));
+	private final DateTimeFormatter formatter;
+	private final Layout layout;
+	
+	private DateTimeParser(String pattern) {
+		this.formatter = DateTimeFormatter.ofPattern(pattern);
+		this.layout = LAYOUTS.get(pattern.replace("uuuu", "yyyy"));
+	}
+	
+	/**
+	 * 获取指定格式的解析器，解析器按格式缓存
+	 * @param pattern 日期时间格式
+	 * @return 解析器
+	 */
+	@Nonnull
+	public static DateTimeParser of(@Nonnull String pattern) {
+		DateTimeParser parser = PARSERS.get(pattern);
+		if (parser == null) {
+			parser = PARSERS.computeIfAbsent(pattern, DateTimeParser::new);
+		}
+		return parser;
+	}
+	
+	/**
+	 * 判断字符串是否为时间戳（可以使用 Long.parseLong 转换）
+	 * @param text 字符串
+	 * @return true-是
+	 */
+	public static boolean isNumeric(@Nonnull CharSequence text) {
+		int length = text.length(), start = 0;
+		if (length > 0 && (text.charAt(0) == '-' || text.charAt(0) == '+')) {
+			start = 1;
+		}
+		if (length == start || length - start > 19) {
+			return false;
+		}
+		for (int i = start; i < length; i++) {
+			char c = text.charAt(i);
+			if (c < '0' || c > '9') return false;
+		}
+		return true;
+	}
+	
+	@Nonnull
+	public final DateTimeFormatter getFormatter() {
+		return formatter;
+	}
+	
+	/**
+	 * 解析成 LocalDateTime
+	 * @param text 字符串
+	 * @return 解析结果，格式不匹配时为空
+	 */
+	@Nullable
+	public final LocalDateTime parseLocalDateTime(@Nonnull CharSequence text) {
+		long value = match(text);
+		if (value >= 0) {
+			return layout.date && layout.max > 0 ? LocalDateTime.of(date(value), time(value)) : null;
+		}
+		TemporalAccessor accessor = resolve(text);
+		if (accessor == null || !accessor.isSupported(EPOCH_DAY) || !accessor.isSupported(NANO_OF_DAY)) {
+			return null;
+		}
+		return LocalDateTime.from(accessor);
+	}
+	
+	/**
+	 * 解析成 LocalDate
+	 * @param text 字符串
+	 * @return 解析结果，格式不匹配时为空
+	 */
+	@Nullable
+	public final LocalDate parseLocalDate(@Nonnull CharSequence text) {
+		long value = match(text);
+		if (value >= 0) {
+			return layout.date ? date(value) : null;
+		}
+		TemporalAccessor accessor = resolve(text);
+		if (accessor == null || !accessor.isSupported(EPOCH_DAY)) {
+			return null;
+		}
+		return LocalDate.from(accessor);
+	}
+	
+	/**
+	 * 解析成 LocalTime
+	 * @param text 字符串
+	 * @return 解析结果，格式不匹配时为空
+	 */
+	@Nullable
+	public final LocalTime parseLocalTime(@Nonnull CharSequence text) {
+		long value = match(text);
+		if (value >= 0) {
+			return layout.max > 0 ? time(value) : null;
+		}
+		TemporalAccessor accessor = resolve(text);
+		if (accessor == null || !accessor.isSupported(NANO_OF_DAY)) {
+			return null;
+		}
+		return LocalTime.from(accessor);
+	}
+	
+	/**
+	 * 只按字符解析常用格式成 LocalDateTime，结果与 DateTimeFormatter 一致
+	 * @param text 字符串
+	 * @return 解析结果，不是常用格式或者不能确定结果时为空
+	 */
+	@Nullable
+	public final LocalDateTime fastLocalDateTime(@Nonnull CharSequence text) {
+		long value = match(text);
+		return value >= 0 && layout.date && layout.max > 0 ? LocalDateTime.of(date(value), time(value)) : null;
+	}
+	
+	/**
+	 * 只按字符解析常用格式成 LocalDate，结果与 DateTimeFormatter 一致
+	 * @param text 字符串
+	 * @return 解析结果，不是常用格式或者不能确定结果时为空
+	 */
+	@Nullable
+	public final LocalDate fastLocalDate(@Nonnull CharSequence text) {
+		long value = match(text);
+		return value >= 0 && layout.date ? date(value) : null;
+	}
+	
+	/**
+	 * 只按字符解析常用格式成 LocalTime，结果与 DateTimeFormatter 一致
+	 * @param text 字符串
+	 * @return 解析结果，不是常用格式或者不能确定结果时为空
+	 */
+	@Nullable
+	public final LocalTime fastLocalTime(@Nonnull CharSequence text) {
+		long value = match(text);
+		return value >= 0 && layout.max > 0 ? time(value) : null;
+	}
+	
+	// 先检查格式是否匹配，匹配后再转换，避免格式不匹配时创建异常
+	@Nullable
+	private TemporalAccessor resolve(CharSequence text) {
+		// 格式中没有纯数字的形式时，时间戳不需要再尝试解析
+		if (layout != null && !layout.numeric && isNumeric(text)) {
+			return null;
+		}
+		ParsePosition position = new ParsePosition(0);
+		if (formatter.parseUnresolved(text, position) == null || position.getIndex() < text.length()) {
+			return null;
+		}
+		try {
+			return formatter.parse(text);
+		} catch (DateTimeParseException e) {
+			return null;
+		}
+	}
+	
+	// 按常用格式解析，字段打包成 long：年(14位)月(4位)日(5位)时(5位)分(6位)秒(6位)毫秒(10位)
+	private long match(CharSequence text) {
+		if (layout == null) return -1;
+		int length = text.length(), pos = 0;
+		long year = 0, month = 0, day = 0, hour = 0, minute = 0, second = 0, millis = 0;
+		if (layout.date) {
+			if (length < 10 || text.charAt(4) != '-' || text.charAt(7) != '-') return -1;
+			year = digits(text, 0, 4);
+			month = digits(text, 5, 2);
+			day = digits(text, 8, 2);
+			if (year < 1 || month < 1 || month > 12 || day < 1) return -1;
+			if (day > Month.of((int) month).length(Year.isLeap(year))) return -1;
+			pos = 10;
+		}
+		if (layout.max > 0) {
+			if (layout.date && (pos >= length || text.charAt(pos++) != layout.separator)) return -1;
+			if (pos + 2 > length || (hour = digits(text, pos, 2)) < 0 || hour > 23) return -1;
+			pos += 2;
+			int fields = 1;
+			for (; fields < layout.max && pos < length; fields++) {
+				int width = fields < 3 ? 2 : 3;
+				if (pos + 1 + width > length) return -1;
+				long value = digits(text, pos + 1, width);
+				if (fields < 3) {
+					if (text.charAt(pos) != ':' || value < 0 || value > 59) return -1;
+					if (fields == 1) minute = value;
+					else second = value;
+				} else {
+					if (text.charAt(pos) != '.' || value < 0) return -1;
+					millis = value;
+				}
+				pos += 1 + width;
+			}
+			if (fields < layout.min) return -1;
+		}
+		if (pos != length) return -1;
+		return year << 36 | month << 32 | day << 27 | hour << 22 | minute << 16 | second << 10 | millis;
+	}
+	
+	// 解析固定位数的数字，包含非数字字符时返回 -1
+	private static long digits(CharSequence text, int offset, int width) {
+		long value = 0;
+		for (int i = offset; i < offset + width; i++) {
+			char c = text.charAt(i);
+			if (c < '0' || c > '9') return -1;
+			value = value * 10 + (c - '0');
+		}
+		return value;
+	}
+	
+	private static LocalDate date(long value) {
+		return LocalDate.of((int) (value >>> 36), (int) (value >>> 32 & 0xF), (int) (value >>> 27 & 0x1F));
+	}
+	
+	private static LocalTime time(long value) {
+		return LocalTime.of((int) (value >>> 22 & 0x1F), (int) (value >>> 16 & 0x3F),
+				(int) (value >>> 10 & 0x3F), (int) (value & 0x3FF) * 1_000_000);
+	}
+	
+	/**
+	 * 可以直接按字符解析的格式
+	 */
+	private static final class Layout {
+		// 是否包含 yyyy-MM-dd 日期部分
+		private final boolean date;
+		// 日期与时间之间的分隔符
+		private final char separator;
+		// 时间部分最少和最多的字段数（1-时，2-分，3-秒，4-毫秒）
+		private final int min, max;
+		// 格式是否可能匹配纯数字的字符串
+		private final boolean numeric;
+		
+		private Layout(boolean date, char separator, int min, int max, boolean numeric) {
+			this.separator = separator;
+			this.numeric = numeric;
+			this.date = date;
+			this.min = min;
+			this.max = max;
+		}
+	}
+}
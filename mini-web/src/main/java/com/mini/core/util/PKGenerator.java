@@ -15,28 +15,55 @@ public final class PKGenerator {
 			'a', 'b', 'c', 'd', 'e', 'f', 'g', 'h', 'j',//
 			'k', 'm', 'n', 'p', 'q', 'r', 's', 't',//
 			'u', 'v', 'w', 'x', 'y', 'z'};
-	private static WorkerId workerId;
+	private static volatile WorkerId workerId;
 	private static long workId = 0;
 	
 	public static void setWorkerId(long workId) {
 		PKGenerator.workId = workId;
 	}
 	
-	public static synchronized long nextId() {
-		if (PKGenerator.workerId == null) {
-			workerId = new WorkerId(workId);
-		}
-		return workerId.nextId();
+	/**
+	 * 设置主键生成器，用于配置时钟回拨策略和线程预留序列
+	 * @param workerId 主键生成器
+	 */
+	public static void setWorkerId(WorkerId workerId) {
+		PKGenerator.workerId = workerId;
+	}
+	
+	public static long nextId() {
+		return worker().nextId();
+	}
+	
+	/**
+	 * 批量生成主键
+	 * @param count 主键数量
+	 * @return 主键列表
+	 */
+	public static long[] nextIds(int count) {
+		return worker().nextIds(count);
 	}
 	
 	/**
 	 * 生成主键
 	 * @return 主键
 	 */
-	public static synchronized long id() {
+	public static long id() {
 		return PKGenerator.nextId();
 	}
 	
+	private static WorkerId worker() {
+		WorkerId worker = PKGenerator.workerId;
+		if (worker != null) {
+			return worker;
+		}
+		synchronized (PKGenerator.class) {
+			if (PKGenerator.workerId == null) {
+				workerId = new WorkerId(workId);
+			}
+			return PKGenerator.workerId;
+		}
+	}
+	
 	/**
 	 * 根据主键获取ID中的时间戳
 	 * @param id 主键
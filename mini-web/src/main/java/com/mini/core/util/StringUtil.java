@@ -6,6 +6,8 @@ import java.io.UnsupportedEncodingException;
 import java.net.*;
 import java.nio.charset.Charset;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
 
 import static java.lang.Character.isUpperCase;
 
@@ -22,6 +24,18 @@ public final class StringUtil extends StringUtils {
 	public static final String NUMBER = "\\d+";
 	public static final String LETTER = "\\w+";
 	
+	// 预编译的正则表达式，验证时不再重复编译
+	private static final Map<String, Pattern> PATTERNS = new ConcurrentHashMap<>();
+	private static final int PATTERNS_LIMIT = 512;
+	private static final Pattern PHONE_PATTERN = compile(PHONE);
+	private static final Pattern ID_CARD_PATTERN = compile(ID_CARD);
+	private static final Pattern EMAIL_PATTERN = compile(EMAIL);
+	private static final Pattern CHINESE_PATTERN = compile(CHINESE);
+	private static final Pattern REQUIRE_PATTERN = compile(REQUIRE);
+	private static final Pattern MOBILE_PATTERN = compile(MOBILE);
+	private static final Pattern NUMBER_PATTERN = compile(NUMBER);
+	private static final Pattern LETTER_PATTERN = compile(LETTER);
+	
 	/**
 	 * 验证字符串与正则表达式是否匹配
 	 * @param string 字符串
@@ -29,9 +43,35 @@ public final class StringUtil extends StringUtils {
 	 * @return true-是
 	 */
 	public static boolean isPattern(String string, String regex) {
-		return (string != null && string.matches(regex));
+		return string != null && isPattern(string, compile(regex));
+	}
+	
+	/**
+	 * 验证字符串与预编译的正则表达式是否匹配
+	 * @param string  字符串
+	 * @param pattern 正则表达式
+	 * @return true-是
+	 */
+	public static boolean isPattern(String string, Pattern pattern) {
+		return (string != null && pattern.matcher(string).matches());
 	}
 	
+	/**
+	 * 获取编译后的正则表达式，编译结果会被缓存
+	 * @param regex 正则表达式
+	 * @return 编译后的正则表达式
+	 */
+	public static Pattern compile(String regex) {
+		Pattern pattern = PATTERNS.get(regex);
+		if (pattern == null) {
+			pattern = Pattern.compile(regex);
+			// 动态生成的正则表达式过多时不再缓存
+			if (PATTERNS.size() < PATTERNS_LIMIT) {
+				PATTERNS.putIfAbsent(regex, pattern);
+			}
+		}
+		return pattern;
+	}
 	
 	/**
 	 * 验证传入字符串是否为邮箱格式
@@ -39,7 +79,7 @@ public final class StringUtil extends StringUtils {
 	 * @return true-是
 	 */
 	public static boolean isEmail(String string) {
-		return isPattern(string, EMAIL);
+		return isPattern(string, EMAIL_PATTERN);
 	}
 	
 	/**
@@ -48,7 +88,7 @@ public final class StringUtil extends StringUtils {
 	 * @return true-是
 	 */
 	public static boolean isPhone(String string) {
-		return isPattern(string, PHONE);
+		return isPattern(string, PHONE_PATTERN);
 	}
 	
 	/**
@@ -57,7 +97,7 @@ public final class StringUtil extends StringUtils {
 	 * @return true-是
 	 */
 	public static boolean isMobile(String string) {
-		return isPattern(string, MOBILE);
+		return isPattern(string, MOBILE_PATTERN);
 	}
 	
 	/**
@@ -66,7 +106,7 @@ public final class StringUtil extends StringUtils {
 	 * @return true-是
 	 */
 	public static boolean isMobilePhone(String string) {
-		return isPattern(string, MOBILE) || isPattern(string, PHONE);
+		return isPattern(string, MOBILE_PATTERN) || isPattern(string, PHONE_PATTERN);
 	}
 	
 	/**
@@ -75,7 +115,7 @@ public final class StringUtil extends StringUtils {
 	 * @return true-是
 	 */
 	public static boolean isLetter(String string) {
-		return isPattern(string, LETTER);
+		return isPattern(string, LETTER_PATTERN);
 	}
 	
 	/**
@@ -84,7 +124,7 @@ public final class StringUtil extends StringUtils {
 	 * @return true-是
 	 */
 	public static boolean isNumber(String string) {
-		return isPattern(string, NUMBER);
+		return isPattern(string, NUMBER_PATTERN);
 	}
 	
 	/**
@@ -93,7 +133,7 @@ public final class StringUtil extends StringUtils {
 	 * @return true-是
 	 */
 	public static boolean isChinese(String string) {
-		return isPattern(string, CHINESE);
+		return isPattern(string, CHINESE_PATTERN);
 	}
 	
 	/**
@@ -102,7 +142,7 @@ public final class StringUtil extends StringUtils {
 	 * @return true-是
 	 */
 	public static boolean isIdCard(String string) {
-		return isPattern(string, ID_CARD);
+		return isPattern(string, ID_CARD_PATTERN);
 	}
 	
 	/**
@@ -111,7 +151,7 @@ public final class StringUtil extends StringUtils {
 	 * @return true-是
 	 */
 	public static boolean isRequire(String string) {
-		return isPattern(string, REQUIRE);
+		return isPattern(string, REQUIRE_PATTERN);
 	}
 	
 	/**
@@ -1,11 +1,23 @@
 package com.mini.core.util;
 
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.io.Serializable;
 import java.util.EventListener;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
 
 import static java.lang.System.currentTimeMillis;
-import static org.apache.commons.lang3.Validate.isTrue;
 
+/**
+ * 雪花算法主键生成器
+ * <p>
+ * 最后使用的时间和序列打包在一个 AtomicLong 中，通过 CAS 分配序列，不加锁；
+ * 时钟回拨时按 {@link Backwards} 策略处理，回拨超过允许范围时抛出异常
+ * @author xchao
+ */
 public final class WorkerId implements Serializable, EventListener {
 	private static final long serialVersionUID = 27599062740655580L;
 	// 2016-01-01 08:00:00+8:00, 2016-01-01 00:00:00+0:00
@@ -14,30 +26,151 @@ public final class WorkerId implements Serializable, EventListener {
 	private static final long MAX_SEQUENCE = ~(-1L << 14);
 	// 集群编号部分(设计8位)
 	private static final long MAX_WORK = ~(-1L << 8);
-	//
-	private long lastTimestamp = -1L;
-	// 自增序列
-	private long sequence = 0;
+	// 最后使用的时间和序列：(时间 - BASE_TIME) << 14 | 序列
+	private final AtomicLong state = new AtomicLong();
+	// 每个线程预留的序列段：{下一个, 最后一个}
+	private transient volatile ThreadLocal<long[]> blocks;
+	// 时间来源，为空时使用系统时间
+	private final transient LongSupplier clock;
+	private volatile Backwards backwards = Backwards.WAIT;
+	private volatile long maxBackwards = 10;
+	private volatile int blockSize = 1;
 	// 集群编号
-	private long workerId;
+	private final long workerId;
 	
 	public WorkerId(long workerId) {
-		isTrue(workerId <= MAX_WORK);
+		this(workerId, null);
+	}
+	
+	/**
+	 * 使用指定时间来源创建主键生成器
+	 * @param workerId 集群编号
+	 * @param clock    时间来源（毫秒），为空时使用系统时间
+	 */
+	public WorkerId(long workerId, @Nullable LongSupplier clock) {
+		if (workerId < 0 || workerId > MAX_WORK) {
+			throw new IllegalArgumentException("WorkerId must be between 0 and " + MAX_WORK);
+		}
 		this.workerId = workerId;
+		this.clock = clock;
+	}
+	
+	/**
+	 * 设置时钟回拨处理策略
+	 * @param backwards    处理策略
+	 * @param maxBackwards 允许的最大回拨毫秒数
+	 */
+	public final void setBackwards(@Nonnull Backwards backwards, long maxBackwards) {
+		if (maxBackwards < 0) {
+			throw new IllegalArgumentException("maxBackwards cannot be less than 0");
+		}
+		this.maxBackwards = maxBackwards;
+		this.backwards = backwards;
+	}
+	
+	/**
+	 * 设置每个线程一次预留的序列数量，小于等于1时不预留
+	 * <p>
+	 * 预留的序列只在同一毫秒内有效，预留后主键在线程之间不再严格递增
+	 * @param blockSize 预留数量
+	 */
+	public final void setBlockSize(int blockSize) {
+		this.blockSize = (int) Math.min(Math.max(blockSize, 1), MAX_SEQUENCE + 1);
+	}
+	
+	public final long nextId() {
+		int size = blockSize;
+		if (size > 1) {
+			return nextBlockId(size);
+		}
+		return reserve(1) << 8 | workerId;
+	}
+	
+	/**
+	 * 批量生成主键，同一毫秒内的主键一次分配
+	 * @param count 主键数量
+	 * @return 主键列表
+	 */
+	@Nonnull
+	public final long[] nextIds(int count) {
+		if (count < 0) {
+			throw new IllegalArgumentException("count cannot be less than 0");
+		}
+		long[] ids = new long[count];
+		long worker = workerId;
+		for (int i = 0; i < count; ) {
+			long first = reserve(count - i);
+			long size = reserved(first, count - i);
+			for (long k = 0; k < size; k++) {
+				ids[i++] = (first + k) << 8 | worker;
+			}
+		}
+		return ids;
 	}
 	
-	public final synchronized long nextId() {
-		long now = System.currentTimeMillis();
-		while (sequence > MAX_SEQUENCE) {
-			now = currentTimeMillis();
-			if (lastTimestamp < now) {
-				sequence = 0;
+	// 从线程预留的序列段中取主键，序列段用完或者已经不是当前毫秒时重新预留
+	private long nextBlockId(int size) {
+		ThreadLocal<long[]> local = blocks;
+		if (local == null) {
+			blocks = local = ThreadLocal.withInitial(() -> new long[]{0, -1});
+		}
+		long[] block = local.get();
+		if (block[0] > block[1] || (block[0] >>> 14) != millis() - BASE_TIME) {
+			block[0] = reserve(size);
+			block[1] = block[0] + reserved(block[0], size) - 1;
+		}
+		return block[0]++ << 8 | workerId;
+	}
+	
+	// 分配最多 count 个同一毫秒内的连续序列，返回第一个序列的状态值
+	private long reserve(int count) {
+		for (; ; ) {
+			long prev = state.get();
+			long last = prev >>> 14;
+			long seq = (prev & MAX_SEQUENCE) + 1;
+			long now = millis() - BASE_TIME;
+			if (now > last) {
+				last = now;
+				seq = 0;
+			} else if (now < last && !backwards(last - now, seq)) {
+				continue;
+			}
+			// 当前毫秒的序列用完
+			if (seq > MAX_SEQUENCE) {
+				if (backwards != Backwards.LOGICAL || last + 1 - now > maxBackwards) {
+					Thread.onSpinWait();
+					continue;
+				}
+				last++;
+				seq = 0;
+			}
+			long end = Math.min(seq + count - 1, MAX_SEQUENCE);
+			if (state.compareAndSet(prev, last << 14 | end)) {
+				return last << 14 | seq;
 			}
 		}
-		this.lastTimestamp = now;
-		var time = (lastTimestamp - BASE_TIME) << 22;
-		var seq = (sequence++ & MAX_SEQUENCE) << 8;
-		return time | seq | (workerId & MAX_WORK);
+	}
+	
+	// 时钟回拨时按策略处理，返回 true 时继续使用最后的时间分配序列
+	private boolean backwards(long drift, long seq) {
+		Backwards policy = backwards;
+		if (policy == Backwards.LOGICAL && drift <= maxBackwards) {
+			return true;
+		}
+		if (policy == Backwards.WAIT && drift <= maxBackwards) {
+			LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(drift));
+			return false;
+		}
+		throw new IllegalStateException("Clock moved backwards by " + drift + "ms, sequence " + seq);
+	}
+	
+	private long millis() {
+		return clock == null ? currentTimeMillis() : clock.getAsLong();
+	}
+	
+	// 从第一个序列开始实际分配的数量
+	private static long reserved(long first, int count) {
+		return Math.min(count, MAX_SEQUENCE + 1 - (first & MAX_SEQUENCE));
 	}
 	
 	/**
@@ -48,4 +181,16 @@ public final class WorkerId implements Serializable, EventListener {
 	public static long millis(long id) {
 		return (id >> 22) + BASE_TIME;
 	}
+	
+	/**
+	 * 时钟回拨处理策略
+	 */
+	public enum Backwards {
+		/** 等待时钟追上最后使用的时间 */
+		WAIT,
+		/** 继续使用最后的时间（逻辑时钟），序列用完时逻辑时钟前进 */
+		LOGICAL,
+		/** 直接抛出异常 */
+		FAIL
+	}
 }
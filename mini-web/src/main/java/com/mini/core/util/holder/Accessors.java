@@ -0,0 +1,194 @@
+package com.mini.core.util.holder;
+
+import com.mini.core.util.ThrowsUtil;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static java.lang.invoke.MethodType.methodType;
+
+/**
+ * 构造方法、Getter、Setter 的调用方法
+ * <p>
+ * 优先使用 LambdaMetafactory 生成直接调用的实现；不能生成时（如目标类在其它类加载器中）使用方法句柄，
+ * 方法句柄也不能访问时再使用反射调用
+ * @author xchao
+ */
+final class Accessors {
+	private static final MethodType SUPPLIER = methodType(Object.class);
+	private static final MethodType FUNCTION = methodType(Object.class, Object.class);
+	private static final MethodType CONSUMER = methodType(void.class, Object.class, Object.class);
+	
+	private Accessors() {
+	}
+	
+	/**
+	 * 公共无参构造方法的调用方法
+	 * @param type 类型
+	 * @return 调用方法，不能创建实例的类型返回空
+	 */
+	@Nullable
+	@SuppressWarnings("unchecked")
+	static Supplier<Object> creator(@Nonnull Class<?> type) {
+		if (type.isInterface() || type.isArray() || type.isPrimitive()) return null;
+		if (Modifier.isAbstract(type.getModifiers())) return null;
+		try {
+			Constructor<?> constructor = type.getConstructor();
+			constructor.trySetAccessible();
+			MethodHandle handle = MethodHandles.lookup().unreflectConstructor(constructor);
+			Object lambda = lambda(type, Supplier.class, "get", SUPPLIER, handle);
+			if (lambda != null) return (Supplier<Object>) lambda;
+			MethodHandle h = handle.asType(SUPPLIER);
+			return () -> {
+				try {
+					return h.invokeExact();
+				} catch (Throwable e) {
+					throw ThrowsUtil.hidden(e);
+				}
+			};
+		} catch (ReflectiveOperationException e) {
+			return null;
+		}
+	}
+	
+	/**
+	 * Getter 方法的调用方法
+	 * @param getter Getter 方法
+	 * @return 调用方法
+	 */
+	@Nonnull
+	@SuppressWarnings("unchecked")
+	static Function<Object, Object> reader(@Nonnull Method getter) {
+		try {
+			getter.trySetAccessible();
+			MethodHandle handle = MethodHandles.lookup().unreflect(getter);
+			Object lambda = lambda(getter.getDeclaringClass(), Function.class, "apply", FUNCTION, handle);
+			if (lambda != null) return (Function<Object, Object>) lambda;
+			MethodHandle h = handle.asType(FUNCTION);
+			return instance -> {
+				try {
+					return h.invokeExact(instance);
+				} catch (Throwable e) {
+					throw ThrowsUtil.hidden(e);
+				}
+			};
+		} catch (IllegalAccessException e) {
+			return instance -> {
+				try {
+					return getter.invoke(instance);
+				} catch (ReflectiveOperationException ex) {
+					throw ThrowsUtil.hidden(ex);
+				}
+			};
+		}
+	}
+	
+	/**
+	 * Setter 方法的调用方法
+	 * @param setter Setter 方法
+	 * @return 调用方法
+	 */
+	@Nonnull
+	@SuppressWarnings("unchecked")
+	static BiConsumer<Object, Object> writer(@Nonnull Method setter) {
+		try {
+			setter.trySetAccessible();
+			MethodHandle handle = MethodHandles.lookup().unreflect(setter);
+			Object lambda = lambda(setter.getDeclaringClass(), BiConsumer.class, "accept", CONSUMER, handle);
+			Class<?> type = setter.getParameterTypes()[0];
+			if (lambda != null) return convert(type, (BiConsumer<Object, Object>) lambda);
+			return convert(type, writer(handle.asType(CONSUMER)));
+		} catch (IllegalAccessException e) {
+			return (instance, value) -> {
+				try {
+					setter.invoke(instance, value);
+				} catch (ReflectiveOperationException ex) {
+					throw ThrowsUtil.hidden(ex);
+				}
+			};
+		}
+	}
+	
+	private static BiConsumer<Object, Object> writer(MethodHandle h) {
+		return (instance, value) -> {
+			try {
+				h.invokeExact(instance, value);
+			} catch (Throwable e) {
+				throw ThrowsUtil.hidden(e);
+			}
+		};
+	}
+	
+	// 参数值转换与反射调用一致：基本类型参数只做拓宽转换（如 int 到 long），不做缩小转换；
+	// 参数为空或者类型不匹配时抛出 IllegalArgumentException
+	private static BiConsumer<Object, Object> convert(Class<?> type, BiConsumer<Object, Object> writer) {
+		if (!type.isPrimitive()) {
+			return (instance, value) -> {
+				if (value != null && !type.isInstance(value)) {
+					throw new IllegalArgumentException("argument type mismatch");
+				}
+				writer.accept(instance, value);
+			};
+		}
+		Class<?> wrapper = methodType(type).wrap().returnType();
+		return (instance, value) -> {
+			if (value != null && value.getClass() != wrapper) {
+				value = widen(type, value);
+			}
+			if (value == null) {
+				throw new IllegalArgumentException("argument type mismatch");
+			}
+			writer.accept(instance, value);
+		};
+	}
+	
+	// 基本类型的拓宽转换，不能转换时返回空
+	@Nullable
+	private static Object widen(Class<?> type, Object value) {
+		int from = rank(value.getClass()), to = rank(type);
+		if (from == 0 || to <= from || type == char.class) return null;
+		Number number = value instanceof Character ? Integer.valueOf((Character) value) : (Number) value;
+		if (type == short.class) return number.shortValue();
+		if (type == int.class) return number.intValue();
+		if (type == long.class) return number.longValue();
+		if (type == float.class) return number.floatValue();
+		return number.doubleValue();
+	}
+	
+	// 数字类型的拓宽顺序，char 与 short 之间不能互相转换
+	private static int rank(Class<?> type) {
+		if (type == byte.class || type == Byte.class) return 1;
+		if (type == short.class || type == Short.class || type == char.class || type == Character.class) return 2;
+		if (type == int.class || type == Integer.class) return 3;
+		if (type == long.class || type == Long.class) return 4;
+		if (type == float.class || type == Float.class) return 5;
+		if (type == double.class || type == Double.class) return 6;
+		return 0;
+	}
+	
+	// 在目标类中生成函数接口的实现，不能生成时返回空
+	@Nullable
+	private static Object lambda(Class<?> owner, Class<?> face, String name, MethodType erased, MethodHandle handle) {
+		try {
+			var lookup = MethodHandles.privateLookupIn(owner, MethodHandles.lookup());
+			MethodType type = handle.type().wrap();
+			if (erased.returnType() == void.class) {
+				type = type.changeReturnType(void.class);
+			}
+			return LambdaMetafactory.metafactory(lookup, name, methodType(face), erased, handle, type)
+					.getTarget().invoke();
+		} catch (Throwable e) {
+			return null;
+		}
+	}
+}
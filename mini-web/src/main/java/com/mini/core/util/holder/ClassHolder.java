@@ -7,20 +7,38 @@ import java.io.Serializable;
 import java.lang.annotation.Annotation;
 import java.util.Collection;
 import java.util.EventListener;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Supplier;
 
 import static java.util.Objects.hash;
 
+/**
+ * 类型的属性信息
+ * <p>
+ * 按类型缓存在 ClassValue 中，创建后不再修改；属性的读写与实例创建使用预先生成的调用方法
+ * @author xchao
+ */
 public final class ClassHolder<T> implements Serializable, EventListener {
-	private static final Map<Class<?>, ClassHolder<?>> M = new HashMap<>();
-	private final Map<String, FieldHolder<T>> fields = new HashMap<>();
+	private static final ClassValue<ClassHolder<?>> HOLDERS = new ClassValue<>() {
+		@Override
+		protected ClassHolder<?> computeValue(Class<?> type) {
+			return new ClassHolder<>(type);
+		}
+	};
+	private final transient Supplier<Object> creator;
+	private final Map<String, FieldHolder<T>> fields;
 	private final Class<T> type;
 	
 	private ClassHolder(@Nonnull Class<T> type) {
+		this.fields = FieldHolder.create(type);
+		this.creator = Accessors.creator(type);
 		this.type = type;
 	}
 	
+	public final String getName() {
+		return type.getSimpleName();
+	}
+	
 	public final <A extends Annotation> A[] getAnnotationsByType(Class<A> clazz) {
 		return this.type.getAnnotationsByType(clazz);
 	}
@@ -29,11 +47,6 @@ public final class ClassHolder<T> implements Serializable, EventListener {
 		return type.getAnnotation(clazz);
 	}
 	
-	public final ClassHolder<T> addField(@Nonnull FieldHolder<T> field) {
-		this.fields.put(field.getName(), field);
-		return this;
-	}
-	
 	public final FieldHolder<T> getField(String fieldName) {
 		return fields.get(fieldName);
 	}
@@ -46,19 +59,25 @@ public final class ClassHolder<T> implements Serializable, EventListener {
 		return fields.get(fieldName) != null;
 	}
 	
+	public final Map<String, FieldHolder<T>> getFields() {
+		return fields;
+	}
+	
 	public final Collection<FieldHolder<T>> fields() {
 		return fields.values();
 	}
 	
+	@SuppressWarnings("unchecked")
 	public final T createInstance() {
+		if (creator != null) {
+			return (T) creator.get();
+		}
+		// 没有公共无参构造方法或者不能创建实例的类型，抛出与反射调用相同的异常
 		try {
-			var constructor = type.getConstructor();
-			constructor.setAccessible(true);
-			return constructor.newInstance();
+			return type.getConstructor().newInstance();
 		} catch (ReflectiveOperationException e) {
 			throw ThrowsUtil.hidden(e);
 		}
-		
 	}
 	
 	public final Class<T> getType() {
@@ -71,11 +90,7 @@ public final class ClassHolder<T> implements Serializable, EventListener {
 	}
 	
 	@SuppressWarnings("unchecked")
-	public static synchronized <T> ClassHolder<T> create(Class<T> type) {
-		return (ClassHolder<T>) M.computeIfAbsent(type, key -> {
-			var holder = new ClassHolder<>(type);
-			FieldHolder.create(holder);
-			return holder;
-		});
+	public static <T> ClassHolder<T> create(Class<T> type) {
+		return (ClassHolder<T>) HOLDERS.get(type);
 	}
 }
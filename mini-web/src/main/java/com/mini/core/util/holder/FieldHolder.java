@@ -11,10 +11,15 @@ import java.io.Serializable;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
-import java.util.Optional;
-import java.util.stream.Stream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 
 public final class FieldHolder<T> implements Serializable {
+	private final transient BiConsumer<Object, Object> writer;
+	private final transient Function<Object, Object> reader;
 	private final PropertyDescriptor descriptor;
 	private final Method setter;
 	private final Method getter;
@@ -25,6 +30,9 @@ public final class FieldHolder<T> implements Serializable {
 		setter = des.getWriteMethod();
 		getter = des.getReadMethod();
 		descriptor = des;
+		// 创建时编译调用方法
+		reader = getter == null ? null : Accessors.reader(getter);
+		writer = setter == null ? null : Accessors.writer(setter);
 	}
 	
 	public final <A extends Annotation> A getAnnotation(Class<A> clazz) {
@@ -32,17 +40,13 @@ public final class FieldHolder<T> implements Serializable {
 	}
 	
 	/**
-	 * 调用属性的Setter方法
+	 * 调用属性的Setter方法，没有 Setter 方法时不设置
 	 * @param instance 属性对象
 	 * @param value    属性值
 	 */
 	public final void setValue(Object instance, Object value) {
-		try {
-			if (this.setter == null) return;
-			setter.invoke(instance, value);
-		} catch (ReflectiveOperationException e) {
-			throw ThrowsUtil.hidden(e);
-		}
+		if (this.writer == null) return;
+		writer.accept(instance, value);
 	}
 	
 	/**
@@ -51,12 +55,8 @@ public final class FieldHolder<T> implements Serializable {
 	 * @return 方法返回值
 	 */
 	public final Object getValue(Object instance) {
-		try {
-			if (getter == null) return null;
-			return getter.invoke(instance);
-		} catch (ReflectiveOperationException e) {
-			throw ThrowsUtil.hidden(e);
-		}
+		if (reader == null) return null;
+		return reader.apply(instance);
 	}
 	
 	/**
@@ -79,6 +79,14 @@ public final class FieldHolder<T> implements Serializable {
 		return field;
 	}
 	
+	public final Method getSetter() {
+		return setter;
+	}
+	
+	public final Method getGetter() {
+		return getter;
+	}
+	
 	public final Class<?> getType() {
 		return descriptor.getPropertyType();
 	}
@@ -87,14 +95,16 @@ public final class FieldHolder<T> implements Serializable {
 		return descriptor.getName();
 	}
 	
-	public static synchronized <T> void create(@Nonnull ClassHolder<T> h) {
+	// 读取类型的全部属性，创建后不再修改
+	static <T> Map<String, FieldHolder<T>> create(@Nonnull Class<T> type) {
 		try {
-			Optional.ofNullable(Introspector.getBeanInfo(h.getType()))
-					.map(BeanInfo::getPropertyDescriptors).stream()
-					.flatMap(Stream::of)
-					.filter(des -> !"class".equals(des.getName()))
-					.map(d -> new FieldHolder<>(h.getType(), d))
-					.forEach(h::addField);
+			Map<String, FieldHolder<T>> fields = new HashMap<>();
+			BeanInfo info = Introspector.getBeanInfo(type);
+			for (PropertyDescriptor des : info.getPropertyDescriptors()) {
+				if ("class".equals(des.getName())) continue;
+				fields.put(des.getName(), new FieldHolder<>(type, des));
+			}
+			return Collections.unmodifiableMap(fields);
 		} catch (IntrospectionException e) {
 			throw ThrowsUtil.hidden(e);
 		}
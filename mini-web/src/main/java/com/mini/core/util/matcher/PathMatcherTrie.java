@@ -0,0 +1,233 @@
+package com.mini.core.util.matcher;
+
+import com.mini.core.util.matcher.PathMatcherAnt.AntPathStringMatcher;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.*;
+
+/**
+ * 路径匹配前缀树
+ * <p>
+ * 构建时将所有路径按分隔符切分成段并编译成一棵前缀树：
+ * <ul>
+ * <li>字面量分段使用 Hash 查找</li>
+ * <li>含有 “*”、“?”、“{var}” 的分段使用预编译的 {@link AntPathStringMatcher} 匹配，同时提取 URI 变量</li>
+ * <li>“**” 之后的部分交给 {@link PathMatcherAnt} 完成剩余匹配</li>
+ * </ul>
+ * 查找时只会对与路径前缀相符的少量候选项按 {@link PathMatcherAnt#getPatternComparator(String)} 取最精确的一个，
+ * 候选项保持映射的原始顺序，匹配结果与 “逐个调用 match 再用 comparator 取最小值” 的结果一致
+ * @param <T> 路径对应的值类型
+ */
+public final class PathMatcherTrie<T> implements EventListener {
+	private final PathMatcherAnt matcher = new PathMatcherAnt();
+	private final Map<String, Route<T>> exacts = new HashMap<>();
+	private final Node<T> root = new Node<>(null, null);
+	
+	/**
+	 * 根据路径映射创建前缀树
+	 * @param mappings 路径与值的映射
+	 */
+	public PathMatcherTrie(@Nonnull Map<String, T> mappings) {
+		int order = 0;
+		for (Map.Entry<String, T> entry : mappings.entrySet()) {
+			Route<T> route = new Route<>(entry.getKey(), entry.getValue(), order++);
+			exacts.put(route.pattern, route);
+			insert(route);
+		}
+	}
+	
+	// 将一个路径插入到前缀树中
+	private void insert(Route<T> route) {
+		Node<T> node = root;
+		for (String segment : matcher.tokenizePath(route.pattern)) {
+			if ("**".equals(segment)) {
+				node.deeps.add(route);
+				return;
+			}
+			if (!matcher.isPattern(segment)) {
+				node = node.literals.computeIfAbsent(segment, s -> {
+					return new Node<>(s, null); //
+				});
+				continue;
+			}
+			node = node.patterns.computeIfAbsent(segment, s -> {
+				return new Node<>(s, new AntPathStringMatcher(s));
+			});
+		}
+		node.ends.add(route);
+	}
+	
+	/**
+	 * 获取与路径匹配的最精确的值
+	 * @param path 需要匹配的路径
+	 * @return 匹配结果，没有匹配时返回 null
+	 */
+	@Nullable
+	public final Result<T> match(String path) {
+		if (path == null) {
+			return null;
+		}
+		Route<T> exact = exacts.get(path);
+		if (exact != null) {
+			return new Result<>(exact, new LinkedHashMap<>());
+		}
+		Search<T> search = new Search<>(path, matcher.tokenizePath(path));
+		search(search, root, 0, new LinkedHashMap<>());
+		if (search.results.isEmpty()) {
+			return null;
+		}
+		if (search.results.size() == 1) {
+			return search.results.get(0);
+		}
+		// 按映射的原始顺序排列后取最精确的一个，与 Stream.min 的取值规则一致
+		search.results.sort(Comparator.comparingInt(r -> r.order));
+		Comparator<String> comparator = matcher.getPatternComparator(path);
+		Result<T> result = search.results.get(0);
+		for (int i = 1; i < search.results.size(); i++) {
+			Result<T> next = search.results.get(i);
+			if (comparator.compare(result.pattern, next.pattern) > 0) {
+				result = next;
+			}
+		}
+		return result;
+	}
+	
+	// 深度优先查找所有匹配的分支
+	private void search(Search<T> search, Node<T> node, int index, Map<String, String> variables) {
+		// “**” 结尾或者中间含有 “**” 的路径交给 PathMatcherAnt 处理剩余部分
+		for (Route<T> route : node.deeps) {
+			if (route.leading != search.leading) continue;
+			Map<String, String> values = new LinkedHashMap<>();
+			if (matcher.doMatch(route.pattern, search.path, true, values)) {
+				search.results.add(new Result<>(route, values));
+			}
+		}
+		// 路径已经匹配完成
+		if (index >= search.dirs.length) {
+			for (Route<T> route : node.ends) {
+				if (route.leading != search.leading) continue;
+				if (route.trailing != search.trailing) continue;
+				search.results.add(new Result<>(route, variables));
+			}
+			// 与 PathMatcherAnt 一致：“a/*” 可以匹配 “a/”
+			Node<T> star = node.patterns.get("*");
+			if (star != null && search.trailing) {
+				for (Route<T> route : star.ends) {
+					if (route.leading != search.leading) continue;
+					search.results.add(new Result<>(route, variables));
+				}
+			}
+			return;
+		}
+		// 字面量分段
+		String dir = search.dirs[index];
+		Node<T> literal = node.literals.get(dir);
+		if (literal != null) {
+			search(search, literal, index + 1, variables);
+		}
+		// 通配符与变量分段
+		for (Node<T> child : node.patterns.values()) {
+			Map<String, String> values = new LinkedHashMap<>(variables);
+			if (child.matcher.matchStrings(dir, values)) {
+				search(search, child, index + 1, values);
+			}
+		}
+	}
+	
+	/**
+	 * 匹配结果
+	 * @param <T> 路径对应的值类型
+	 */
+	public static final class Result<T> implements EventListener {
+		private final Map<String, String> variables;
+		private final String pattern;
+		private final int order;
+		private final T value;
+		
+		private Result(Route<T> route, Map<String, String> variables) {
+			this.variables = variables;
+			this.pattern = route.pattern;
+			this.order = route.order;
+			this.value = route.value;
+		}
+		
+		/**
+		 * 获取匹配的路径
+		 * @return 匹配的路径
+		 */
+		@Nonnull
+		public final String getPattern() {
+			return pattern;
+		}
+		
+		/**
+		 * 获取路径对应的值
+		 * @return 路径对应的值
+		 */
+		@Nonnull
+		public final T getValue() {
+			return value;
+		}
+		
+		/**
+		 * 获取路径中提取出来的 URI 变量
+		 * @return URI 变量
+		 */
+		@Nonnull
+		public final Map<String, String> getVariables() {
+			return variables;
+		}
+	}
+	
+	// 前缀树节点
+	private static final class Node<T> {
+		private final Map<String, Node<T>> literals = new HashMap<>();
+		private final Map<String, Node<T>> patterns = new LinkedHashMap<>();
+		private final List<Route<T>> ends = new ArrayList<>();
+		private final List<Route<T>> deeps = new ArrayList<>();
+		private final AntPathStringMatcher matcher;
+		private final String segment;
+		
+		private Node(String segment, AntPathStringMatcher matcher) {
+			this.segment = segment;
+			this.matcher = matcher;
+		}
+		
+		@Override
+		public String toString() {
+			return String.valueOf(segment);
+		}
+	}
+	
+	// 注册的路径信息
+	private static final class Route<T> {
+		private final boolean leading, trailing;
+		private final String pattern;
+		private final int order;
+		private final T value;
+		
+		private Route(String pattern, T value, int order) {
+			this.leading = pattern.startsWith(PathMatcherAnt.DEFAULT_PATH_SEPARATOR);
+			this.trailing = pattern.endsWith(PathMatcherAnt.DEFAULT_PATH_SEPARATOR);
+			this.pattern = pattern;
+			this.value = value;
+			this.order = order;
+		}
+	}
+	
+	// 单次查找的上下文信息
+	private static final class Search<T> {
+		private final List<Result<T>> results = new ArrayList<>(2);
+		private final boolean leading, trailing;
+		private final String[] dirs;
+		private final String path;
+		
+		private Search(String path, String[] dirs) {
+			this.leading = path.startsWith(PathMatcherAnt.DEFAULT_PATH_SEPARATOR);
+			this.trailing = path.endsWith(PathMatcherAnt.DEFAULT_PATH_SEPARATOR);
+			this.path = path;
+			this.dirs = dirs;
+		}
+	}
+}
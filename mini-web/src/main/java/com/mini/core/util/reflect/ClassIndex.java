@@ -0,0 +1,202 @@
+package com.mini.core.util.reflect;
+
+import org.objectweb.asm.AnnotationVisitor;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.Annotation;
+import java.lang.annotation.Inherited;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.Callable;
+
+import static org.objectweb.asm.ClassReader.*;
+
+/**
+ * 编译期生成的类型索引
+ * <p>
+ * 由 mini-processor 在编译时写入 {@value #LOCATION}，Properties 格式：键为类的全名（内部类使用 $），
+ * 公开类的值为类上（包括继承的）注解全名，多个使用逗号分隔，非公开类的值为 {@value #NON_PUBLIC}；
+ * 扫描时仍以类路径中实际存在的 .class 文件为准，索引中有记录的类直接使用索引判断，
+ * 没有记录的类（如生成索引后由其它工具编译的类）读取 .class 文件头判断，只加载符合条件的类，并且不初始化
+ * @author xchao
+ */
+public final class ClassIndex {
+	public static final String LOCATION = "META-INF/mini/class.index";
+	public static final String NON_PUBLIC = "-";
+	public static final ClassIndex EMPTY = new ClassIndex(Collections.emptyMap());
+	private final Map<String, String> types;
+	
+	private ClassIndex(Map<String, String> types) {
+		this.types = types;
+	}
+	
+	/**
+	 * 读取索引文件
+	 * @param stream 索引文件输入流
+	 * @return 类型索引
+	 */
+	@Nonnull
+	public static ClassIndex read(@Nonnull InputStream stream) throws IOException {
+		try (InputStream in = stream) {
+			Properties properties = new Properties();
+			properties.load(in);
+			// 扫描时并行读取，不使用同步的 Properties
+			Map<String, String> types = new HashMap<>();
+			properties.stringPropertyNames().forEach(k -> types.put(k, properties.getProperty(k)));
+			return new ClassIndex(types);
+		}
+	}
+	
+	/**
+	 * 索引中是否有指定类的记录
+	 * <p>
+	 * 匿名类和局部类（如 Outer$1、Outer$1Local）不会写入索引，外部类有记录时视为有记录
+	 * @param className 类全名
+	 * @return true-有记录
+	 */
+	public final boolean contains(@Nonnull String className) {
+		if (types.containsKey(className)) return true;
+		String outer = outer(className);
+		return outer != null && types.containsKey(outer);
+	}
+	
+	/**
+	 * 根据索引判断是否需要加载该类，只对 {@link #contains(String)} 为 true 的类有效
+	 * <p>
+	 * 可以继承的注解还取决于父类，只判断是否为公开类，加载后再判断
+	 * @param className  类全名
+	 * @param annotation 指定注解，为空时不判断注解
+	 * @return true-需要加载
+	 */
+	public final boolean matches(@Nonnull String className, @Nullable Class<? extends Annotation> annotation) {
+		// 匿名类和局部类一定不是公开类
+		if (outer(className) != null) return false;
+		String annotations = types.get(className);
+		if (annotations == null || NON_PUBLIC.equals(annotations)) {
+			return false;
+		}
+		if (annotation == null || annotation.isAnnotationPresent(Inherited.class)) {
+			return true;
+		}
+		return contains(annotations, annotation.getName());
+	}
+	
+	// 匿名类和局部类的外部类名称，$ 后面以数字开头，其它类返回空
+	@Nullable
+	private static String outer(String className) {
+		int index = className.lastIndexOf('$');
+		if (index <= 0 || index == className.length() - 1) {
+			return null;
+		}
+		if (!Character.isDigit(className.charAt(index + 1))) {
+			return null;
+		}
+		return className.substring(0, index);
+	}
+	
+	// 逗号分隔的注解列表中是否包含指定注解
+	private static boolean contains(String annotations, String name) {
+		for (int from = 0; (from = annotations.indexOf(name, from)) >= 0; from += name.length()) {
+			int end = from + name.length();
+			if ((from == 0 || annotations.charAt(from - 1) == ',') //
+					&& (end == annotations.length() || annotations.charAt(end) == ',')) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * 获取注解在 .class 文件中的描述符
+	 * @param annotation 指定注解
+	 * @return 描述符，注解为空或者注解可以继承（需要加载后判断）时为空
+	 */
+	@Nullable
+	static String descriptor(@Nullable Class<? extends Annotation> annotation) {
+		if (annotation == null || annotation.isAnnotationPresent(Inherited.class)) {
+			return null;
+		}
+		return Type.getDescriptor(annotation);
+	}
+	
+	/**
+	 * 只读取 .class 文件头判断是否需要加载该类
+	 * <p>
+	 * 不能读取的文件（如高于 ASM 支持版本的 .class 文件）返回 true，加载后再判断
+	 * @param stream     .class 文件输入流
+	 * @param descriptor 指定注解的描述符，为空时不判断注解
+	 * @return true-需要加载
+	 */
+	static boolean accept(@Nonnull Callable<InputStream> stream, @Nullable String descriptor) {
+		try (InputStream in = stream.call()) {
+			byte[] bytes = in.readAllBytes();
+			ClassReader reader = new ClassReader(bytes);
+			if ((reader.getAccess() & Opcodes.ACC_PUBLIC) == 0) {
+				return false;
+			}
+			if (descriptor == null) return true;
+			// 常量池中没有注解描述符时，类上一定没有该注解
+			if (!contains(bytes, descriptor.getBytes(StandardCharsets.UTF_8))) {
+				return false;
+			}
+			boolean[] found = {false};
+			reader.accept(new ClassVisitor(Opcodes.ASM9) {
+				@Override
+				public AnnotationVisitor visitAnnotation(String desc, boolean visible) {
+					found[0] |= visible && descriptor.equals(desc);
+					return null;
+				}
+			}, SKIP_CODE | SKIP_DEBUG | SKIP_FRAMES);
+			return found[0];
+		} catch (Exception ignored) {
+			return true;
+		}
+	}
+	
+	// 字节数组中是否包含指定的字节序列
+	private static boolean contains(byte[] bytes, byte[] target) {
+		outer:
+		for (int i = 0, last = bytes.length - target.length; i <= last; i++) {
+			if (bytes[i] != target[0]) continue;
+			for (int j = 1; j < target.length; j++) {
+				if (bytes[i + j] != target[j]) continue outer;
+			}
+			return true;
+		}
+		return false;
+	}
+	
+	/**
+	 * 加载类（不初始化），只保留 Public 修饰并且带指定注解的类
+	 * @param set         扫描结果容器
+	 * @param classNames  类名称
+	 * @param annotation  指定注解
+	 * @param classLoader 类加载器
+	 */
+	static void load(Set<Class<?>> set, Collection<String> classNames, Class<? extends Annotation> annotation,
+			ClassLoader classLoader) {
+		for (String className : classNames) {
+			try {
+				Class<?> clazz = Class.forName(className, false, classLoader);
+				// 加载类不为Public修饰的类时，不处理
+				if (!Modifier.isPublic(clazz.getModifiers())) {
+					continue;
+				}
+				// 指定注解，但注解为空时，不处理
+				if (annotation != null && clazz.getAnnotation(annotation) == null) {
+					continue;
+				}
+				set.add(clazz);
+			} catch (Exception | Error ignored) {
+			}
+		}
+	}
+}
@@ -3,16 +3,29 @@ package com.mini.core.util.reflect;
 import org.apache.commons.lang3.StringUtils;
 
 import java.lang.annotation.Annotation;
-import java.lang.reflect.Modifier;
 import java.net.JarURLConnection;
 import java.net.URL;
 import java.net.URLConnection;
-import java.util.Enumeration;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.*;
 import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+import static java.util.stream.Collectors.toList;
 
 public class ClassScannerJar implements ClassScanner {
+	private final ClassLoader classLoader;
+	
+	public ClassScannerJar() {
+		this(ClassScannerJar.class.getClassLoader());
+	}
+	
+	/**
+	 * 使用指定的类加载器查找和加载类
+	 * @param classLoader 类加载器
+	 */
+	public ClassScannerJar(ClassLoader classLoader) {
+		this.classLoader = classLoader;
+	}
 	
 	@Override
 	public Set<Class<?>> scanner(String packageName, Class<? extends Annotation> annotation) {
@@ -26,7 +39,6 @@ public class ClassScannerJar implements ClassScanner {
 			if (StringUtils.isBlank(packageName)) return;
 			
 			String packagePath = ClassScanner.packageNameToFilePath(packageName);
-			ClassLoader classLoader = ClassScannerPath.class.getClassLoader();
 			for (Enumeration<URL> urls = classLoader.getResources(packagePath); urls.hasMoreElements(); ) {
 				URL url = urls.nextElement();
 				if (!"jar".equalsIgnoreCase(url.getProtocol().toLowerCase())) {
@@ -36,40 +48,42 @@ public class ClassScannerJar implements ClassScanner {
 				if (!(urlConnection instanceof JarURLConnection)) {
 					continue;
 				}
-				JarURLConnection conn = (JarURLConnection) urlConnection;
-				for (Enumeration<JarEntry> jar = conn.getJarFile().entries(); jar.hasMoreElements(); ) {
-					try {
+				try {
+					JarFile jarFile = ((JarURLConnection) urlConnection).getJarFile();
+					// Jar 包中有编译期生成的索引时，索引中有记录的类直接使用索引判断
+					JarEntry file = jarFile.getJarEntry(ClassIndex.LOCATION);
+					ClassIndex index = file != null ? ClassIndex.read(jarFile.getInputStream(file)) : ClassIndex.EMPTY;
+					// 索引中没有记录的类只读取指定包下 .class 文件的文件头，过滤后再加载
+					Map<JarEntry, String> entries = new HashMap<>();
+					for (Enumeration<JarEntry> jar = jarFile.entries(); jar.hasMoreElements(); ) {
 						JarEntry entry = jar.nextElement();
-						
-						if (entry.getName() == null) continue;
-						if (!entry.getName().toLowerCase().endsWith(".class")) {
+						String name = entry.getName();
+						if (name == null || !name.startsWith(packagePath + "/")) continue;
+						if (!name.toLowerCase().endsWith(".class")) {
 							continue;
 						}
-						// 获取类名
-						String className = entry.getName().replaceAll("([/\\\\])", ".");
-						className = className.substring(0, className.length() - 6);
-						if (StringUtils.isBlank(className)) continue;
-						
-						//noinspection DuplicatedCode
-						Class<?> clazz = Class.forName(className);
-						// 加载类为空时，不处理
-						if (clazz == null) continue;
-						// 加载类不为Public修饰的类时，不处理
-						if (!Modifier.isPublic(clazz.getModifiers())) {
-							continue;
-						}
-						// 指定注解，但注解为空时，不处理
-						if (annotation != null && clazz.getAnnotation(annotation) == null) {
-							continue;
-						}
-						set.add(clazz);
-						
-					} catch (Exception | Error ignored) {
+						entries.put(entry, getClassName(name));
 					}
+					String descriptor = ClassIndex.descriptor(annotation);
+					List<String> names = entries.entrySet().parallelStream()
+							.filter(e -> index.contains(e.getValue()) ? index.matches(e.getValue(), annotation)
+									: ClassIndex.accept(() -> jarFile.getInputStream(e.getKey()), descriptor))
+							.map(Map.Entry::getValue)
+							.collect(toList());
+					ClassIndex.load(set, names, annotation, classLoader);
+				} catch (Exception | Error ignored) {
 				}
-				
 			}
 		} catch (Exception | Error ignored) {
 		}
 	}
+	
+	/**
+	 * 根据 .class 文件在 Jar 包中的路径获取类全名
+	 * @param entryName 文件路径
+	 */
+	private static String getClassName(String entryName) {
+		String className = entryName.replaceAll("([/\\\\])", ".");
+		return className.substring(0, className.length() - 6);
+	}
 }
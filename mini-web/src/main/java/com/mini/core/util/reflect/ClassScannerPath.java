@@ -4,16 +4,29 @@ import org.apache.commons.lang3.StringUtils;
 
 import java.io.File;
 import java.io.FileFilter;
+import java.io.FileInputStream;
 import java.lang.annotation.Annotation;
-import java.lang.reflect.Modifier;
 import java.net.URL;
-import java.util.Enumeration;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.*;
+
+import static java.util.stream.Collectors.toList;
 
 public class ClassScannerPath implements ClassScanner {
 	private static final FileFilter FILE_FILTER = file -> file.isDirectory()  //
 			|| StringUtils.endsWith(file.getName().toLowerCase(), ".class");
+	private final ClassLoader classLoader;
+	
+	public ClassScannerPath() {
+		this(ClassScannerPath.class.getClassLoader());
+	}
+	
+	/**
+	 * 使用指定的类加载器查找和加载类
+	 * @param classLoader 类加载器
+	 */
+	public ClassScannerPath(ClassLoader classLoader) {
+		this.classLoader = classLoader;
+	}
 	
 	@Override
 	public Set<Class<?>> scanner(String packageName, Class<? extends Annotation> annotation) {
@@ -26,44 +39,68 @@ public class ClassScannerPath implements ClassScanner {
 		try {
 			if (StringUtils.isBlank(packageName)) return;
 			
-			ClassLoader classLoader = ClassScannerPath.class.getClassLoader();
 			String packagePath = ClassScanner.packageNameToFilePath(packageName);
 			for (Enumeration<URL> urls = classLoader.getResources(packagePath); urls.hasMoreElements(); ) {
 				URL url = urls.nextElement();
 				if (!StringUtils.equalsIgnoreCase("file", url.getProtocol())) {
 					continue;
 				}
-				File[] files = new File(url.toURI()).listFiles(FILE_FILTER);
-				if (files == null || files.length == 0) {
-					continue;
-				}
-				for (File file : files) {
-					try {
-						if (file.isFile() && file.getName().toLowerCase().endsWith(".class")) {
-							String className = this.getClassName(packageName, file.getName());
-							Class<?> clazz = Class.forName(className);
-							// 加载类为空时，不处理
-							if (clazz == null) continue;
-							// 加载类不为Public修饰的类时，不处理
-							if (!Modifier.isPublic(clazz.getModifiers())) {
-								continue;
-							}
-							// 指定注解，但注解为空时，不处理
-							if (annotation != null && clazz.getAnnotation(annotation) == null) {
-								continue;
-							}
-							set.add(clazz);
-						}
-						// 处理下级包
-						scanner(set, packageName + "." + file.getName(), annotation);
-					} catch (Exception | Error ignored) {
-					}
+				try {
+					File directory = new File(url.toURI());
+					// 类路径根目录中有编译期生成的索引时，索引中有记录的类直接使用索引判断
+					File file = new File(getRoot(directory, packagePath), ClassIndex.LOCATION);
+					ClassIndex index = file.isFile() ? ClassIndex.read(new FileInputStream(file)) : ClassIndex.EMPTY;
+					// 索引中没有记录的类只读取 .class 文件头，过滤后再加载
+					Map<File, String> files = new HashMap<>();
+					this.listFiles(files, directory, packageName);
+					String descriptor = ClassIndex.descriptor(annotation);
+					List<String> names = files.entrySet().parallelStream()
+							.filter(e -> index.contains(e.getValue()) ? index.matches(e.getValue(), annotation)
+									: ClassIndex.accept(() -> new FileInputStream(e.getKey()), descriptor))
+							.map(Map.Entry::getValue)
+							.collect(toList());
+					ClassIndex.load(set, names, annotation, classLoader);
+				} catch (Exception | Error ignored) {
 				}
 			}
 		} catch (Exception | Error ignored) {
 		}
 	}
 	
+	/**
+	 * 递归获取目录下所有的 .class 文件和对应的类全名
+	 * @param files       结果容器
+	 * @param directory   目录
+	 * @param packageName 目录对应的包名
+	 */
+	private void listFiles(Map<File, String> files, File directory, String packageName) {
+		File[] children = directory.listFiles(FILE_FILTER);
+		if (children == null || children.length == 0) {
+			return;
+		}
+		for (File file : children) {
+			if (file.isFile()) {
+				files.put(file, this.getClassName(packageName, file.getName()));
+				continue;
+			}
+			// 处理下级包
+			listFiles(files, file, packageName + "." + file.getName());
+		}
+	}
+	
+	/**
+	 * 根据包目录获取类路径根目录
+	 * @param directory   包目录
+	 * @param packagePath 包路径
+	 */
+	private File getRoot(File directory, String packagePath) {
+		File root = directory;
+		for (int i = StringUtils.countMatches(packagePath, '/'); i >= 0 && root != null; i--) {
+			root = root.getParentFile();
+		}
+		return root;
+	}
+	
 	/**
 	 * 根据包名和 .class 文件名获取当前 .class 文件所在类的全名
 	 * @param packageName 包名
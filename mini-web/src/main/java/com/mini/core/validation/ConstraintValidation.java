@@ -4,4 +4,21 @@ import java.lang.annotation.Annotation;
 
 public interface ConstraintValidation<A extends Annotation> {
 	void validate(A annotation, Object value);
+	
+	/**
+	 * 启动时根据注解编译验证过程，可以预先处理注解中的参数（如正则表达式）
+	 * @param annotation 验证注解
+	 * @return 验证过程
+	 */
+	default Check compile(A annotation) {
+		return value -> validate(annotation, value);
+	}
+	
+	/**
+	 * 编译后的验证过程，验证失败时抛出 {@link ValidationException}
+	 */
+	@FunctionalInterface
+	interface Check {
+		void validate(Object value);
+	}
 }
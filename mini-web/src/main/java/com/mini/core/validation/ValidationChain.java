@@ -0,0 +1,72 @@
+package com.mini.core.validation;
+
+import com.google.inject.Injector;
+
+import javax.annotation.Nonnull;
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.EventListener;
+import java.util.List;
+
+/**
+ * 编译后的验证链
+ * <p>
+ * 启动时解析参数或者字段上的验证注解，获取验证器实例并编译验证过程，
+ * 请求时依次执行，不再读取注解和查找验证器
+ * @author xchao
+ */
+public final class ValidationChain implements EventListener {
+	private final ConstraintValidation.Check[] checks;
+	private final Injector injector;
+	
+	private ValidationChain(Injector injector, ConstraintValidation.Check[] checks) {
+		this.injector = injector;
+		this.checks = checks;
+	}
+	
+	/**
+	 * 编译验证注解
+	 * @param injector    验证器所在的 Injector
+	 * @param annotations 参数或者字段上的注解
+	 * @return 验证链
+	 */
+	@Nonnull
+	@SuppressWarnings("unchecked")
+	public static ValidationChain compile(@Nonnull Injector injector, @Nonnull Annotation[] annotations) {
+		List<ConstraintValidation.Check> checks = new ArrayList<>(annotations.length);
+		for (Annotation annotation : annotations) {
+			Constraint constraint = annotation.annotationType().getAnnotation(Constraint.class);
+			if (constraint == null) continue;
+			var validation = (ConstraintValidation<Annotation>) injector.getInstance(constraint.value());
+			checks.add(validation.compile(annotation));
+		}
+		return new ValidationChain(injector, checks.toArray(new ConstraintValidation.Check[0]));
+	}
+	
+	/**
+	 * 是否由指定的 Injector 编译
+	 * @param injector Injector
+	 * @return true-是
+	 */
+	public final boolean isCompiledBy(Injector injector) {
+		return this.injector == injector;
+	}
+	
+	/**
+	 * 是否没有验证注解
+	 * @return true-没有
+	 */
+	public final boolean isEmpty() {
+		return checks.length == 0;
+	}
+	
+	/**
+	 * 验证数据，验证失败时抛出 {@link ValidationException}
+	 * @param value 数据
+	 */
+	public final void validate(Object value) {
+		for (ConstraintValidation.Check check : checks) {
+			check.validate(value);
+		}
+	}
+}
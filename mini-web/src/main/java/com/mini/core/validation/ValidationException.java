@@ -14,7 +14,8 @@ public final class ValidationException extends RuntimeException {
 	private final int status;
 	
 	public ValidationException(int status, String message, List<Object> args) {
-		super(defaultIfBlank(message, format("UnKnown Error:%d", status)));
+		// 验证失败是正常的业务流程，不需要收集异常栈
+		super(defaultIfBlank(message, format("UnKnown Error:%d", status)), null, false, false);
 		this.args = ofNullable(args).orElse(new ArrayList<>());
 		this.status = status;
 	}
@@ -4,15 +4,19 @@ import com.google.inject.Injector;
 import com.mini.core.util.holder.ClassHolder;
 import com.mini.core.util.reflect.MiniParameter;
 
+import javax.annotation.Nonnull;
 import java.lang.annotation.Annotation;
-import java.lang.reflect.AccessibleObject;
 import java.lang.reflect.Field;
 import java.lang.reflect.Parameter;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 import static java.util.Optional.ofNullable;
 
 public final class ValidationUtil implements EventListener {
+	// 参数或者字段编译后的验证链
+	private static final Map<Object, ValidationChain> CHAINS = new ConcurrentHashMap<>();
 	
 	@SuppressWarnings("unchecked")
 	public static <A extends Annotation, T> void validate(Injector injector, A annotation, T value) {
@@ -25,27 +29,18 @@ public final class ValidationUtil implements EventListener {
 	}
 	
 	public static <T> void validate(Injector injector, MiniParameter parameter, T value) {
-		Optional.ofNullable(parameter)
-				.map(MiniParameter::getAnnotations)
-				.stream()
-				.flatMap(Arrays::stream)
-				.forEach(f -> validate(injector, f, value));
+		if (parameter == null) return;
+		compile(injector, parameter).validate(value);
 	}
 	
 	public static <T> void validate(Injector injector, Parameter parameter, T value) {
-		Optional.ofNullable(parameter)
-				.map(Parameter::getAnnotations)
-				.stream()
-				.flatMap(Arrays::stream)
-				.forEach(f -> validate(injector, f, value));
+		if (parameter == null) return;
+		compile(injector, parameter).validate(value);
 	}
 	
 	public static <T> void validate(Injector injector, Field field, T value) {
-		Optional.ofNullable(field)
-				.map(AccessibleObject::getAnnotations)
-				.stream()
-				.flatMap(Arrays::stream)
-				.forEach(f -> validate(injector, f, value));
+		if (field == null) return;
+		compile(injector, field).validate(value);
 	}
 	
 	public static <T> void validate(Injector injector, Class<T> type, Object object) {
@@ -60,4 +55,47 @@ public final class ValidationUtil implements EventListener {
 	public static <T> void validate(Injector injector, T object) {
 		validate(injector, object.getClass(), object);
 	}
+	
+	/**
+	 * 获取参数编译后的验证链
+	 * @param injector  验证器所在的 Injector
+	 * @param parameter 参数信息
+	 * @return 验证链
+	 */
+	@Nonnull
+	public static ValidationChain compile(@Nonnull Injector injector, @Nonnull MiniParameter parameter) {
+		return compile(injector, parameter, parameter::getAnnotations);
+	}
+	
+	/**
+	 * 获取参数编译后的验证链
+	 * @param injector  验证器所在的 Injector
+	 * @param parameter 参数信息
+	 * @return 验证链
+	 */
+	@Nonnull
+	public static ValidationChain compile(@Nonnull Injector injector, @Nonnull Parameter parameter) {
+		return compile(injector, parameter, parameter::getAnnotations);
+	}
+	
+	/**
+	 * 获取字段编译后的验证链
+	 * @param injector 验证器所在的 Injector
+	 * @param field    字段信息
+	 * @return 验证链
+	 */
+	@Nonnull
+	public static ValidationChain compile(@Nonnull Injector injector, @Nonnull Field field) {
+		return compile(injector, field, field::getAnnotations);
+	}
+	
+	// 验证链与编译时的 Injector 不一致时重新编译
+	private static ValidationChain compile(Injector injector, Object key, Supplier<Annotation[]> annotations) {
+		ValidationChain chain = CHAINS.get(key);
+		if (chain == null || !chain.isCompiledBy(injector)) {
+			chain = ValidationChain.compile(injector, annotations.get());
+			CHAINS.put(key, chain);
+		}
+		return chain;
+	}
 }
@@ -1,11 +1,11 @@
 package com.mini.core.validation.constraint;
 
 import com.mini.core.util.Assert;
+import com.mini.core.util.StringUtil;
 import com.mini.core.validation.ConstraintValidation;
 import com.mini.core.validation.annotation.Pattern;
 
 import javax.inject.Singleton;
-import java.util.Optional;
 
 import static com.mini.core.util.StringUtil.isPattern;
 import static com.mini.core.validation.Validator.status;
@@ -23,17 +23,23 @@ import static com.mini.core.validation.Validator.status;
 public final class PatternConstraintValidation implements ConstraintValidation<Pattern> {
 	@Override
 	public final void validate(Pattern annotation, Object value) {
-		var validator = status(annotation.error());
-		validator.message(annotation.message());
-		// 数据验证
-		Optional.ofNullable(value).ifPresentOrElse(val -> {
-			if (val instanceof String) {
-				String v = (String) val;
-				var r = annotation.regex();
-				validator.is(isPattern(v, r));
-				return;
+		compile(annotation).validate(value);
+	}
+	
+	@Override
+	public final Check compile(Pattern annotation) {
+		var pattern = StringUtil.compile(annotation.regex());
+		return value -> {
+			if (value == null) {
+				if (!annotation.require()) return;
+				throw status(annotation.error()).message(annotation.message()).send();
+			}
+			if (!(value instanceof String)) {
+				Assert.error("Unsupported type");
+			}
+			if (!isPattern((String) value, pattern)) {
+				throw status(annotation.error()).message(annotation.message()).send();
 			}
-			Assert.error("Unsupported type");
-		}, () -> validator.is(!annotation.require()));
+		};
 	}
 }
@@ -0,0 +1,45 @@
+package com.mini.core.web.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * GET 请求的服务端响应缓存
+ * <p>
+ * 缓存键由请求URI、指定的参数和请求头组成；只缓存返回 200、数据模型状态为 OK 并且没有设置 Cookie 的响应；
+ * 所有拦截器执行后再读取缓存，命中时直接输出缓存的数据，不执行目标方法
+ * @author xchao
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ActionCache {
+	/**
+	 * 缓存有效时间（秒）
+	 * @return 有效时间
+	 */
+	long ttl() default 60;
+	
+	/**
+	 * 过期后其它请求正在重新生成时，仍然可以返回过期数据的时间（秒）
+	 * @return 过期数据可用时间
+	 */
+	long stale() default 0;
+	
+	/**
+	 * 缓存键包含的请求参数，为空时使用完整的查询字符串
+	 * @return 请求参数名称
+	 */
+	String[] params() default {};
+	
+	/**
+	 * 缓存键包含的请求头
+	 * @return 请求头名称
+	 */
+	String[] headers() default {};
+	
+	/**
+	 * 缓存标签，调用 {@link com.mini.core.web.support.ResponseCache#invalidate(String...)} 时清除
+	 * @return 缓存标签
+	 */
+	String[] tags() default {};
+}
@@ -0,0 +1,37 @@
+package com.mini.core.web.annotation;
+
+import com.mini.core.web.interceptor.ActionInvocation;
+
+import javax.annotation.Nullable;
+import java.lang.annotation.*;
+
+/**
+ * GET/HEAD 请求使用 ETag 验证缓存
+ * <p>
+ * 指定版本键提供者时生成强 ETag，与 If-None-Match 一致时不执行目标方法直接返回 304；
+ * 不指定时根据输出数据计算弱 ETag，一致时不返回数据；验证在所有拦截器执行之后进行
+ * @author xchao
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ETag {
+	/**
+	 * 版本键提供者，默认根据输出数据计算
+	 * @return 版本键提供者
+	 */
+	Class<? extends Version> value() default Version.class;
+	
+	/**
+	 * 版本键提供者，由依赖注入容器创建
+	 */
+	interface Version {
+		/**
+		 * 获取请求数据的版本键，这时拦截器已经执行，目标方法还未执行
+		 * @param invocation 请求信息
+		 * @return 版本键，为空时不使用 ETag
+		 */
+		@Nullable
+		String version(ActionInvocation invocation) throws Exception;
+	}
+}
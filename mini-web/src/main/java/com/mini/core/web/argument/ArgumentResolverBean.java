@@ -1,7 +1,7 @@
 package com.mini.core.web.argument;
 
+import com.google.inject.Injector;
 import com.mini.core.util.holder.ClassHolder;
-import com.mini.core.util.holder.FieldHolder;
 import com.mini.core.util.reflect.MiniParameter;
 import com.mini.core.web.annotation.Param;
 import com.mini.core.web.interceptor.ActionInvocation;
@@ -14,18 +14,19 @@ import java.util.EventListener;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
-import static com.mini.core.validation.ValidationUtil.validate;
-import static com.mini.core.web.argument.ArgumentResolverSupport.getBeanFunc;
 import static java.lang.Class.forName;
 import static java.util.Objects.nonNull;
 import static java.util.Optional.of;
 import static java.util.Optional.ofNullable;
 
 public abstract class ArgumentResolverBean implements ArgumentResolver, EventListener {
-	private static Map<Class<?>, ArgumentResolver> MAP = new ConcurrentHashMap<>();
+	private static final Map<Class<?>, Optional<Object>> MAP = new ConcurrentHashMap<>();
 	private static final String $RESOLVER$ = "_$$$RESOLVER$$$";
 	
+	private final Map<Class<?>, BindingPlan> plans = new ConcurrentHashMap<>();
+	
 	@Inject
 	private Configures configures;
 	
@@ -36,7 +37,8 @@ public abstract class ArgumentResolverBean implements ArgumentResolver, EventLis
 	@Override
 	public boolean supportParameter(MiniParameter parameter) {
 		return ofNullable(create(parameter.getType()))
-				.map(v -> v.supportParameter(parameter))
+				.filter(ArgumentResolver.class::isInstance)
+				.map(v -> ((ArgumentResolver) v).supportParameter(parameter))
 				.orElseGet(() -> {
 					var h = ClassHolder.create(parameter.getType());
 					return nonNull(h.getAnnotation(Param.class));
@@ -45,23 +47,26 @@ public abstract class ArgumentResolverBean implements ArgumentResolver, EventLis
 	
 	@Override
 	public final Object getValue(MiniParameter parameter, ActionInvocation invoke) {
-		return ofNullable(ArgumentResolverBean.create(parameter.getType()))
-				.filter(v -> v.supportParameter(parameter))
-				.map(v -> v.getValue(parameter, invoke)).orElseGet(() -> {
-					var holder = ClassHolder.create(parameter.getType());
-					Object result = holder.createInstance();
-					holder.fields().stream().filter(FieldHolder::hasSetter).forEach(h -> {
-						// 获取参数值
-						Object value = Optional.ofNullable(getBeanFunc(h.getType()))
-								.map(func -> func.apply(getValue(h.getName(), invoke)))
-								.orElse(null);
-						// 验证参数信息
-						validate(configures.getInjector(), h.getField(), value);
-						// 设置参数信息
-						h.setValue(result, value);
-					});
-					return result;
-				});
+		Object instance = ArgumentResolverBean.create(parameter.getType());
+		// 编译期生成的 ArgumentResolver
+		if (instance instanceof ArgumentResolver) {
+			var resolver = (ArgumentResolver) instance;
+			if (resolver.supportParameter(parameter)) {
+				return resolver.getValue(parameter, invoke);
+			}
+		}
+		// 编译期生成的 Binder
+		if (instance instanceof Binder) {
+			var binder = (Binder) instance;
+			return binder.bind(configures.getInjector(), name -> {
+				return getValue(name, invoke); //
+			});
+		}
+		// 编译并缓存绑定计划（使用启动后首次编译的验证链）
+		var plan = plans.computeIfAbsent(parameter.getType(), type -> {
+			return BindingPlan.compile(configures.getInjector(), type);
+		});
+		return plan.bind(name -> getValue(name, invoke));
 	}
 	
 	/**
@@ -72,26 +77,38 @@ public abstract class ArgumentResolverBean implements ArgumentResolver, EventLis
 	 */
 	protected abstract String[] getValue(String name, ActionInvocation invocation);
 	
+	// 获取编译期生成的 ArgumentResolver 或者 Binder，没有时也缓存查找结果
 	@Nullable
-	private static ArgumentResolver create(Class<?> type) {
-		if (ArgumentResolverBean.MAP.containsKey(type)) {
-			return ArgumentResolverBean.MAP.get(type);
-		}
+	private static Object create(Class<?> type) {
 		return ArgumentResolverBean.MAP.computeIfAbsent(type, key -> {
 			try {
 				Class<?> mType = forName(type.getCanonicalName() + $RESOLVER$);
-				of(mType).filter(ArgumentResolver.class::isAssignableFrom)
+				of(mType).filter(v -> ArgumentResolver.class.isAssignableFrom(v) || Binder.class.isAssignableFrom(v))
 						.orElseThrow(NoClassDefFoundError::new);
-				var mClass = mType.asSubclass(ArgumentResolver.class);
-				return mClass.getDeclaredConstructor().newInstance();
+				return of(mType.getDeclaredConstructor().newInstance());
 			} catch (ReflectiveOperationException | NoClassDefFoundError e) {
-				return null;
+				return Optional.empty();
 			}
-		});
+		}).orElse(null);
 	}
 	
 	@Override
 	public final int compareTo(@Nonnull ArgumentResolver o) {
 		return this.hashCode() - o.hashCode();
 	}
+	
+	/**
+	 * 编译期生成的 Bean 参数绑定器
+	 * <p>
+	 * 由 mini-processor 为带 {@link Param} 注解的类型生成，参数来源由具体的 ArgumentResolverBean 实现提供
+	 */
+	public interface Binder extends EventListener {
+		/**
+		 * 创建实例并绑定参数
+		 * @param injector 验证器所在的 Injector
+		 * @param source   根据参数名称获取参数值
+		 * @return 绑定后的实例
+		 */
+		Object bind(Injector injector, Function<String, String[]> source);
+	}
 }
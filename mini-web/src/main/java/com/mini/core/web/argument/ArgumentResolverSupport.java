@@ -8,8 +8,6 @@ import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
 import java.util.EventListener;
 import java.util.HashMap;
 import java.util.Map;
@@ -18,7 +16,6 @@ import java.util.stream.Stream;
 
 import static java.time.Instant.ofEpochMilli;
 import static java.time.ZoneId.systemDefault;
-import static java.time.format.DateTimeFormatter.ofPattern;
 import static java.util.Optional.ofNullable;
 
 public final class ArgumentResolverSupport implements Serializable, EventListener {
@@ -34,16 +31,14 @@ public final class ArgumentResolverSupport implements Serializable, EventListene
 	
 	// java.util.Date 类型的参数
 	private static final Function<? super String, ? extends java.util.Date> java_util_date = text -> {
-		try {
-			DateTimeFormatter format = ofPattern(configures.getDateTimeFormat());
-			LocalDateTime date = LocalDateTime.parse(text, format);
-			return java.sql.Timestamp.valueOf(date);
-		} catch (DateTimeParseException ignored) {}
-		try {
-			DateTimeFormatter format = ofPattern(configures.getDateFormat());
-			LocalDate date = LocalDate.parse(text, format);
+		LocalDateTime dateTime = configures.getDateTimeParser().parseLocalDateTime(text);
+		if (dateTime != null) {
+			return java.sql.Timestamp.valueOf(dateTime);
+		}
+		LocalDate date = configures.getDateParser().parseLocalDate(text);
+		if (date != null) {
 			return java.sql.Date.valueOf(date);
-		} catch (DateTimeParseException ignored) {}
+		}
 		return new java.util.Date(Long.parseLong(text));
 	};
 	
@@ -53,61 +48,58 @@ public final class ArgumentResolverSupport implements Serializable, EventListene
 	
 	// java.time.LocalDateTime 类型的参数
 	private static final Function<? super String, ? extends LocalDateTime> java_time_local_date_time = text -> {
-		try {
-			DateTimeFormatter format = ofPattern(configures.getDateTimeFormat());
-			return LocalDateTime.parse(text, format);
-		} catch (DateTimeParseException ignored) {}
+		LocalDateTime dateTime = configures.getDateTimeParser().parseLocalDateTime(text);
+		if (dateTime != null) {
+			return dateTime;
+		}
 		Instant instant = ofEpochMilli(Long.parseLong(text));
 		return LocalDateTime.ofInstant(instant, systemDefault());
 	};
 	
 	// java.time.LocalDate 类型的参数
 	private static final Function<? super String, ? extends LocalDate> java_time_local_date = text -> {
-		try {
-			DateTimeFormatter format = ofPattern(configures.getDateTimeFormat());
-			return LocalDate.parse(text, format);
-		} catch (DateTimeParseException ignored) {}
+		LocalDate date = configures.getDateTimeParser().parseLocalDate(text);
+		if (date != null) {
+			return date;
+		}
 		Instant instant = ofEpochMilli(Long.parseLong(text));
 		return LocalDate.ofInstant(instant, systemDefault());
 	};
 	
 	// java.time.LocalTime 类型的参数
 	private static final Function<? super String, ? extends LocalTime> java_time_local_time = text -> {
-		try {
-			DateTimeFormatter format = ofPattern(configures.getDateTimeFormat());
-			return LocalTime.parse(text, format);
-		} catch (DateTimeParseException ignored) {}
+		LocalTime time = configures.getDateTimeParser().parseLocalTime(text);
+		if (time != null) {
+			return time;
+		}
 		Instant instant = ofEpochMilli(Long.parseLong(text));
 		return LocalTime.ofInstant(instant, systemDefault());
 	};
 	
 	// java.sql.Timestamp 类型的参数
 	private static final Function<? super String, ? extends java.sql.Timestamp> java_sql_timestamp = text -> {
-		try {
-			DateTimeFormatter format = ofPattern(configures.getDateTimeFormat());
-			LocalDateTime date = LocalDateTime.parse(text, format);
-			return java.sql.Timestamp.valueOf(date);
-		} catch (DateTimeParseException ignored) {}
+		LocalDateTime dateTime = configures.getDateTimeParser().parseLocalDateTime(text);
+		if (dateTime != null) {
+			return java.sql.Timestamp.valueOf(dateTime);
+		}
 		return new java.sql.Timestamp(Long.parseLong(text));
 	};
 	
 	// java.sql.Date 类型的参数
 	private static final Function<? super String, ? extends java.sql.Date> java_sql_date = text -> {
-		try {
-			DateTimeFormatter format = ofPattern(configures.getDateFormat());
-			LocalDate date = LocalDate.parse(text, format);
+		LocalDate date = configures.getDateParser().parseLocalDate(text);
+		if (date != null) {
 			return java.sql.Date.valueOf(date);
-		} catch (DateTimeParseException ignored) {}
+		}
 		return new java.sql.Date(Long.parseLong(text));
 	};
 	
 	// java.sql.Time 类型的参数
 	private static final Function<? super String, ? extends java.sql.Time> java_sql_time = text -> {
-		try {
-			DateTimeFormatter format = ofPattern(configures.getTimeFormat());
-			LocalTime time = LocalTime.parse(text, format);
+		LocalTime time = configures.getTimeParser().parseLocalTime(text);
+		if (time != null) {
 			return java.sql.Time.valueOf(time);
-		} catch (DateTimeParseException ignored) {}
+		}
 		return new java.sql.Time(Long.parseLong(text));
 	};
 	
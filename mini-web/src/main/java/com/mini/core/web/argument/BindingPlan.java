@@ -0,0 +1,280 @@
+package com.mini.core.web.argument;
+
+import com.google.inject.Injector;
+import com.mini.core.util.holder.ClassHolder;
+import com.mini.core.util.holder.FieldHolder;
+import com.mini.core.validation.ValidationChain;
+import com.mini.core.validation.ValidationUtil;
+import com.mini.core.web.annotation.Param;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+import static com.mini.core.util.ThrowsUtil.hidden;
+import static java.lang.invoke.MethodType.methodType;
+
+/**
+ * Bean 参数的绑定计划
+ * <p>
+ * 每个类型编译一次：参数名称、字段类型对应的转换方法、方法句柄形式的构造方法与 Setter、
+ * 编译好的验证链；基本类型单独处理避免装箱，带 {@link Param} 注解的嵌套类型使用“字段名.属性名”绑定，
+ * 嵌套类型没有公共的无参构造方法时与不支持的类型一样设置为空
+ * @author xchao
+ */
+final class BindingPlan {
+	private final MethodHandle constructor;
+	private final Binding[] bindings;
+	
+	private BindingPlan(MethodHandle constructor, Binding[] bindings) {
+		this.constructor = constructor;
+		this.bindings = bindings;
+	}
+	
+	/**
+	 * 编译类型的绑定计划
+	 * @param injector 验证器所在的 Injector
+	 * @param type     Bean 类型
+	 * @return 绑定计划
+	 */
+	@Nonnull
+	static BindingPlan compile(@Nonnull Injector injector, @Nonnull Class<?> type) {
+		return compile(injector, type, "", new HashSet<>());
+	}
+	
+	private static BindingPlan compile(Injector injector, Class<?> type, String prefix, Set<Class<?>> parents) {
+		try {
+			parents.add(type);
+			MethodHandles.Lookup lookup = MethodHandles.lookup();
+			Constructor<?> init = type.getConstructor();
+			init.trySetAccessible();
+			MethodHandle constructor = lookup.unreflectConstructor(init).asType(methodType(Object.class));
+			List<Binding> bindings = new ArrayList<>();
+			for (FieldHolder<?> h : ClassHolder.create(type).fields()) {
+				if (!h.hasSetter()) continue;
+				Method setter = h.getSetter();
+				setter.trySetAccessible();
+				MethodHandle handle = lookup.unreflect(setter);
+				String name = prefix + h.getName();
+				ValidationChain chain = h.getField() == null ? null : ValidationUtil.compile(injector, h.getField());
+				if (chain != null && chain.isEmpty()) chain = null;
+				bindings.add(binding(injector, h.getType(), name, handle, chain, parents));
+			}
+			parents.remove(type);
+			return new BindingPlan(constructor, bindings.toArray(new Binding[0]));
+		} catch (ReflectiveOperationException e) {
+			throw hidden(e);
+		}
+	}
+	
+	private static Binding binding(Injector injector, Class<?> type, String name, MethodHandle setter,
+			ValidationChain chain, Set<Class<?>> parents) {
+		if (type == int.class) {
+			return new IntBinding(name, setter, chain);
+		}
+		if (type == long.class) {
+			return new LongBinding(name, setter, chain);
+		}
+		if (type == double.class) {
+			return new DoubleBinding(name, setter, chain);
+		}
+		if (type == boolean.class) {
+			return new BooleanBinding(name, setter, chain);
+		}
+		Function<String[], Object> func = ArgumentResolverSupport.getBeanFunc(type);
+		// 嵌套的 Bean 类型，忽略循环引用和不能创建实例的类型
+		if (func == null && !type.isArray() && !type.isPrimitive() && !parents.contains(type)
+				&& ClassHolder.create(type).getAnnotation(Param.class) != null && creatable(type)) {
+			BindingPlan plan = compile(injector, type, name + ".", parents);
+			return new NestedBinding(name, setter, chain, plan);
+		}
+		return new ObjectBinding(name, setter, chain, func);
+	}
+	
+	// 是否有公共的无参构造方法
+	private static boolean creatable(Class<?> type) {
+		if (type.isInterface() || Modifier.isAbstract(type.getModifiers())) {
+			return false;
+		}
+		try {
+			type.getConstructor();
+			return true;
+		} catch (NoSuchMethodException e) {
+			return false;
+		}
+	}
+	
+	/**
+	 * 创建实例并绑定参数
+	 * @param source 根据参数名称获取参数值
+	 * @return 绑定后的实例
+	 */
+	final Object bind(@Nonnull Function<String, String[]> source) {
+		try {
+			Object instance = constructor.invokeExact();
+			for (Binding binding : bindings) {
+				binding.bind(instance, source);
+			}
+			return instance;
+		} catch (RuntimeException | Error e) {
+			throw e;
+		} catch (Throwable e) {
+			throw hidden(e);
+		}
+	}
+	
+	// 绑定嵌套类型，没有任何参数时返回空
+	@Nullable
+	private Object bindNested(Function<String, String[]> source) throws Throwable {
+		Object instance = constructor.invokeExact();
+		boolean present = false;
+		for (Binding binding : bindings) {
+			present |= binding.bind(instance, source);
+		}
+		return present ? instance : null;
+	}
+	
+	// 取第一个参数值，为空时返回 null
+	@Nullable
+	private static String first(@Nullable String[] values) {
+		if (values == null || values.length == 0) {
+			return null;
+		}
+		String value = values[0];
+		return value == null || value.isBlank() ? null : value;
+	}
+	
+	/**
+	 * 单个属性的绑定
+	 */
+	private static abstract class Binding {
+		final ValidationChain chain;
+		final MethodHandle setter;
+		final String name;
+		
+		Binding(String name, MethodHandle setter, ValidationChain chain) {
+			this.setter = setter;
+			this.chain = chain;
+			this.name = name;
+		}
+		
+		/**
+		 * 绑定属性值
+		 * @return true-请求中有该参数
+		 */
+		abstract boolean bind(Object instance, Function<String, String[]> source) throws Throwable;
+	}
+	
+	private static final class IntBinding extends Binding {
+		IntBinding(String name, MethodHandle setter, ValidationChain chain) {
+			super(name, setter.asType(methodType(void.class, Object.class, int.class)), chain);
+		}
+		
+		@Override
+		boolean bind(Object instance, Function<String, String[]> source) throws Throwable {
+			String[] values = source.apply(name);
+			String text = first(values);
+			int value = text == null ? 0 : Integer.parseInt(text);
+			if (chain != null) chain.validate(value);
+			setter.invokeExact(instance, value);
+			return values != null;
+		}
+	}
+	
+	private static final class LongBinding extends Binding {
+		LongBinding(String name, MethodHandle setter, ValidationChain chain) {
+			super(name, setter.asType(methodType(void.class, Object.class, long.class)), chain);
+		}
+		
+		@Override
+		boolean bind(Object instance, Function<String, String[]> source) throws Throwable {
+			String[] values = source.apply(name);
+			String text = first(values);
+			long value = text == null ? 0L : Long.parseLong(text);
+			if (chain != null) chain.validate(value);
+			setter.invokeExact(instance, value);
+			return values != null;
+		}
+	}
+	
+	private static final class DoubleBinding extends Binding {
+		DoubleBinding(String name, MethodHandle setter, ValidationChain chain) {
+			super(name, setter.asType(methodType(void.class, Object.class, double.class)), chain);
+		}
+		
+		@Override
+		boolean bind(Object instance, Function<String, String[]> source) throws Throwable {
+			String[] values = source.apply(name);
+			String text = first(values);
+			double value = text == null ? 0D : Double.parseDouble(text);
+			if (chain != null) chain.validate(value);
+			setter.invokeExact(instance, value);
+			return values != null;
+		}
+	}
+	
+	private static final class BooleanBinding extends Binding {
+		BooleanBinding(String name, MethodHandle setter, ValidationChain chain) {
+			super(name, setter.asType(methodType(void.class, Object.class, boolean.class)), chain);
+		}
+		
+		@Override
+		boolean bind(Object instance, Function<String, String[]> source) throws Throwable {
+			String[] values = source.apply(name);
+			String text = first(values);
+			boolean value = text != null && Boolean.parseBoolean(text);
+			if (chain != null) chain.validate(value);
+			setter.invokeExact(instance, value);
+			return values != null;
+		}
+	}
+	
+	// 其它类型使用 ArgumentResolverSupport 中的转换方法，不支持的类型设置为空（基本类型保留默认值）
+	private static final class ObjectBinding extends Binding {
+		private final Function<String[], Object> func;
+		private final boolean primitive;
+		
+		ObjectBinding(String name, MethodHandle setter, ValidationChain chain, Function<String[], Object> func) {
+			super(name, setter.asType(methodType(void.class, Object.class, Object.class)), chain);
+			this.primitive = setter.type().parameterType(1).isPrimitive();
+			this.func = func;
+		}
+		
+		@Override
+		boolean bind(Object instance, Function<String, String[]> source) throws Throwable {
+			String[] values = func == null ? null : source.apply(name);
+			Object value = func == null ? null : func.apply(values);
+			if (chain != null) chain.validate(value);
+			if (value != null || !primitive) {
+				setter.invokeExact(instance, value);
+			}
+			return values != null;
+		}
+	}
+	
+	private static final class NestedBinding extends Binding {
+		private final BindingPlan plan;
+		
+		NestedBinding(String name, MethodHandle setter, ValidationChain chain, BindingPlan plan) {
+			super(name, setter.asType(methodType(void.class, Object.class, Object.class)), chain);
+			this.plan = plan;
+		}
+		
+		@Override
+		boolean bind(Object instance, Function<String, String[]> source) throws Throwable {
+			Object value = plan.bindNested(source);
+			if (chain != null) chain.validate(value);
+			setter.invokeExact(instance, value);
+			return value != null;
+		}
+	}
+}
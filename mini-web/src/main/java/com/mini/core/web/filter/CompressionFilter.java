@@ -0,0 +1,510 @@
+package com.mini.core.web.filter;
+
+import com.mini.core.web.support.config.Configures;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.servlet.*;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import javax.servlet.http.MappingMatch;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import static java.util.Objects.requireNonNullElse;
+import static javax.servlet.http.HttpServletResponse.*;
+
+/**
+ * 响应数据压缩过虑器
+ * <p>
+ * 根据 Accept-Encoding 使用 gzip 或者 deflate 压缩，数据达到最小长度后才开始压缩并边压缩边输出；
+ * 已经编码的数据、范围请求的数据和不在压缩类型中的数据不压缩；压缩后强 ETag 改为弱 ETag；
+ * 由默认 Servlet 处理的静态文件存在 .gz 文件时直接返回压缩文件
+ * @author xchao
+ */
+@Singleton
+public final class CompressionFilter implements Filter {
+	private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+	
+	@Inject
+	private Configures configures;
+	
+	@Override
+	public final void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+		if (!(request instanceof HttpServletRequest) || !(response instanceof HttpServletResponse)
+				|| request.getDispatcherType() != DispatcherType.REQUEST) {
+			chain.doFilter(request, response);
+			return;
+		}
+		HttpServletRequest req = (HttpServletRequest) request;
+		HttpServletResponse res = (HttpServletResponse) response;
+		Encoding encoding = negotiate(req.getHeader("Accept-Encoding"));
+		if (encoding == null) {
+			chain.doFilter(request, response);
+			return;
+		}
+		// 静态文件存在压缩文件
+		if (encoding == Encoding.GZIP && this.sendStaticGzip(req, res)) {
+			return;
+		}
+		CompressionResponse wrapper = new CompressionResponse(res, encoding);
+		try {
+			chain.doFilter(request, wrapper);
+		} finally {
+			// 异步请求在结束、出错或者超时时完成压缩
+			if (req.isAsyncStarted()) {
+				req.getAsyncContext().addListener(new FinishListener(wrapper));
+			} else wrapper.finish();
+		}
+	}
+	
+	// 解析 Accept-Encoding，相同权重时优先使用 gzip，q=0 表示不接受
+	static Encoding negotiate(String header) {
+		if (header == null || header.isBlank()) {
+			return null;
+		}
+		double gzip = -1, deflate = -1, any = -1;
+		for (String part : header.split(",")) {
+			int index = part.indexOf(';');
+			String name = (index < 0 ? part : part.substring(0, index)).trim();
+			double q = 1;
+			if (index >= 0) {
+				String param = part.substring(index + 1).trim();
+				if (param.regionMatches(true, 0, "q=", 0, 2)) try {
+					q = Double.parseDouble(param.substring(2).trim());
+				} catch (NumberFormatException e) {
+					q = 0;
+				}
+			}
+			if ("gzip".equalsIgnoreCase(name) || "x-gzip".equalsIgnoreCase(name)) {
+				gzip = q;
+			} else if ("deflate".equalsIgnoreCase(name)) {
+				deflate = q;
+			} else if ("*".equals(name)) {
+				any = q;
+			}
+		}
+		gzip = gzip < 0 ? any : gzip;
+		deflate = deflate < 0 ? any : deflate;
+		if (gzip > 0 && gzip >= deflate) {
+			return Encoding.GZIP;
+		}
+		return deflate > 0 ? Encoding.DEFLATE : null;
+	}
+	
+	// 静态文件存在未过期的 .gz 文件时直接返回，范围请求由容器处理原文件；
+	// 只检查映射到默认 Servlet 的请求，动态请求不查找文件
+	private boolean sendStaticGzip(HttpServletRequest request, HttpServletResponse response) throws IOException {
+		String method = request.getMethod();
+		if (!"GET".equals(method) && !"HEAD".equals(method) || request.getHeader("Range") != null) {
+			return false;
+		}
+		if (request.getHttpServletMapping().getMappingMatch() != MappingMatch.DEFAULT) {
+			return false;
+		}
+		String path = request.getServletPath() + requireNonNullElse(request.getPathInfo(), "");
+		String realPath = path.isEmpty() || path.endsWith("/") ? null : request.getServletContext().getRealPath(path);
+		if (realPath == null) {
+			return false;
+		}
+		Path file = Paths.get(realPath), gzip = Paths.get(realPath + ".gz");
+		if (!Files.isRegularFile(file) || !Files.isRegularFile(gzip)) {
+			return false;
+		}
+		long modified = Files.getLastModifiedTime(file).toMillis();
+		if (Files.getLastModifiedTime(gzip).toMillis() < modified) {
+			return false;
+		}
+		response.addHeader("Vary", "Accept-Encoding");
+		response.setDateHeader("Last-Modified", modified);
+		if (request.getDateHeader("If-Modified-Since") / 1000 >= modified / 1000) {
+			response.setStatus(SC_NOT_MODIFIED);
+			return true;
+		}
+		String type = request.getServletContext().getMimeType(path);
+		response.setContentType(requireNonNullElse(type, "application/octet-stream"));
+		response.setHeader("Content-Encoding", "gzip");
+		response.setContentLengthLong(Files.size(gzip));
+		if ("GET".equals(method)) {
+			Files.copy(gzip, response.getOutputStream());
+		}
+		return true;
+	}
+	
+	/**
+	 * 压缩编码，压缩器在两次响应之间复用
+	 */
+	enum Encoding {
+		GZIP("gzip", true), DEFLATE("deflate", false);
+		private final BlockingQueue<Deflater> pool = new ArrayBlockingQueue<>(64);
+		private final boolean nowrap;
+		private final String name;
+		
+		Encoding(String name, boolean nowrap) {
+			this.nowrap = nowrap;
+			this.name = name;
+		}
+		
+		private Deflater borrow(int level) {
+			Deflater deflater = pool.poll();
+			deflater = deflater == null ? new Deflater(level, nowrap) : deflater;
+			deflater.setLevel(level);
+			return deflater;
+		}
+		
+		private void release(Deflater deflater) {
+			deflater.reset();
+			if (!pool.offer(deflater)) {
+				deflater.end();
+			}
+		}
+	}
+	
+	/**
+	 * 异步请求完成时完成压缩，输出剩余数据和 gzip 尾部，并归还压缩器
+	 */
+	private static final class FinishListener implements AsyncListener {
+		private final CompressionResponse response;
+		
+		private FinishListener(CompressionResponse response) {
+			this.response = response;
+		}
+		
+		@Override
+		public void onComplete(AsyncEvent event) throws IOException {
+			response.finish();
+		}
+		
+		@Override
+		public void onTimeout(AsyncEvent event) throws IOException {
+			response.finish();
+		}
+		
+		@Override
+		public void onError(AsyncEvent event) throws IOException {
+			response.finish();
+		}
+		
+		@Override
+		public void onStartAsync(AsyncEvent event) {}
+	}
+	
+	/**
+	 * 压缩响应，第一次输出数据时根据响应头判断是否压缩
+	 */
+	private final class CompressionResponse extends HttpServletResponseWrapper {
+		private final Encoding encoding;
+		private CompressionStream stream;
+		private PrintWriter writer;
+		// 程序设置的数据长度，确定不压缩时才设置到响应中
+		private long contentLength = -1;
+		
+		private CompressionResponse(HttpServletResponse response, Encoding encoding) {
+			super(response);
+			this.encoding = encoding;
+		}
+		
+		@Override
+		public ServletOutputStream getOutputStream() throws IOException {
+			if (writer != null) {
+				throw new IllegalStateException("getWriter() has already been called");
+			}
+			return stream = stream != null ? stream : new CompressionStream(this);
+		}
+		
+		@Override
+		public PrintWriter getWriter() throws IOException {
+			if (writer == null) {
+				if (stream != null) {
+					throw new IllegalStateException("getOutputStream() has already been called");
+				}
+				stream = new CompressionStream(this);
+				writer = new PrintWriter(new OutputStreamWriter(stream, getCharacterEncoding()));
+			}
+			return writer;
+		}
+		
+		@Override
+		public void setContentLength(int len) {
+			setContentLengthLong(len);
+		}
+		
+		@Override
+		public void setContentLengthLong(long len) {
+			if (stream != null && stream.state != CompressionStream.UNDECIDED) {
+				if (stream.state == CompressionStream.IDENTITY) {
+					super.setContentLengthLong(len);
+				}
+				return;
+			}
+			this.contentLength = len;
+		}
+		
+		@Override
+		public void setHeader(String name, String value) {
+			if ("Content-Length".equalsIgnoreCase(name)) {
+				setContentLengthLong(value == null ? -1 : Long.parseLong(value.trim()));
+			} else super.setHeader(name, value);
+		}
+		
+		@Override
+		public void addHeader(String name, String value) {
+			if ("Content-Length".equalsIgnoreCase(name)) {
+				setContentLengthLong(value == null ? -1 : Long.parseLong(value.trim()));
+			} else super.addHeader(name, value);
+		}
+		
+		@Override
+		public void flushBuffer() throws IOException {
+			if (writer != null) {
+				writer.flush();
+			} else if (stream != null) {
+				stream.flush();
+			}
+			if (stream == null || stream.state != CompressionStream.UNDECIDED) {
+				super.flushBuffer();
+			}
+		}
+		
+		@Override
+		public void reset() {
+			super.reset();
+			resetBuffer();
+			this.contentLength = -1;
+		}
+		
+		@Override
+		public void resetBuffer() {
+			super.resetBuffer();
+			if (stream != null && stream.state == CompressionStream.UNDECIDED) {
+				stream.count = 0;
+			}
+		}
+		
+		// 完成压缩并输出剩余数据
+		private void finish() throws IOException {
+			if (writer != null) {
+				writer.flush();
+			}
+			if (stream != null) {
+				stream.finish();
+			} else if (contentLength >= 0) {
+				super.setContentLengthLong(contentLength);
+			}
+		}
+		
+		// 根据当前响应状态判断是否可以压缩
+		private boolean compressible(long length) {
+			int status = getStatus();
+			if (status < 200 || status >= 300 || status == SC_NO_CONTENT || status == SC_PARTIAL_CONTENT) {
+				return false;
+			}
+			if (containsHeader("Content-Encoding") || containsHeader("Content-Range")) {
+				return false;
+			}
+			if (length >= 0 && length < configures.getCompressionMinSize()) {
+				return false;
+			}
+			String type = getContentType();
+			if (type == null) {
+				return false;
+			}
+			int index = type.indexOf(';');
+			type = (index < 0 ? type : type.substring(0, index)).trim();
+			return configures.getCompressionMimeTypes().contains(type.toLowerCase());
+		}
+	}
+	
+	/**
+	 * 压缩输出流，数据未达到最小长度前先缓存，达到后开始压缩，未达到时原样输出
+	 */
+	private final class CompressionStream extends ServletOutputStream {
+		private static final int UNDECIDED = 0, IDENTITY = 1, COMPRESS = 2, FINISHED = 3;
+		private final CompressionResponse response;
+		private final byte[] single = new byte[1];
+		private final byte[] pending;
+		private ServletOutputStream output;
+		private Deflater deflater;
+		private byte[] buffer;
+		private CRC32 crc;
+		private boolean nonBlocking;
+		private int state;
+		private int count;
+		
+		private CompressionStream(CompressionResponse response) {
+			this.pending = new byte[Math.max(configures.getCompressionMinSize(), 1)];
+			this.response = response;
+		}
+		
+		@Override
+		public boolean isReady() {
+			return output == null || output.isReady();
+		}
+		
+		// 非阻塞输出时不压缩，压缩一次写入的数据可能需要多次输出，不能保证每次输出前都已就绪
+		@Override
+		public void setWriteListener(WriteListener listener) {
+			if (state == COMPRESS) {
+				throw new IllegalStateException("Non-blocking IO is not supported after compression has started");
+			}
+			try {
+				if (state == UNDECIDED) {
+					identity();
+				}
+				this.nonBlocking = true;
+				response.getResponse().getOutputStream().setWriteListener(listener);
+			} catch (IOException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+		
+		@Override
+		public void write(int b) throws IOException {
+			single[0] = (byte) b;
+			write(single, 0, 1);
+		}
+		
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			if (state == FINISHED) {
+				throw new IOException("Stream has already been closed");
+			}
+			if (state == UNDECIDED) {
+				long length = response.contentLength;
+				if (!response.compressible(length)) {
+					identity();
+				} else if (length < 0 && count + len < pending.length) {
+					System.arraycopy(b, off, pending, count, len);
+					count += len;
+					return;
+				} else compress();
+			}
+			if (state == IDENTITY) {
+				output.write(b, off, len);
+				return;
+			}
+			if (crc != null) crc.update(b, off, len);
+			deflater.setInput(b, off, len);
+			while (!deflater.needsInput()) {
+				deflate(Deflater.NO_FLUSH);
+			}
+		}
+		
+		// 不压缩，输出缓存的数据
+		private void identity() throws IOException {
+			this.state = IDENTITY;
+			if (response.contentLength >= 0) {
+				response.getResponse().setContentLengthLong(response.contentLength);
+			}
+			this.output = response.getResponse().getOutputStream();
+			if (count > 0) {
+				output.write(pending, 0, count);
+			}
+		}
+		
+		// 开始压缩，压缩缓存的数据；压缩后的数据与原数据字节不同，强 ETag 改为弱 ETag
+		private void compress() throws IOException {
+			this.state = COMPRESS;
+			HttpServletResponse res = (HttpServletResponse) response.getResponse();
+			res.setHeader("Content-Encoding", response.encoding.name);
+			res.addHeader("Vary", "Accept-Encoding");
+			String eTag = res.getHeader("ETag");
+			if (eTag != null && !eTag.startsWith("W/")) {
+				res.setHeader("ETag", "W/" + eTag);
+			}
+			this.deflater = response.encoding.borrow(configures.getCompressionLevel());
+			this.buffer = new byte[8192];
+			this.output = res.getOutputStream();
+			if (response.encoding == Encoding.GZIP) {
+				this.crc = new CRC32();
+				output.write(GZIP_HEADER);
+			}
+			int length = count;
+			this.count = 0;
+			if (length > 0) {
+				if (crc != null) crc.update(pending, 0, length);
+				deflater.setInput(pending, 0, length);
+				while (!deflater.needsInput()) {
+					deflate(Deflater.NO_FLUSH);
+				}
+			}
+		}
+		
+		private void deflate(int flush) throws IOException {
+			int length = deflater.deflate(buffer, 0, buffer.length, flush);
+			if (length > 0) {
+				output.write(buffer, 0, length);
+			}
+		}
+		
+		// 未达到最小长度前刷新不输出数据，压缩后刷新时输出已压缩的数据
+		@Override
+		public void flush() throws IOException {
+			if (state == COMPRESS) {
+				int length;
+				do {
+					length = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+					output.write(buffer, 0, length);
+				} while (length == buffer.length);
+			}
+			if (state == IDENTITY || state == COMPRESS) {
+				output.flush();
+			}
+		}
+		
+		@Override
+		public void close() throws IOException {
+			finish();
+		}
+		
+		private void finish() throws IOException {
+			if (state == FINISHED) {
+				return;
+			}
+			// 数据未达到最小长度，原样输出；没有数据时不获取输出流，不影响容器直接发送文件
+			if (state == UNDECIDED) {
+				this.state = FINISHED;
+				long length = response.contentLength < 0 ? count : response.contentLength;
+				response.getResponse().setContentLengthLong(length);
+				if (count > 0) {
+					response.getResponse().getOutputStream().write(pending, 0, count);
+				}
+				return;
+			}
+			if (state == COMPRESS) {
+				try {
+					deflater.finish();
+					while (!deflater.finished()) {
+						deflate(Deflater.NO_FLUSH);
+					}
+					if (crc != null) {
+						writeInt((int) crc.getValue());
+						writeInt(deflater.getTotalIn());
+					}
+				} finally {
+					response.encoding.release(deflater);
+					this.deflater = null;
+				}
+			}
+			this.state = FINISHED;
+			// 非阻塞输出未就绪时不能刷新，由容器在请求结束时输出
+			if (!nonBlocking) {
+				output.flush();
+			}
+		}
+		
+		// gzip 尾部使用小端字节序
+		private void writeInt(int value) throws IOException {
+			output.write(new byte[]{(byte) value, (byte) (value >> 8), (byte) (value >> 16), (byte) (value >> 24)});
+		}
+	}
+}
@@ -104,6 +104,22 @@ public abstract class IModel<T extends IModel<T>> implements ResponseCode, Seria
 		return model();
 	}
 	
+	/**
+	 * 获取Response头部ETag信息
+	 * @return ETag信息
+	 */
+	public final String getETag() {
+		return eTag;
+	}
+	
+	/**
+	 * 获取资源最后修改时间
+	 * @return 修改时间，-1 表示不使用缓存
+	 */
+	public final long getLastModified() {
+		return lastModified;
+	}
+	
 	/**
 	 * 设置Response头部ETag信息
 	 * @param eTag ETag信息
@@ -1,15 +1,14 @@
 package com.mini.core.web.model;
 
-import com.alibaba.fastjson.JSON;
 import com.mini.core.jdbc.model.Paging;
 import com.mini.core.web.util.ResponseCode;
+import com.mini.core.web.view.JsonViewResolver;
 import org.slf4j.Logger;
 
 import javax.annotation.Nonnull;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.io.PrintWriter;
 import java.io.Serializable;
 import java.util.*;
 
@@ -155,33 +154,22 @@ public class JsonModel extends IModel<JsonModel> implements Serializable {
 	}
 	
 	@Override
-	protected void onError(HttpServletRequest request, HttpServletResponse response) {
+	protected void onError(HttpServletRequest request, HttpServletResponse response) throws Exception {
 		String message = defaultIfEmpty(getMessage(), "Service Error");
-		try (PrintWriter writer = response.getWriter()) {
-			writer.write(JSON.toJSON(new HashMap<>() {{
-				put("error", getStatus());
-				put("message", message);
-			}}).toString());
-			// 设置返回状态并刷新数据
-			response.setStatus(OK);
-			writer.flush();
-		} catch (IOException | Error e) {
-			response.setStatus(INTERNAL_SERVER_ERROR);
-			log.error(e.getMessage());
-		}
+		generator(getStatus(), message, null, response);
 	}
 	
 	@Override
-	protected void onSubmit(HttpServletRequest request, HttpServletResponse response, String viewPath) {
-		try (PrintWriter writer = response.getWriter()) {
-			writer.write(JSON.toJSON(new HashMap<>() {{
-				put("message", "Success");
-				put("data", getData());
-				put("error", 0);
-			}}).toString());
-			// 设置返回状态并刷新数据
+	protected void onSubmit(HttpServletRequest request, HttpServletResponse response, String viewPath) throws Exception {
+		generator(0, "Success", getData(), response);
+	}
+	
+	// 设置返回状态后直接将数据写入输出流
+	private void generator(int error, String message, Object data, HttpServletResponse response) throws Exception {
+		try {
 			response.setStatus(OK);
-			writer.flush();
+			JsonViewResolver view = getConfigures().getJsonViewResolver();
+			view.generator(error, message, data, response);
 		} catch (IOException | Error e) {
 			response.setStatus(INTERNAL_SERVER_ERROR);
 			log.error(e.getMessage());
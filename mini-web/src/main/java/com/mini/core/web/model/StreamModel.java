@@ -11,14 +11,23 @@ import javax.annotation.Nonnull;
 import javax.servlet.ServletOutputStream;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import java.io.EOFException;
+import java.io.File;
 import java.io.IOException;
 import java.io.Serializable;
 import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
-import java.util.Objects;
 
 import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
 import static org.slf4j.LoggerFactory.getLogger;
 
 /**
@@ -31,13 +40,20 @@ public class StreamModel extends IModel<StreamModel> implements Serializable {
 	private static final Logger log = getLogger(StreamModel.class);
 	private static final String TYPE = "application/octet-stream";
 	private static final String CD = "Content-Disposition";
-	private static final int BUFFER_SIZE = 2048;
+	private static final String MULTIPART_PART = "\r\n--" + MULTIPART_BOUNDARY + "\r\nContent-Type: %s\r\nContent-Range: bytes %d-%d/%d\r\n\r\n";
+	private static final byte[] MULTIPART_END = ("\r\n--" + MULTIPART_BOUNDARY + "--\r\n").getBytes(ISO_8859_1);
+	private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+	private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+	private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+	private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+	private static final ThreadLocal<ByteBuffer> BUFFER = ThreadLocal.withInitial(() -> ByteBuffer.allocate(64 * 1024));
 	private boolean acceptRangesSupport = true;
 	private WriteCallback writeCallback;
 	private boolean attachment = true;
 	//	private InputStream inputStream;
 	private long contentLength;
 	private String fileName;
+	private Path file;
 	
 	public StreamModel() {
 		super(TYPE);
@@ -67,6 +83,31 @@ public class StreamModel extends IModel<StreamModel> implements Serializable {
 		}
 	}
 	
+	/**
+	 * 设置文件数据，同时设置数据长度和最后修改时间
+	 * @param file 文件路径
+	 * @return {this}
+	 */
+	public final StreamModel setFile(@Nonnull Path file) {
+		try {
+			this.contentLength = Files.size(file);
+			this.file = file;
+			setLastModified(Files.getLastModifiedTime(file).toMillis());
+			return model();
+		} catch (IOException e) {
+			throw ThrowsUtil.hidden(e);
+		}
+	}
+	
+	/**
+	 * 设置文件数据，同时设置数据长度和最后修改时间
+	 * @param file 文件
+	 * @return {this}
+	 */
+	public final StreamModel setFile(@Nonnull File file) {
+		return setFile(file.toPath());
+	}
+	
 	public final StreamModel setWriteCallback(WriteCallback writeCallback) {
 		this.writeCallback = writeCallback;
 		return model();
@@ -102,7 +143,7 @@ public class StreamModel extends IModel<StreamModel> implements Serializable {
 	
 	@Override
 	protected void onSubmit(HttpServletRequest request, HttpServletResponse response, String viewPath) throws Exception {
-		try (ServletOutputStream output = response.getOutputStream()) {
+		try {
 			StringBuilder builder = new StringBuilder();
 			// 设置文件名
 			if (StringUtil.isNotBlank(this.fileName)) {
@@ -116,88 +157,150 @@ public class StreamModel extends IModel<StreamModel> implements Serializable {
 			// 设置文件附加信息
 			response.addHeader(CD, builder.toString());
 			
-			// 不支持断点续传
-			if (!StreamModel.this.acceptRangesSupport) {
-				copy(output, 0, contentLength - 1, response);
-				return;
-			}
-			
-			// 读取客户端上传的请求数据范围数据,并告诉客户端允许断点续传
-			String rangeText = request.getHeader("Range");
-			response.setHeader("Accept-Ranges", "bytes");
-			
-			
-			// 如果请求数据范围不存在，则客户端不需要断点续传，直接返回
-			if (rangeText == null || StringUtils.isBlank(rangeText)) {
-				this.copy(output, 0, contentLength - 1, response);
-				return;
-			}
-			
-			// 解析客户端提交的请求数据范围数据
-			List<Range> rangeList = RangeParse.parseRange(rangeText);
-			if (rangeList == null || rangeList.size() <= 0) {
-				response.addHeader("Content-Range", "bytes */" + contentLength);
-				response.sendError(REQUESTED_RANGE_NOT_SATISFIABLE);
+			// 解析客户端提交的请求数据范围数据，不需要断点续传时返回全部数据
+			List<Range> rangeList = this.getRangeList(request, response);
+			if (rangeList == null) {
+				if (this.contentLength > 0) {
+					response.setContentLengthLong(contentLength);
+				}
+				this.write(request, response, 0, contentLength - 1);
 				return;
 			}
 			
-			// 验证客户端提交的请求头是否合法
-			for (Range range : rangeList) {
-				if (range.validate(contentLength)) {
-					continue;
-				}
-				// 如果Range对象不合法，返回错误信息
+			// 没有可以满足的数据范围
+			if (rangeList.isEmpty()) {
 				response.addHeader("Content-Range", "bytes */" + contentLength);
 				response.sendError(REQUESTED_RANGE_NOT_SATISFIABLE);
 				return;
 			}
 			
-			// 客户端只传入一个数据范围
+			// 客户端只传入一个数据范围（重叠的范围已合并）
+			response.setStatus(PARTIAL_CONTENT);
 			if (rangeList.size() == 1) {
-				// 设置返回的数据范围
 				Range range = rangeList.get(0);
 				response.addHeader("Content-Range", format("bytes %d-%d/%d", range.getStart(), range.getEnd(), range.getLength()));
-				// 设置传回内容在大小和Buffer大小
-				long length = range.getEnd() - range.getStart() + 1;
-				response.setContentLengthLong(length);
-				response.setBufferSize(BUFFER_SIZE);
-				// 写数据
-				this.copy(output, range.getStart(), range.getEnd(), null);
+				response.setContentLengthLong(range.getSize());
+				this.write(request, response, range.getStart(), range.getEnd());
 				return;
 			}
 			
-			// 客户端传入了多个数据范围
+			// 客户端传入了多个数据范围，预先生成每片数据的头部并计算总长度
+			byte[][] headers = new byte[rangeList.size()][];
+			long length = MULTIPART_END.length;
+			for (int i = 0; i < headers.length; i++) {
+				Range range = rangeList.get(i);
+				headers[i] = format(MULTIPART_PART, getContentType(), range.getStart(), range.getEnd(), range.getLength()).getBytes(ISO_8859_1);
+				length += headers[i].length + range.getSize();
+			}
 			response.setContentType("multipart/byteranges; boundary=" + MULTIPART_BOUNDARY);
-			for (Range range : rangeList) {
-				// 输出每片数据的分隔符
-				output.println();
-				output.println("--" + MULTIPART_BOUNDARY);
-				
-				// 文件类型和设置返回的数据范围
-				output.println("Content-Type: " + getContentType());
-				output.println(format("Content-Range: bytes %d-%d/%d", range.getStart(), range.getEnd(), range.getLength()));
-				
-				// 输出一个空行,再定入数据
-				output.println();
-				this.copy(output, range.getStart(), range.getEnd(), null);
+			response.setContentLengthLong(length);
+			try (ServletOutputStream output = response.getOutputStream(); FileChannel channel = open()) {
+				for (int i = 0; i < headers.length; i++) {
+					Range range = rangeList.get(i);
+					output.write(headers[i]);
+					this.transfer(output, channel, range.getStart(), range.getEnd());
+				}
+				output.write(MULTIPART_END);
 			}
-			
-			// 输出结尾符
-			output.println();
-			output.print("--" + MULTIPART_BOUNDARY + "--");
 		} catch (IOException | Error e) {
 			response.setStatus(INTERNAL_SERVER_ERROR);
 			log.error(e.getMessage(), e);
 		}
 	}
 	
-	// 写入数据
-	private void copy(ServletOutputStream out, long start, long end, HttpServletResponse response) throws Exception {
-		if (Objects.nonNull(response) && this.contentLength > 0) {
-			response.setContentLengthLong(contentLength);
+	// 获取请求的数据范围，返回 null 时按普通请求返回全部数据
+	private List<Range> getRangeList(HttpServletRequest request, HttpServletResponse response) {
+		// 不支持断点续传或者不知道数据长度
+		if (!this.acceptRangesSupport || this.contentLength <= 0) {
+			return null;
+		}
+		// 告诉客户端允许断点续传
+		response.setHeader("Accept-Ranges", "bytes");
+		String rangeText = request.getHeader("Range");
+		if (StringUtils.isBlank(rangeText) || !this.ifRange(request)) {
+			return null;
+		}
+		return RangeParse.parseRange(rangeText, contentLength);
+	}
+	
+	// If-Range 与当前资源一致时才返回部分数据，否则返回全部数据
+	private boolean ifRange(HttpServletRequest request) {
+		String value = request.getHeader("If-Range");
+		if (StringUtils.isBlank(value)) {
+			return true;
+		}
+		value = value.trim();
+		// 实体标签，弱标签不能用于范围请求
+		if (value.startsWith("W/")) {
+			return false;
+		}
+		if (value.startsWith("\"")) {
+			String eTag = getETag();
+			return eTag != null && (value.equals(eTag) || value.equals('"' + eTag + '"'));
+		}
+		try {
+			long date = request.getDateHeader("If-Range");
+			return getLastModified() >= 0 && date / 1000 == getLastModified() / 1000;
+		} catch (IllegalArgumentException e) {
+			return false;
 		}
-		if (StreamModel.this.writeCallback != null) {
-			writeCallback.copy(out, start, end);
+	}
+	
+	// 写入一个范围的数据，容器支持时由容器直接发送文件
+	private void write(HttpServletRequest request, HttpServletResponse response, long start, long end) throws Exception {
+		if (this.file != null && this.sendfile(request, start, end)) {
+			return;
+		}
+		try (ServletOutputStream output = response.getOutputStream(); FileChannel channel = open()) {
+			this.transfer(output, channel, start, end);
+		}
+	}
+	
+	// Tomcat 的 sendfile 支持，文件由容器直接发送，不经过输出流
+	private boolean sendfile(HttpServletRequest request, long start, long end) {
+		if (!Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+			return false;
+		}
+		if (file.getFileSystem() != FileSystems.getDefault()) {
+			return false;
+		}
+		request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+		request.setAttribute(SENDFILE_START, start);
+		request.setAttribute(SENDFILE_END, end + 1);
+		return true;
+	}
+	
+	private FileChannel open() throws IOException {
+		return this.file == null ? null : FileChannel.open(file, StandardOpenOption.READ);
+	}
+	
+	// 写入数据，文件数据输出流是通道时直接传输，否则使用线程内复用的缓冲区
+	private void transfer(ServletOutputStream out, FileChannel channel, long start, long end) throws Exception {
+		if (channel == null) {
+			if (this.writeCallback != null) {
+				writeCallback.copy(out, start, end);
+			}
+			return;
+		}
+		if (out instanceof WritableByteChannel) {
+			for (long position = start; position <= end; ) {
+				long count = channel.transferTo(position, end - position + 1, (WritableByteChannel) out);
+				if (count <= 0) {
+					throw new EOFException("Unexpected end of file: " + file);
+				}
+				position += count;
+			}
+			return;
+		}
+		ByteBuffer buffer = BUFFER.get().clear();
+		for (long position = start; position <= end; ) {
+			buffer.clear().limit((int) Math.min(buffer.capacity(), end - position + 1));
+			int count = channel.read(buffer, position);
+			if (count <= 0) {
+				throw new EOFException("Unexpected end of file: " + file);
+			}
+			out.write(buffer.array(), 0, count);
+			position += count;
 		}
 	}
 	
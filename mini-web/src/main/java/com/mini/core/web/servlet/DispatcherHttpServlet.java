@@ -2,15 +2,17 @@ package com.mini.core.web.servlet;
 
 import com.google.inject.Injector;
 import com.mini.core.util.StringUtil;
-import com.mini.core.util.matcher.PathMatcher;
-import com.mini.core.util.matcher.PathMatcherAnt;
 import com.mini.core.util.reflect.MiniParameter;
 import com.mini.core.web.annotation.Action;
+import com.mini.core.web.annotation.ActionCache;
+import com.mini.core.web.annotation.ETag;
 import com.mini.core.web.interceptor.ActionInterceptor;
 import com.mini.core.web.interceptor.ActionInvocation;
 import com.mini.core.web.model.IModel;
 import com.mini.core.web.support.ActionSupportProxy;
+import com.mini.core.web.support.ResponseCache;
 import com.mini.core.web.support.config.Configures;
+import com.mini.core.web.util.ETagResponse;
 import org.slf4j.Logger;
 
 import javax.annotation.Nonnull;
@@ -24,21 +26,20 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpSession;
 import java.io.Serializable;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
-import static com.mini.core.util.ThrowsUtil.getLastInvocationTarget;
 import static com.mini.core.validation.Validator.status;
 import static com.mini.core.web.util.ResponseCode.INTERNAL_SERVER_ERROR;
+import static com.mini.core.web.util.ResponseCode.OK;
 import static com.mini.core.web.util.ResponseCode.VERIFY;
 import static java.util.Objects.requireNonNull;
 import static java.util.stream.Stream.of;
 import static javax.servlet.http.HttpServletResponse.SC_METHOD_NOT_ALLOWED;
 import static javax.servlet.http.HttpServletResponse.SC_NOT_FOUND;
+import static javax.servlet.http.HttpServletResponse.SC_NOT_MODIFIED;
 import static org.slf4j.LoggerFactory.getLogger;
 
 /**
@@ -48,7 +49,6 @@ import static org.slf4j.LoggerFactory.getLogger;
 @Singleton
 public final class DispatcherHttpServlet extends HttpServlet implements Serializable {
 	private static final Logger log = getLogger(DispatcherHttpServlet.class);
-	private static final PathMatcher matcher = new PathMatcherAnt();
 	private static final long serialVersionUID = 1L;
 	private Configures configure;
 	private Injector injector;
@@ -117,17 +117,17 @@ public final class DispatcherHttpServlet extends HttpServlet implements Serializ
 	private void doService(Action.Method method, HttpServletRequest request, HttpServletResponse response) {
 		try {
 			// 获取请求路径-URI
-			final String contextPath = request.getContextPath(), path;
+			final String contextPath = request.getContextPath();
 			String uri = StringUtil.replace(request.getRequestURI(), contextPath, "", 1);
 			// 找出当前 URI 对应的 ActionProxy 对象
-			Map<Action.Method, ActionSupportProxy> proxyMap = configure.getActionProxy(uri);
-			if (java.util.Objects.isNull(proxyMap)) {
+			var route = configure.getActionRoute(uri);
+			if (java.util.Objects.isNull(route)) {
 				response.sendError(SC_NOT_FOUND);
 				log.info("Not Found: " + uri);
 				return;
 			}
 			// 根据请求方法获取具体映射,不支持时返回405错误
-			final ActionSupportProxy proxy = proxyMap.get(method);
+			final ActionSupportProxy proxy = route.getValue().get(method);
 			if (java.util.Objects.isNull(proxy)) {
 				response.sendError(SC_METHOD_NOT_ALLOWED);
 				return;
@@ -137,117 +137,137 @@ public final class DispatcherHttpServlet extends HttpServlet implements Serializ
 				response.sendError(SC_METHOD_NOT_ALLOWED);
 				return;
 			}
-			// 获取 Ant 类型的URL中的参数信息
-			Map<String, String> uriParam = new HashMap<>();
-			if (matcher.isPattern((path = proxy.getViewPath()))) {
-				uriParam.putAll(matcher.extractVariables(path, uri));
+			// 执行目标方法，URL中的参数信息在匹配路由时已提取
+			this.doService(method, route.getVariables(), proxy, request, response);
+		} catch (Exception | Error ex) {
+			log.error(ex.getMessage(), ex);
+			if (response.isCommitted()) return;
+			response.setStatus(INTERNAL_SERVER_ERROR);
+		}
+	}
+	
+	/**
+	 * 执行目标方法并返回数据
+	 * @param method   提交数据是以哪种方法提交的
+	 * @param uriParam URL中的参数信息
+	 * @param proxy    ActionProxy 对象
+	 * @param request  HttpServletRequest 对象
+	 * @param response HttpServletResponse 对象
+	 */
+	private void doService(Action.Method method, Map<String, String> uriParam, ActionSupportProxy proxy,
+			HttpServletRequest request, HttpServletResponse response) throws Exception {
+		// 获取数据模型实例并验证是否为空
+		final IModel<?> model = proxy.getModel();
+		// 获取拦截器列表的迭代器对象
+		Iterator<ActionInterceptor> iterator = proxy.getInterceptors().iterator();
+		// 获取控制类的实例对象
+		Object instance = injector.getInstance(proxy.getClazz());
+		// 目标方法执行前的 ETag 验证、响应缓存和数据输出
+		final Exchange exchange = new Exchange(method, proxy, request, response);
+		
+		// 创建 ActionInvocation 对象
+		final ActionInvocation action = new ActionInvocation() {
+			
+			@Nonnull
+			@Override
+			public final Method getMethod() {
+				return proxy.getMethod();
 			}
-			// 获取数据模型实例并验证是否为空
-			final IModel<?> model = proxy.getModel();
-			// 获取拦截器列表的迭代器对象
-			Iterator<ActionInterceptor> iterator = proxy.getInterceptors().iterator();
-			// 获取控制类的实例对象
-			Object instance = injector.getInstance(proxy.getClazz());
 			
-			// 创建 ActionInvocation 对象
-			final ActionInvocation action = new ActionInvocation() {
-				
-				@Nonnull
-				@Override
-				public final Method getMethod() {
-					return proxy.getMethod();
-				}
-				
-				@Nonnull
-				@Override
-				public final Class<?> getClazz() {
-					return proxy.getClazz();
-				}
-				
-				@Nonnull
-				@Override
-				public final Object getInstance() {
-					return instance;
-				}
-				
-				@Nonnull
-				@Override
-				public final List<ActionInterceptor> getInterceptors() {
-					return proxy.getInterceptors();
-				}
-				
-				@Override
-				public final String getViewPath() {
-					return proxy.getViewPath();
-				}
-				
-				@Nonnull
-				@Override
-				public final IModel<?> getModel() {
-					return model;
-				}
-				
-				@Nonnull
-				@Override
-				public final HttpServletRequest getRequest() {
-					return request;
-				}
-				
-				@Nonnull
-				@Override
-				public final HttpServletResponse getResponse() {
-					return response;
-				}
-				
-				@Override
-				public final HttpSession getSession() {
-					return request.getSession();
-				}
-				
-				@Override
-				public final ServletContext getServletContext() {
-					return request.getServletContext();
-				}
-				
-				@Nonnull
-				@Override
-				public final Map<String, String> getUriParameters() {
-					return uriParam;
-				}
-				
-				@Nonnull
-				@Override
-				public MiniParameter[] getParameters() {
-					return proxy.getParameters();
-				}
-				
-				@Nonnull
-				@Override
-				public synchronized final Object[] getParameterValues() {
-					return of(proxy.getParameterHandlers()).map(param -> {
-						try {
-							return param.getValue(this);
-						} catch (NumberFormatException exception) {
-							final var message = exception.getMessage();
-							throw status(VERIFY).message(message).send();
-						}
-					}).toArray(Object[]::new);
-				}
-				
-				@Override
-				public synchronized final Object invoke() throws Throwable {
+			@Nonnull
+			@Override
+			public final Class<?> getClazz() {
+				return proxy.getClazz();
+			}
+			
+			@Nonnull
+			@Override
+			public final Object getInstance() {
+				return instance;
+			}
+			
+			@Nonnull
+			@Override
+			public final List<ActionInterceptor> getInterceptors() {
+				return proxy.getInterceptors();
+			}
+			
+			@Override
+			public final String getViewPath() {
+				return proxy.getViewPath();
+			}
+			
+			@Nonnull
+			@Override
+			public final IModel<?> getModel() {
+				return model;
+			}
+			
+			@Nonnull
+			@Override
+			public final HttpServletRequest getRequest() {
+				return request;
+			}
+			
+			@Nonnull
+			@Override
+			public final HttpServletResponse getResponse() {
+				return response;
+			}
+			
+			@Override
+			public final HttpSession getSession() {
+				return request.getSession();
+			}
+			
+			@Override
+			public final ServletContext getServletContext() {
+				return request.getServletContext();
+			}
+			
+			@Nonnull
+			@Override
+			public final Map<String, String> getUriParameters() {
+				return uriParam;
+			}
+			
+			@Nonnull
+			@Override
+			public MiniParameter[] getParameters() {
+				return proxy.getParameters();
+			}
+			
+			@Nonnull
+			@Override
+			public final Object[] getParameterValues() {
+				final var handlers = proxy.getParameterHandlers();
+				final var values = new Object[handlers.length];
+				for (int i = 0; i < handlers.length; i++) {
 					try {
-						if (iterator.hasNext()) {
-							return iterator.next().invoke(this);
-						}
-						Object[] values = getParameterValues();
-						return getMethod().invoke(instance, values);
-					} catch (InvocationTargetException ex) {
-						throw getLastInvocationTarget(ex);
+						values[i] = handlers[i].getValue(this);
+					} catch (NumberFormatException exception) {
+						final var message = exception.getMessage();
+						throw status(VERIFY).message(message).send();
 					}
 				}
-			};
+				return values;
+			}
 			
+			@Override
+			public final Object invoke() throws Throwable {
+				if (iterator.hasNext()) {
+					return iterator.next().invoke(this);
+				}
+				// 所有拦截器执行后再验证 ETag 和读取缓存，已经返回数据时不执行目标方法
+				if (!exchange.prepare(this)) {
+					return null;
+				}
+				Object[] values = getParameterValues();
+				return proxy.getInvoker().invoke(instance, values);
+			}
+		};
+		
+		try {
 			// 调用目标方法
 			try {
 				action.invoke();
@@ -264,11 +284,85 @@ public final class DispatcherHttpServlet extends HttpServlet implements Serializ
 				}
 			}
 			// 返回数据
-			model.onSubmit(request, response);
-		} catch (Exception | Error ex) {
-			log.error(ex.getMessage(), ex);
-			if (response.isCommitted()) return;
-			response.setStatus(INTERNAL_SERVER_ERROR);
+			exchange.submit(model);
+		} finally {
+			exchange.complete(model);
+		}
+	}
+	
+	/**
+	 * 目标方法执行前的 ETag 验证、响应缓存和数据输出
+	 * <p>
+	 * 验证和读取缓存在所有拦截器执行之后进行，拦截器拒绝的请求不会得到 304 或者缓存的数据
+	 */
+	private final class Exchange {
+		private final Action.Method method;
+		private final ActionSupportProxy proxy;
+		private final HttpServletRequest request;
+		private final HttpServletResponse response;
+		private HttpServletResponse output;
+		private ETagResponse eTagResponse;
+		private ResponseCache.Loader loader;
+		// 已经返回数据，不再输出
+		private boolean sent;
+		// 数据已经全部输出
+		private boolean submitted;
+		
+		private Exchange(Action.Method method, ActionSupportProxy proxy, HttpServletRequest request, HttpServletResponse response) {
+			this.method = method;
+			this.proxy = proxy;
+			this.request = request;
+			this.response = response;
+			this.output = response;
+		}
+		
+		// 版本键一致时返回 304，缓存命中时输出缓存的数据，已经返回数据时返回 false
+		private boolean prepare(ActionInvocation action) throws Exception {
+			boolean readable = method == Action.Method.GET || method == Action.Method.HEAD;
+			ETag eTag = readable ? proxy.getMethod().getAnnotation(ETag.class) : null;
+			String tag = null;
+			if (eTag != null && eTag.value() != ETag.Version.class) {
+				String version = injector.getInstance(eTag.value()).version(action);
+				tag = version == null ? null : ETagResponse.strong(version);
+				if (tag != null && ETagResponse.matches(request.getHeader("If-None-Match"), tag)) {
+					response.setHeader("ETag", tag);
+					response.setStatus(SC_NOT_MODIFIED);
+					sent = true;
+					return false;
+				}
+			}
+			// 使用响应缓存时，缓存未命中才执行目标方法
+			ActionCache cache = proxy.getMethod().getAnnotation(ActionCache.class);
+			if (cache != null && method == Action.Method.GET) {
+				loader = injector.getInstance(ResponseCache.class).load(cache, request, response);
+				if (loader == null) {
+					sent = true;
+					return false;
+				}
+				output = loader.getResponse();
+			}
+			if (tag != null) {
+				output.setHeader("ETag", tag);
+			} else if (eTag != null && eTag.value() == ETag.Version.class) {
+				eTagResponse = new ETagResponse(output);
+			}
+			return true;
+		}
+		
+		private void submit(IModel<?> model) throws Exception {
+			if (sent) return;
+			if (eTagResponse != null) {
+				model.onSubmit(request, eTagResponse);
+				eTagResponse.finish(request);
+			} else model.onSubmit(request, output);
+			submitted = true;
+		}
+		
+		// 完成响应缓存，数据全部输出并且数据模型状态为 OK 时才缓存
+		private void complete(IModel<?> model) {
+			if (loader != null) {
+				loader.complete(submitted && model.getStatus() == OK);
+			}
 		}
 	}
 }
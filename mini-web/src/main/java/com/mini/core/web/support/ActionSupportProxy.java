@@ -2,6 +2,7 @@ package com.mini.core.web.support;
 
 import com.google.inject.Injector;
 import com.mini.core.util.reflect.MiniParameter;
+import com.mini.core.validation.ValidationChain;
 import com.mini.core.validation.ValidationUtil;
 import com.mini.core.web.annotation.Action;
 import com.mini.core.web.argument.ArgumentResolver;
@@ -10,10 +11,16 @@ import com.mini.core.web.interceptor.ActionInvocation;
 import com.mini.core.web.model.IModel;
 
 import javax.annotation.Nonnull;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.EventListener;
 import java.util.concurrent.CopyOnWriteArrayList;
 
+import static java.lang.invoke.MethodType.methodType;
+
 
 public interface ActionSupportProxy {
 	/**
@@ -58,6 +65,13 @@ public interface ActionSupportProxy {
 	@Nonnull
 	MiniParameter[] getParameters();
 	
+	/**
+	 * 获取启动时编译好的目标方法调用器
+	 * @return 目标方法调用器
+	 */
+	@Nonnull
+	MethodInvoker getInvoker();
+	
 	/**
 	 * 获取参数处理器列表
 	 * @return 参数处理器列表
@@ -80,19 +94,54 @@ public interface ActionSupportProxy {
 	final class ParameterHandler implements EventListener {
 		private final ArgumentResolver resolver;
 		private final MiniParameter parameter;
-		private final Injector injector;
+		private final ValidationChain chain;
 		
 		public ParameterHandler(@Nonnull Injector injector, @Nonnull ArgumentResolver resolver,
 				@Nonnull MiniParameter parameter) {
+			this.chain = ValidationUtil.compile(injector, parameter);
 			this.parameter = parameter;
 			this.resolver = resolver;
-			this.injector = injector;
 		}
 		
 		public final Object getValue(ActionInvocation invocation) {
 			var value = resolver.getValue(parameter, invocation);
-			ValidationUtil.validate(injector, parameter, value);
+			chain.validate(value);
 			return value;
 		}
 	}
+	
+	/**
+	 * 目标方法调用器
+	 * <p>
+	 * 启动时将目标方法编译成 (Object, Object[])Object 类型的方法句柄，
+	 * 调用时不再经过 Method.invoke 的访问检查与参数复制
+	 */
+	final class MethodInvoker implements EventListener {
+		private static final MethodType TYPE = methodType(Object.class, Object.class, Object[].class);
+		private final MethodHandle handle;
+		
+		public MethodInvoker(@Nonnull Method method) {
+			try {
+				method.trySetAccessible();
+				MethodHandle target = MethodHandles.lookup().unreflect(method);
+				if (Modifier.isStatic(method.getModifiers())) {
+					target = MethodHandles.dropArguments(target, 0, Object.class);
+				}
+				target = target.asSpreader(Object[].class, method.getParameterCount());
+				this.handle = target.asType(TYPE);
+			} catch (IllegalAccessException e) {
+				throw new RuntimeException(e);
+			}
+		}
+		
+		/**
+		 * 调用目标方法，目标方法抛出的异常会原样抛出
+		 * @param instance  Controller 实例
+		 * @param arguments 目标方法参数
+		 * @return 目标方法返回值
+		 */
+		public final Object invoke(Object instance, Object[] arguments) throws Throwable {
+			return handle.invokeExact(instance, arguments);
+		}
+	}
 }
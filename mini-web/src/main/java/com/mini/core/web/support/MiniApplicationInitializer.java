@@ -22,12 +22,15 @@ import com.mini.core.web.argument.param.*;
 import com.mini.core.web.argument.uri.*;
 import com.mini.core.web.filter.AccessControlAllowOriginFilter;
 import com.mini.core.web.filter.CharacterEncodingFilter;
+import com.mini.core.web.filter.CompressionFilter;
 import com.mini.core.web.handler.ExceptionHandlerDefault;
 import com.mini.core.web.handler.ExceptionHandlerValidate;
 import com.mini.core.web.interceptor.ActionInterceptor;
 import com.mini.core.web.model.IModel;
 import com.mini.core.web.servlet.DispatcherHttpServlet;
+import com.mini.core.web.support.ActionSupportProxy.MethodInvoker;
 import com.mini.core.web.support.config.Configures;
+import com.mini.core.web.view.FastJsonViewResolver;
 import com.mini.core.web.view.JspPageViewResolver;
 import org.apache.commons.lang3.ObjectUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -131,6 +134,7 @@ public final class MiniApplicationInitializer implements ServletContainerInitial
 		CONFIGURES.addArgumentResolver(ArgumentResolverMapRequestHeaderArray.class);
 		// 配置默认视图实现类
 		CONFIGURES.setPageViewResolver(JspPageViewResolver.class);
+		CONFIGURES.setJsonViewResolver(FastJsonViewResolver.class);
 		// 编码统一管理过虑器
 		CONFIGURES.addFilter(CharacterEncodingFilter.class, registration -> {
 			registration.setName("CharacterEncodingFilter");
@@ -141,6 +145,11 @@ public final class MiniApplicationInitializer implements ServletContainerInitial
 			registration.setName("AccessControlAllowOriginFilter");
 			registration.addUrlPatterns("/*");
 		});
+		// 响应数据压缩过虑器
+		CONFIGURES.addFilter(CompressionFilter.class, registration -> {
+			registration.setName("CompressionFilter");
+			registration.addUrlPatterns("/*");
+		});
 		// 初始化项目自定义配置信息
 		for (WebApplicationInitializer config : configList) {
 			config.onStartupRegister(context, CONFIGURES);
@@ -182,6 +191,8 @@ public final class MiniApplicationInitializer implements ServletContainerInitial
 				String path = getViewPath(clazz, controller, method, action);
 				// 获取方法参数信息
 				MiniParameter[] parameters = ClassUtil.getParameterByAsm(method);
+				// 编译目标方法调用器
+				MethodInvoker invoker = new MethodInvoker(method);
 				// 获取 请求 Action 的路径 并 注册Action
 				getRequestUriList(clazz, controller, method, action).stream().distinct().forEach(requestUri -> {
 					// 根据扫描出来的 Action 对象创建 ActionProxy 并添加到配置信息中
@@ -254,6 +265,12 @@ public final class MiniApplicationInitializer implements ServletContainerInitial
 							return parameters;
 						}
 						
+						@Nonnull
+						@Override
+						public final MethodInvoker getInvoker() {
+							return invoker;
+						}
+						
 						@Nonnull
 						@Override
 						public final ParameterHandler[] getParameterHandlers() {
@@ -0,0 +1,469 @@
+package com.mini.core.web.support;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import com.mini.core.web.annotation.ActionCache;
+import com.mini.core.web.support.config.Configures;
+import com.mini.core.web.util.ETagResponse;
+import org.slf4j.Logger;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.time.format.DateTimeFormatter.RFC_1123_DATE_TIME;
+import static javax.servlet.http.HttpServletResponse.SC_NOT_MODIFIED;
+import static javax.servlet.http.HttpServletResponse.SC_OK;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * 服务端响应缓存
+ * <p>
+ * 同一个键同时只有一个请求生成数据，其它请求返回过期数据或者等待生成完成；
+ * 标签按版本号失效，缓存数据记录生成前的标签版本，版本变化后不再使用
+ * @author xchao
+ */
+@Singleton
+@SuppressWarnings("UnstableApiUsage")
+public final class ResponseCache {
+	private static final Logger log = getLogger(ResponseCache.class);
+	// 单个响应的最大缓存字节数
+	private static final int ENTRY_LIMIT = 1 << 20;
+	// 等待其它请求生成数据的最长时间（秒）
+	private static final long WAIT_SECONDS = 10;
+	private final Map<String, CompletableFuture<Entry>> loading = new ConcurrentHashMap<>();
+	private final Map<String, AtomicLong> tags = new ConcurrentHashMap<>();
+	private final Cache<String, Entry> cache;
+	
+	@Inject
+	public ResponseCache(Configures configures) {
+		this.cache = CacheBuilder.newBuilder()
+				.maximumWeight(configures.getResponseCacheSize())
+				.weigher((String k, Entry v) -> k.length() * 2 + v.body.length + 256)
+				.build();
+	}
+	
+	/**
+	 * 清除指定标签的所有缓存
+	 * @param tags 缓存标签
+	 */
+	public void invalidate(@Nonnull String... tags) {
+		for (String tag : tags) {
+			this.tags.computeIfAbsent(tag, k -> new AtomicLong()).incrementAndGet();
+		}
+	}
+	
+	/**
+	 * 清除所有缓存
+	 */
+	public void invalidateAll() {
+		cache.invalidateAll();
+	}
+	
+	/**
+	 * 缓存数据的数量
+	 * @return 数据数量
+	 */
+	public long size() {
+		return cache.size();
+	}
+	
+	/**
+	 * 读取缓存，命中时直接输出缓存的数据
+	 * <p>
+	 * 未命中时返回的 {@link Loader} 记录输出的数据，生成完成后无论是否成功都必须调用 {@link Loader#complete(boolean)}
+	 * @param annotation 缓存配置
+	 * @param request    HttpServletRequest
+	 * @param response   HttpServletResponse
+	 * @return 已经输出缓存数据时返回 null
+	 */
+	@Nullable
+	public Loader load(@Nonnull ActionCache annotation, @Nonnull HttpServletRequest request,
+			@Nonnull HttpServletResponse response) throws IOException {
+		String key = key(annotation, request);
+		long now = System.currentTimeMillis();
+		Entry entry = cache.getIfPresent(key);
+		if (entry != null && (!entry.valid(now) || !Arrays.equals(entry.generations, generations(annotation.tags())))) {
+			cache.invalidate(key);
+			entry = null;
+		}
+		if (entry != null && now < entry.expires) {
+			entry.send(request, response, now);
+			return null;
+		}
+		CompletableFuture<Entry> future = new CompletableFuture<>();
+		CompletableFuture<Entry> current = loading.putIfAbsent(key, future);
+		// 其它请求正在生成数据
+		if (current != null) {
+			if (entry != null) {
+				entry.send(request, response, now);
+				return null;
+			}
+			Entry result = null;
+			try {
+				result = current.get(WAIT_SECONDS, TimeUnit.SECONDS);
+			} catch (TimeoutException | ExecutionException e) {
+				log.warn("Wait for response cache timeout: {}", key);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			if (result != null) {
+				result.send(request, response, System.currentTimeMillis());
+				return null;
+			}
+			// 等待失败时自己生成数据，不记录
+			return new Loader(response);
+		}
+		long[] generations = generations(annotation.tags());
+		return new Loader(annotation, key, future, new Capture(response), generations, now);
+	}
+	
+	// 缓存键：请求URI、参数和请求头
+	private static String key(ActionCache annotation, HttpServletRequest request) {
+		StringBuilder builder = new StringBuilder(request.getRequestURI());
+		if (annotation.params().length == 0) {
+			String query = request.getQueryString();
+			if (query != null) {
+				builder.append('?').append(query);
+			}
+		}
+		for (String name : annotation.params()) {
+			builder.append('\n').append(name).append('=');
+			String[] values = request.getParameterValues(name);
+			if (values != null) {
+				builder.append(String.join("\u0000", values));
+			}
+		}
+		for (String name : annotation.headers()) {
+			builder.append('\n').append(name).append(':').append(request.getHeader(name));
+		}
+		return builder.toString();
+	}
+	
+	private long[] generations(String[] tags) {
+		long[] result = new long[tags.length];
+		for (int i = 0; i < tags.length; i++) {
+			AtomicLong generation = this.tags.get(tags[i]);
+			result[i] = generation == null ? 0 : generation.get();
+		}
+		return result;
+	}
+	
+	/**
+	 * 缓存未命中时生成数据
+	 */
+	public final class Loader {
+		private final HttpServletResponse response;
+		private final CompletableFuture<Entry> future;
+		private final ActionCache annotation;
+		private final long[] generations;
+		private final Capture capture;
+		private final String key;
+		private final long now;
+		
+		private Loader(HttpServletResponse response) {
+			this.response = response;
+			this.annotation = null;
+			this.generations = null;
+			this.capture = null;
+			this.future = null;
+			this.key = null;
+			this.now = 0;
+		}
+		
+		private Loader(ActionCache annotation, String key, CompletableFuture<Entry> future, Capture capture, long[] generations, long now) {
+			this.response = capture;
+			this.annotation = annotation;
+			this.generations = generations;
+			this.capture = capture;
+			this.future = future;
+			this.key = key;
+			this.now = now;
+		}
+		
+		/**
+		 * 获取输出数据的响应对象
+		 * @return 响应对象
+		 */
+		@Nonnull
+		public HttpServletResponse getResponse() {
+			return response;
+		}
+		
+		/**
+		 * 完成生成数据，重复调用时忽略
+		 * @param cacheable true-数据生成成功并且可以缓存
+		 */
+		public void complete(boolean cacheable) {
+			if (future == null || future.isDone()) {
+				return;
+			}
+			Entry result = null;
+			try {
+				result = cacheable ? capture.toEntry(annotation, generations, now) : null;
+				if (result != null) {
+					cache.put(key, result);
+				}
+			} finally {
+				loading.remove(key, future);
+				future.complete(result);
+			}
+		}
+	}
+	
+	/**
+	 * 缓存数据
+	 */
+	private static final class Entry {
+		private final List<String[]> headers;
+		private final long[] generations;
+		private final String contentType;
+		private final long created;
+		private final long expires;
+		private final long staleUntil;
+		private final String eTag;
+		private final byte[] body;
+		
+		private Entry(ActionCache annotation, Capture capture, long[] generations, long now) {
+			this.body = Arrays.copyOf(capture.buffer, capture.count);
+			this.contentType = capture.getContentType();
+			this.headers = List.copyOf(capture.headers);
+			this.eTag = capture.eTag != null ? capture.eTag : "W/\"" + Hashing.murmur3_128().hashBytes(body) + '"';
+			this.expires = now + TimeUnit.SECONDS.toMillis(annotation.ttl());
+			this.staleUntil = expires + TimeUnit.SECONDS.toMillis(annotation.stale());
+			this.generations = generations;
+			this.created = now;
+		}
+		
+		private boolean valid(long now) {
+			return now < staleUntil;
+		}
+		
+		private void send(HttpServletRequest request, HttpServletResponse response, long now) throws IOException {
+			if (contentType != null) {
+				response.setContentType(contentType);
+			}
+			for (String[] header : headers) {
+				response.addHeader(header[0], header[1]);
+			}
+			response.setHeader("ETag", eTag);
+			response.setHeader("Age", String.valueOf(Math.max(now - created, 0) / 1000));
+			if (ETagResponse.matches(request.getHeader("If-None-Match"), eTag)) {
+				response.setStatus(SC_NOT_MODIFIED);
+				return;
+			}
+			response.setContentLength(body.length);
+			response.getOutputStream().write(body);
+		}
+	}
+	
+	/**
+	 * 输出数据的同时记录响应头和数据
+	 */
+	private static final class Capture extends HttpServletResponseWrapper {
+		private final List<String[]> headers = new ArrayList<>();
+		private byte[] buffer = new byte[1024];
+		// 不能缓存的响应不再记录
+		private boolean cacheable = true;
+		private ServletOutputStream stream;
+		private PrintWriter writer;
+		private String eTag;
+		private int count;
+		
+		private Capture(HttpServletResponse response) {
+			super(response);
+		}
+		
+		private Entry toEntry(ActionCache annotation, long[] generations, long now) {
+			if (writer != null) {
+				writer.flush();
+			}
+			if (!cacheable || getStatus() != SC_OK) {
+				return null;
+			}
+			return new Entry(annotation, this, generations, now);
+		}
+		
+		private void header(String name, String value, boolean add) {
+			if ("Set-Cookie".equalsIgnoreCase(name)) {
+				this.cacheable = false;
+			} else if ("ETag".equalsIgnoreCase(name)) {
+				this.eTag = value;
+			} else if (!"Content-Length".equalsIgnoreCase(name) && !"Date".equalsIgnoreCase(name)) {
+				if (!add) {
+					headers.removeIf(v -> v[0].equalsIgnoreCase(name));
+				}
+				headers.add(new String[]{name, value});
+			}
+		}
+		
+		@Override
+		public void setHeader(String name, String value) {
+			super.setHeader(name, value);
+			header(name, value, false);
+		}
+		
+		@Override
+		public void addHeader(String name, String value) {
+			super.addHeader(name, value);
+			header(name, value, true);
+		}
+		
+		@Override
+		public void setIntHeader(String name, int value) {
+			super.setIntHeader(name, value);
+			header(name, String.valueOf(value), false);
+		}
+		
+		@Override
+		public void addIntHeader(String name, int value) {
+			super.addIntHeader(name, value);
+			header(name, String.valueOf(value), true);
+		}
+		
+		@Override
+		public void setDateHeader(String name, long date) {
+			super.setDateHeader(name, date);
+			header(name, RFC_1123_DATE_TIME.format(Instant.ofEpochMilli(date).atZone(ZoneOffset.UTC)), false);
+		}
+		
+		@Override
+		public void addDateHeader(String name, long date) {
+			super.addDateHeader(name, date);
+			header(name, RFC_1123_DATE_TIME.format(Instant.ofEpochMilli(date).atZone(ZoneOffset.UTC)), true);
+		}
+		
+		@Override
+		public void addCookie(Cookie cookie) {
+			super.addCookie(cookie);
+			this.cacheable = false;
+		}
+		
+		@Override
+		public void sendError(int sc, String msg) throws IOException {
+			this.cacheable = false;
+			super.sendError(sc, msg);
+		}
+		
+		@Override
+		public void sendError(int sc) throws IOException {
+			this.cacheable = false;
+			super.sendError(sc);
+		}
+		
+		@Override
+		public void sendRedirect(String location) throws IOException {
+			this.cacheable = false;
+			super.sendRedirect(location);
+		}
+		
+		@Override
+		public ServletOutputStream getOutputStream() throws IOException {
+			if (writer != null) {
+				throw new IllegalStateException("getWriter() has already been called");
+			}
+			return stream = stream != null ? stream : new Stream(super.getOutputStream());
+		}
+		
+		@Override
+		public PrintWriter getWriter() throws IOException {
+			if (writer == null) {
+				if (stream != null) {
+					throw new IllegalStateException("getOutputStream() has already been called");
+				}
+				stream = new Stream(super.getOutputStream());
+				writer = new PrintWriter(new OutputStreamWriter(stream, getCharacterEncoding()));
+			}
+			return writer;
+		}
+		
+		@Override
+		public void flushBuffer() throws IOException {
+			if (writer != null) {
+				writer.flush();
+			}
+			super.flushBuffer();
+		}
+		
+		@Override
+		public void resetBuffer() {
+			super.resetBuffer();
+			this.count = 0;
+		}
+		
+		@Override
+		public void reset() {
+			super.reset();
+			this.headers.clear();
+			this.cacheable = true;
+			this.eTag = null;
+			this.count = 0;
+		}
+		
+		// 输出数据的同时记录数据，超过缓存上限时不再记录
+		private final class Stream extends ServletOutputStream {
+			private final ServletOutputStream output;
+			
+			private Stream(ServletOutputStream output) {
+				this.output = output;
+			}
+			
+			@Override
+			public boolean isReady() {
+				return output.isReady();
+			}
+			
+			@Override
+			public void setWriteListener(WriteListener listener) {
+				output.setWriteListener(listener);
+			}
+			
+			@Override
+			public void write(int b) throws IOException {
+				write(new byte[]{(byte) b}, 0, 1);
+			}
+			
+			@Override
+			public void write(@Nonnull byte[] b, int off, int len) throws IOException {
+				output.write(b, off, len);
+				if (!cacheable) return;
+				if (count + len > ENTRY_LIMIT) {
+					cacheable = false;
+					buffer = null;
+					return;
+				}
+				if (count + len > buffer.length) {
+					buffer = Arrays.copyOf(buffer, Math.max(buffer.length << 1, count + len));
+				}
+				System.arraycopy(b, off, buffer, count, len);
+				count += len;
+			}
+			
+			@Override
+			public void flush() throws IOException {
+				output.flush();
+			}
+			
+			@Override
+			public void close() throws IOException {
+				output.close();
+			}
+		}
+	}
+}
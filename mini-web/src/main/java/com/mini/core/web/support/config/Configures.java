@@ -1,8 +1,8 @@
 package com.mini.core.web.support.config;
 
 import com.google.inject.Injector;
-import com.mini.core.util.matcher.PathMatcher;
-import com.mini.core.util.matcher.PathMatcherAnt;
+import com.mini.core.util.DateTimeParser;
+import com.mini.core.util.matcher.PathMatcherTrie;
 import com.mini.core.web.annotation.Action.Method;
 import com.mini.core.web.argument.ArgumentResolver;
 import com.mini.core.web.factory.DefResourceBundleFactory;
@@ -10,6 +10,8 @@ import com.mini.core.web.factory.ResourceBundleFactory;
 import com.mini.core.web.handler.ExceptionHandler;
 import com.mini.core.web.interceptor.ActionInterceptor;
 import com.mini.core.web.support.ActionSupportProxy;
+import com.mini.core.web.view.FastJsonViewResolver;
+import com.mini.core.web.view.JsonViewResolver;
 import com.mini.core.web.view.JspPageViewResolver;
 import com.mini.core.web.view.PageViewResolver;
 import org.slf4j.Logger;
@@ -25,6 +27,7 @@ import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -38,7 +41,6 @@ import static org.slf4j.LoggerFactory.getLogger;
 
 @Singleton
 public final class Configures implements EventListener, Serializable {
-	private static final PathMatcher MATCHER = new PathMatcherAnt();
 	private static final Logger log = getLogger(Configures.class);
 	private static final String TEMP_KEY = "java.io.tmpdir";
 	
@@ -161,12 +163,73 @@ public final class Configures implements EventListener, Serializable {
 		return locationPath;
 	}
 	
+	/**
+	 * 响应数据压缩的最小字节数
+	 */
+	private int compressionMinSize = 1024;
+	
+	public void setCompressionMinSize(int compressionMinSize) {
+		this.compressionMinSize = compressionMinSize;
+	}
+	
+	public int getCompressionMinSize() {
+		return compressionMinSize;
+	}
+	
+	/**
+	 * 响应数据压缩级别（0-9）
+	 */
+	private int compressionLevel = 6;
+	
+	public void setCompressionLevel(int compressionLevel) {
+		this.compressionLevel = compressionLevel;
+	}
+	
+	public int getCompressionLevel() {
+		return compressionLevel;
+	}
+	
+	/**
+	 * 需要压缩的响应数据类型
+	 */
+	private final Set<String> compressionMimeTypes = new CopyOnWriteArraySet<>(List.of("text/html", "text/plain",
+			"text/css", "text/xml", "text/javascript", "application/json", "application/javascript",
+			"application/xml", "image/svg+xml"));
+	
+	public void addCompressionMimeType(String... mimeTypes) {
+		Stream.of(mimeTypes).map(String::toLowerCase).forEach(compressionMimeTypes::add);
+	}
+	
+	public void removeCompressionMimeType(String... mimeTypes) {
+		Stream.of(mimeTypes).map(String::toLowerCase).forEach(compressionMimeTypes::remove);
+	}
+	
+	@Nonnull
+	public Set<String> getCompressionMimeTypes() {
+		return compressionMimeTypes;
+	}
+	
+	/**
+	 * 响应缓存的最大字节数
+	 */
+	private long responseCacheSize = 64L * 1024 * 1024;
+	
+	public void setResponseCacheSize(long responseCacheSize) {
+		this.responseCacheSize = responseCacheSize;
+	}
+	
+	public long getResponseCacheSize() {
+		return responseCacheSize;
+	}
+	
 	/**
 	 * 日期时间格式
 	 */
 	private String dateTimeFormat = "yyyy-MM-dd HH[:mm[:ss[.SSS]]]";
+	private DateTimeParser dateTimeParser = DateTimeParser.of(dateTimeFormat);
 	
 	public void setDateTimeFormat(String dateTimeFormat) {
+		this.dateTimeParser = DateTimeParser.of(dateTimeFormat);
 		this.dateTimeFormat = dateTimeFormat;
 	}
 	
@@ -174,12 +237,19 @@ public final class Configures implements EventListener, Serializable {
 		return dateTimeFormat;
 	}
 	
+	@Nonnull
+	public DateTimeParser getDateTimeParser() {
+		return dateTimeParser;
+	}
+	
 	/**
 	 * 日期格式
 	 */
 	private String dateFormat = "yyyy[-MM[-dd]]";
+	private DateTimeParser dateParser = DateTimeParser.of(dateFormat);
 	
 	public void setDateFormat(String dateFormat) {
+		this.dateParser = DateTimeParser.of(dateFormat);
 		this.dateFormat = dateFormat;
 	}
 	
@@ -187,12 +257,19 @@ public final class Configures implements EventListener, Serializable {
 		return dateFormat;
 	}
 	
+	@Nonnull
+	public DateTimeParser getDateParser() {
+		return dateParser;
+	}
+	
 	/**
 	 * 时间格式
 	 */
 	private String timeFormat = "HH[:mm[:ss]]";
+	private DateTimeParser timeParser = DateTimeParser.of(timeFormat);
 	
 	public void setTimeFormat(String timeFormat) {
+		this.timeParser = DateTimeParser.of(timeFormat);
 		this.timeFormat = timeFormat;
 	}
 	
@@ -200,6 +277,11 @@ public final class Configures implements EventListener, Serializable {
 		return timeFormat;
 	}
 	
+	@Nonnull
+	public DateTimeParser getTimeParser() {
+		return timeParser;
+	}
+	
 	/**
 	 * 视图前缀
 	 */
@@ -297,20 +379,43 @@ public final class Configures implements EventListener, Serializable {
 	private final Map<String, Map<Method, ActionSupportProxy>> mappings = new ConcurrentHashMap<>();
 	
 	/**
-	 * 根据URI获取一个Action代理对象
+	 * 请求映射前缀树，映射变化后在下一次查找时重新构建
+	 */
+	private transient volatile PathMatcherTrie<Map<Method, ActionSupportProxy>> mappingTrie;
+	
+	// 获取请求映射前缀树
+	private PathMatcherTrie<Map<Method, ActionSupportProxy>> getMappingTrie() {
+		PathMatcherTrie<Map<Method, ActionSupportProxy>> trie = mappingTrie;
+		if (trie != null) return trie;
+		synchronized (mappings) {
+			if ((trie = mappingTrie) == null) {
+				mappingTrie = trie = new PathMatcherTrie<>(mappings);
+			}
+			return trie;
+		}
+	}
+	
+	/**
+	 * 根据URI获取一个Action代理对象及URI中的变量
 	 * @param requestUri 访问Action的URI
-	 * @return Action 代理对象
+	 * @return 匹配结果，未找到时返回 null
 	 */
-	public final Map<Method, ActionSupportProxy> getActionProxy(String requestUri) {
+	public final PathMatcherTrie.Result<Map<Method, ActionSupportProxy>> getActionRoute(String requestUri) {
 		String uri = Optional.ofNullable(requestUri).map(v -> { //
 			return v.startsWith("/") ? v.substring(1) : v;
 		}).orElseThrow();
-		return Optional.ofNullable(mappings.get(uri)).orElseGet(() -> { //
-			return mappings.keySet().stream().filter(k -> { //
-				return MATCHER.match(k, uri); //
-			}).min(MATCHER.getPatternComparator(uri))
-					.map(mappings::get).orElse(null);
-		});
+		return getMappingTrie().match(uri);
+	}
+	
+	/**
+	 * 根据URI获取一个Action代理对象
+	 * @param requestUri 访问Action的URI
+	 * @return Action 代理对象
+	 */
+	public final Map<Method, ActionSupportProxy> getActionProxy(String requestUri) {
+		return Optional.ofNullable(getActionRoute(requestUri))
+				.map(PathMatcherTrie.Result::getValue)
+				.orElse(null);
 	}
 	
 	/**
@@ -322,25 +427,29 @@ public final class Configures implements EventListener, Serializable {
 		String uri = Optional.ofNullable(requestUri).map(v -> {
 			return v.startsWith("/") ? v.substring(1) : v; //
 		}).orElseThrow();
-		Optional.ofNullable(getActionProxy(requestUri)).ifPresentOrElse(map -> {
-			Stream.of(proxy.getSupportMethod()).forEach(m -> {
-				if (map.get(m) != null) {
-					String message = "The url '%s' already exists \n%s \n%s ";  //
-					throw new RuntimeException(format(message, uri, map.get(m).getMethod(), proxy.getMethod()));
+		synchronized (mappings) {
+			// 注册时只按 URI 原文合并，不查找前缀树，前缀树在注册完成后的第一次查找时构建
+			Optional.ofNullable(mappings.get(uri)).ifPresentOrElse(map -> {
+				Stream.of(proxy.getSupportMethod()).forEach(m -> {
+					if (map.get(m) != null) {
+						String message = "The url '%s' already exists \n%s \n%s ";  //
+						throw new RuntimeException(format(message, uri, map.get(m).getMethod(), proxy.getMethod()));
+					}
+					map.put(m, proxy);
+				});
+				mappings.put(uri, map);
+			}, () -> {
+				// 创建请求映射
+				HashMap<Method, ActionSupportProxy> map = new HashMap<>();
+				for (Method method : proxy.getSupportMethod()) {
+					map.put(method, proxy); //
 				}
-				map.put(m, proxy);
+				// 添加对象到请求映射
+				mappings.put(uri, map);
+				log.debug("Register Action: " + uri);
 			});
-			mappings.put(uri, map);
-		}, () -> {
-			// 创建请求映射
-			HashMap<Method, ActionSupportProxy> map = new HashMap<>();
-			for (Method method : proxy.getSupportMethod()) {
-				map.put(method, proxy); //
-			}
-			// 添加对象到请求映射
-			mappings.put(uri, map);
-			log.debug("Register Action: " + uri);
-		});
+			mappingTrie = null;
+		}
 	}
 	
 	/**
@@ -504,6 +613,20 @@ public final class Configures implements EventListener, Serializable {
 		return pageViewResolver;
 	}
 	
+	/**
+	 * JSON类型数据输出
+	 */
+	private JsonViewResolver jsonViewResolver = new FastJsonViewResolver();
+	
+	public void setJsonViewResolver(Class<? extends JsonViewResolver> resolver) {
+		jsonViewResolver = requireNonNull(injector.getInstance(resolver));
+	}
+	
+	@Nonnull
+	public JsonViewResolver getJsonViewResolver() {
+		return jsonViewResolver;
+	}
+	
 	/**
 	 * 国际化工厂
 	 */
@@ -0,0 +1,228 @@
+package com.mini.core.web.util;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.Arrays;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static javax.servlet.http.HttpServletResponse.SC_NOT_MODIFIED;
+import static javax.servlet.http.HttpServletResponse.SC_OK;
+
+/**
+ * 计算弱 ETag 的响应
+ * <p>
+ * 输出数据时同时计算哈希值并缓存数据，完成后设置 ETag，与 If-None-Match 一致时返回 304 不输出数据；
+ * 数据超过缓存上限时直接输出，不使用 ETag
+ * @author xchao
+ */
+@SuppressWarnings("UnstableApiUsage")
+public final class ETagResponse extends HttpServletResponseWrapper {
+	private static final int LIMIT = 256 * 1024;
+	private Hasher hasher = Hashing.murmur3_128().newHasher();
+	private byte[] buffer = new byte[1024];
+	private long contentLength = -1;
+	private ServletOutputStream stream;
+	private PrintWriter writer;
+	// 超过缓存上限后直接输出
+	private boolean overflow;
+	private int count;
+	
+	public ETagResponse(HttpServletResponse response) {
+		super(response);
+	}
+	
+	/**
+	 * 根据版本键生成强 ETag
+	 * @param version 版本键
+	 * @return ETag
+	 */
+	@Nonnull
+	public static String strong(@Nonnull String version) {
+		return '"' + Hashing.murmur3_128().hashString(version, UTF_8).toString() + '"';
+	}
+	
+	/**
+	 * 判断 If-None-Match 是否包含指定的 ETag，使用弱比较
+	 * @param ifNoneMatch If-None-Match 头信息
+	 * @param eTag        ETag
+	 * @return true-包含
+	 */
+	public static boolean matches(@Nullable String ifNoneMatch, @Nonnull String eTag) {
+		if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+			return false;
+		}
+		String tag = opaque(eTag);
+		for (String value : ifNoneMatch.split(",")) {
+			value = value.trim();
+			if ("*".equals(value) || opaque(value).equals(tag)) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	private static String opaque(String eTag) {
+		return eTag.startsWith("W/") ? eTag.substring(2) : eTag;
+	}
+	
+	@Override
+	public ServletOutputStream getOutputStream() throws IOException {
+		if (writer != null) {
+			throw new IllegalStateException("getWriter() has already been called");
+		}
+		return stream = stream != null ? stream : new Stream();
+	}
+	
+	@Override
+	public PrintWriter getWriter() throws IOException {
+		if (writer == null) {
+			if (stream != null) {
+				throw new IllegalStateException("getOutputStream() has already been called");
+			}
+			stream = new Stream();
+			writer = new PrintWriter(new OutputStreamWriter(stream, getCharacterEncoding()));
+		}
+		return writer;
+	}
+	
+	@Override
+	public void setContentLength(int len) {
+		setContentLengthLong(len);
+	}
+	
+	@Override
+	public void setContentLengthLong(long len) {
+		if (overflow) {
+			super.setContentLengthLong(len);
+		} else this.contentLength = len;
+	}
+	
+	// 缓存数据时不提交响应
+	@Override
+	public void flushBuffer() throws IOException {
+		if (writer != null) {
+			writer.flush();
+		}
+		if (overflow) {
+			super.flushBuffer();
+		}
+	}
+	
+	@Override
+	public void resetBuffer() {
+		super.resetBuffer();
+		this.hasher = Hashing.murmur3_128().newHasher();
+		this.count = 0;
+	}
+	
+	@Override
+	public void reset() {
+		super.reset();
+		this.hasher = Hashing.murmur3_128().newHasher();
+		this.contentLength = -1;
+		this.count = 0;
+	}
+	
+	/**
+	 * 设置 ETag 并输出缓存的数据
+	 * @param request HttpServletRequest
+	 */
+	public void finish(@Nonnull HttpServletRequest request) throws IOException {
+		if (writer != null) {
+			writer.flush();
+		}
+		if (overflow || isCommitted()) {
+			return;
+		}
+		// 数据没有经过当前输出流时（如容器直接发送文件）不能计算 ETag
+		boolean complete = contentLength < 0 || contentLength == count;
+		if (complete && getStatus() == SC_OK && !containsHeader("ETag")) {
+			String eTag = "W/\"" + hasher.hash().toString() + '"';
+			super.setHeader("ETag", eTag);
+			if (matches(request.getHeader("If-None-Match"), eTag)) {
+				super.setStatus(SC_NOT_MODIFIED);
+				return;
+			}
+		}
+		this.overflow(true);
+	}
+	
+	// 输出缓存的数据，之后的数据直接输出，数据已经完整时设置数据长度
+	private void overflow(boolean complete) throws IOException {
+		this.overflow = true;
+		if (contentLength >= 0) {
+			super.setContentLengthLong(contentLength);
+		} else if (complete && count > 0) {
+			super.setContentLengthLong(count);
+		}
+		if (count > 0) {
+			super.getOutputStream().write(buffer, 0, count);
+		}
+		this.buffer = null;
+	}
+	
+	private final class Stream extends ServletOutputStream {
+		private final byte[] single = new byte[1];
+		
+		@Override
+		public boolean isReady() {
+			return true;
+		}
+		
+		@Override
+		public void setWriteListener(WriteListener listener) {
+			try {
+				ETagResponse.super.getOutputStream().setWriteListener(listener);
+			} catch (IOException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+		
+		@Override
+		public void write(int b) throws IOException {
+			single[0] = (byte) b;
+			write(single, 0, 1);
+		}
+		
+		@Override
+		public void write(@Nonnull byte[] b, int off, int len) throws IOException {
+			if (!overflow && count + len > LIMIT) {
+				// 数据超过缓存上限，不再计算 ETag
+				overflow(false);
+			}
+			if (overflow) {
+				ETagResponse.super.getOutputStream().write(b, off, len);
+				return;
+			}
+			if (count + len > buffer.length) {
+				buffer = Arrays.copyOf(buffer, Math.max(buffer.length << 1, count + len));
+			}
+			System.arraycopy(b, off, buffer, count, len);
+			hasher.putBytes(b, off, len);
+			count += len;
+		}
+		
+		@Override
+		public void flush() throws IOException {
+			if (overflow) {
+				ETagResponse.super.getOutputStream().flush();
+			}
+		}
+		
+		@Override
+		public void close() throws IOException {
+			flush();
+		}
+	}
+}
@@ -0,0 +1,44 @@
+package com.mini.core.web.view;
+
+import com.alibaba.fastjson.serializer.JSONSerializer;
+import com.alibaba.fastjson.serializer.SerializeWriter;
+
+import javax.annotation.Nullable;
+import javax.inject.Singleton;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.Serializable;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * fastjson 实现的JSON数据输出
+ * <p>
+ * SerializeWriter 使用线程内复用的字符缓冲区，缓冲区满时经 {@link Utf8Writer} 编码后写入响应流
+ * @author xchao
+ */
+@Singleton
+public class FastJsonViewResolver implements JsonViewResolver, Serializable {
+	private static final long serialVersionUID = -1L;
+	
+	@Override
+	public void generator(int error, String message, @Nullable Object data, HttpServletResponse response) throws IOException {
+		response.setCharacterEncoding(UTF_8.name());
+		try (Utf8Writer writer = Utf8Writer.open(response.getOutputStream());
+		     SerializeWriter out = new SerializeWriter(writer)) {
+			JSONSerializer serializer = new JSONSerializer(out);
+			out.write('{');
+			out.writeFieldName("message");
+			serializer.write(message);
+			if (data != null) {
+				out.write(',');
+				out.writeFieldName("data");
+				serializer.write(data);
+			}
+			out.write(',');
+			out.writeFieldName("error");
+			out.writeInt(error);
+			out.write('}');
+		}
+	}
+}
@@ -0,0 +1,23 @@
+package com.mini.core.web.view;
+
+import javax.annotation.Nullable;
+import javax.servlet.http.HttpServletResponse;
+import java.io.Serializable;
+
+/**
+ * JSON数据输出
+ * <p>
+ * 数据格式为 {"message":message,"data":data,"error":error}，data 为空时不输出；
+ * 实现类应直接写入 {@link HttpServletResponse#getOutputStream()}，不生成中间的 JSON 字符串
+ * @author xchao
+ */
+public interface JsonViewResolver extends Serializable {
+	/**
+	 * 生成JSON数据
+	 * @param error    错误码，成功时为0
+	 * @param message  消息内容
+	 * @param data     数据内容
+	 * @param response HttpServletResponse
+	 */
+	void generator(int error, String message, @Nullable Object data, HttpServletResponse response) throws Exception;
+}
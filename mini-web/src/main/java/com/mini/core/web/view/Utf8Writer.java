@@ -0,0 +1,127 @@
+package com.mini.core.web.view;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+
+/**
+ * 线程内复用的 UTF-8 输出
+ * <p>
+ * 字符直接编码到复用的字节缓冲区，缓冲区满或者刷新时写入目标输出流；关闭时只刷新数据，不关闭目标输出流
+ * @author xchao
+ */
+public final class Utf8Writer extends Writer {
+	private static final ThreadLocal<Utf8Writer> LOCAL = ThreadLocal.withInitial(Utf8Writer::new);
+	private final byte[] buffer = new byte[8192];
+	private OutputStream output;
+	// 等待低位代理的高位代理字符
+	private char surrogate;
+	private int count;
+	
+	private Utf8Writer() {
+	}
+	
+	/**
+	 * 获取当前线程的输出对象，当前线程的对象正在使用时创建新的对象
+	 * @param output 目标输出流
+	 * @return 输出对象
+	 */
+	@Nonnull
+	public static Utf8Writer open(@Nonnull OutputStream output) {
+		Utf8Writer writer = LOCAL.get();
+		if (writer.output != null) {
+			writer = new Utf8Writer();
+		}
+		writer.output = output;
+		return writer;
+	}
+	
+	@Override
+	public void write(int c) throws IOException {
+		encode((char) c);
+	}
+	
+	@Override
+	public void write(@Nonnull char[] chars, int off, int len) throws IOException {
+		for (int i = off, end = off + len; i < end; i++) {
+			char c = chars[i];
+			if (c < 0x80 && surrogate == 0) {
+				if (count == buffer.length) {
+					flushBuffer();
+				}
+				buffer[count++] = (byte) c;
+			} else encode(c);
+		}
+	}
+	
+	@Override
+	public void write(@Nonnull String str, int off, int len) throws IOException {
+		for (int i = off, end = off + len; i < end; i++) {
+			encode(str.charAt(i));
+		}
+	}
+	
+	private void encode(char c) throws IOException {
+		if (count + 4 > buffer.length) {
+			flushBuffer();
+		}
+		if (surrogate != 0) {
+			char high = surrogate;
+			surrogate = 0;
+			if (Character.isLowSurrogate(c)) {
+				int code = Character.toCodePoint(high, c);
+				buffer[count++] = (byte) (0xF0 | code >> 18);
+				buffer[count++] = (byte) (0x80 | code >> 12 & 0x3F);
+				buffer[count++] = (byte) (0x80 | code >> 6 & 0x3F);
+				buffer[count++] = (byte) (0x80 | code & 0x3F);
+				return;
+			}
+			// 不成对的代理字符
+			buffer[count++] = '?';
+			encode(c);
+			return;
+		}
+		if (c < 0x80) {
+			buffer[count++] = (byte) c;
+		} else if (c < 0x800) {
+			buffer[count++] = (byte) (0xC0 | c >> 6);
+			buffer[count++] = (byte) (0x80 | c & 0x3F);
+		} else if (Character.isHighSurrogate(c)) {
+			surrogate = c;
+		} else if (Character.isLowSurrogate(c)) {
+			buffer[count++] = '?';
+		} else {
+			buffer[count++] = (byte) (0xE0 | c >> 12);
+			buffer[count++] = (byte) (0x80 | c >> 6 & 0x3F);
+			buffer[count++] = (byte) (0x80 | c & 0x3F);
+		}
+	}
+	
+	private void flushBuffer() throws IOException {
+		if (count > 0) {
+			output.write(buffer, 0, count);
+			count = 0;
+		}
+	}
+	
+	@Override
+	public void flush() throws IOException {
+		flushBuffer();
+		output.flush();
+	}
+	
+	@Override
+	public void close() throws IOException {
+		try {
+			if (surrogate != 0) {
+				surrogate = 0;
+				write('?');
+			}
+			flush();
+		} finally {
+			this.count = 0;
+			this.output = null;
+		}
+	}
+}
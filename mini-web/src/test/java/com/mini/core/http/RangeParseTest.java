@@ -0,0 +1,102 @@
+package com.mini.core.http;
+
+import com.mini.core.http.RangeParse.Range;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Range 头的解析、验证和相邻范围的合并
+ * @author xchao
+ */
+public class RangeParseTest {
+	
+	@Test
+	public void suffixRange() {
+		assertRange(RangeParse.parseRange("bytes=-500", 1000), 500, 999);
+		// 后缀长度超过数据长度时返回全部数据
+		assertRange(RangeParse.parseRange("bytes=-5000", 1000), 0, 999);
+		// 后缀长度为 0 时不能满足
+		assertTrue(RangeParse.parseRange("bytes=-0", 1000).isEmpty());
+	}
+	
+	@Test
+	public void openEndedRange() {
+		assertRange(RangeParse.parseRange("bytes=500-", 1000), 500, 999);
+		assertRange(RangeParse.parseRange("bytes=999-", 1000), 999, 999);
+		// 结束位置超过数据长度时到数据末尾
+		assertRange(RangeParse.parseRange("bytes=100-1999", 1000), 100, 999);
+		assertRange(RangeParse.parseRange("  Bytes=0 - 9 ", 1000), 0, 9);
+	}
+	
+	@Test
+	public void invalidRangeReturnsNull() {
+		for (String text : new String[]{"", "bytes=", "bytes=,", "items=0-1", "bytes=1", "bytes=-",
+				"bytes=a-1", "bytes=1-b", "bytes=5-1", "bytes=0-1,x"}) {
+			assertNull(text, RangeParse.parseRange(text));
+			assertNull(text, RangeParse.parseRange(text, 1000));
+		}
+		// 允许空的列表元素
+		assertEquals(2, RangeParse.parseRange("bytes=0-1,,500-600").size());
+	}
+	
+	@Test
+	public void unsatisfiableRangesAreDropped() {
+		assertTrue(RangeParse.parseRange("bytes=1000-", 1000).isEmpty());
+		assertTrue(RangeParse.parseRange("bytes=0-1", 0).isEmpty());
+		assertRange(RangeParse.parseRange("bytes=2000-3000,10-19", 1000), 10, 19);
+	}
+	
+	@Test
+	public void rangesWithinGapAreCoalesced() {
+		// 间隔 80 字节时合并
+		List<Range> merged = RangeParse.parseRange("bytes=0-99,180-199", 1000);
+		assertRange(merged, 0, 199);
+		assertEquals(1000, merged.get(0).getLength());
+		assertEquals(200, merged.get(0).getSize());
+		
+		// 间隔 81 字节时不合并
+		List<Range> separate = RangeParse.parseRange("bytes=0-99,181-199", 1000);
+		assertEquals(2, separate.size());
+		assertEquals(99, separate.get(0).getEnd());
+		assertEquals(181, separate.get(1).getStart());
+	}
+	
+	@Test
+	public void overlappingRangesAreSortedAndMerged() {
+		List<Range> list = RangeParse.parseRange("bytes=500-600,0-10,550-700,-100", 1000);
+		assertEquals(3, list.size());
+		assertEquals(0, list.get(0).getStart());
+		assertEquals(10, list.get(0).getEnd());
+		assertEquals(500, list.get(1).getStart());
+		assertEquals(700, list.get(1).getEnd());
+		assertEquals(900, list.get(2).getStart());
+		assertEquals(999, list.get(2).getEnd());
+		// 包含在前一个范围内的范围不缩短结束位置
+		assertRange(RangeParse.parseRange("bytes=0-500,10-20", 1000), 0, 500);
+	}
+	
+	@Test
+	public void tooManyRangesAreIgnored() {
+		assertEquals(64, RangeParse.parseRange(ranges(64), 1_000_000).size());
+		assertNull(RangeParse.parseRange(ranges(65), 1_000_000));
+	}
+	
+	// 生成间隔很大不会合并的多个范围
+	private static String ranges(int count) {
+		StringBuilder builder = new StringBuilder("bytes=");
+		for (int i = 0; i < count; i++) {
+			builder.append(i == 0 ? "" : ",").append(i * 1000).append('-').append(i * 1000 + 9);
+		}
+		return builder.toString();
+	}
+	
+	private static void assertRange(List<Range> list, long start, long end) {
+		assertNotNull(list);
+		assertEquals(1, list.size());
+		assertEquals(start, list.get(0).getStart());
+		assertEquals(end, list.get(0).getEnd());
+	}
+}
@@ -0,0 +1,224 @@
+package com.mini.core.jdbc;
+
+import org.junit.Test;
+
+import javax.sql.DataSource;
+import javax.sql.rowset.RowSetMetaDataImpl;
+import javax.sql.rowset.RowSetProvider;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * 使用内存中的 JDBC 桩验证 PreparedStatement 的复用和关闭
+ * @author xchao
+ */
+public class JdbcAccessorTest {
+	private final StubDatabase database = new StubDatabase();
+	private final JdbcTemplate jdbc = new MysqlJdbcTemplate(database.dataSource());
+	
+	@Test
+	public void statementsAreReusedOnTheSameConnection() {
+		jdbc.execute((JdbcAccessor.ConnectionCallback<Void>) con -> {
+			for (int i = 0; i < 100; i++) {
+				assertEquals(1, jdbc.execute("UPDATE user_info SET user_age = ? WHERE user_id = ?", i, 1));
+				jdbc.queryList("SELECT * FROM user_info WHERE user_id = ?", (rs, number) -> null, i);
+			}
+			return null;
+		});
+		assertEquals(2, database.statements.size());
+		assertEquals(198, jdbc.getStatementCacheHits());
+		assertEquals(2, jdbc.getStatementCacheMisses());
+		database.assertAllClosed();
+	}
+	
+	@Test
+	public void evictedStatementsAreClosed() {
+		jdbc.setStatementCacheSize(5);
+		jdbc.execute((JdbcAccessor.ConnectionCallback<Void>) con -> {
+			for (int round = 0; round < 3; round++) {
+				for (int i = 0; i < 8; i++) {
+					jdbc.execute("UPDATE t" + i + " SET a = ?", round);
+					assertTrue(database.openStatements() <= 5);
+				}
+			}
+			return null;
+		});
+		// 8 条 SQL 轮流执行，缓存只能保留 5 条，每次都被淘汰
+		assertEquals(24, database.statements.size());
+		database.assertAllClosed();
+	}
+	
+	@Test
+	public void failedStatementIsClosedAndNotReused() {
+		jdbc.execute((JdbcAccessor.ConnectionCallback<Void>) con -> {
+			for (int i = 0; i < 3; i++) {
+				try {
+					jdbc.execute("UPDATE FAIL SET a = ?", i);
+					fail();
+				} catch (Exception e) {
+					assertEquals("stub failure", e.getMessage());
+				}
+				assertEquals(0, database.openStatements());
+			}
+			return null;
+		});
+		assertEquals(3, database.statements.size());
+		database.assertAllClosed();
+	}
+	
+	@Test
+	public void statementsAreClosedWithEachConnection() {
+		for (int i = 0; i < 10; i++) {
+			jdbc.execute("UPDATE user_info SET user_age = ?", i);
+			database.assertAllClosed();
+		}
+		assertEquals(10, database.connections);
+		assertEquals(10, database.statements.size());
+	}
+	
+	@Test
+	public void cacheCanBeDisabled() {
+		jdbc.setStatementCacheSize(0);
+		jdbc.execute((JdbcAccessor.ConnectionCallback<Void>) con -> {
+			for (int i = 0; i < 10; i++) {
+				jdbc.execute("UPDATE user_info SET user_age = ?", i);
+				assertEquals(0, database.openStatements());
+			}
+			return null;
+		});
+		assertEquals(10, database.statements.size());
+		assertEquals(0, jdbc.getStatementCacheHits());
+		database.assertAllClosed();
+	}
+	
+	@Test
+	public void endFailureIsSuppressedByCallbackFailure() {
+		database.failRollback = true;
+		try {
+			JdbcAccessor.transaction(List.of(jdbc), -1, false, () -> {
+				jdbc.execute("UPDATE user_info SET user_age = ?", 1);
+				throw new IllegalStateException("callback failure");
+			});
+			fail();
+		} catch (Throwable e) {
+			assertEquals("callback failure", e.getMessage());
+			assertEquals(1, e.getSuppressed().length);
+			assertEquals("rollback failure", e.getSuppressed()[0].getMessage());
+		}
+		database.assertAllClosed();
+	}
+	
+	@Test
+	public void endFailureIsThrownWhenCallbackSucceeds() {
+		database.failCommit = true;
+		try {
+			JdbcAccessor.transaction(List.of(jdbc), -1, false, () -> jdbc.execute("UPDATE user_info SET user_age = ?", 1));
+			fail();
+		} catch (Throwable e) {
+			assertEquals("commit failure", e.getMessage());
+			assertEquals(0, e.getSuppressed().length);
+		}
+		database.assertAllClosed();
+	}
+	
+	/**
+	 * 记录创建的连接和 PreparedStatement，SQL 中包含 FAIL 时执行失败
+	 */
+	static final class StubDatabase {
+		final List<boolean[]> statements = new ArrayList<>();
+		final List<boolean[]> closedConnections = new ArrayList<>();
+		boolean failCommit, failRollback;
+		int connections;
+		
+		DataSource dataSource() {
+			return proxy(DataSource.class, (p, method, args) -> {
+				if (method.getName().equals("getConnection")) {
+					return connection();
+				}
+				return defaultValue(method.getReturnType());
+			});
+		}
+		
+		int openStatements() {
+			return (int) statements.stream().filter(s -> !s[0]).count();
+		}
+		
+		void assertAllClosed() {
+			assertEquals("statements", 0, openStatements());
+			assertEquals("connections", connections, closedConnections.stream().filter(c -> c[0]).count());
+		}
+		
+		private Connection connection() {
+			boolean[] closed = {false};
+			connections++;
+			closedConnections.add(closed);
+			return proxy(Connection.class, (p, method, args) -> {
+				switch (method.getName()) {
+					case "prepareStatement":
+						return statement((String) args[0]);
+					case "close":
+						closed[0] = true;
+						return null;
+					case "isClosed":
+						return closed[0];
+					case "commit":
+						if (failCommit) throw new SQLException("commit failure");
+						return null;
+					case "rollback":
+						if (failRollback) throw new SQLException("rollback failure");
+						return null;
+					default:
+						return defaultValue(method.getReturnType());
+				}
+			});
+		}
+		
+		private PreparedStatement statement(String sql) {
+			boolean[] closed = {false};
+			statements.add(closed);
+			return proxy(PreparedStatement.class, (p, method, args) -> {
+				switch (method.getName()) {
+					case "close":
+						closed[0] = true;
+						return null;
+					case "isClosed":
+						return closed[0];
+					case "executeUpdate":
+					case "executeQuery":
+						assertFalse("statement used after close", closed[0]);
+						if (sql.contains("FAIL")) throw new SQLException("stub failure");
+						return method.getName().equals("executeQuery") ? emptyResultSet() : 1;
+					default:
+						return defaultValue(method.getReturnType());
+				}
+			});
+		}
+		
+		private static ResultSet emptyResultSet() throws SQLException {
+			RowSetMetaDataImpl metaData = new RowSetMetaDataImpl();
+			metaData.setColumnCount(1);
+			metaData.setColumnLabel(1, "user_id");
+			metaData.setColumnType(1, Types.BIGINT);
+			var rs = RowSetProvider.newFactory().createCachedRowSet();
+			rs.setMetaData(metaData);
+			return rs;
+		}
+		
+		@SuppressWarnings("unchecked")
+		private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+			return (T) Proxy.newProxyInstance(JdbcAccessorTest.class.getClassLoader(), new Class<?>[]{type}, handler);
+		}
+		
+		private static Object defaultValue(Class<?> type) {
+			if (type == boolean.class) return false;
+			if (type == int.class) return 0;
+			if (type == long.class) return 0L;
+			return null;
+		}
+	}
+}
@@ -0,0 +1,463 @@
+package com.mini.core.jdbc;
+
+import com.mini.core.jdbc.annotation.*;
+import com.mini.core.jdbc.builder.SQLBuilder;
+import com.mini.core.jdbc.builder.SQLInterfaceDef;
+import org.junit.Test;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.sql.*;
+import java.util.*;
+import java.util.Date;
+import java.util.function.BiConsumer;
+
+import static org.junit.Assert.*;
+
+/**
+ * 使用记录 SQL 和参数的 JDBC 桩验证多行语句的分批、参数顺序和自增长ID回填
+ * @author xchao
+ */
+public class JdbcTemplateBatchTest {
+	private final RecordingDatabase database = new RecordingDatabase();
+	private final JdbcTemplate mysql = new MysqlJdbcTemplate(database.dataSource());
+	private final JdbcTemplate oracle = new OracleJdbcTemplate(database.dataSource());
+	
+	@Test
+	public void insertBatchIsSplitByBatchRows() {
+		mysql.setBatchRows(3);
+		List<Item> items = items(7);
+		assertEquals(7, mysql.insertBatch(items));
+		
+		// 7 行数据分为 3、3、1 行三条语句
+		assertEquals(3, database.executions.size());
+		int[] sizes = {3, 3, 1};
+		for (int i = 0, from = 0; i < sizes.length; from += sizes[i++]) {
+			Execution execution = database.executions.get(i);
+			assertEquals(multiRow(insert(items.get(0)), sizes[i]), execution.sql);
+			assertTrue(execution.generatedKeys);
+			assertArrayEquals(rowArgs(items.subList(from, from + sizes[i]), this::insertInto), execution.params.get(0));
+		}
+	}
+	
+	@Test
+	public void insertBatchIsSplitByBatchParams() {
+		// 每行 2 个参数，最多 5 个参数时每批 2 行
+		mysql.setBatchParams(5);
+		List<Item> items = items(5);
+		assertEquals(2, insert(items.get(0)).args().length);
+		assertEquals(5, mysql.insertBatch(items));
+		assertEquals(3, database.executions.size());
+		assertEquals(4, database.executions.get(0).params.get(0).length);
+		assertEquals(4, database.executions.get(1).params.get(0).length);
+		assertEquals(2, database.executions.get(2).params.get(0).length);
+		
+		// 单行参数个数超过限制时每批 1 行
+		database.executions.clear();
+		mysql.setBatchParams(1);
+		mysql.insertBatch(items(2));
+		assertEquals(2, database.executions.size());
+	}
+	
+	@Test
+	public void generatedKeysAreWrittenBackInRowOrder() {
+		mysql.setBatchRows(4);
+		List<Item> items = items(10);
+		mysql.insertBatch(items);
+		for (int i = 0; i < items.size(); i++) {
+			assertEquals(Long.valueOf(100 + i), items.get(i).getId());
+		}
+	}
+	
+	@Test
+	public void replaceBatchUsesReplaceInto() {
+		List<Item> items = items(3);
+		mysql.replaceBatch(items);
+		Execution execution = database.executions.get(0);
+		assertTrue(execution.sql.startsWith("REPLACE INTO "));
+		assertTrue(execution.generatedKeys);
+		assertEquals(Long.valueOf(102), items.get(2).getId());
+	}
+	
+	@Test
+	public void insertOnUpdateArgsFollowAllRows() {
+		mysql.setBatchRows(2);
+		List<Stock> stocks = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			stocks.add(new Stock((long) i, "stock" + i));
+		}
+		mysql.insertOnUpdateBatch(stocks);
+		assertEquals(2, database.executions.size());
+		
+		// VALUES 中每行的参数在前，ON DUPLICATE KEY UPDATE 的参数在所有行之后
+		SQLBuilder first = insertOnUpdate(stocks.get(0));
+		assertTrue(first.toSQL().contains("ON DUPLICATE KEY UPDATE"));
+		int values = valuesCount(first);
+		Object[] shared = Arrays.copyOfRange(first.args(), values, first.args().length);
+		assertEquals(1, shared.length);
+		
+		Execution execution = database.executions.get(0);
+		assertFalse(execution.generatedKeys);
+		assertEquals(multiRow(first, 2), execution.sql);
+		List<Object> expected = new ArrayList<>();
+		for (Stock stock : stocks.subList(0, 2)) {
+			expected.addAll(Arrays.asList(insertOnUpdate(stock).args()).subList(0, values));
+		}
+		expected.addAll(Arrays.asList(shared));
+		assertSameArgs(expected.toArray(), execution.params.get(0));
+		assertSameArgs(insertOnUpdate(stocks.get(2)).args(), database.executions.get(1).params.get(0));
+	}
+	
+	@Test
+	public void addRowSplicesValuesBeforeUpdateArgs() {
+		SQLBuilder builder = new SQLBuilder().insertInto("t").values("a").values("b").args(1, 2)
+				.onDuplicateKeyUpdateEquals("c", "x");
+		builder.addRow(new SQLBuilder().insertInto("t").values("a").values("b").args(3, 4)
+				.onDuplicateKeyUpdateEquals("c", "y"));
+		builder.addRow(new SQLBuilder().insertInto("t").values("a").values("b").args(5, 6)
+				.onDuplicateKeyUpdateEquals("c", "z"));
+		assertEquals(3, builder.rows());
+		assertEquals(3, builder.toSQL().split("\\), \\(", -1).length);
+		// 只追加每行 VALUES 的参数，其他子句的参数保留当前语句的
+		assertArrayEquals(new Object[]{1, 2, 3, 4, 5, 6, "x"}, builder.args());
+	}
+	
+	@Test
+	public void addRowRejectsDifferentColumns() {
+		SQLBuilder builder = new SQLBuilder().insertInto("t").values("a").args(1);
+		try {
+			builder.addRow(new SQLBuilder().insertInto("t").values("b").args(2));
+			fail();
+		} catch (IllegalArgumentException expected) {
+			assertEquals(1, builder.rows());
+		}
+	}
+	
+	@Test
+	public void batchWithoutMultiRowInsertUsesJdbcBatch() {
+		oracle.setBatchRows(4);
+		List<Item> items = items(6);
+		assertEquals(6, oracle.insertBatch(items));
+		
+		// 每批使用单行语句的 JDBC 批处理
+		assertEquals(2, database.executions.size());
+		Execution execution = database.executions.get(0);
+		assertEquals(insert(items.get(0)).toSQL(), execution.sql);
+		assertEquals(4, execution.params.size());
+		for (int i = 0; i < 4; i++) {
+			assertArrayEquals(insert(items.get(i)).args(), execution.params.get(i));
+		}
+		assertEquals(2, database.executions.get(1).params.size());
+		for (int i = 0; i < items.size(); i++) {
+			assertEquals(Long.valueOf(100 + i), items.get(i).getId());
+		}
+	}
+	
+	@Test
+	public void executeBatchFlushesEveryBatchRows() {
+		mysql.setBatchRows(3);
+		int[] result = mysql.executeBatch("UPDATE item SET item_count = ? WHERE item_id = ?",
+				new JdbcInterface.PreparedStatementSetter() {
+					public void setValues(PreparedStatement ps, int i) {
+						try {
+							ps.setObject(1, i);
+							ps.setObject(2, i * 10);
+						} catch (SQLException e) {
+							throw new IllegalStateException(e);
+						}
+					}
+					
+					public int getBatchSize() {
+						return 8;
+					}
+				});
+		assertEquals(8, result.length);
+		assertEquals(3, database.executions.size());
+		assertEquals(3, database.executions.get(0).params.size());
+		assertEquals(3, database.executions.get(1).params.size());
+		assertEquals(2, database.executions.get(2).params.size());
+		assertArrayEquals(new Object[]{7, 70}, database.executions.get(2).params.get(1));
+	}
+	
+	@Test
+	public void mixedTypesAreRejected() {
+		try {
+			mysql.insertBatch(List.of(new Item("a", 1), new SubItem()));
+			fail();
+		} catch (IllegalArgumentException expected) {
+			assertTrue(database.executions.isEmpty());
+		}
+	}
+	
+	private static List<Item> items(int count) {
+		List<Item> result = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			result.add(new Item("item" + i, i));
+		}
+		return result;
+	}
+	
+	private SQLBuilder insert(Object instance) {
+		SQLBuilder builder = new SQLBuilder();
+		insertInto(builder, instance);
+		return builder;
+	}
+	
+	private void insertInto(SQLBuilder builder, Object instance) {
+		SQLInterfaceDef.getSQLInterface(instance.getClass()).createInsert(builder, instance);
+	}
+	
+	private static SQLBuilder insertOnUpdate(Object instance) {
+		SQLBuilder builder = new SQLBuilder();
+		SQLInterfaceDef.getSQLInterface(instance.getClass()).createInsertOnUpdate(builder, instance);
+		return builder;
+	}
+	
+	// 单行语句的参数依次拼接
+	private static Object[] rowArgs(List<?> rows, BiConsumer<SQLBuilder, Object> creator) {
+		List<Object> result = new ArrayList<>();
+		for (Object row : rows) {
+			SQLBuilder builder = new SQLBuilder();
+			creator.accept(builder, row);
+			result.addAll(Arrays.asList(builder.args()));
+		}
+		return result.toArray();
+	}
+	
+	// 单行语句中 VALUES 后的值列表重复指定的行数
+	private static String multiRow(SQLBuilder single, int rows) {
+		String sql = single.toSQL();
+		int start = sql.indexOf('(', sql.indexOf("VALUES"));
+		int end = sql.indexOf(')', start) + 1;
+		String tuple = sql.substring(start, end);
+		StringBuilder result = new StringBuilder(sql.substring(0, end));
+		for (int i = 1; i < rows; i++) {
+			result.append(", ").append(tuple);
+		}
+		return result.append(sql.substring(end)).toString();
+	}
+	
+	// VALUES 子句中的参数个数
+	private static int valuesCount(SQLBuilder single) {
+		String sql = single.toSQL();
+		int start = sql.indexOf("VALUES");
+		String tuple = sql.substring(start, sql.indexOf(')', start));
+		return (int) tuple.chars().filter(c -> c == '?').count();
+	}
+	
+	// 当前时间的参数只比较类型
+	private static void assertSameArgs(Object[] expected, Object[] actual) {
+		assertEquals(expected.length, actual.length);
+		for (int i = 0; i < expected.length; i++) {
+			if (expected[i] instanceof Date) {
+				assertTrue(actual[i] instanceof Date);
+			} else assertEquals(expected[i], actual[i]);
+		}
+	}
+	
+	@Table("item")
+	public static class Item {
+		@Id
+		@Auto
+		@Column("item_id")
+		private Long id;
+		@Column("item_name")
+		private String name;
+		@Column("item_count")
+		private int count;
+		
+		public Item() {
+		}
+		
+		Item(String name, int count) {
+			this.name = name;
+			this.count = count;
+		}
+		
+		public Long getId() {
+			return id;
+		}
+		
+		public void setId(Long id) {
+			this.id = id;
+		}
+		
+		public String getName() {
+			return name;
+		}
+		
+		public void setName(String name) {
+			this.name = name;
+		}
+		
+		public int getCount() {
+			return count;
+		}
+		
+		public void setCount(int count) {
+			this.count = count;
+		}
+	}
+	
+	@Table("item")
+	public static class SubItem extends Item {
+	}
+	
+	@Table("stock")
+	public static class Stock {
+		@Id
+		@Column("stock_id")
+		private Long id;
+		@Column("stock_name")
+		private String name;
+		@UpdateAt
+		@Column("update_time")
+		private Date updateTime;
+		
+		public Stock() {
+		}
+		
+		Stock(Long id, String name) {
+			this.id = id;
+			this.name = name;
+		}
+		
+		public Long getId() {
+			return id;
+		}
+		
+		public void setId(Long id) {
+			this.id = id;
+		}
+		
+		public String getName() {
+			return name;
+		}
+		
+		public void setName(String name) {
+			this.name = name;
+		}
+		
+		public Date getUpdateTime() {
+			return updateTime;
+		}
+		
+		public void setUpdateTime(Date updateTime) {
+			this.updateTime = updateTime;
+		}
+	}
+	
+	/**
+	 * 一次 executeUpdate（一组参数）或者 executeBatch（每行一组参数）
+	 */
+	static final class Execution {
+		final List<Object[]> params = new ArrayList<>();
+		final boolean generatedKeys;
+		final String sql;
+		
+		Execution(String sql, boolean generatedKeys) {
+			this.generatedKeys = generatedKeys;
+			this.sql = sql;
+		}
+	}
+	
+	/**
+	 * 记录执行的 SQL 和参数，自增长ID从 100 开始按插入的行数依次生成
+	 */
+	static final class RecordingDatabase {
+		final List<Execution> executions = new ArrayList<>();
+		long nextKey = 100;
+		
+		DataSource dataSource() {
+			return proxy(DataSource.class, (p, method, args) -> {
+				if (method.getName().equals("getConnection")) {
+					return connection();
+				}
+				return defaultValue(method.getReturnType());
+			});
+		}
+		
+		private Connection connection() {
+			return proxy(Connection.class, (p, method, args) -> {
+				if (method.getName().equals("prepareStatement")) {
+					boolean keys = args.length == 2 && Integer.valueOf(Statement.RETURN_GENERATED_KEYS).equals(args[1]);
+					return statement((String) args[0], keys);
+				}
+				return defaultValue(method.getReturnType());
+			});
+		}
+		
+		private PreparedStatement statement(String sql, boolean keys) {
+			Map<Integer, Object> current = new TreeMap<>();
+			List<Object[]> batch = new ArrayList<>();
+			int[] inserted = {0};
+			return proxy(PreparedStatement.class, (p, method, args) -> {
+				switch (method.getName()) {
+					case "setObject":
+						current.put((Integer) args[0], args[1]);
+						return null;
+					case "addBatch":
+						batch.add(current.values().toArray());
+						current.clear();
+						return null;
+					case "executeUpdate": {
+						Execution execution = new Execution(sql, keys);
+						execution.params.add(current.values().toArray());
+						executions.add(execution);
+						current.clear();
+						// 多行语句的行数
+						inserted[0] = sql.split("\\), \\(", -1).length;
+						return inserted[0];
+					}
+					case "executeBatch": {
+						Execution execution = new Execution(sql, keys);
+						execution.params.addAll(batch);
+						executions.add(execution);
+						int[] result = new int[batch.size()];
+						Arrays.fill(result, 1);
+						inserted[0] = batch.size();
+						batch.clear();
+						return result;
+					}
+					case "getGeneratedKeys":
+						return generatedKeys(inserted[0]);
+					default:
+						return defaultValue(method.getReturnType());
+				}
+			});
+		}
+		
+		private ResultSet generatedKeys(int rows) {
+			long first = nextKey;
+			nextKey += rows;
+			int[] cursor = {-1};
+			return proxy(ResultSet.class, (p, method, args) -> {
+				switch (method.getName()) {
+					case "next":
+						return ++cursor[0] < rows;
+					case "getLong":
+						return first + cursor[0];
+					case "getInt":
+						return (int) (first + cursor[0]);
+					case "getObject":
+						return first + cursor[0];
+					default:
+						return defaultValue(method.getReturnType());
+				}
+			});
+		}
+		
+		@SuppressWarnings("unchecked")
+		private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+			return (T) Proxy.newProxyInstance(JdbcTemplateBatchTest.class.getClassLoader(), new Class<?>[]{type}, handler);
+		}
+		
+		private static Object defaultValue(Class<?> type) {
+			if (type == boolean.class) return false;
+			if (type == int.class) return 0;
+			if (type == long.class) return 0L;
+			return null;
+		}
+	}
+}
@@ -0,0 +1,95 @@
+package com.mini.core.jdbc.mapper;
+
+import com.mini.core.jdbc.annotation.Column;
+import org.junit.Test;
+
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetMetaDataImpl;
+import javax.sql.rowset.RowSetProvider;
+import java.lang.reflect.Field;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * 映射计划按结果集字段名称列表缓存
+ * @author xchao
+ */
+public class BeanMapperTest {
+	
+	@Test
+	public void plansAreKeyedByColumnLabels() throws Exception {
+		Mapper<Account> mapper = BeanMapper.create(Account.class);
+		CachedRowSet idName = rows(new String[]{"account_id", "account_name"}, 7L, "seven");
+		CachedRowSet nameOnly = rows(new String[]{"account_name"}, "name");
+		Mapper<Account> first = mapper.prepare("SELECT * FROM account WHERE id = 1", idName.getMetaData());
+		// SQL 文本不同但字段相同时共用一个映射计划
+		for (int i = 2; i < 1000; i++) {
+			assertSame(first, mapper.prepare("SELECT * FROM account WHERE id = " + i, idName.getMetaData()));
+		}
+		mapper.prepare(null, nameOnly.getMetaData());
+		assertEquals(2, plans(mapper).size());
+		
+		idName.next();
+		Account account = first.get(idName, 1);
+		assertEquals(7L, account.getId());
+		assertEquals("seven", account.getName());
+		nameOnly.next();
+		assertEquals("name", mapper.get(nameOnly, 1).getName());
+		assertEquals(2, plans(mapper).size());
+	}
+	
+	private static Map<?, ?> plans(Mapper<?> mapper) throws ReflectiveOperationException {
+		Field field = BeanMapper.class.getDeclaredField("plans");
+		field.setAccessible(true);
+		return (Map<?, ?>) field.get(mapper);
+	}
+	
+	// 单行内存结果集
+	private static CachedRowSet rows(String[] labels, Object... values) throws SQLException {
+		RowSetMetaDataImpl metaData = new RowSetMetaDataImpl();
+		metaData.setColumnCount(labels.length);
+		for (int i = 0; i < labels.length; i++) {
+			metaData.setColumnLabel(i + 1, labels[i]);
+			metaData.setColumnName(i + 1, labels[i]);
+			metaData.setColumnType(i + 1, values[i] instanceof Long ? Types.BIGINT : Types.VARCHAR);
+		}
+		CachedRowSet rs = RowSetProvider.newFactory().createCachedRowSet();
+		rs.setMetaData(metaData);
+		rs.moveToInsertRow();
+		for (int i = 0; i < values.length; i++) {
+			rs.updateObject(i + 1, values[i]);
+		}
+		rs.insertRow();
+		rs.moveToCurrentRow();
+		rs.beforeFirst();
+		return rs;
+	}
+	
+	public static class Account {
+		@Column("account_id")
+		private long id;
+		
+		@Column("account_name")
+		private String name;
+		
+		public long getId() {
+			return id;
+		}
+		
+		public void setId(long id) {
+			this.id = id;
+		}
+		
+		public String getName() {
+			return name;
+		}
+		
+		public void setName(String name) {
+			this.name = name;
+		}
+	}
+}
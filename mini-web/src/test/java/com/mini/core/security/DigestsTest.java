@@ -0,0 +1,102 @@
+package com.mini.core.security;
+
+import com.mini.core.security.crypto.HmacSHA256;
+import com.mini.core.security.crypto.KeyedMac;
+import com.mini.core.security.digest.MD5;
+import com.mini.core.security.digest.SHA256;
+import org.junit.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.*;
+
+/**
+ * 线程复用的摘要和预设密钥的 Mac 与 JDK 的计算结果一致
+ * @author xchao
+ */
+public class DigestsTest {
+	private static final byte[] KEY = "secret-key".getBytes(UTF_8);
+	
+	@Test
+	public void localDigestMatchesJdk() throws Exception {
+		Random random = new Random(1);
+		for (int length : new int[]{0, 1, 63, 64, 65, 1000, 100000}) {
+			byte[] data = new byte[length];
+			random.nextBytes(data);
+			String text = new String(data, UTF_8);
+			assertEquals(hex("MD5", text.getBytes(UTF_8)), MD5.encode(text, UTF_8));
+			assertEquals(hex("SHA-256", text.getBytes(UTF_8)), SHA256.encode(text, UTF_8));
+			// 线程复用的实例在获取时已重置，上一次未完成的计算不影响结果
+			MD5.local().update(data);
+			assertEquals(hex("MD5", data), MD5.local().update(new ByteArrayInputStream(data)).encode());
+		}
+	}
+	
+	@Test
+	public void fileDigestMatchesJdk() throws Exception {
+		byte[] data = new byte[300000];
+		new Random(2).nextBytes(data);
+		Path path = Files.createTempFile("digest", ".bin");
+		try {
+			Files.write(path, data);
+			assertEquals(hex("SHA-256", data), SHA256.encode(path));
+			
+			// 树形摘要：按顺序对各块的摘要再计算一次摘要
+			MessageDigest root = MessageDigest.getInstance("MD5");
+			for (int position = 0; position < data.length; position += 65536) {
+				int end = Math.min(data.length, position + 65536);
+				root.update(MessageDigest.getInstance("MD5").digest(Arrays.copyOfRange(data, position, end)));
+			}
+			assertArrayEquals(root.digest(), MD5.tree(path, 65536));
+		} finally {
+			Files.delete(path);
+		}
+	}
+	
+	@Test
+	public void keyedMacIsThreadSafe() throws Exception {
+		KeyedMac keyed = HmacSHA256.keyed(KEY);
+		Mac mac = Mac.getInstance("HmacSHA256");
+		mac.init(new SecretKeySpec(KEY, "HmacSHA256"));
+		Map<String, String> expected = new HashMap<>();
+		for (int i = 0; i < 100; i++) {
+			expected.put("data" + i, toHex(mac.doFinal(("data" + i).getBytes(UTF_8))));
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < 8; t++) {
+				futures.add(executor.submit(() -> {
+					for (int round = 0; round < 100; round++) {
+						expected.forEach((data, hex) -> assertEquals(hex, keyed.encode(data, UTF_8)));
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get(60, TimeUnit.SECONDS);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+	
+	private static String hex(String algorithm, byte[] data) throws Exception {
+		return toHex(MessageDigest.getInstance(algorithm).digest(data));
+	}
+	
+	private static String toHex(byte[] bytes) {
+		StringBuilder builder = new StringBuilder();
+		for (byte b : bytes) {
+			builder.append(String.format("%02X", b));
+		}
+		return builder.toString();
+	}
+}
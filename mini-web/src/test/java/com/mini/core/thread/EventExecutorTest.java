@@ -0,0 +1,222 @@
+package com.mini.core.thread;
+
+import com.google.common.eventbus.AllowConcurrentEvents;
+import com.google.common.eventbus.DeadEvent;
+import com.google.common.eventbus.Subscribe;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.*;
+
+/**
+ * 同步订阅的发送顺序、异常隔离和同一个订阅者的并发执行
+ * @author xchao
+ */
+public class EventExecutorTest {
+	private final List<Object> registered = new ArrayList<>();
+	private final List<String> received = Collections.synchronizedList(new ArrayList<>());
+	
+	@After
+	public void tearDown() {
+		registered.forEach(EventExecutor::unregister);
+	}
+	
+	@Test
+	public void subscribersReceiveInRegistrationOrder() {
+		register(new First());
+		register(new Second());
+		EventExecutor.post(new Ordered("a"));
+		EventExecutor.post(new Ordered("b"));
+		assertEquals(List.of("first:a", "second:a", "first:b", "second:b"), received);
+	}
+	
+	@Test
+	public void nestedPostsAreQueuedUntilCurrentEventIsDelivered() {
+		// 第一个订阅者发送的事件在第二个订阅者收到当前事件之后才发送
+		register(new Reposting());
+		register(new Second());
+		register(new NestedListener());
+		EventExecutor.post(new Ordered("a"));
+		assertEquals(List.of("reposting:a", "second:a", "nested:a-1", "nested:a-2"), received);
+	}
+	
+	@Test
+	public void exceptionDoesNotStopOtherSubscribers() {
+		Failing failing = new Failing();
+		register(failing);
+		register(new Second());
+		EventExecutor.post(new Ordered("a"));
+		EventExecutor.post(new Ordered("b"));
+		assertEquals(List.of("failing:a", "second:a", "failing:b", "second:b"), received);
+		
+		String name = Failing.class.getName() + ".on";
+		EventExecutor.SubscriberStats stats = EventExecutor.getSubscriberStats().stream()
+				.filter(s -> s.getName().equals(name)).findFirst().orElseThrow();
+		assertEquals(2, stats.getCount());
+		assertEquals(2, stats.getErrors());
+	}
+	
+	@Test
+	public void eventWithoutSubscriberIsPostedAsDeadEvent() {
+		register(new DeadListener());
+		long count = EventExecutor.getDeadEventCount();
+		Unhandled event = new Unhandled();
+		EventExecutor.post(event);
+		assertEquals(List.of("dead:" + event), received);
+		assertEquals(count + 1, EventExecutor.getDeadEventCount());
+	}
+	
+	@Test
+	public void subscriberWithoutAllowConcurrentEventsIsSerialized() throws Exception {
+		Serial serial = new Serial();
+		register(serial);
+		run(8, 500, () -> EventExecutor.post(new Parallel()));
+		assertEquals(8 * 500, serial.count.get());
+		assertEquals(0, serial.overlaps.get());
+	}
+	
+	@Test
+	public void subscriberWithAllowConcurrentEventsRunsConcurrently() throws Exception {
+		// 两个线程必须同时进入订阅方法，串行执行时等待超时
+		Concurrent concurrent = new Concurrent();
+		register(concurrent);
+		run(2, 1, () -> EventExecutor.post(new Parallel()));
+		assertEquals(2, concurrent.entered.get());
+		assertEquals(0, concurrent.timeouts.get());
+	}
+	
+	private void register(Object object) {
+		EventExecutor.register(object);
+		registered.add(object);
+	}
+	
+	// 多个线程同时开始发送事件
+	private static void run(int threads, int times, Runnable task) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			CyclicBarrier barrier = new CyclicBarrier(threads);
+			List<Future<?>> futures = new ArrayList<>();
+			for (int i = 0; i < threads; i++) {
+				futures.add(executor.submit(() -> {
+					barrier.await();
+					for (int j = 0; j < times; j++) {
+						task.run();
+					}
+					return null;
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get(60, SECONDS);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+	
+	public static final class Ordered {
+		private final String value;
+		
+		private Ordered(String value) {
+			this.value = value;
+		}
+	}
+	
+	public static final class Nested {
+		private final String value;
+		
+		private Nested(String value) {
+			this.value = value;
+		}
+	}
+	
+	public static final class Unhandled {
+	}
+	
+	public static final class Parallel {
+	}
+	
+	public class First {
+		@Subscribe
+		public void on(Ordered event) {
+			received.add("first:" + event.value);
+		}
+	}
+	
+	public class Second {
+		@Subscriber
+		public void on(Ordered event) {
+			received.add("second:" + event.value);
+		}
+	}
+	
+	public class Reposting {
+		@Subscribe
+		public void on(Ordered event) {
+			received.add("reposting:" + event.value);
+			EventExecutor.post(new Nested(event.value + "-1"));
+			EventExecutor.post(new Nested(event.value + "-2"));
+		}
+	}
+	
+	public class NestedListener {
+		@Subscribe
+		public void on(Nested event) {
+			received.add("nested:" + event.value);
+		}
+	}
+	
+	public class Failing {
+		@Subscribe
+		public void on(Ordered event) {
+			received.add("failing:" + event.value);
+			throw new IllegalStateException(event.value);
+		}
+	}
+	
+	public class DeadListener {
+		@Subscribe
+		public void on(DeadEvent event) {
+			received.add("dead:" + event.getEvent());
+		}
+	}
+	
+	public static class Serial {
+		private final AtomicInteger overlaps = new AtomicInteger();
+		private final AtomicInteger running = new AtomicInteger();
+		private final AtomicInteger count = new AtomicInteger();
+		
+		@Subscribe
+		public void on(Parallel event) {
+			if (running.incrementAndGet() != 1) {
+				overlaps.incrementAndGet();
+			}
+			Thread.yield();
+			count.incrementAndGet();
+			running.decrementAndGet();
+		}
+	}
+	
+	public static class Concurrent {
+		private final CyclicBarrier barrier = new CyclicBarrier(2);
+		private final AtomicInteger timeouts = new AtomicInteger();
+		private final AtomicInteger entered = new AtomicInteger();
+		
+		@Subscribe
+		@AllowConcurrentEvents
+		public void on(Parallel event) throws Exception {
+			entered.incrementAndGet();
+			try {
+				barrier.await(5, SECONDS);
+			} catch (TimeoutException e) {
+				timeouts.incrementAndGet();
+			}
+		}
+	}
+}
@@ -0,0 +1,112 @@
+package com.mini.core.thread;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+/**
+ * 使用指定时钟的时间轮，由测试推进时间，不启动工作线程
+ * @author xchao
+ */
+public class HashedWheelTimerTest {
+	private static final long TICK = 10;
+	private final AtomicLong clock = new AtomicLong(1000);
+	private final HashedWheelTimer timer = new HashedWheelTimer(TICK, 64, Runnable::run, clock::get);
+	
+	@Test
+	public void tasksFireWithinOneTickAfterDeadline() {
+		Random random = new Random(7);
+		List<Task> tasks = new ArrayList<>();
+		for (long now = 0; now < 24000; now++) {
+			clock.set(1000 + now);
+			// 延时超过一圈（64 * 10ms）的任务需要多转几圈
+			if (now < 20000 && random.nextInt(4) == 0) {
+				Task task = new Task(now + random.nextInt(3000));
+				task.timeout = timer.newTimeout(task, task.deadline - now);
+				tasks.add(task);
+				if (random.nextInt(10) == 0) {
+					task.cancelled = task.timeout.cancel();
+					assertTrue(task.cancelled);
+				}
+			}
+			timer.advance();
+		}
+		assertEquals(0, timer.size());
+		for (Task task : tasks) {
+			if (task.cancelled) {
+				assertEquals(-1, task.fired);
+				assertTrue(task.timeout.isCancelled());
+				assertFalse(task.timeout.cancel());
+			} else {
+				assertTrue(task.timeout.isExpired());
+				assertTrue(task.fired >= task.deadline);
+				assertTrue(task.fired <= task.deadline + TICK);
+			}
+		}
+	}
+	
+	@Test
+	public void sizeCountsPendingTasks() {
+		HashedWheelTimer.Timeout a = timer.newTimeout(() -> {}, 100);
+		timer.newTimeout(() -> {}, 5000);
+		assertEquals(2, timer.size());
+		a.cancel();
+		assertEquals(1, timer.size());
+		clock.addAndGet(5000);
+		timer.advance();
+		assertEquals(1, timer.size());
+		clock.addAndGet(TICK);
+		timer.advance();
+		assertEquals(0, timer.size());
+	}
+	
+	@Test
+	public void delayIsClampedAfterTickBoundary() {
+		assertEquals(Long.MAX_VALUE, timer.delay());
+		timer.newTimeout(() -> {}, 5);
+		clock.addAndGet(TICK - 1);
+		timer.advance();
+		assertEquals(1, timer.delay());
+		// advance 之后时钟跨过刻度，槽已到期但还未处理，不能返回负数（负数曾被当作没有任务而一直休眠）
+		clock.addAndGet(TICK);
+		assertEquals(0, timer.delay());
+		timer.advance();
+		assertEquals(0, timer.size());
+		assertEquals(Long.MAX_VALUE, timer.delay());
+	}
+	
+	@Test
+	public void overdueTasksFireOnNextAdvance() {
+		long[] fired = {-1};
+		timer.newTimeout(() -> fired[0] = clock.get(), -50);
+		clock.addAndGet(TICK - 1);
+		timer.advance();
+		assertEquals(-1, fired[0]);
+		// 时钟跳过很多刻度时，一次 advance 处理所有到期的槽
+		clock.addAndGet(100000);
+		timer.advance();
+		assertEquals(clock.get(), fired[0]);
+	}
+	
+	private final class Task implements Runnable {
+		private final long deadline;
+		private HashedWheelTimer.Timeout timeout;
+		private boolean cancelled;
+		private long fired = -1;
+		
+		private Task(long deadline) {
+			this.deadline = deadline;
+		}
+		
+		@Override
+		public void run() {
+			assertEquals(-1, fired);
+			fired = clock.get() - 1000;
+		}
+	}
+}
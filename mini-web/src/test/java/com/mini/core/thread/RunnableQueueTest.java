@@ -0,0 +1,229 @@
+package com.mini.core.thread;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.*;
+
+/**
+ * 队列已满时的处理策略、分道顺序和关闭时的等待
+ * @author xchao
+ */
+public class RunnableQueueTest {
+	private final CountDownLatch release = new CountDownLatch(1);
+	private final CountDownLatch started = new CountDownLatch(1);
+	private RunnableQueue queue;
+	
+	@After
+	public void tearDown() {
+		release.countDown();
+		if (queue != null) {
+			queue.shutdown(5, SECONDS);
+		}
+	}
+	
+	@Test
+	public void callerRunsWhenFull() throws Exception {
+		queue = build(1, RunnableQueue.Policy.CALLER_RUNS);
+		queue.put(this::block);
+		assertTrue(started.await(5, SECONDS));
+		
+		AtomicReference<Thread> thread = new AtomicReference<>();
+		queue.put(() -> thread.set(Thread.currentThread()));
+		assertSame(Thread.currentThread(), thread.get());
+		assertEquals(1, queue.getCallerRunsCount());
+		assertEquals(1, queue.size());
+	}
+	
+	@Test
+	public void dropOldestKeepsNewestTask() throws Exception {
+		queue = build(2, RunnableQueue.Policy.DROP_OLDEST);
+		queue.put(this::block);
+		assertTrue(started.await(5, SECONDS));
+		
+		List<String> executed = Collections.synchronizedList(new ArrayList<>());
+		queue.put(() -> executed.add("first"));
+		queue.put(() -> executed.add("second"));
+		queue.put(() -> executed.add("third"));
+		assertEquals(2, queue.getRejectedCount());
+		assertEquals(2, queue.size());
+		
+		release.countDown();
+		assertTrue(queue.shutdown(5, SECONDS).isEmpty());
+		assertEquals(List.of("third"), executed);
+	}
+	
+	@Test
+	public void dropOldestPrefersSameKey() throws Exception {
+		queue = build(3, RunnableQueue.Policy.DROP_OLDEST);
+		queue.put(this::block);
+		assertTrue(started.await(5, SECONDS));
+		
+		List<String> executed = Collections.synchronizedList(new ArrayList<>());
+		queue.put(() -> executed.add("other"));
+		queue.put("key", () -> executed.add("key-1"));
+		queue.put("key", () -> executed.add("key-2"));
+		assertEquals(1, queue.getRejectedCount());
+		
+		release.countDown();
+		assertTrue(queue.shutdown(5, SECONDS).isEmpty());
+		assertEquals(List.of("other", "key-2"), executed);
+	}
+	
+	@Test
+	public void blockWaitsForCapacity() throws Exception {
+		queue = build(1, RunnableQueue.Policy.BLOCK);
+		queue.put(this::block);
+		assertTrue(started.await(5, SECONDS));
+		
+		CountDownLatch done = new CountDownLatch(1);
+		Thread producer = new Thread(() -> queue.put(done::countDown));
+		producer.start();
+		assertFalse(done.await(200, MILLISECONDS));
+		assertTrue(producer.isAlive());
+		
+		release.countDown();
+		assertTrue(done.await(5, SECONDS));
+		producer.join(5000);
+		assertEquals(0, queue.getCallerRunsCount());
+	}
+	
+	@Test
+	public void blockRunsInlineOnWorkerWhenFull() throws Exception {
+		queue = build(1, RunnableQueue.Policy.BLOCK);
+		AtomicReference<Thread> worker = new AtomicReference<>();
+		AtomicReference<Thread> inline = new AtomicReference<>();
+		AtomicInteger size = new AtomicInteger();
+		CountDownLatch done = new CountDownLatch(1);
+		queue.put(() -> {
+			worker.set(Thread.currentThread());
+			// 容量已满，消费线程中添加的任务不能超出容量，也不能阻塞
+			queue.put(() -> {
+				inline.set(Thread.currentThread());
+				size.set(queue.size());
+			});
+			done.countDown();
+		});
+		assertTrue(done.await(5, SECONDS));
+		assertSame(worker.get(), inline.get());
+		assertEquals(1, size.get());
+		assertEquals(1, queue.getCallerRunsCount());
+	}
+	
+	@Test
+	public void blockRejectsKeyedTaskOnWorkerWhenLaneIsBusy() throws Exception {
+		queue = build(1, RunnableQueue.Policy.BLOCK);
+		AtomicReference<Throwable> error = new AtomicReference<>();
+		CountDownLatch done = new CountDownLatch(1);
+		queue.put("key", () -> {
+			try {
+				// 同一个键的任务正在执行，直接执行会越过它
+				queue.put("key", () -> fail());
+			} catch (Throwable e) {
+				error.set(e);
+			} finally {
+				done.countDown();
+			}
+		});
+		assertTrue(done.await(5, SECONDS));
+		assertTrue(error.get() instanceof RejectedExecutionException);
+		assertEquals(1, queue.getRejectedCount());
+	}
+	
+	@Test
+	public void laneTasksRunInOrderOneAtATime() throws Exception {
+		queue = RunnableQueue.builder().consumers(8).capacity(256).build();
+		int keys = 16, tasks = 2000;
+		Map<Integer, List<Integer>> results = new ConcurrentHashMap<>();
+		Map<Integer, AtomicInteger> running = new ConcurrentHashMap<>();
+		AtomicInteger overlaps = new AtomicInteger();
+		for (int i = 0; i < tasks; i++) {
+			for (int key = 0; key < keys; key++) {
+				int k = key, n = i;
+				queue.put(k, () -> {
+					AtomicInteger count = running.computeIfAbsent(k, x -> new AtomicInteger());
+					if (count.incrementAndGet() != 1) {
+						overlaps.incrementAndGet();
+					}
+					results.computeIfAbsent(k, x -> new ArrayList<>()).add(n);
+					count.decrementAndGet();
+				});
+			}
+		}
+		assertTrue(queue.shutdown(30, SECONDS).isEmpty());
+		assertEquals(0, overlaps.get());
+		assertEquals(keys, results.size());
+		for (List<Integer> list : results.values()) {
+			assertEquals(tasks, list.size());
+			for (int i = 0; i < tasks; i++) {
+				assertEquals(i, (int) list.get(i));
+			}
+		}
+		assertEquals(keys * tasks, queue.getCompletedCount());
+	}
+	
+	@Test
+	public void shutdownDrainsPendingTasks() {
+		queue = RunnableQueue.builder().consumers(2).build();
+		AtomicInteger executed = new AtomicInteger();
+		for (int i = 0; i < 100; i++) {
+			queue.put(i % 3 == 0 ? null : i % 5, () -> {
+				sleep(1);
+				executed.incrementAndGet();
+			});
+		}
+		assertTrue(queue.shutdown(30, SECONDS).isEmpty());
+		assertEquals(100, executed.get());
+		assertEquals(0, queue.size());
+		try {
+			queue.put(() -> {});
+			fail();
+		} catch (RejectedExecutionException expected) {
+			assertTrue(queue.isShutdown());
+		}
+	}
+	
+	@Test
+	public void shutdownTimeoutReturnsTasksNotExecuted() throws Exception {
+		queue = build(Integer.MAX_VALUE, RunnableQueue.Policy.BLOCK);
+		queue.put(this::block);
+		assertTrue(started.await(5, SECONDS));
+		Runnable a = () -> {}, b = () -> {}, c = () -> {};
+		queue.put(a);
+		queue.put("key", b);
+		queue.put("key", c);
+		
+		List<Runnable> list = queue.shutdown(100, MILLISECONDS);
+		assertEquals(Set.of(a, b, c), new HashSet<>(list));
+		assertEquals(3, list.size());
+	}
+	
+	private RunnableQueue build(int capacity, RunnableQueue.Policy policy) {
+		return RunnableQueue.builder().capacity(capacity).policy(policy).build();
+	}
+	
+	// 占用唯一的消费线程，直到测试放行
+	private void block() {
+		started.countDown();
+		try {
+			release.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,106 @@
+package com.mini.core.thread;
+
+import org.junit.Test;
+
+import java.time.*;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 按指定时区计算下一次匹配时间，与逐日逐秒检查的参考实现比较
+ * @author xchao
+ */
+public class TimeRuleTest {
+	private static final ZoneId[] ZONES = {ZoneOffset.UTC, ZoneId.of("Asia/Shanghai"), ZoneId.of("America/New_York")};
+	
+	@Test
+	public void fixedCases() {
+		ZoneId zone = ZoneOffset.UTC;
+		long start = millis(2021, 1, 31, 23, 59, 59, zone);
+		// 不包含当前秒
+		TimeRule everySecond = TimeRule.builder().builder();
+		assertEquals(start + 1000, everySecond.nextTime(start, zone));
+		assertEquals(start + 1000, everySecond.nextTime(start + 999, zone));
+		
+		// 每月31日 12:00:00，2月没有31日
+		TimeRule day31 = TimeRule.builder().day(31).hour(12).minute(0).second(0).builder();
+		assertEquals(millis(2021, 3, 31, 12, 0, 0, zone), day31.nextTime(start, zone));
+		
+		// 2月29日，下一个闰年
+		TimeRule leap = TimeRule.builder().month(1).day(29).hour(0).minute(0).second(0).builder();
+		assertEquals(millis(2024, 2, 29, 0, 0, 0, zone), leap.nextTime(start, zone));
+		
+		// 周五的13日
+		TimeRule friday13 = TimeRule.builder().day(13).week(6).hour(0).minute(0).second(0).builder();
+		assertEquals(millis(2021, 8, 13, 0, 0, 0, zone), friday13.nextTime(start, zone));
+		
+		// 指定年份已经过去
+		TimeRule past = TimeRule.builder().year(2020).builder();
+		assertEquals(-1, past.nextTime(start, zone));
+		// 不存在的日期
+		TimeRule never = TimeRule.builder().month(1).day(30).builder();
+		assertEquals(-1, never.nextTime(start, zone));
+	}
+	
+	@Test
+	public void zoneIsApplied() {
+		TimeRule nine = TimeRule.builder().hour(9).minute(0).second(0).builder();
+		long start = millis(2021, 6, 1, 0, 0, 0, ZoneOffset.UTC);
+		assertEquals(millis(2021, 6, 1, 9, 0, 0, ZoneOffset.UTC), nine.nextTime(start, ZoneOffset.UTC));
+		// 上海 2021-06-01 08:00，当天 09:00 即 UTC 01:00
+		assertEquals(millis(2021, 6, 1, 1, 0, 0, ZoneOffset.UTC), nine.nextTime(start, ZoneId.of("Asia/Shanghai")));
+		// 纽约夏令时 2021-05-31 20:00，次日 09:00 即 UTC 13:00
+		assertEquals(millis(2021, 6, 1, 13, 0, 0, ZoneOffset.UTC), nine.nextTime(start, ZoneId.of("America/New_York")));
+	}
+	
+	@Test
+	public void randomRulesMatchReference() {
+		Random random = new Random(13);
+		long base = millis(2020, 1, 1, 0, 0, 0, ZoneOffset.UTC);
+		for (int i = 0; i < 300; i++) {
+			TimeRule.Builder builder = TimeRule.builder();
+			if (random.nextInt(3) == 0) builder.month(values(random, 12, 0));
+			if (random.nextInt(3) == 0) builder.day(values(random, 31, 1));
+			if (random.nextInt(4) == 0) builder.week(values(random, 7, 1));
+			if (random.nextBoolean()) builder.hour(values(random, 24, 0));
+			if (random.nextBoolean()) builder.minute(values(random, 60, 0));
+			if (random.nextBoolean()) builder.second(values(random, 60, 0));
+			if (random.nextInt(5) == 0) builder.year(2020 + random.nextInt(3), 2020 + random.nextInt(3));
+			TimeRule rule = builder.builder();
+			ZoneId zone = ZONES[random.nextInt(ZONES.length)];
+			long start = base + (long) (random.nextDouble() * 3 * 365 * 86400000L);
+			assertEquals("rule " + i + " at " + start + " " + zone, reference(rule, start, zone), rule.nextTime(start, zone));
+		}
+	}
+	
+	// 随机选取 1 到 3 个值
+	private static int[] values(Random random, int count, int first) {
+		return IntStream.range(0, 1 + random.nextInt(3)).map(i -> first + random.nextInt(count)).toArray();
+	}
+	
+	// 逐日检查日期，匹配的日期再逐秒检查时间，最多检查 40 年
+	private static long reference(TimeRule rule, long millis, ZoneId zone) {
+		LocalDateTime t = LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), zone).withNano(0).plusSeconds(1);
+		LocalDate end = t.toLocalDate().plusYears(40);
+		for (LocalDate date = t.toLocalDate(); date.isBefore(end); date = date.plusDays(1)) {
+			if (!rule.yearMatch(date.getYear()) || !rule.monthMatch(date.getMonthValue() - 1)
+					|| !rule.dayMatch(date.getDayOfMonth()) || !rule.weekMatch(date.getDayOfWeek().getValue() % 7 + 1)) {
+				continue;
+			}
+			int from = date.equals(t.toLocalDate()) ? t.toLocalTime().toSecondOfDay() : 0;
+			for (int second = from; second < 86400; second++) {
+				LocalTime time = LocalTime.ofSecondOfDay(second);
+				if (rule.hourMatch(time.getHour()) && rule.minuteMatch(time.getMinute()) && rule.secondMatch(time.getSecond())) {
+					return date.atTime(time).atZone(zone).toInstant().toEpochMilli();
+				}
+			}
+		}
+		return -1;
+	}
+	
+	private static long millis(int y, int m, int d, int h, int n, int s, ZoneId zone) {
+		return LocalDateTime.of(y, m, d, h, n, s).atZone(zone).toInstant().toEpochMilli();
+	}
+}
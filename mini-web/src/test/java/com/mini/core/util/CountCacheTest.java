@@ -0,0 +1,96 @@
+package com.mini.core.util;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 分页总条数缓存，使用可控的时钟验证过期和淘汰
+ * @author xchao
+ */
+public class CountCacheTest {
+	private final AtomicLong clock = new AtomicLong();
+	private final AtomicInteger counted = new AtomicInteger();
+	private final CountCache cache = new CountCache(clock::get);
+	
+	private long count(String sql, Object... params) {
+		return cache.get(sql, params, () -> counted.incrementAndGet() * 100L);
+	}
+	
+	@Test
+	public void disabledByDefault() {
+		assertEquals(100, count("SELECT * FROM a"));
+		assertEquals(200, count("SELECT * FROM a"));
+		assertEquals(0, cache.size());
+	}
+	
+	@Test
+	public void entriesExpireAfterTtl() {
+		cache.setTtl(1000);
+		assertEquals(100, count("SELECT * FROM a WHERE b = ?", 1));
+		// 空白不同的相同SQL共用一个条目，参数不同时分别统计
+		assertEquals(100, count("  SELECT *\n FROM a   WHERE b = ?", 1));
+		assertEquals(200, count("SELECT * FROM a WHERE b = ?", 2));
+		clock.addAndGet(MILLISECONDS.toNanos(999));
+		assertEquals(100, count("SELECT * FROM a WHERE b = ?", 1));
+		clock.addAndGet(MILLISECONDS.toNanos(1));
+		assertEquals(300, count("SELECT * FROM a WHERE b = ?", 1));
+		assertEquals(3, counted.get());
+	}
+	
+	@Test
+	public void whitespaceInQuotesIsKept() {
+		cache.setTtl(1000);
+		assertEquals(100, count("SELECT * FROM a WHERE b = 'x  y'"));
+		assertEquals(200, count("SELECT * FROM a WHERE b = 'x y'"));
+		assertEquals(100, count("SELECT *  FROM a\tWHERE b =  'x  y' "));
+		assertEquals(300, count("SELECT * FROM a WHERE `b  c` = 1"));
+		assertEquals(400, count("SELECT * FROM a WHERE `b c` = 1"));
+		assertEquals(4, counted.get());
+	}
+	
+	@Test
+	public void normalizeOnlyOutsideQuotes() {
+		assertEquals("SELECT * FROM a", CountCache.normalize("  SELECT *\n\tFROM   a \r\n"));
+		assertEquals("WHERE b = 'x \n y' AND c = \"p  q\"", CountCache.normalize("WHERE  b = 'x \n y'  AND c = \"p  q\""));
+		// 转义的引号和两个连续的引号不结束字符串常量
+		assertEquals("WHERE b = 'it''s  a' AND c = 1", CountCache.normalize("WHERE b = 'it''s  a'   AND c = 1"));
+		assertEquals("WHERE b = 'x\\'  y' AND c = 1", CountCache.normalize("WHERE b = 'x\\'  y'  AND  c = 1"));
+		assertEquals("WHERE b = \"a ' b\" AND c = 1", CountCache.normalize("WHERE b = \"a ' b\"  AND c = 1"));
+	}
+	
+	@Test
+	public void sizeIsBounded() {
+		cache.setTtl(1000);
+		cache.setSize(3);
+		for (int i = 0; i < 10; i++) {
+			count("SELECT * FROM a WHERE b = ?", i);
+			assertEquals(Math.min(i + 1, 3), cache.size());
+		}
+		// 过期的条目优先淘汰
+		clock.addAndGet(MILLISECONDS.toNanos(1000));
+		count("SELECT * FROM b");
+		assertEquals(1, cache.size());
+		
+		cache.setSize(0);
+		count("SELECT * FROM c");
+		assertEquals(0, cache.size());
+	}
+	
+	@Test
+	public void disablingClearsEntries() {
+		cache.setTtl(1000);
+		count("SELECT * FROM a");
+		assertEquals(1, cache.size());
+		cache.setTtl(0);
+		assertEquals(0, cache.size());
+		cache.setTtl(1000);
+		count("SELECT * FROM a");
+		cache.clear();
+		assertEquals(0, cache.size());
+	}
+}
@@ -0,0 +1,162 @@
+package com.mini.core.util;
+
+import org.junit.Test;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.TemporalQuery;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * 日期时间解析结果与原来使用 DateTimeFormatter、SimpleDateFormat 和异常判断的实现一致
+ * @author xchao
+ */
+public class DateTimeParserTest {
+	private static final String[] PATTERNS = {"yyyy-MM-dd HH[:mm[:ss[.SSS]]]", "yyyy[-MM[-dd]]", "HH[:mm[:ss]]",
+			"yyyy-MM-dd HH:mm:ss", "yyyy-MM-dd HH:mm", "yyyy-MM-dd'T'HH:mm:ss.SSS", "yyyy-MM-dd", "uuuu-MM-dd",
+			"HH:mm:ss", "HH:mm", "yyyy/MM/dd HH:mm"};
+	private static final String[] FORMATS = {"yyyy-MM-dd", "yyyy-MM-dd HH:mm:ss", "yyyy-MM-dd HH:mm",
+			"yyyy-MM-dd'T'HH:mm:ss", "HH:mm:ss", "HH:mm"};
+	// DateTimeFormatter 不接受或者含义不同的格式
+	private static final String[] OTHER_FORMATS = {"ddd/MM/yyyy", "yyyy-MM-dd HHH:mm", "yyyy{MM}dd",
+			"yyyy[-MM[-dd]]", "HH[:mm[:ss]]", "yyyy-MM-dd HH[:mm[:ss]]"};
+	
+	@Test
+	public void parseMatchesFormatter() {
+		List<String> inputs = inputs(new Random(22), 20000);
+		for (String pattern : PATTERNS) {
+			DateTimeParser parser = DateTimeParser.of(pattern);
+			assertSame(parser, DateTimeParser.of(pattern));
+			for (String text : inputs) {
+				String message = pattern + " <- " + text;
+				LocalDateTime dateTime = reference(pattern, text, LocalDateTime::from);
+				LocalDate date = reference(pattern, text, LocalDate::from);
+				LocalTime time = reference(pattern, text, LocalTime::from);
+				assertEquals(message, dateTime, parser.parseLocalDateTime(text));
+				assertEquals(message, date, parser.parseLocalDate(text));
+				assertEquals(message, time, parser.parseLocalTime(text));
+				// 快速解析有结果时与 DateTimeFormatter 一致
+				assertFast(message, dateTime, parser.fastLocalDateTime(text));
+				assertFast(message, date, parser.fastLocalDate(text));
+				assertFast(message, time, parser.fastLocalTime(text));
+			}
+		}
+	}
+	
+	@Test
+	public void numericImpliesParseLong() {
+		for (String text : new String[]{"0", "-1", "+1", "1577836800000", "9223372036854775807", "-9223372036854775808",
+				"", "-", "+", "1.0", "1e3", " 1", "1 ", "12345678901234567890", "00000000000000000001", "１２"}) {
+			// 判断为时间戳时跳过格式解析，Long.parseLong 必须成功；
+			// 反之不要求（如全角数字、超过 19 位），这些字符串仍然先尝试格式解析，只是没有快速路径
+			if (DateTimeParser.isNumeric(text)) {
+				Long.parseLong(text);
+			}
+		}
+		assertTrue(DateTimeParser.isNumeric("-9223372036854775808"));
+		assertFalse(DateTimeParser.isNumeric("１２"));
+	}
+	
+	@Test
+	public void dateFormatUtilMatchesSimpleDateFormat() {
+		List<String> inputs = inputs(new Random(23), 5000);
+		for (String format : FORMATS) {
+			for (String text : inputs) {
+				assertSimpleDateFormat(format, text);
+			}
+		}
+	}
+	
+	@Test
+	public void dateFormatUtilKeepsOtherFormats() throws Exception {
+		List<String> inputs = inputs(new Random(24), 500);
+		inputs.addAll(List.of("002/03/2020", "2020-01-02 010:11", "2020{01}02", "2020[-01[-02]]", "10[:11[:12]]"));
+		for (String format : OTHER_FORMATS) {
+			for (String text : inputs) {
+				assertSimpleDateFormat(format, text);
+			}
+		}
+		// [] 在 SimpleDateFormat 中是普通字符，不是可选段
+		assertEquals(new SimpleDateFormat("yyyy-MM-dd").parse("2020-01-02"),
+				DateFormatUtil.parse("2020[-01[-02]]", "yyyy[-MM[-dd]]"));
+		for (String text : new String[]{"2020", "2020-01", "2020-01-02"}) {
+			try {
+				DateFormatUtil.parse(text, "yyyy[-MM[-dd]]");
+				fail(text);
+			} catch (Exception e) {
+				assertEquals(text, ParseException.class, e.getClass());
+			}
+		}
+		assertEquals(new SimpleDateFormat("yyyy-MM-dd").parse("2020-03-02"),
+				DateFormatUtil.parse("002/03/2020", "ddd/MM/yyyy"));
+	}
+	
+	private static void assertSimpleDateFormat(String format, String text) {
+		Object expected, actual;
+		try {
+			expected = new SimpleDateFormat(format).parse(text);
+		} catch (Exception e) {
+			expected = e.getClass();
+		}
+		try {
+			actual = DateFormatUtil.parse(text, format);
+		} catch (Exception e) {
+			actual = e.getClass();
+		}
+		assertEquals(format + " <- " + text, expected, actual);
+	}
+	
+	private static <T> T reference(String pattern, String text, TemporalQuery<T> query) {
+		try {
+			return DateTimeFormatter.ofPattern(pattern).parse(text, query);
+		} catch (DateTimeParseException e) {
+			return null;
+		}
+	}
+	
+	private static void assertFast(String message, Object expected, Object fast) {
+		if (fast != null) {
+			assertEquals(message, expected, fast);
+		}
+	}
+	
+	// 常用格式的合法值、越界值、缺少或者多出字段的值、时间戳和其它字符串
+	private static List<String> inputs(Random random, int count) {
+		List<String> inputs = new ArrayList<>(List.of("", " ", "2020", "2020-01", "2020-02-29", "2021-02-29",
+				"2020-01-02 24:00", "2020-01-02 23:59:60", "2020-01-02T10:11:12", "2020-01-02 10:11:12.5",
+				"0000-01-01", "9999-12-31 23:59:59.999", "1577836800000", "-1", "10", "abc", "2020-1-2", "10:11:12 "));
+		String[] separators = {" ", "T", "-", ""};
+		for (int i = 0; i < count; i++) {
+			int year = random.nextInt(10) == 0 ? random.nextInt(2000) : 1900 + random.nextInt(200);
+			int month = random.nextInt(14), day = random.nextInt(33);
+			int hour = random.nextInt(25), minute = random.nextInt(61), second = random.nextInt(61);
+			StringBuilder text = new StringBuilder();
+			int shape = random.nextInt(8);
+			if (shape < 6) {
+				text.append(String.format("%04d-%02d-%02d", year, month, day));
+				if (shape > 0) {
+					text.append(separators[random.nextInt(10) == 0 ? random.nextInt(4) : 0]);
+				}
+			}
+			if (shape > 0 && shape != 6 || shape == 7) {
+				int fields = 1 + random.nextInt(4);
+				text.append(String.format("%02d", hour));
+				if (fields > 1) text.append(String.format(":%02d", minute));
+				if (fields > 2) text.append(String.format(":%02d", second));
+				if (fields > 3) text.append('.').append(String.format("%0" + (1 + random.nextInt(3)) + "d", random.nextInt(10)));
+			}
+			if (shape == 6) {
+				text.append(random.nextBoolean() ? random.nextLong() >>> 20 : random.nextInt(10000));
+			}
+			inputs.add(text.toString());
+		}
+		return inputs;
+	}
+}
@@ -0,0 +1,127 @@
+package com.mini.core.util;
+
+import org.junit.Test;
+
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetMetaDataImpl;
+import javax.sql.rowset.RowSetProvider;
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * 键集分页令牌和定位语句
+ * @author xchao
+ */
+public class KeysetQueryTest {
+	
+	@Test
+	public void tokenRoundTrip() {
+		Timestamp time = Timestamp.valueOf("2021-01-02 03:04:05.123456789");
+		Object[] values = {7L, 1.5D, new BigDecimal("12.30"), "名称", time, LocalDateTime.of(2021, 1, 2, 3, 4),
+				LocalDate.of(2021, 1, 2), true};
+		Object[] decoded = KeysetQuery.decode(KeysetQuery.encode(values));
+		assertArrayEquals(values, decoded);
+		// 整数类型统一解码为 Long
+		assertEquals(5L, KeysetQuery.decode(KeysetQuery.encode(new Object[]{5}))[0]);
+	}
+	
+	@Test
+	public void invalidTokensAreRejected() {
+		String token = KeysetQuery.encode(new Object[]{1L});
+		for (String invalid : new String[]{"", "!!", token + "AA", token.substring(0, token.length() - 2)}) {
+			try {
+				KeysetQuery.decode(invalid);
+				fail(invalid);
+			} catch (IllegalArgumentException e) {
+				assertEquals("Invalid keyset token", e.getMessage());
+			}
+		}
+	}
+	
+	@Test
+	public void seekPredicateFollowsKeyOrder() {
+		KeysetQuery keyset = new KeysetQuery(new String[]{"t.create_time DESC", "id"});
+		List<Object> args = new ArrayList<>();
+		assertEquals("SELECT * FROM (SELECT * FROM a WHERE b = ?) t ORDER BY create_time DESC, id ASC",
+				keyset.sql("SELECT * FROM a WHERE b = ?", null, new Object[]{1}, args));
+		assertEquals(List.of(1), args);
+		
+		args.clear();
+		String next = KeysetQuery.encode(new Object[]{"x", 9L});
+		assertEquals("SELECT * FROM (SELECT * FROM a) t WHERE (create_time < ?) OR (create_time = ? AND id > ?)"
+				+ " ORDER BY create_time DESC, id ASC", keyset.sql("SELECT * FROM a", next, null, args));
+		assertEquals(List.of("x", "x", 9L), args);
+		
+		try {
+			keyset.sql("SELECT * FROM a", KeysetQuery.encode(new Object[]{1L}), null, new ArrayList<>());
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Keyset token does not match the key columns", e.getMessage());
+		}
+	}
+	
+	@Test
+	public void invalidKeysAreRejected() {
+		for (String[] keys : new String[][]{{}, {" "}, {null}, {"id DESC extra"}}) {
+			try {
+				new KeysetQuery(keys);
+				fail();
+			} catch (IllegalArgumentException e) {
+				assertNotNull(e.getMessage());
+			}
+		}
+	}
+	
+	@Test
+	public void nullKeyValueIsRejected() throws SQLException {
+		KeysetQuery keyset = new KeysetQuery(new String[]{"name", "id"});
+		CachedRowSet rs = row(7L, null);
+		rs.next();
+		try {
+			keyset.token(rs);
+			fail();
+		} catch (IllegalStateException e) {
+			assertEquals("Keyset column 'name' is null, keyset columns must be NOT NULL", e.getMessage());
+		}
+		try {
+			KeysetQuery.encode(new Object[]{null});
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Keyset column value must not be null", e.getMessage());
+		}
+		
+		rs = row(7L, "seven");
+		rs.next();
+		assertArrayEquals(new Object[]{"seven", 7L}, KeysetQuery.decode(keyset.token(rs)));
+	}
+	
+	private static CachedRowSet row(long id, String name) throws SQLException {
+		RowSetMetaDataImpl metaData = new RowSetMetaDataImpl();
+		metaData.setColumnCount(2);
+		metaData.setColumnLabel(1, "id");
+		metaData.setColumnName(1, "id");
+		metaData.setColumnType(1, Types.BIGINT);
+		metaData.setColumnLabel(2, "name");
+		metaData.setColumnName(2, "name");
+		metaData.setColumnType(2, Types.VARCHAR);
+		metaData.setNullable(2, RowSetMetaDataImpl.columnNullable);
+		CachedRowSet rs = RowSetProvider.newFactory().createCachedRowSet();
+		rs.setMetaData(metaData);
+		rs.moveToInsertRow();
+		rs.updateLong(1, id);
+		if (name == null) rs.updateNull(2);
+		else rs.updateString(2, name);
+		rs.insertRow();
+		rs.moveToCurrentRow();
+		rs.beforeFirst();
+		return rs;
+	}
+}
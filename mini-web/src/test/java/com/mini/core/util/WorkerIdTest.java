@@ -0,0 +1,147 @@
+package com.mini.core.util;
+
+import com.mini.core.util.WorkerId.Backwards;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import static org.junit.Assert.*;
+
+/**
+ * 使用模拟时钟验证主键唯一性，时钟按读取次数前进并周期性回拨
+ * @author xchao
+ */
+public class WorkerIdTest {
+	private static final long START = 1600000000000L;
+	
+	// 每读取 step 次前进 1 毫秒，每读取 period 次回拨 drift 毫秒
+	private static LongSupplier clock(AtomicLong reads, int step, int period, int drift) {
+		return () -> {
+			long n = reads.incrementAndGet();
+			long millis = START + n / step;
+			return n % period == 0 ? millis - drift : millis;
+		};
+	}
+	
+	@Test
+	public void idsAreUniqueAcrossThreads() throws Exception {
+		for (int blockSize : new int[]{1, 64}) {
+			WorkerId worker = new WorkerId(3, clock(new AtomicLong(), 2000, 7919, 3));
+			worker.setBackwards(Backwards.LOGICAL, 10);
+			worker.setBlockSize(blockSize);
+			List<long[]> results = generate(8, 50000, i -> i % 10 == 0 ? worker.nextIds(7) : new long[]{worker.nextId()});
+			Set<Long> ids = new HashSet<>();
+			for (long[] thread : results) {
+				for (int i = 0; i < thread.length; i++) {
+					assertTrue("duplicate id", ids.add(thread[i]));
+					assertEquals(3, thread[i] & 0xFF);
+					// 不预留序列时每个线程内严格递增
+					if (blockSize == 1 && i > 0) assertTrue(thread[i] > thread[i - 1]);
+				}
+			}
+			assertEquals(8 * 50000 / 10 * 16, ids.size());
+		}
+	}
+	
+	@Test
+	public void exhaustedSequenceWaitsForNextMillisecond() {
+		// 时钟每读取 100000 次才前进，同一毫秒内的序列会用完
+		AtomicLong reads = new AtomicLong();
+		WorkerId worker = new WorkerId(1, clock(reads, 100000, Integer.MAX_VALUE, 0));
+		long[] ids = worker.nextIds(3 * 16384);
+		Set<Long> unique = new HashSet<>();
+		for (int i = 0; i < ids.length; i++) {
+			assertTrue(unique.add(ids[i]));
+			if (i > 0) assertTrue(ids[i] > ids[i - 1]);
+		}
+		assertTrue(WorkerId.millis(ids[ids.length - 1]) >= START + 2);
+	}
+	
+	@Test
+	public void logicalClockKeepsIdsIncreasing() {
+		AtomicLong now = new AtomicLong(START + 100);
+		WorkerId worker = new WorkerId(0, now::get);
+		worker.setBackwards(Backwards.LOGICAL, 5);
+		long last = worker.nextId();
+		now.addAndGet(-2);
+		for (int i = 0; i < 3 * 16384; i++) {
+			long id = worker.nextId();
+			assertTrue(id > last);
+			last = id;
+		}
+		// 序列用完后逻辑时钟前进，但不超过实际时间加允许的回拨范围
+		assertEquals(START + 103, WorkerId.millis(last));
+	}
+	
+	@Test
+	public void backwardsBeyondLimitFails() {
+		AtomicLong now = new AtomicLong(START + 100);
+		WorkerId worker = new WorkerId(0, now::get);
+		worker.setBackwards(Backwards.FAIL, 0);
+		worker.nextId();
+		now.addAndGet(-1);
+		try {
+			worker.nextId();
+			fail();
+		} catch (IllegalStateException e) {
+			assertTrue(e.getMessage().startsWith("Clock moved backwards by 1ms"));
+		}
+	}
+	
+	@Test
+	public void invalidArgumentsAreRejected() {
+		for (long id : new long[]{-1, 256}) {
+			try {
+				new WorkerId(id);
+				fail();
+			} catch (IllegalArgumentException e) {
+				assertEquals("WorkerId must be between 0 and 255", e.getMessage());
+			}
+		}
+		try {
+			new WorkerId(0).nextIds(-1);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("count cannot be less than 0", e.getMessage());
+		}
+		assertEquals(0, new WorkerId(0).nextIds(0).length);
+	}
+	
+	private interface Generator {
+		long[] next(int index);
+	}
+	
+	private static List<long[]> generate(int threads, int calls, Generator generator) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			CyclicBarrier barrier = new CyclicBarrier(threads);
+			List<Future<long[]>> futures = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				futures.add(executor.submit(() -> {
+					barrier.await();
+					long[] ids = new long[calls / 10 * 16];
+					int size = 0;
+					for (int i = 0; i < calls; i++) {
+						for (long id : generator.next(i)) {
+							ids[size++] = id;
+						}
+					}
+					return ids;
+				}));
+			}
+			List<long[]> results = new ArrayList<>();
+			for (Future<long[]> future : futures) {
+				results.add(future.get(60, TimeUnit.SECONDS));
+			}
+			return results;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+}
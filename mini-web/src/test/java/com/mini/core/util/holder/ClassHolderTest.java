@@ -0,0 +1,313 @@
+package com.mini.core.util.holder;
+
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * 多线程同时获取属性信息、读写属性和创建实例
+ * @author xchao
+ */
+public class ClassHolderTest {
+	private static final Class<?>[] TYPES = {User.class, Order.class, ReadOnly.class, Failing.class, NoDefault.class,
+			ArrayList.class, HashMap.class, Date.class, StringBuilder.class, Thread.class};
+	private static final int THREADS = 8;
+	
+	@Test
+	public void concurrentCreateReturnsOneHolderPerType() throws Exception {
+		List<Map<Class<?>, ClassHolder<?>>> results = run(() -> {
+			Map<Class<?>, ClassHolder<?>> holders = new HashMap<>();
+			for (int round = 0; round < 1000; round++) {
+				for (Class<?> type : TYPES) {
+					ClassHolder<?> holder = ClassHolder.create(type);
+					assertSame(holders.computeIfAbsent(type, k -> holder), holder);
+				}
+			}
+			return holders;
+		});
+		for (Class<?> type : TYPES) {
+			for (Map<Class<?>, ClassHolder<?>> holders : results) {
+				assertSame(ClassHolder.create(type), holders.get(type));
+			}
+		}
+	}
+	
+	@Test
+	public void concurrentAccessIsIsolatedPerInstance() throws Exception {
+		ClassHolder<User> holder = ClassHolder.create(User.class);
+		FieldHolder<User> id = holder.getField("id");
+		FieldHolder<User> name = holder.getField("name");
+		FieldHolder<User> age = holder.getField("age");
+		run(() -> {
+			for (long i = 0; i < 20000; i++) {
+				User user = holder.createInstance();
+				id.setValue(user, i);
+				name.setValue(user, "user" + i);
+				age.setValue(user, (int) (i % 100));
+				assertEquals(i, id.getValue(user));
+				assertEquals("user" + i, name.getValue(user));
+				assertEquals((int) (i % 100), age.getValue(user));
+				assertEquals(i, user.getId());
+			}
+			return null;
+		});
+	}
+	
+	@Test
+	public void holdersAreImmutable() {
+		ClassHolder<User> holder = ClassHolder.create(User.class);
+		assertEquals(Set.of("id", "name", "age"), holder.getFields().keySet());
+		try {
+			holder.getFields().remove("id");
+			fail();
+		} catch (UnsupportedOperationException expected) {
+			assertTrue(holder.hasField("id"));
+		}
+	}
+	
+	@Test
+	public void accessorsKeepReflectionSemantics() {
+		// 没有 Setter 方法时不设置值
+		FieldHolder<ReadOnly> value = ClassHolder.create(ReadOnly.class).getField("value");
+		ReadOnly readOnly = new ReadOnly();
+		assertFalse(value.hasSetter());
+		value.setValue(readOnly, "changed");
+		assertEquals("value", value.getValue(readOnly));
+		
+		// Setter 方法的异常直接抛出，不包装
+		FieldHolder<Failing> failing = ClassHolder.create(Failing.class).getField("value");
+		try {
+			failing.setValue(new Failing(), "x");
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("x", e.getMessage());
+		}
+		
+		// 没有无参构造方法时抛出与反射调用相同的异常
+		try {
+			ClassHolder.create(NoDefault.class).createInstance();
+			fail();
+		} catch (Exception e) {
+			assertTrue(e instanceof NoSuchMethodException);
+		}
+	}
+	
+	@Test
+	public void primitivesAreOnlyWidened() {
+		ClassHolder<User> holder = ClassHolder.create(User.class);
+		User user = new User();
+		holder.getField("id").setValue(user, 42);
+		holder.getField("age").setValue(user, (short) 7);
+		assertEquals(42L, user.getId());
+		assertEquals(7, user.getAge());
+		holder.getField("id").setValue(user, 'a');
+		assertEquals(97L, user.getId());
+		
+		ClassHolder<Boxed> boxed = ClassHolder.create(Boxed.class);
+		Boxed value = new Boxed();
+		boxed.getField("rate").setValue(value, 3);
+		assertEquals(3.0, value.getRate(), 0);
+		boxed.getField("id").setValue(value, 42L);
+		assertEquals(Long.valueOf(42), value.getId());
+		
+		// 缩小转换不截断数值，与 Method.invoke 一样抛出异常
+		for (Object narrow : new Object[]{1L << 32, 7L, 1.0, 1.5f}) {
+			try {
+				holder.getField("age").setValue(user, narrow);
+				fail();
+			} catch (IllegalArgumentException expected) {
+				assertEquals(7, user.getAge());
+			}
+		}
+		// 包装类型参数不转换
+		for (Object other : new Object[]{42, java.math.BigInteger.TEN}) {
+			try {
+				boxed.getField("id").setValue(value, other);
+				fail();
+			} catch (IllegalArgumentException expected) {
+				assertEquals(Long.valueOf(42), value.getId());
+			}
+		}
+		
+		// 包装类型可以设置空值
+		boxed.getField("id").setValue(value, null);
+		assertNull(value.getId());
+	}
+	
+	@Test
+	public void conversionsMatchMethodInvoke() throws Exception {
+		Object[] values = {(byte) 1, (short) 2, 'c', 4, 5L, 6.5f, 7.5, java.math.BigInteger.TEN, null, "1", true};
+		ClassHolder<Boxed> boxed = ClassHolder.create(Boxed.class);
+		ClassHolder<User> users = ClassHolder.create(User.class);
+		for (FieldHolder<?> field : List.of(users.getField("id"), users.getField("age"), boxed.getField("rate"),
+				boxed.getField("id"), boxed.getField("count"))) {
+			Class<?> owner = field.getSetter().getDeclaringClass();
+			for (Object value : values) {
+				Object expected = owner.getConstructor().newInstance(), actual = owner.getConstructor().newInstance();
+				String message = field.getName() + " <- " + value;
+				boolean rejected = false;
+				try {
+					field.getSetter().invoke(expected, value);
+				} catch (IllegalArgumentException e) {
+					rejected = true;
+				}
+				try {
+					field.setValue(actual, value);
+					assertFalse(message, rejected);
+					assertEquals(message, field.getGetter().invoke(expected), field.getValue(actual));
+				} catch (IllegalArgumentException e) {
+					assertTrue(message, rejected);
+				}
+			}
+		}
+	}
+	
+	@Test
+	public void primitiveMismatchThrowsIllegalArgument() {
+		FieldHolder<User> id = ClassHolder.create(User.class).getField("id");
+		for (Object value : new Object[]{null, "1", true}) {
+			try {
+				id.setValue(new User(), value);
+				fail();
+			} catch (IllegalArgumentException expected) {
+				// 与 Method.invoke 相同
+			}
+		}
+	}
+	
+	// 所有线程同时开始执行，返回各线程的结果
+	private static <T> List<T> run(Callable<T> task) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			CyclicBarrier barrier = new CyclicBarrier(THREADS);
+			List<Future<T>> futures = new ArrayList<>();
+			for (int i = 0; i < THREADS; i++) {
+				futures.add(executor.submit(() -> {
+					barrier.await();
+					return task.call();
+				}));
+			}
+			List<T> results = new ArrayList<>();
+			for (Future<T> future : futures) {
+				results.add(future.get(60, TimeUnit.SECONDS));
+			}
+			return results;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+	
+	public static class User {
+		private long id;
+		private String name;
+		private int age;
+		
+		public long getId() {
+			return id;
+		}
+		
+		public void setId(long id) {
+			this.id = id;
+		}
+		
+		public String getName() {
+			return name;
+		}
+		
+		public void setName(String name) {
+			this.name = name;
+		}
+		
+		public int getAge() {
+			return age;
+		}
+		
+		public void setAge(int age) {
+			this.age = age;
+		}
+	}
+	
+	public static class Order {
+		private User user;
+		private Date createTime;
+		
+		public User getUser() {
+			return user;
+		}
+		
+		public void setUser(User user) {
+			this.user = user;
+		}
+		
+		public Date getCreateTime() {
+			return createTime;
+		}
+		
+		public void setCreateTime(Date createTime) {
+			this.createTime = createTime;
+		}
+	}
+	
+	public static class Boxed {
+		private Long id;
+		private Integer count;
+		private double rate;
+		
+		public Long getId() {
+			return id;
+		}
+		
+		public void setId(Long id) {
+			this.id = id;
+		}
+		
+		public Integer getCount() {
+			return count;
+		}
+		
+		public void setCount(Integer count) {
+			this.count = count;
+		}
+		
+		public double getRate() {
+			return rate;
+		}
+		
+		public void setRate(double rate) {
+			this.rate = rate;
+		}
+	}
+	
+	public static class ReadOnly {
+		private String value = "value";
+		
+		public String getValue() {
+			return value;
+		}
+	}
+	
+	public static class Failing {
+		public String getValue() {
+			return null;
+		}
+		
+		public void setValue(String value) {
+			throw new IllegalArgumentException(value);
+		}
+	}
+	
+	public static class NoDefault {
+		private final String value;
+		
+		public NoDefault(String value) {
+			this.value = value;
+		}
+		
+		public String getValue() {
+			return value;
+		}
+	}
+}
@@ -0,0 +1,87 @@
+package com.mini.core.util.matcher;
+
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * 前缀树的匹配结果必须与 “先按 URI 原文查找，再逐个调用 match 并用 comparator 取最小值” 一致
+ * @author xchao
+ */
+public class PathMatcherTrieTest {
+	private static final PathMatcher MATCHER = new PathMatcherAnt();
+	private static final String[] PATTERNS = {"", "index", "index.htm", "user/list", "user/{id}", "user/{id}/edit",
+			"user/{id}.json", "user/*", "user/**", "user/*/edit", "user/{id}/{action}", "file/**/*.jpg",
+			"file/**", "a?c/x", "api/v{version}/user", "api/*/user/**", "static/**", "**", "*/list", "{a}/{b}/{c}",
+			"user/list/**", "user/l*t"};
+	private static final String[] SEGMENTS = {"", "user", "list", "1", "22", "edit", "x", "abc", "a.jpg", "file",
+			"api", "v1", "v", "static", "index", "1.json", "index.htm", "lst", "l"};
+	
+	@Test
+	public void fixedPatterns() {
+		Map<String, String> mappings = mappings(PATTERNS);
+		PathMatcherTrie<String> trie = new PathMatcherTrie<>(mappings);
+		for (String uri : List.of("", "index", "user/list", "user/1", "user/1/edit", "user/1.json", "user/1/2",
+				"user/list/edit", "user/lst", "file/a/b/a.jpg", "file/a.jpg", "abc/x", "api/v1/user", "api/v1/user/1",
+				"static", "x/list", "x/y/z", "x/y/z/w", "nothing/at/all/here")) {
+			assertRoute(mappings, trie, uri);
+		}
+	}
+	
+	@Test
+	public void randomPatterns() {
+		Random random = new Random(20201016L);
+		for (int round = 0; round < 200; round++) {
+			List<String> patterns = new ArrayList<>(List.of(PATTERNS));
+			Collections.shuffle(patterns, random);
+			patterns = patterns.subList(0, 1 + random.nextInt(patterns.size()));
+			Map<String, String> mappings = mappings(patterns.toArray(new String[0]));
+			PathMatcherTrie<String> trie = new PathMatcherTrie<>(mappings);
+			for (int i = 0; i < 200; i++) {
+				assertRoute(mappings, trie, randomUri(random));
+			}
+		}
+	}
+	
+	@Test
+	public void noMappings() {
+		assertNull(new PathMatcherTrie<String>(Map.of()).match("user/list"));
+	}
+	
+	// 与原来的查找方式比较匹配的路径和 URI 变量
+	private static void assertRoute(Map<String, String> mappings, PathMatcherTrie<String> trie, String uri) {
+		String expected = Optional.ofNullable(mappings.get(uri)).orElseGet(() -> {
+			return mappings.keySet().stream().filter(k -> MATCHER.match(k, uri))
+					.min(MATCHER.getPatternComparator(uri))
+					.map(mappings::get).orElse(null);
+		});
+		PathMatcherTrie.Result<String> result = trie.match(uri);
+		if (expected == null) {
+			assertNull(uri, result);
+			return;
+		}
+		assertEquals(uri, expected, result.getValue());
+		assertEquals(uri, expected, result.getPattern());
+		assertEquals(uri, MATCHER.extractUriTemplateVariables(expected, uri), result.getVariables());
+	}
+	
+	// 路径映射的值就是路径本身，保持注册顺序
+	private static Map<String, String> mappings(String[] patterns) {
+		Map<String, String> mappings = new LinkedHashMap<>();
+		for (String pattern : patterns) {
+			mappings.put(pattern, pattern);
+		}
+		return mappings;
+	}
+	
+	private static String randomUri(Random random) {
+		StringJoiner joiner = new StringJoiner("/");
+		for (int i = 0, count = random.nextInt(5); i < count; i++) {
+			joiner.add(SEGMENTS[random.nextInt(SEGMENTS.length)]);
+		}
+		return joiner.toString();
+	}
+}
@@ -0,0 +1,132 @@
+package com.mini.core.util.reflect;
+
+import com.mini.core.web.annotation.Controller;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import java.io.ByteArrayInputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Collectors;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static org.junit.Assert.*;
+
+/**
+ * 索引只记录了部分类时，索引中没有记录的类仍然通过读取 .class 文件头扫描
+ * @author xchao
+ */
+public class ClassScannerTest {
+	private static final String INDEX = String.join("\n", //
+			"scan.app.Indexed=" + Controller.class.getName(), //
+			"scan.app.Plain=", //
+			"scan.app.Hidden=" + ClassIndex.NON_PUBLIC, //
+			"scan.app.Deleted=" + Controller.class.getName());
+	private final Map<String, byte[]> files = new LinkedHashMap<>();
+	private Path directory;
+	
+	@Before
+	public void setUp() throws Exception {
+		directory = Files.createTempDirectory("scanner");
+		files.put("scan/app/Indexed.class", type("scan.app.Indexed", Opcodes.ACC_PUBLIC, true));
+		files.put("scan/app/Indexed$1.class", type("scan.app.Indexed$1", 0, false));
+		files.put("scan/app/Plain.class", type("scan.app.Plain", Opcodes.ACC_PUBLIC, false));
+		files.put("scan/app/Hidden.class", type("scan.app.Hidden", 0, true));
+		// 生成索引后新增的类
+		files.put("scan/app/Added.class", type("scan.app.Added", Opcodes.ACC_PUBLIC, true));
+		files.put("scan/app/sub/Nested.class", type("scan.app.sub.Nested", Opcodes.ACC_PUBLIC, true));
+		files.put("scan/app/sub/Other.class", type("scan.app.sub.Other", Opcodes.ACC_PUBLIC, false));
+		files.put(ClassIndex.LOCATION, INDEX.getBytes(ISO_8859_1));
+	}
+	
+	@After
+	public void tearDown() throws Exception {
+		try (var paths = Files.walk(directory)) {
+			for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+				Files.delete(path);
+			}
+		}
+	}
+	
+	@Test
+	public void pathUnionsIndexWithWalk() throws Exception {
+		Path root = directory.resolve("classes");
+		for (Map.Entry<String, byte[]> entry : files.entrySet()) {
+			Path path = root.resolve(entry.getKey());
+			Files.createDirectories(path.getParent());
+			Files.write(path, entry.getValue());
+		}
+		try (URLClassLoader loader = new URLClassLoader(new URL[]{root.toUri().toURL()}, getClass().getClassLoader())) {
+			assertEquals(Set.of("scan.app.Indexed", "scan.app.Added", "scan.app.sub.Nested"), //
+					names(new ClassScannerPath(loader).scanner("scan.app", Controller.class)));
+			assertEquals(Set.of("scan.app.Indexed", "scan.app.Plain", "scan.app.Added", //
+					"scan.app.sub.Nested", "scan.app.sub.Other"), names(new ClassScannerPath(loader).scanner("scan.app", null)));
+		}
+	}
+	
+	@Test
+	public void jarUnionsIndexWithWalk() throws Exception {
+		Path jar = directory.resolve("app.jar");
+		try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar))) {
+			for (Map.Entry<String, byte[]> entry : files.entrySet()) {
+				out.putNextEntry(new JarEntry(entry.getKey()));
+				out.write(entry.getValue());
+				out.closeEntry();
+			}
+			// Jar 包中的目录条目，getResources 查找包时需要
+			directory(out, "scan/app/");
+			directory(out, "scan/app/sub/");
+		}
+		try (URLClassLoader loader = new URLClassLoader(new URL[]{jar.toUri().toURL()}, getClass().getClassLoader())) {
+			assertEquals(Set.of("scan.app.Indexed", "scan.app.Added", "scan.app.sub.Nested"), //
+					names(new ClassScannerJar(loader).scanner("scan.app", Controller.class)));
+			assertEquals(Set.of("scan.app.sub.Nested"), names(new ClassScannerJar(loader).scanner("scan.app.sub", Controller.class)));
+		}
+	}
+	
+	@Test
+	public void indexCoversAnonymousClasses() throws Exception {
+		ClassIndex index = ClassIndex.read(new ByteArrayInputStream(INDEX.getBytes(ISO_8859_1)));
+		assertTrue(index.contains("scan.app.Indexed"));
+		assertTrue(index.contains("scan.app.Indexed$1"));
+		assertTrue(index.contains("scan.app.Indexed$2Local"));
+		assertFalse(index.contains("scan.app.Indexed$Inner"));
+		assertFalse(index.contains("scan.app.Added"));
+		
+		assertTrue(index.matches("scan.app.Indexed", Controller.class));
+		assertTrue(index.matches("scan.app.Plain", null));
+		assertFalse(index.matches("scan.app.Plain", Controller.class));
+		assertFalse(index.matches("scan.app.Hidden", null));
+		assertFalse(index.matches("scan.app.Indexed$1", null));
+		assertFalse(ClassIndex.EMPTY.contains("scan.app.Indexed"));
+	}
+	
+	private static void directory(JarOutputStream out, String name) throws Exception {
+		out.putNextEntry(new JarEntry(name));
+		out.closeEntry();
+	}
+	
+	private static Set<String> names(Set<Class<?>> classes) {
+		return classes.stream().map(Class::getName).collect(Collectors.toSet());
+	}
+	
+	// 生成空类的字节码
+	private static byte[] type(String name, int access, boolean controller) {
+		ClassWriter writer = new ClassWriter(0);
+		writer.visit(Opcodes.V11, access | Opcodes.ACC_SUPER, name.replace('.', '/'), null, "java/lang/Object", null);
+		if (controller) {
+			writer.visitAnnotation(Type.getDescriptor(Controller.class), true).visitEnd();
+		}
+		writer.visitEnd();
+		return writer.toByteArray();
+	}
+}
@@ -0,0 +1,199 @@
+package com.mini.core.validation;
+
+import com.google.inject.Injector;
+import com.mini.core.util.StringUtil;
+import com.mini.core.validation.annotation.*;
+import org.junit.Test;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * 编译后的验证链与逐个读取注解、查找验证器的验证结果和错误信息一致
+ * @author xchao
+ */
+public class ValidationChainTest {
+	private static final long DAY = 24 * 60 * 60 * 1000L;
+	private static final Object[] VALUES = {
+			null, "", " ", "abc", "b2", "a_1", "_a", "Abc", "中文", "中文a", "0", "123", "-5", "12.5", "-0.25", "1e3",
+			"a@b.com", "a@b", "13812345678", "1381234567", "010-12345678", "12345678", "110105194912310021",
+			"11010519491231002X", "110105491231002", "x", "y", "z", "123456789012345678", "12345.678",
+			true, false, 0, 5, -5, 100, 101, 0L, 5L, -5L, 1000L, (short) 3, (short) -3, (byte) 0, (byte) 9,
+			0.0, 2.5, -2.5, 99.99, 3.5f, -0.5f, new BigDecimal("12.34"), new BigDecimal("-0.001"),
+			new BigDecimal("123456789012345678.9"), new BigDecimal("1.234"), BigInteger.valueOf(-7),
+			BigInteger.valueOf(50), new Date(System.currentTimeMillis() - DAY), new Date(System.currentTimeMillis() + DAY),
+			LocalDate.now().minusDays(3), LocalDate.now(), LocalDate.now().plusDays(3),
+			LocalDateTime.now().minusDays(3), LocalDateTime.now().plusDays(3), List.of(), List.of(1, 2, 3),
+			Set.of("a"), new int[0], new int[]{1, 2}, new String[]{"a", "b", "c", "d"}, Map.of(), Map.of("k", "v"),
+			new Object()
+	};
+	private final Map<Class<?>, Object> instances = new HashMap<>();
+	private final Injector injector = (Injector) Proxy.newProxyInstance(getClass().getClassLoader(), //
+			new Class<?>[]{Injector.class}, (proxy, method, args) -> {
+				if (!"getInstance".equals(method.getName()) || !(args[0] instanceof Class)) {
+					throw new UnsupportedOperationException(method.getName());
+				}
+				return instances.computeIfAbsent((Class<?>) args[0], type -> {
+					try {
+						return type.getConstructor().newInstance();
+					} catch (ReflectiveOperationException e) {
+						throw new IllegalStateException(e);
+					}
+				});
+			});
+	
+	@Test
+	public void chainMatchesPerCallValidation() {
+		for (Field field : Form.class.getDeclaredFields()) {
+			if (field.getAnnotations().length == 0) continue;
+			ValidationChain chain = ValidationChain.compile(injector, field.getAnnotations());
+			assertFalse(field.getName(), chain.isEmpty());
+			Set<String> outcomes = new HashSet<>();
+			for (Object value : VALUES) {
+				String expected = outcome(() -> {
+					for (Annotation annotation : field.getAnnotations()) {
+						ValidationUtil.validate(injector, annotation, value);
+					}
+				});
+				String message = field.getName() + " <- " + describe(value);
+				assertEquals(message, expected, outcome(() -> chain.validate(value)));
+				assertEquals(message, expected, outcome(() -> ValidationUtil.validate(injector, field, value)));
+				outcomes.add(expected);
+			}
+			// 每个验证注解都有通过和不通过的数据
+			assertTrue(field.getName() + " " + outcomes, outcomes.contains("OK"));
+			assertTrue(field.getName() + " " + outcomes, outcomes.size() > 1);
+		}
+	}
+	
+	@Test
+	public void patternMatchesStringMatches() throws NoSuchFieldException {
+		// 原来逐次调用 String.matches 的结果
+		for (String name : new String[]{"pattern", "patternOptional"}) {
+			Field field = Form.class.getDeclaredField(name);
+			Pattern pattern = field.getAnnotation(Pattern.class);
+			ValidationChain chain = ValidationChain.compile(injector, field.getAnnotations());
+			for (Object value : VALUES) {
+				if (value != null && !(value instanceof String)) continue;
+				boolean expected = value == null ? !pattern.require() : ((String) value).matches(pattern.regex());
+				String actual = outcome(() -> chain.validate(value));
+				assertEquals(name + " <- " + describe(value), expected ? "OK" : //
+						"ValidationException:" + pattern.error() + ":pattern:[]", actual);
+			}
+		}
+	}
+	
+	@Test
+	public void compiledRegexMatchesStringMatches() {
+		String[] regexes = {StringUtil.PHONE, StringUtil.ID_CARD, StringUtil.EMAIL, StringUtil.CHINESE,
+				StringUtil.REQUIRE, StringUtil.MOBILE, StringUtil.NUMBER, StringUtil.LETTER, "[a-c]{1,2}\\d?"};
+		for (String regex : regexes) {
+			for (Object value : VALUES) {
+				if (!(value instanceof String)) continue;
+				String string = (String) value;
+				assertEquals(regex + " <- " + string, string.matches(regex), StringUtil.isPattern(string, regex));
+			}
+			assertSame(StringUtil.compile(regex), StringUtil.compile(regex));
+		}
+		for (Object value : VALUES) {
+			if (!(value instanceof String)) continue;
+			String string = (String) value;
+			assertEquals(string, string.matches(StringUtil.EMAIL), StringUtil.isEmail(string));
+			assertEquals(string, string.matches(StringUtil.PHONE), StringUtil.isPhone(string));
+			assertEquals(string, string.matches(StringUtil.MOBILE), StringUtil.isMobile(string));
+			assertEquals(string, string.matches(StringUtil.LETTER), StringUtil.isLetter(string));
+			assertEquals(string, string.matches(StringUtil.NUMBER), StringUtil.isNumber(string));
+			assertEquals(string, string.matches(StringUtil.CHINESE), StringUtil.isChinese(string));
+			assertEquals(string, string.matches(StringUtil.ID_CARD), StringUtil.isIdCard(string));
+			assertEquals(string, string.matches(StringUtil.REQUIRE), StringUtil.isRequire(string));
+		}
+	}
+	
+	@Test
+	public void chainIsCachedPerInjector() throws NoSuchFieldException {
+		Field field = Form.class.getDeclaredField("notNull");
+		ValidationChain chain = ValidationUtil.compile(injector, field);
+		assertTrue(chain.isCompiledBy(injector));
+		assertSame(chain, ValidationUtil.compile(injector, field));
+		
+		ValidationChainTest other = new ValidationChainTest();
+		ValidationChain recompiled = ValidationUtil.compile(other.injector, field);
+		assertNotSame(chain, recompiled);
+		assertTrue(recompiled.isCompiledBy(other.injector));
+		
+		// 没有验证注解时为空的验证链
+		ValidationChain empty = ValidationUtil.compile(injector, Form.class.getDeclaredField("none"));
+		assertTrue(empty.isEmpty());
+		empty.validate(null);
+	}
+	
+	private static String outcome(Runnable runnable) {
+		try {
+			runnable.run();
+			return "OK";
+		} catch (ValidationException e) {
+			assertEquals(0, e.getStackTrace().length);
+			return "ValidationException:" + e.getStatus() + ":" + e.getMessage() + ":" + e.getArgs();
+		} catch (RuntimeException e) {
+			return e.getClass().getName() + ":" + e.getMessage();
+		}
+	}
+	
+	private static String describe(Object value) {
+		if (value == null) return "null";
+		if (value.getClass().isArray()) return value.getClass().getSimpleName();
+		return value.getClass().getSimpleName() + "(" + value + ")";
+	}
+	
+	/**
+	 * 每种验证注解和不同参数的字段
+	 */
+	@SuppressWarnings("unused")
+	private static final class Form {
+		@AssertTrue private Object assertTrue;
+		@AssertFalse(require = false, message = "assertFalse") private Object assertFalse;
+		@Blank private Object blank;
+		@Chinese private Object chinese;
+		@Digits(integer = 3, fraction = 1, message = "digits") private Object digits;
+		@Digits(require = false) private Object digitsDefault;
+		@Email(error = 602, message = "email") private Object email;
+		@Empty private Object empty;
+		@Future private Object future;
+		@Future(present = true, require = false) private Object futurePresent;
+		@IdCard private Object idCard;
+		@Include({"x", "y"}) private Object include;
+		@Length(min = 2, max = 4, message = "length") private Object length;
+		@Letter(require = false) private Object letter;
+		@Max("100") private Object max;
+		@Min(value = "-1", require = false) private Object min;
+		@Mobile private Object mobile;
+		@MobilePhone private Object mobilePhone;
+		@Negative private Object negative;
+		@Negative(zero = true, require = false) private Object negativeZero;
+		@NotBlank(message = "notBlank") private Object notBlank;
+		@NotEmpty private Object notEmpty;
+		@NotNull(error = 603) private Object notNull;
+		@Null private Object isNull;
+		@com.mini.core.validation.annotation.Number private Object number;
+		@Past private Object past;
+		@Past(present = true) private Object pastPresent;
+		@Pattern(regex = "[a-c]{1,2}\\d?", message = "pattern") private Object pattern;
+		@Pattern(regex = "\\d+(\\.\\d+)?", require = false, message = "pattern") private Object patternOptional;
+		@Phone private Object phone;
+		@Positive private Object positive;
+		@Positive(zero = true) private Object positiveZero;
+		@Range(min = "0", max = "100", message = "range") private Object range;
+		@Require private Object require;
+		@Size(min = 1, max = 3) private Object size;
+		@NotNull @Length(max = 3) @Pattern(regex = "\\w+") private Object combined;
+		private Object none;
+	}
+}
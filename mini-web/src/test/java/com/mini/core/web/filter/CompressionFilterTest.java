@@ -0,0 +1,446 @@
+package com.mini.core.web.filter;
+
+import com.mini.core.web.filter.CompressionFilter.Encoding;
+import com.mini.core.web.support.config.Configures;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.servlet.*;
+import javax.servlet.http.HttpServletMapping;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.MappingMatch;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static javax.servlet.http.HttpServletResponse.SC_NOT_MODIFIED;
+import static javax.servlet.http.HttpServletResponse.SC_PARTIAL_CONTENT;
+import static org.junit.Assert.*;
+
+/**
+ * 压缩编码协商、gzip 数据格式和不压缩的响应，使用内存中的请求和响应对象
+ * @author xchao
+ */
+public class CompressionFilterTest {
+	private final CompressionFilter filter = new CompressionFilter();
+	private final Configures configures = new Configures();
+	private AsyncContext asyncContext;
+	private Path directory;
+	
+	@Before
+	public void setUp() throws Exception {
+		Field field = CompressionFilter.class.getDeclaredField("configures");
+		field.setAccessible(true);
+		field.set(filter, configures);
+	}
+	
+	@After
+	public void tearDown() throws IOException {
+		if (directory == null) return;
+		try (var files = Files.list(directory)) {
+			for (Path file : (Iterable<Path>) files::iterator) {
+				Files.delete(file);
+			}
+		}
+		Files.delete(directory);
+	}
+	
+	@Test
+	public void negotiateUsesQualityValues() {
+		assertNull(CompressionFilter.negotiate(null));
+		assertNull(CompressionFilter.negotiate(" "));
+		assertEquals(Encoding.GZIP, CompressionFilter.negotiate("gzip, deflate, br"));
+		assertEquals(Encoding.GZIP, CompressionFilter.negotiate("x-gzip"));
+		assertEquals(Encoding.DEFLATE, CompressionFilter.negotiate("gzip;q=0.5, deflate"));
+		assertEquals(Encoding.DEFLATE, CompressionFilter.negotiate("GZIP; Q=0, Deflate"));
+		// 相同权重时优先使用 gzip
+		assertEquals(Encoding.GZIP, CompressionFilter.negotiate("deflate;q=0.8, gzip;q=0.8"));
+		// 格式错误的权重按不接受处理
+		assertNull(CompressionFilter.negotiate("gzip;q=abc"));
+	}
+	
+	@Test
+	public void negotiateHandlesIdentityAndWildcard() {
+		assertNull(CompressionFilter.negotiate("identity"));
+		assertNull(CompressionFilter.negotiate("identity;q=0"));
+		assertNull(CompressionFilter.negotiate("br, identity;q=0"));
+		assertEquals(Encoding.GZIP, CompressionFilter.negotiate("*"));
+		assertNull(CompressionFilter.negotiate("*;q=0"));
+		// 明确列出的编码优先于 *
+		assertEquals(Encoding.GZIP, CompressionFilter.negotiate("deflate;q=0, *"));
+		assertEquals(Encoding.DEFLATE, CompressionFilter.negotiate("gzip;q=0, *;q=0.5"));
+		assertNull(CompressionFilter.negotiate("gzip;q=0, deflate;q=0, *"));
+	}
+	
+	@Test
+	public void gzipHasHeaderAndTrailer() throws Exception {
+		byte[] data = text(8000);
+		Response response = new Response();
+		filter.doFilter(request("gzip"), response.proxy, (req, res) -> {
+			HttpServletResponse http = (HttpServletResponse) res;
+			http.setContentType("text/html;charset=UTF-8");
+			http.setHeader("ETag", "\"v1\"");
+			// 分多次写入，跨过最小长度时开始压缩
+			ServletOutputStream output = res.getOutputStream();
+			output.write(data, 0, 100);
+			output.write(data[100]);
+			output.write(data, 101, data.length - 101);
+		});
+		assertEquals("gzip", response.headers.get("Content-Encoding"));
+		assertEquals("Accept-Encoding", response.headers.get("Vary"));
+		assertEquals("W/\"v1\"", response.headers.get("ETag"));
+		assertNull(response.headers.get("Content-Length"));
+		
+		byte[] body = response.body.toByteArray();
+		assertTrue(body.length < data.length);
+		assertEquals(0x1f, body[0] & 0xff);
+		assertEquals(0x8b, body[1] & 0xff);
+		assertEquals(8, body[2]);
+		CRC32 crc = new CRC32();
+		crc.update(data);
+		assertEquals((int) crc.getValue(), littleEndian(body, body.length - 8));
+		assertEquals(data.length, littleEndian(body, body.length - 4));
+		assertArrayEquals(data, read(new GZIPInputStream(new ByteArrayInputStream(body))));
+	}
+	
+	@Test
+	public void writerOutputIsCompressedWithDeflate() throws Exception {
+		byte[] data = text(5000);
+		Response response = new Response();
+		filter.doFilter(request("deflate"), response.proxy, (req, res) -> {
+			res.setContentType("application/json");
+			res.getWriter().write(new String(data, UTF_8));
+		});
+		assertEquals("deflate", response.headers.get("Content-Encoding"));
+		byte[] body = response.body.toByteArray();
+		assertArrayEquals(data, read(new InflaterInputStream(new ByteArrayInputStream(body))));
+	}
+	
+	@Test
+	public void smallResponseIsNotCompressed() throws Exception {
+		byte[] data = text(configures.getCompressionMinSize() - 1);
+		Response response = new Response();
+		filter.doFilter(request("gzip"), response.proxy, (req, res) -> {
+			res.setContentType("text/html");
+			res.getOutputStream().write(data);
+		});
+		assertNull(response.headers.get("Content-Encoding"));
+		assertEquals(String.valueOf(data.length), response.headers.get("Content-Length"));
+		assertArrayEquals(data, response.body.toByteArray());
+	}
+	
+	@Test
+	public void declaredLengthBelowMinimumIsNotCompressed() throws Exception {
+		Response response = new Response();
+		filter.doFilter(request("gzip"), response.proxy, (req, res) -> {
+			res.setContentType("text/html");
+			res.setContentLength(10);
+			res.getOutputStream().write(text(10));
+		});
+		assertNull(response.headers.get("Content-Encoding"));
+		assertEquals("10", response.headers.get("Content-Length"));
+		assertEquals(10, response.body.size());
+	}
+	
+	@Test
+	public void partialContentIsNotCompressed() throws Exception {
+		byte[] data = text(4096);
+		Response response = new Response();
+		filter.doFilter(request("gzip"), response.proxy, (req, res) -> {
+			HttpServletResponse http = (HttpServletResponse) res;
+			http.setContentType("text/plain");
+			http.setStatus(SC_PARTIAL_CONTENT);
+			http.setHeader("Content-Range", "bytes 0-4095/10000");
+			http.setContentLengthLong(data.length);
+			http.getOutputStream().write(data);
+		});
+		assertNull(response.headers.get("Content-Encoding"));
+		assertEquals(String.valueOf(data.length), response.headers.get("Content-Length"));
+		assertArrayEquals(data, response.body.toByteArray());
+		
+		// 只有 Content-Range 头时同样不压缩
+		Response range = new Response();
+		filter.doFilter(request("gzip"), range.proxy, (req, res) -> {
+			((HttpServletResponse) res).setHeader("Content-Range", "bytes 0-4095/10000");
+			res.setContentType("text/plain");
+			res.getOutputStream().write(data);
+		});
+		assertNull(range.headers.get("Content-Encoding"));
+		assertArrayEquals(data, range.body.toByteArray());
+	}
+	
+	@Test
+	public void otherContentTypeIsNotCompressed() throws Exception {
+		byte[] data = text(4096);
+		Response response = new Response();
+		filter.doFilter(request("gzip"), response.proxy, (req, res) -> {
+			res.setContentType("image/png");
+			res.getOutputStream().write(data);
+		});
+		assertNull(response.headers.get("Content-Encoding"));
+		assertArrayEquals(data, response.body.toByteArray());
+	}
+	
+	@Test
+	public void asyncResponseIsFinishedOnComplete() throws Exception {
+		byte[] data = text(8000);
+		List<AsyncListener> listeners = new ArrayList<>();
+		asyncContext = proxy(AsyncContext.class, (p, method, args) -> {
+			if ("addListener".equals(method.getName())) listeners.add((AsyncListener) args[0]);
+			return null;
+		});
+		Response response = new Response();
+		ServletResponse[] async = new ServletResponse[1];
+		filter.doFilter(request("gzip"), response.proxy, (req, res) -> {
+			res.setContentType("text/html");
+			res.getOutputStream().write(data, 0, 4000);
+			async[0] = res;
+		});
+		// 分派线程返回时不完成压缩，异步线程继续输出
+		assertEquals(1, listeners.size());
+		async[0].getOutputStream().write(data, 4000, data.length - 4000);
+		int written = response.body.size();
+		listeners.get(0).onComplete(new AsyncEvent(asyncContext));
+		assertTrue(response.body.size() > written);
+		
+		byte[] body = response.body.toByteArray();
+		assertEquals(data.length, littleEndian(body, body.length - 4));
+		assertArrayEquals(data, read(new GZIPInputStream(new ByteArrayInputStream(body))));
+		// 重复完成不再输出
+		listeners.get(0).onError(new AsyncEvent(asyncContext));
+		assertEquals(body.length, response.body.size());
+	}
+	
+	@Test
+	public void nonBlockingResponseIsNotCompressed() throws Exception {
+		byte[] data = text(4096);
+		WriteListener listener = proxy(WriteListener.class, (p, method, args) -> null);
+		Response response = new Response();
+		filter.doFilter(request("gzip"), response.proxy, (req, res) -> {
+			res.setContentType("text/html");
+			ServletOutputStream output = res.getOutputStream();
+			output.setWriteListener(listener);
+			output.write(data);
+		});
+		assertSame(listener, response.listener);
+		assertNull(response.headers.get("Content-Encoding"));
+		assertArrayEquals(data, response.body.toByteArray());
+		
+		// 已经开始压缩后不能改为非阻塞输出
+		Response compressed = new Response();
+		filter.doFilter(request("gzip"), compressed.proxy, (req, res) -> {
+			res.setContentType("text/html");
+			ServletOutputStream output = res.getOutputStream();
+			output.write(data);
+			try {
+				output.setWriteListener(listener);
+				fail();
+			} catch (IllegalStateException expected) {
+				assertNull(compressed.listener);
+			}
+		});
+		assertEquals("gzip", compressed.headers.get("Content-Encoding"));
+		byte[] body = compressed.body.toByteArray();
+		assertArrayEquals(data, read(new GZIPInputStream(new ByteArrayInputStream(body))));
+	}
+	
+	@Test
+	public void staticGzipFileIsSent() throws Exception {
+		byte[] gzip = staticFiles(0);
+		Response response = new Response();
+		filter.doFilter(request("gzip"), response.proxy, (req, res) -> fail());
+		assertEquals("gzip", response.headers.get("Content-Encoding"));
+		assertEquals("text/css", response.headers.get("Content-Type"));
+		assertEquals(String.valueOf(gzip.length), response.headers.get("Content-Length"));
+		assertNotNull(response.headers.get("Last-Modified"));
+		assertArrayEquals(gzip, response.body.toByteArray());
+		
+		// 未修改时返回 304
+		HttpServletRequest request = request("gzip", "If-Modified-Since", response.headers.get("Last-Modified"));
+		Response cached = new Response();
+		filter.doFilter(request, cached.proxy, (req, res) -> fail());
+		assertEquals(SC_NOT_MODIFIED, cached.status);
+		assertEquals(0, cached.body.size());
+	}
+	
+	@Test
+	public void staleOrRangeStaticGzipIsSkipped() throws Exception {
+		// 压缩文件比原文件旧
+		staticFiles(-10_000);
+		Response stale = new Response();
+		List<String> chained = new ArrayList<>();
+		filter.doFilter(request("gzip"), stale.proxy, (req, res) -> chained.add("stale"));
+		
+		// 范围请求由容器处理原文件
+		Files.setLastModifiedTime(directory.resolve("site.css.gz"), FileTime.fromMillis(System.currentTimeMillis() + 10_000));
+		Response range = new Response();
+		filter.doFilter(request("gzip", "Range", "bytes=0-9"), range.proxy, (req, res) -> chained.add("range"));
+		
+		// 只接受 deflate 时不使用 .gz 文件
+		Response deflate = new Response();
+		filter.doFilter(request("deflate"), deflate.proxy, (req, res) -> chained.add("deflate"));
+		assertEquals(List.of("stale", "range", "deflate"), chained);
+		assertNull(stale.headers.get("Content-Encoding"));
+		assertNull(range.headers.get("Content-Encoding"));
+	}
+	
+	// 生成原文件和压缩文件，压缩文件的修改时间相对原文件偏移指定毫秒数
+	private byte[] staticFiles(long offset) throws IOException {
+		directory = Files.createTempDirectory("compression");
+		byte[] data = text(4096);
+		ByteArrayOutputStream gzip = new ByteArrayOutputStream();
+		try (GZIPOutputStream output = new GZIPOutputStream(gzip)) {
+			output.write(data);
+		}
+		Path file = Files.write(directory.resolve("site.css"), data);
+		Path compressed = Files.write(directory.resolve("site.css.gz"), gzip.toByteArray());
+		long modified = Files.getLastModifiedTime(file).toMillis();
+		Files.setLastModifiedTime(compressed, FileTime.fromMillis(modified + offset));
+		return gzip.toByteArray();
+	}
+	
+	private HttpServletRequest request(String acceptEncoding, String... headers) {
+		Map<String, String> map = new HashMap<>();
+		map.put("Accept-Encoding", acceptEncoding);
+		for (int i = 0; i < headers.length; i += 2) {
+			map.put(headers[i], headers[i + 1]);
+		}
+		ServletContext context = proxy(ServletContext.class, (p, method, args) -> {
+			if ("getRealPath".equals(method.getName())) {
+				return directory == null ? null : directory.resolve(((String) args[0]).substring(1)).toString();
+			}
+			return "getMimeType".equals(method.getName()) ? "text/css" : null;
+		});
+		HttpServletMapping mapping = proxy(HttpServletMapping.class, (p, method, args) -> MappingMatch.DEFAULT);
+		return proxy(HttpServletRequest.class, (p, method, args) -> {
+			switch (method.getName()) {
+				case "getDispatcherType":
+					return DispatcherType.REQUEST;
+				case "getHeader":
+					return map.get((String) args[0]);
+				case "getDateHeader":
+					String value = map.get((String) args[0]);
+					return value == null ? -1L : Long.parseLong(value);
+				case "getMethod":
+					return "GET";
+				case "getServletPath":
+					return "/site.css";
+				case "getHttpServletMapping":
+					return mapping;
+				case "getServletContext":
+					return context;
+				case "isAsyncStarted":
+					return asyncContext != null;
+				case "getAsyncContext":
+					return asyncContext;
+				default:
+					return null;
+			}
+		});
+	}
+	
+	private static byte[] text(int length) {
+		StringBuilder builder = new StringBuilder(length);
+		for (int i = 0; builder.length() < length; i++) {
+			builder.append("<li>item ").append(i).append("</li>\n");
+		}
+		return builder.substring(0, length).getBytes(UTF_8);
+	}
+	
+	private static int littleEndian(byte[] b, int off) {
+		return (b[off] & 0xff) | (b[off + 1] & 0xff) << 8 | (b[off + 2] & 0xff) << 16 | (b[off + 3] & 0xff) << 24;
+	}
+	
+	private static byte[] read(InputStream input) throws IOException {
+		try (input) {
+			return input.readAllBytes();
+		}
+	}
+	
+	@SuppressWarnings("unchecked")
+	private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+		return (T) Proxy.newProxyInstance(CompressionFilterTest.class.getClassLoader(), new Class<?>[]{type}, handler);
+	}
+	
+	/**
+	 * 记录状态、响应头和数据的响应对象
+	 */
+	private static final class Response {
+		private final Map<String, String> headers = new HashMap<>();
+		private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+		private final ServletOutputStream stream = new ServletOutputStream() {
+			@Override
+			public boolean isReady() {
+				return true;
+			}
+			
+			@Override
+			public void setWriteListener(WriteListener writeListener) {
+				listener = writeListener;
+			}
+			
+			@Override
+			public void write(int b) {
+				body.write(b);
+			}
+		};
+		private final HttpServletResponse proxy;
+		private int status = HttpServletResponse.SC_OK;
+		private WriteListener listener;
+		
+		private Response() {
+			proxy = proxy(HttpServletResponse.class, (p, method, args) -> {
+				switch (method.getName()) {
+					case "getOutputStream":
+						return stream;
+					case "getStatus":
+						return status;
+					case "setStatus":
+						status = (int) args[0];
+						return null;
+					case "setContentType":
+						headers.put("Content-Type", (String) args[0]);
+						return null;
+					case "getContentType":
+						return headers.get("Content-Type");
+					case "setContentLength":
+					case "setContentLengthLong":
+						headers.put("Content-Length", String.valueOf(args[0]));
+						return null;
+					case "setDateHeader":
+						headers.put((String) args[0], String.valueOf(args[1]));
+						return null;
+					case "setHeader":
+					case "addHeader":
+						headers.put((String) args[0], (String) args[1]);
+						return null;
+					case "getHeader":
+						return headers.get((String) args[0]);
+					case "containsHeader":
+						return headers.containsKey((String) args[0]);
+					case "getCharacterEncoding":
+						return UTF_8.name();
+					case "isCommitted":
+						return false;
+					default:
+						return null;
+				}
+			});
+		}
+	}
+}
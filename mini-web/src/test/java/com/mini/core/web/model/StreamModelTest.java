@@ -0,0 +1,303 @@
+package com.mini.core.web.model;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static org.junit.Assert.*;
+
+/**
+ * 文件数据的完整输出、范围输出、多范围输出和 If-Range 条件，使用内存中的请求和响应对象
+ * @author xchao
+ */
+public class StreamModelTest {
+	private static final int SIZE = 100_000;
+	private byte[] data;
+	private Path file;
+	
+	@Before
+	public void setUp() throws Exception {
+		data = new byte[SIZE];
+		for (int i = 0; i < SIZE; i++) {
+			data[i] = (byte) (i * 31 + (i >> 8));
+		}
+		file = Files.write(Files.createTempFile("stream", ".bin"), data);
+	}
+	
+	@After
+	public void tearDown() throws Exception {
+		Files.deleteIfExists(file);
+	}
+	
+	@Test
+	public void withoutRangeSendsWholeFile() throws Exception {
+		Response response = submit(model(), request());
+		assertEquals(200, response.status);
+		assertEquals("bytes", response.headers.get("Accept-Ranges"));
+		assertEquals(String.valueOf(SIZE), response.headers.get("Content-Length"));
+		assertArrayEquals(data, response.body.toByteArray());
+	}
+	
+	@Test
+	public void singleRangeSendsPartialContent() throws Exception {
+		Response response = submit(model(), request("Range", "bytes=1000-1999"));
+		assertEquals(206, response.status);
+		assertEquals("bytes 1000-1999/" + SIZE, response.headers.get("Content-Range"));
+		assertEquals("1000", response.headers.get("Content-Length"));
+		assertArrayEquals(Arrays.copyOfRange(data, 1000, 2000), response.body.toByteArray());
+	}
+	
+	@Test
+	public void suffixRangeIsTransferredThroughChannel() throws Exception {
+		// 输出流是通道时直接从文件传输
+		Response response = new Response(true);
+		model().onSubmit(request("Range", "bytes=-70000"), response.proxy);
+		assertEquals(206, response.status);
+		assertEquals("bytes 30000-99999/" + SIZE, response.headers.get("Content-Range"));
+		assertArrayEquals(Arrays.copyOfRange(data, 30000, SIZE), response.body.toByteArray());
+	}
+	
+	@Test
+	public void multipleRangesMatchContentLength() throws Exception {
+		Response response = submit(model(), request("Range", "bytes=0-9, 90000-, 5000-5099"));
+		assertEquals(206, response.status);
+		assertEquals("multipart/byteranges; boundary=MULTIPART_BOUNDARY", response.headers.get("Content-Type"));
+		byte[] body = response.body.toByteArray();
+		assertEquals(String.valueOf(body.length), response.headers.get("Content-Length"));
+		
+		// 按开始位置排序，每片数据使用 CRLF 分隔的头部
+		String text = new String(body, ISO_8859_1);
+		int first = text.indexOf("Content-Range: bytes 0-9/" + SIZE + "\r\n\r\n");
+		int second = text.indexOf("Content-Range: bytes 5000-5099/" + SIZE + "\r\n\r\n");
+		int third = text.indexOf("Content-Range: bytes 90000-99999/" + SIZE + "\r\n\r\n");
+		assertTrue(first > 0 && first < second && second < third);
+		assertTrue(text.startsWith("\r\n--MULTIPART_BOUNDARY\r\nContent-Type: application/octet-stream\r\n"));
+		assertTrue(text.endsWith("\r\n--MULTIPART_BOUNDARY--\r\n"));
+		int start = text.indexOf("\r\n\r\n", second) + 4;
+		assertArrayEquals(Arrays.copyOfRange(data, 5000, 5100), Arrays.copyOfRange(body, start, start + 100));
+	}
+	
+	@Test
+	public void unsatisfiableRangeSends416() throws Exception {
+		Response response = submit(model(), request("Range", "bytes=200000-"));
+		assertEquals(416, response.status);
+		assertEquals("bytes */" + SIZE, response.headers.get("Content-Range"));
+		assertEquals(0, response.body.size());
+	}
+	
+	@Test
+	public void invalidOrTooManyRangesSendWholeFile() throws Exception {
+		assertEquals(200, submit(model(), request("Range", "bytes=9-1")).status);
+		StringBuilder ranges = new StringBuilder("bytes=0-0");
+		for (int i = 1; i <= 64; i++) {
+			ranges.append(',').append(i * 1000).append('-').append(i * 1000);
+		}
+		Response response = submit(model(), request("Range", ranges.toString()));
+		assertEquals(200, response.status);
+		assertEquals(SIZE, response.body.size());
+	}
+	
+	@Test
+	public void ifRangeMismatchSendsWholeFile() throws Exception {
+		StreamModel model = model().setETag("\"v2\"");
+		Response stale = submit(model, request("Range", "bytes=0-9", "If-Range", "\"v1\""));
+		assertEquals(200, stale.status);
+		assertNull(stale.headers.get("Content-Range"));
+		assertArrayEquals(data, stale.body.toByteArray());
+		
+		// 弱标签不能用于范围请求
+		assertEquals(200, submit(model, request("Range", "bytes=0-9", "If-Range", "W/\"v2\"")).status);
+		// 修改时间不一致
+		long modified = model.getLastModified() - 5000;
+		assertEquals(200, submit(model, request("Range", "bytes=0-9", "If-Range", String.valueOf(modified))).status);
+	}
+	
+	@Test
+	public void ifRangeMatchSendsPartialContent() throws Exception {
+		StreamModel model = model().setETag("\"v2\"");
+		Response tag = submit(model, request("Range", "bytes=0-9", "If-Range", "\"v2\""));
+		assertEquals(206, tag.status);
+		assertEquals(10, tag.body.size());
+		
+		String date = String.valueOf(model.getLastModified());
+		Response modified = submit(model, request("Range", "bytes=0-9", "If-Range", date));
+		assertEquals(206, modified.status);
+	}
+	
+	@Test
+	public void tomcatSendfileIsUsedForFiles() throws Exception {
+		Map<String, Object> attributes = new HashMap<>();
+		attributes.put("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+		Response response = submit(model(), request(attributes, "Range", "bytes=100-199"));
+		assertEquals(206, response.status);
+		assertEquals(0, response.body.size());
+		assertEquals(file.toAbsolutePath().toString(), attributes.get("org.apache.tomcat.sendfile.filename"));
+		assertEquals(100L, attributes.get("org.apache.tomcat.sendfile.start"));
+		assertEquals(200L, attributes.get("org.apache.tomcat.sendfile.end"));
+	}
+	
+	@Test
+	public void writeCallbackReceivesRange() throws Exception {
+		StreamModel model = new StreamModel().setContentLength(SIZE).setWriteCallback((out, start, end) ->
+				out.write(data, (int) start, (int) (end - start + 1)));
+		Response response = submit(model, request("Range", "bytes=10-19"));
+		assertEquals(206, response.status);
+		assertArrayEquals(Arrays.copyOfRange(data, 10, 20), response.body.toByteArray());
+	}
+	
+	private StreamModel model() {
+		return new StreamModel().setFile(file);
+	}
+	
+	private static Response submit(StreamModel model, HttpServletRequest request) throws Exception {
+		Response response = new Response(false);
+		model.onSubmit(request, response.proxy);
+		return response;
+	}
+	
+	private static HttpServletRequest request(String... headers) {
+		return request(new HashMap<>(), headers);
+	}
+	
+	private static HttpServletRequest request(Map<String, Object> attributes, String... headers) {
+		Map<String, String> map = new HashMap<>();
+		for (int i = 0; i < headers.length; i += 2) {
+			map.put(headers[i], headers[i + 1]);
+		}
+		return proxy(HttpServletRequest.class, (p, method, args) -> {
+			switch (method.getName()) {
+				case "getHeader":
+					return map.get((String) args[0]);
+				case "getDateHeader":
+					String value = map.get((String) args[0]);
+					if (value == null) return -1L;
+					try {
+						return Long.parseLong(value);
+					} catch (NumberFormatException e) {
+						throw new IllegalArgumentException(value);
+					}
+				case "getAttribute":
+					return attributes.get((String) args[0]);
+				case "setAttribute":
+					attributes.put((String) args[0], args[1]);
+					return null;
+				default:
+					return null;
+			}
+		});
+	}
+	
+	@SuppressWarnings("unchecked")
+	private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+		return (T) Proxy.newProxyInstance(StreamModelTest.class.getClassLoader(), new Class<?>[]{type}, handler);
+	}
+	
+	/**
+	 * 记录状态、响应头和数据的响应对象
+	 */
+	private static final class Response {
+		private final Map<String, String> headers = new HashMap<>();
+		private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+		private final HttpServletResponse proxy;
+		private int status = HttpServletResponse.SC_OK;
+		
+		private Response(boolean channel) {
+			ServletOutputStream stream = channel ? new ChannelStream(body) : new Stream(body);
+			proxy = proxy(HttpServletResponse.class, (p, method, args) -> {
+				switch (method.getName()) {
+					case "getOutputStream":
+						return stream;
+					case "getStatus":
+						return status;
+					case "setStatus":
+					case "sendError":
+						status = (int) args[0];
+						return null;
+					case "setContentType":
+						headers.put("Content-Type", (String) args[0]);
+						return null;
+					case "setContentLength":
+					case "setContentLengthLong":
+						headers.put("Content-Length", String.valueOf(args[0]));
+						return null;
+					case "setDateHeader":
+						headers.put((String) args[0], String.valueOf(args[1]));
+						return null;
+					case "setHeader":
+					case "addHeader":
+						headers.put((String) args[0], (String) args[1]);
+						return null;
+					case "containsHeader":
+						return headers.containsKey((String) args[0]);
+					default:
+						return null;
+				}
+			});
+		}
+	}
+	
+	private static class Stream extends ServletOutputStream {
+		private final ByteArrayOutputStream body;
+		
+		private Stream(ByteArrayOutputStream body) {
+			this.body = body;
+		}
+		
+		@Override
+		public boolean isReady() {
+			return true;
+		}
+		
+		@Override
+		public void setWriteListener(WriteListener listener) {}
+		
+		@Override
+		public void write(int b) {
+			body.write(b);
+		}
+		
+		@Override
+		public void write(byte[] b, int off, int len) {
+			body.write(b, off, len);
+		}
+	}
+	
+	/**
+	 * 同时实现通道的输出流，每次最多接收 8KB 数据
+	 */
+	private static final class ChannelStream extends Stream implements WritableByteChannel {
+		private ChannelStream(ByteArrayOutputStream body) {
+			super(body);
+		}
+		
+		@Override
+		public int write(ByteBuffer src) {
+			int length = Math.min(src.remaining(), 8192);
+			byte[] bytes = new byte[length];
+			src.get(bytes);
+			write(bytes, 0, length);
+			return length;
+		}
+		
+		@Override
+		public boolean isOpen() {
+			return true;
+		}
+	}
+}
@@ -0,0 +1,135 @@
+package com.mini.core.web.support;
+
+import com.mini.core.web.support.ActionSupportProxy.MethodInvoker;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+
+import static org.junit.Assert.*;
+
+/**
+ * 目标方法句柄的参数展开、静态方法和异常传递
+ * @author xchao
+ */
+public class MethodInvokerTest {
+	private final Controller controller = new Controller();
+	
+	@Test
+	public void argumentsAreSpread() throws Throwable {
+		MethodInvoker invoker = invoker("join", String.class, int.class, Long.class);
+		assertEquals("a-1-2", invoker.invoke(controller, new Object[]{"a", 1, 2L}));
+		assertEquals("b-3-null", invoker.invoke(controller, new Object[]{"b", 3, null}));
+		assertEquals("none", invoker("none").invoke(controller, new Object[0]));
+	}
+	
+	@Test
+	public void primitiveResultIsBoxedAndVoidReturnsNull() throws Throwable {
+		assertEquals(7, invoker("sum", int.class, int.class).invoke(controller, new Object[]{3, 4}));
+		assertNull(invoker("touch").invoke(controller, new Object[0]));
+		assertEquals(1, controller.touched);
+	}
+	
+	@Test
+	public void staticMethodIgnoresInstance() throws Throwable {
+		MethodInvoker invoker = invoker("twice", String.class);
+		assertEquals("xx", invoker.invoke(null, new Object[]{"x"}));
+		assertEquals("yy", invoker.invoke(controller, new Object[]{"y"}));
+	}
+	
+	@Test
+	public void privateMethodIsAccessible() throws Throwable {
+		assertEquals("secret", invoker("secret").invoke(controller, new Object[0]));
+	}
+	
+	@Test
+	public void exceptionsPropagateUnwrapped() throws Throwable {
+		// 目标方法的异常原样抛出，不包装为 InvocationTargetException
+		try {
+			invoker("checked").invoke(controller, new Object[0]);
+			fail();
+		} catch (IOException expected) {
+			assertEquals("checked", expected.getMessage());
+		}
+		try {
+			invoker("unchecked", String.class).invoke(controller, new Object[]{"bad"});
+			fail();
+		} catch (IllegalStateException expected) {
+			assertEquals("bad", expected.getMessage());
+		}
+		try {
+			invoker("error").invoke(null, new Object[0]);
+			fail();
+		} catch (AssertionError expected) {
+			assertEquals("error", expected.getMessage());
+		}
+	}
+	
+	@Test
+	public void argumentMismatchIsRejected() throws Throwable {
+		MethodInvoker invoker = invoker("sum", int.class, int.class);
+		try {
+			invoker.invoke(controller, new Object[]{1});
+			fail();
+		} catch (IllegalArgumentException expected) {
+			assertNotNull(expected.getMessage());
+		}
+		try {
+			invoker.invoke(controller, new Object[]{1, "2"});
+			fail();
+		} catch (ClassCastException expected) {
+			assertNotNull(expected.getMessage());
+		}
+		try {
+			invoker.invoke(controller, new Object[]{1, null});
+			fail();
+		} catch (NullPointerException expected) {
+			assertEquals(0, controller.touched);
+		}
+	}
+	
+	private static MethodInvoker invoker(String name, Class<?>... types) throws NoSuchMethodException {
+		Method method = Controller.class.getDeclaredMethod(name, types);
+		return new MethodInvoker(method);
+	}
+	
+	public static class Controller {
+		private int touched;
+		
+		public String join(String a, int b, Long c) {
+			return a + "-" + b + "-" + c;
+		}
+		
+		public String none() {
+			return "none";
+		}
+		
+		public int sum(int a, int b) {
+			return a + b;
+		}
+		
+		public void touch() {
+			touched++;
+		}
+		
+		public static String twice(String value) {
+			return value + value;
+		}
+		
+		private String secret() {
+			return "secret";
+		}
+		
+		public void checked() throws IOException {
+			throw new IOException("checked");
+		}
+		
+		public void unchecked(String message) {
+			throw new IllegalStateException(message);
+		}
+		
+		public static void error() {
+			throw new AssertionError("error");
+		}
+	}
+}
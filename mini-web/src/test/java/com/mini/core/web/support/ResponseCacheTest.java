@@ -0,0 +1,138 @@
+package com.mini.core.web.support;
+
+import com.mini.core.web.annotation.ActionCache;
+import com.mini.core.web.support.config.Configures;
+import org.junit.Test;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.*;
+
+/**
+ * 响应缓存的读取和保存，使用内存中的请求和响应对象
+ * @author xchao
+ */
+public class ResponseCacheTest {
+	private final ResponseCache cache = new ResponseCache(new Configures());
+	
+	@Test
+	public void completedResponseIsServedFromCache() throws Exception {
+		Response first = new Response();
+		ResponseCache.Loader loader = cache.load(annotation(), request(), first.proxy);
+		assertNotNull(loader);
+		loader.getResponse().setContentType("application/json");
+		loader.getResponse().getOutputStream().write("{\"error\":0}".getBytes(UTF_8));
+		loader.complete(true);
+		// 重复调用时忽略
+		loader.complete(false);
+		assertEquals(1, cache.size());
+		
+		Response second = new Response();
+		assertNull(cache.load(annotation(), request(), second.proxy));
+		assertEquals("{\"error\":0}", second.body.toString(UTF_8));
+		assertEquals("application/json", second.headers.get("Content-Type"));
+		assertNotNull(second.headers.get("ETag"));
+	}
+	
+	@Test
+	public void failedResponseIsNotCached() throws Exception {
+		ResponseCache.Loader loader = cache.load(annotation(), request(), new Response().proxy);
+		assertNotNull(loader);
+		loader.getResponse().getOutputStream().write("{\"error\":500}".getBytes(UTF_8));
+		loader.complete(false);
+		assertEquals(0, cache.size());
+		// 生成结束后不再等待，下一个请求重新生成数据
+		ResponseCache.Loader next = cache.load(annotation(), request(), new Response().proxy);
+		assertNotNull(next);
+		next.complete(false);
+	}
+	
+	@Test
+	public void invalidatedTagIsReloaded() throws Exception {
+		ResponseCache.Loader loader = cache.load(annotation(), request(), new Response().proxy);
+		assertNotNull(loader);
+		loader.getResponse().getOutputStream().write('1');
+		loader.complete(true);
+		cache.invalidate("user");
+		ResponseCache.Loader next = cache.load(annotation(), request(), new Response().proxy);
+		assertNotNull(next);
+		next.complete(false);
+	}
+	
+	@ActionCache(ttl = 60, tags = "user")
+	private static void cached() {}
+	
+	private static ActionCache annotation() throws NoSuchMethodException {
+		return ResponseCacheTest.class.getDeclaredMethod("cached").getAnnotation(ActionCache.class);
+	}
+	
+	private static HttpServletRequest request() {
+		return (HttpServletRequest) Proxy.newProxyInstance(ResponseCacheTest.class.getClassLoader(),
+				new Class<?>[]{HttpServletRequest.class}, (proxy, method, args) -> {
+					if ("getRequestURI".equals(method.getName())) {
+						return "/user/list.htm";
+					}
+					return null;
+				});
+	}
+	
+	/**
+	 * 记录状态、响应头和数据的响应对象
+	 */
+	private static final class Response {
+		private final Map<String, String> headers = new HashMap<>();
+		private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+		private final ServletOutputStream stream = new ServletOutputStream() {
+			@Override
+			public boolean isReady() {
+				return true;
+			}
+			
+			@Override
+			public void setWriteListener(WriteListener listener) {}
+			
+			@Override
+			public void write(int b) {
+				body.write(b);
+			}
+		};
+		private final HttpServletResponse proxy;
+		private int status = HttpServletResponse.SC_OK;
+		
+		private Response() {
+			proxy = (HttpServletResponse) Proxy.newProxyInstance(ResponseCacheTest.class.getClassLoader(),
+					new Class<?>[]{HttpServletResponse.class}, (p, method, args) -> {
+						switch (method.getName()) {
+							case "getOutputStream":
+								return stream;
+							case "getStatus":
+								return status;
+							case "setStatus":
+								status = (int) args[0];
+								return null;
+							case "setContentType":
+								headers.put("Content-Type", (String) args[0]);
+								return null;
+							case "getContentType":
+								return headers.get("Content-Type");
+							case "setHeader":
+							case "addHeader":
+								headers.put((String) args[0], (String) args[1]);
+								return null;
+							case "getCharacterEncoding":
+								return UTF_8.name();
+							default:
+								return null;
+						}
+					});
+		}
+	}
+}
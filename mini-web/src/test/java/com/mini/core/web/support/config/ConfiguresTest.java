@@ -0,0 +1,85 @@
+package com.mini.core.web.support.config;
+
+import com.mini.core.web.annotation.Action;
+import com.mini.core.web.support.ActionSupportProxy;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+
+import static com.mini.core.web.annotation.Action.Method.GET;
+import static com.mini.core.web.annotation.Action.Method.POST;
+import static org.junit.Assert.*;
+
+/**
+ * 请求映射的注册与查找
+ * @author xchao
+ */
+public class ConfiguresTest {
+	
+	@Test
+	public void registrationMergesByUri() throws ReflectiveOperationException {
+		Configures configures = new Configures();
+		ActionSupportProxy byId = proxy("byId", GET);
+		ActionSupportProxy listGet = proxy("listGet", GET);
+		ActionSupportProxy listPost = proxy("listPost", POST);
+		// 先注册的模式路径不能影响后注册的 URI
+		configures.addActionProxy("/user/{id}", byId);
+		configures.addActionProxy("/user/list", listGet);
+		configures.addActionProxy("user/list", listPost);
+		assertNull(trie(configures));
+		
+		Map<Action.Method, ActionSupportProxy> list = configures.getActionProxy("/user/list");
+		assertSame(listGet, list.get(GET));
+		assertSame(listPost, list.get(POST));
+		assertSame(byId, configures.getActionProxy("/user/1").get(GET));
+		assertNull(configures.getActionProxy("/user/1").get(POST));
+		assertEquals("1", configures.getActionRoute("/user/1").getVariables().get("id"));
+		assertNull(configures.getActionProxy("/role/1"));
+		assertNotNull(trie(configures));
+	}
+	
+	@Test
+	public void addingMappingRebuildsTrie() {
+		Configures configures = new Configures();
+		configures.addActionProxy("/user/{id}", proxy("byId", GET));
+		assertNull(configures.getActionProxy("/user/list").get(POST));
+		configures.addActionProxy("/user/list", proxy("listPost", POST));
+		assertNotNull(configures.getActionProxy("/user/list").get(POST));
+	}
+	
+	@Test(expected = RuntimeException.class)
+	public void duplicateMethodIsRejected() {
+		Configures configures = new Configures();
+		configures.addActionProxy("/user/list", proxy("first", GET));
+		configures.addActionProxy("user/list", proxy("second", GET));
+	}
+	
+	private static Object trie(Configures configures) throws ReflectiveOperationException {
+		Field field = Configures.class.getDeclaredField("mappingTrie");
+		field.setAccessible(true);
+		return field.get(configures);
+	}
+	
+	// 只实现注册时使用的方法
+	private static ActionSupportProxy proxy(String name, Action.Method... methods) {
+		return (ActionSupportProxy) Proxy.newProxyInstance(ConfiguresTest.class.getClassLoader(),
+				new Class<?>[]{ActionSupportProxy.class}, (proxy, method, args) -> {
+					switch (method.getName()) {
+						case "getSupportMethod":
+							return methods;
+						case "getMethod":
+							return Object.class.getMethod("toString");
+						case "toString":
+							return name;
+						case "hashCode":
+							return System.identityHashCode(proxy);
+						case "equals":
+							return proxy == args[0];
+						default:
+							throw new UnsupportedOperationException(method.getName());
+					}
+				});
+	}
+}
@@ -0,0 +1,206 @@
+package com.mini.core.web.util;
+
+import org.junit.Test;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static javax.servlet.http.HttpServletResponse.SC_NOT_MODIFIED;
+import static javax.servlet.http.HttpServletResponse.SC_OK;
+import static org.junit.Assert.*;
+
+/**
+ * If-None-Match 的比较、强 ETag 的生成和缓存数据后计算 ETag 的响应
+ * @author xchao
+ */
+public class ETagResponseTest {
+	private static final byte[] BODY = "{\"error\":0,\"data\":[1,2,3]}".getBytes(UTF_8);
+	
+	@Test
+	public void matchesUsesWeakComparison() {
+		assertTrue(ETagResponse.matches("\"abc\"", "\"abc\""));
+		assertTrue(ETagResponse.matches("W/\"abc\"", "\"abc\""));
+		assertTrue(ETagResponse.matches("\"abc\"", "W/\"abc\""));
+		assertTrue(ETagResponse.matches("W/\"abc\"", "W/\"abc\""));
+		assertFalse(ETagResponse.matches("\"abd\"", "\"abc\""));
+		// 引号是 ETag 的一部分
+		assertFalse(ETagResponse.matches("abc", "\"abc\""));
+	}
+	
+	@Test
+	public void matchesListsWildcardAndWhitespace() {
+		assertFalse(ETagResponse.matches(null, "\"abc\""));
+		assertFalse(ETagResponse.matches(" ", "\"abc\""));
+		assertTrue(ETagResponse.matches("\"x\", W/\"abc\"", "\"abc\""));
+		assertTrue(ETagResponse.matches("  \"x\" ,\t\"abc\"  ", "W/\"abc\""));
+		assertFalse(ETagResponse.matches("\"x\", \"y\"", "\"abc\""));
+		assertTrue(ETagResponse.matches("*", "\"abc\""));
+		assertTrue(ETagResponse.matches(" * ", "W/\"abc\""));
+	}
+	
+	@Test
+	public void strongIsQuotedAndStable() {
+		String tag = ETagResponse.strong("user:1:v3");
+		assertTrue(tag.startsWith("\""));
+		assertTrue(tag.endsWith("\""));
+		assertFalse(tag.startsWith("W/"));
+		assertEquals(tag.length() - 1, tag.indexOf('"', 1));
+		assertEquals(tag, ETagResponse.strong("user:1:v3"));
+		assertNotEquals(tag, ETagResponse.strong("user:1:v4"));
+		assertTrue(ETagResponse.matches(tag, tag));
+	}
+	
+	@Test
+	public void finishSendsBodyWithETag() throws Exception {
+		Response response = new Response();
+		ETagResponse wrapper = new ETagResponse(response.proxy);
+		wrapper.getOutputStream().write(BODY);
+		// 完成前不输出数据
+		assertEquals(0, response.body.size());
+		wrapper.finish(request(null));
+		assertEquals(SC_OK, response.status);
+		String eTag = response.headers.get("ETag");
+		assertNotNull(eTag);
+		assertTrue(eTag.startsWith("W/\""));
+		assertEquals(String.valueOf(BODY.length), response.headers.get("Content-Length"));
+		assertArrayEquals(BODY, response.body.toByteArray());
+		
+		// 相同数据生成相同的 ETag
+		Response other = new Response();
+		ETagResponse writer = new ETagResponse(other.proxy);
+		writer.getWriter().write(new String(BODY, UTF_8));
+		writer.finish(request("\"other\""));
+		assertEquals(eTag, other.headers.get("ETag"));
+		assertEquals(SC_OK, other.status);
+		assertArrayEquals(BODY, other.body.toByteArray());
+	}
+	
+	@Test
+	public void finishSendsNotModifiedWithoutBody() throws Exception {
+		Response first = new Response();
+		ETagResponse wrapper = new ETagResponse(first.proxy);
+		wrapper.getOutputStream().write(BODY);
+		wrapper.finish(request(null));
+		String eTag = first.headers.get("ETag");
+		
+		for (String ifNoneMatch : new String[]{eTag, eTag.substring(2), "\"x\", " + eTag, "*"}) {
+			Response response = new Response();
+			ETagResponse second = new ETagResponse(response.proxy);
+			second.getOutputStream().write(BODY);
+			second.finish(request(ifNoneMatch));
+			assertEquals(ifNoneMatch, SC_NOT_MODIFIED, response.status);
+			assertEquals(eTag, response.headers.get("ETag"));
+			assertNull(response.headers.get("Content-Length"));
+			assertEquals(0, response.body.size());
+		}
+	}
+	
+	@Test
+	public void otherStatusOrExistingETagIsNotReplaced() throws Exception {
+		Response error = new Response();
+		ETagResponse wrapper = new ETagResponse(error.proxy);
+		wrapper.setStatus(500);
+		wrapper.getOutputStream().write(BODY);
+		wrapper.finish(request("*"));
+		assertEquals(500, error.status);
+		assertNull(error.headers.get("ETag"));
+		assertArrayEquals(BODY, error.body.toByteArray());
+		
+		Response tagged = new Response();
+		ETagResponse second = new ETagResponse(tagged.proxy);
+		second.setHeader("ETag", "\"v1\"");
+		second.getOutputStream().write(BODY);
+		second.finish(request("*"));
+		assertEquals(SC_OK, tagged.status);
+		assertEquals("\"v1\"", tagged.headers.get("ETag"));
+		assertArrayEquals(BODY, tagged.body.toByteArray());
+	}
+	
+	@Test
+	public void largeBodyIsWrittenWithoutETag() throws Exception {
+		Response response = new Response();
+		ETagResponse wrapper = new ETagResponse(response.proxy);
+		byte[] chunk = new byte[64 * 1024];
+		for (int i = 0; i < 5; i++) {
+			wrapper.getOutputStream().write(chunk);
+		}
+		// 超过缓存上限后直接输出
+		assertTrue(response.body.size() > 0);
+		wrapper.finish(request("*"));
+		assertEquals(SC_OK, response.status);
+		assertNull(response.headers.get("ETag"));
+		assertEquals(5 * chunk.length, response.body.size());
+	}
+	
+	private static HttpServletRequest request(String ifNoneMatch) {
+		return proxy(HttpServletRequest.class, (p, method, args) ->
+				"getHeader".equals(method.getName()) && "If-None-Match".equals(args[0]) ? ifNoneMatch : null);
+	}
+	
+	@SuppressWarnings("unchecked")
+	private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+		return (T) Proxy.newProxyInstance(ETagResponseTest.class.getClassLoader(), new Class<?>[]{type}, handler);
+	}
+	
+	/**
+	 * 记录状态、响应头和数据的响应对象
+	 */
+	private static final class Response {
+		private final Map<String, String> headers = new HashMap<>();
+		private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+		private final ServletOutputStream stream = new ServletOutputStream() {
+			@Override
+			public boolean isReady() {
+				return true;
+			}
+			
+			@Override
+			public void setWriteListener(WriteListener listener) {}
+			
+			@Override
+			public void write(int b) {
+				body.write(b);
+			}
+		};
+		private final HttpServletResponse proxy;
+		private int status = SC_OK;
+		
+		private Response() {
+			proxy = proxy(HttpServletResponse.class, (p, method, args) -> {
+				switch (method.getName()) {
+					case "getOutputStream":
+						return stream;
+					case "getStatus":
+						return status;
+					case "setStatus":
+						status = (int) args[0];
+						return null;
+					case "setContentLength":
+					case "setContentLengthLong":
+						headers.put("Content-Length", String.valueOf(args[0]));
+						return null;
+					case "setHeader":
+					case "addHeader":
+						headers.put((String) args[0], (String) args[1]);
+						return null;
+					case "containsHeader":
+						return headers.containsKey((String) args[0]);
+					case "getCharacterEncoding":
+						return UTF_8.name();
+					case "isCommitted":
+						return false;
+					default:
+						return null;
+				}
+			});
+		}
+	}
+}